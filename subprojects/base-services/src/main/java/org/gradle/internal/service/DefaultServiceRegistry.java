@@ -18,6 +18,7 @@ package org.gradle.internal.service;
 import org.gradle.api.Action;
 import org.gradle.api.Nullable;
 import org.gradle.api.specs.Spec;
+import org.gradle.internal.Cast;
 import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.Stoppable;
@@ -62,7 +63,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
 
     private static final ConcurrentMap<Class<?>, RelevantMethods> METHODS_CACHE = new ConcurrentHashMap<Class<?>, RelevantMethods>();
     private static final ConcurrentMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>> SERVICE_TYPE_PROVIDER_CACHE = new ConcurrentHashMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>>();
+    // Lookup results are cached once the registry is no longer mutable, including the types it does not provide
     private final Map<Type, ServiceProvider> providerCache = new HashMap<Type, ServiceProvider>();
+    private final Map<Class<?>, ServiceProvider> factoryCache = new HashMap<Class<?>, ServiceProvider>();
+    private final Map<Class<?>, List<?>> allServicesCache = new HashMap<Class<?>, List<?>>();
 
     private final Object lock = new Object();
     private final CompositeProvider allServices = new CompositeProvider();
@@ -363,10 +367,14 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate service of type %s, as %s has been closed.", format(serviceType), displayName));
             }
-            List<T> result = new ArrayList<T>();
-            DefaultLookupContext context = new DefaultLookupContext();
-            allServices.getAll(context, serviceType, result);
-            return result;
+            List<T> result = Cast.uncheckedCast(allServicesCache.get(serviceType));
+            if (result == null) {
+                result = new ArrayList<T>();
+                DefaultLookupContext context = new DefaultLookupContext();
+                allServices.getAll(context, serviceType, result);
+                allServicesCache.put(serviceType, result);
+            }
+            return new ArrayList<T>(result);
         }
     }
 
@@ -380,41 +388,61 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
 
 
     private Object doGet(Type serviceType) throws IllegalArgumentException {
+        Object service = find(serviceType);
+        if (service == null) {
+            throw new UnknownServiceException(serviceType, String.format("No service of type %s available in %s.", format(serviceType), displayName));
+        }
+        return service;
+    }
+
+    /**
+     * Locates the service of the given type, returning null when neither this registry nor its parents provide one.
+     * Used by child registries, so that walking up the hierarchy does not create an exception per registry.
+     */
+    @Nullable
+    private Object find(Type serviceType) {
         synchronized (lock) {
             mutable = false;
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate service of type %s, as %s has been closed.", format(serviceType), displayName));
             }
             ServiceProvider provider = providerCache.get(serviceType);
-            if (provider == null) {
-                provider = getServiceProvider(serviceType);
+            if (provider == null && !providerCache.containsKey(serviceType)) {
+                provider = new DefaultLookupContext().find(serviceType, allServices);
                 providerCache.put(serviceType, provider);
             }
-            return provider.get();
+            return provider == null ? null : provider.get();
         }
     }
 
-    private ServiceProvider getServiceProvider(Type serviceType) {
-        ServiceProvider provider = new DefaultLookupContext().find(serviceType, allServices);
-        if (provider == null) {
-            throw new UnknownServiceException(serviceType, String.format("No service of type %s available in %s.", format(serviceType), displayName));
+    public <T> Factory<T> getFactory(Class<T> type) {
+        Factory<T> factory = findFactory(type);
+        if (factory == null) {
+            throw new UnknownServiceException(type, String.format("No factory for objects of type %s available in %s.", format(type), displayName));
         }
-        return provider;
+        return factory;
     }
 
-    public <T> Factory<T> getFactory(Class<T> type) {
+    @Nullable
+    private <T> Factory<T> findFactory(Class<T> type) {
         synchronized (lock) {
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate factory for objects of type %s, as %s has been closed.", format(type), displayName));
             }
 
-            DefaultLookupContext context = new DefaultLookupContext();
-            ServiceProvider factory = allServices.getFactory(context, type);
-            if (factory != null) {
-                return (Factory<T>) factory.get();
+            ServiceProvider factory = factoryCache.get(type);
+            if (factory == null) {
+                DefaultLookupContext context = new DefaultLookupContext();
+                factory = allServices.getFactory(context, type);
+                if (factory == null) {
+                    return null;
+                }
+                if (!mutable) {
+                    // Only found factories are cached, as getFactory() does not prevent further registrations in this registry or its parents
+                    factoryCache.put(type, factory);
+                }
             }
-
-            throw new UnknownServiceException(type, String.format("No factory for objects of type %s available in %s.", format(type), displayName));
+            return Cast.uncheckedCast(factory.get());
         }
     }
 
@@ -449,11 +477,13 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     private class OwnServices implements Provider {
-        private final List<Provider> providers = new ArrayList<Provider>();
+        private final List<SingletonService> providers = new ArrayList<SingletonService>();
+        // Providers by each of the types their service is assignable to, built on demand and discarded when a provider is added
+        private Map<Class<?>, List<SingletonService>> providersByType;
 
         public ServiceProvider getFactory(LookupContext context, Class<?> type) {
             List<ServiceProvider> candidates = new ArrayList<ServiceProvider>();
-            for (Provider provider : providers) {
+            for (Provider provider : getProviders(Factory.class)) {
                 ServiceProvider factory = provider.getFactory(context, type);
                 if (factory != null) {
                     candidates.add(factory);
@@ -481,8 +511,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         }
 
         public ServiceProvider getService(LookupContext context, TypeSpec serviceType) {
+            Class<?> rawType = toRawType(serviceType.getType());
             List<ServiceProvider> candidates = new ArrayList<ServiceProvider>();
-            for (Provider provider : providers) {
+            for (Provider provider : rawType == null ? providers : getProviders(rawType)) {
                 ServiceProvider service = provider.getService(context, serviceType);
                 if (service != null) {
                     candidates.add(service);
@@ -510,7 +541,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         }
 
         public <T> void getAll(LookupContext context, Class<T> serviceType, List<T> result) {
-            for (Provider provider : providers) {
+            for (Provider provider : getProviders(serviceType)) {
                 provider.getAll(context, serviceType, result);
             }
         }
@@ -519,9 +550,52 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             CompositeStoppable.stoppable(providers).stop();
         }
 
-        public void add(Provider provider) {
+        public void add(SingletonService provider) {
             this.providers.add(provider);
+            providersByType = null;
+        }
+
+        private List<SingletonService> getProviders(Class<?> type) {
+            if (providersByType == null) {
+                providersByType = new HashMap<Class<?>, List<SingletonService>>();
+                for (SingletonService provider : providers) {
+                    Set<Class<?>> types = new LinkedHashSet<Class<?>>();
+                    collectTypes(provider.serviceClass, types);
+                    types.add(Object.class);
+                    for (Class<?> assignableType : types) {
+                        List<SingletonService> providersForType = providersByType.get(assignableType);
+                        if (providersForType == null) {
+                            providersForType = new ArrayList<SingletonService>();
+                            providersByType.put(assignableType, providersForType);
+                        }
+                        providersForType.add(provider);
+                    }
+                }
+            }
+            List<SingletonService> providersForType = providersByType.get(type);
+            return providersForType == null ? Collections.<SingletonService>emptyList() : providersForType;
         }
+
+        private void collectTypes(Class<?> type, Set<Class<?>> types) {
+            if (type == null || !types.add(type)) {
+                return;
+            }
+            collectTypes(type.getSuperclass(), types);
+            for (Class<?> interfaceType : type.getInterfaces()) {
+                collectTypes(interfaceType, types);
+            }
+        }
+    }
+
+    @Nullable
+    private static Class<?> toRawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() instanceof Class) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return null;
     }
 
     private static abstract class ManagedObjectProvider<T> implements Provider {
@@ -932,6 +1006,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         }
 
         public ServiceProvider getFactory(LookupContext context, Class<?> type) {
+            if (parent instanceof DefaultServiceRegistry) {
+                Factory<?> factory = ((DefaultServiceRegistry) parent).findFactory(type);
+                return factory == null ? null : wrap(factory);
+            }
             try {
                 Factory<?> factory = parent.getFactory(type);
                 assert factory != null : String.format("parent returned null for factory type '%s'", type.getName());
@@ -945,6 +1023,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         }
 
         public ServiceProvider getService(LookupContext context, TypeSpec serviceType) {
+            if (parent instanceof DefaultServiceRegistry) {
+                Object service = ((DefaultServiceRegistry) parent).find(serviceType.getType());
+                return service == null ? null : wrap(service);
+            }
             try {
                 Object service = parent.get(serviceType.getType());
                 assert service != null : String.format("parent returned null for service type %s", format(serviceType.getType()));
@@ -1039,6 +1039,72 @@ class DefaultServiceRegistryTest extends Specification {
         thrown IllegalStateException
     }
 
+    def "can add instance after getting a factory"() {
+        def registry = new DefaultServiceRegistry()
+
+        when:
+        registry.addProvider(new TestProvider())
+        registry.getFactory(BigDecimal)
+        registry.add(Long, 12L)
+
+        then:
+        registry.get(Long) == 12L
+    }
+
+    def "caches lookup of service that is not available in parent"() {
+        def parent = Mock(ServiceRegistry)
+        def registry = new TestRegistry(parent)
+
+        when:
+        registry.get(StringBuilder)
+
+        then:
+        thrown(UnknownServiceException)
+        1 * parent.get(StringBuilder) >> { throw new UnknownServiceException(StringBuilder.class, "fail") }
+
+        when:
+        registry.get(StringBuilder)
+
+        then:
+        UnknownServiceException e = thrown()
+        e.message == "No service of type StringBuilder available in TestRegistry."
+        0 * parent._
+    }
+
+    def "locates services and factories through a hierarchy of registries"() {
+        def parent = new DefaultServiceRegistry()
+        parent.addProvider(new TestProvider())
+        def child = new DefaultServiceRegistry(new DefaultServiceRegistry(parent))
+
+        expect:
+        child.get(Integer) == 12
+        child.get(Number) == 12
+        child.get(String) == "12"
+        child.getFactory(BigDecimal).create() == BigDecimal.ZERO
+        child.getAll(Number) == [12]
+
+        when:
+        child.get(StringBuilder)
+
+        then:
+        UnknownServiceException e = thrown()
+        e.message == "No service of type StringBuilder available in DefaultServiceRegistry."
+    }
+
+    def "returns a new list of all services on each call"() {
+        def registry = new DefaultServiceRegistry()
+
+        given:
+        registry.addProvider(new TestProvider())
+        def services = registry.getAll(Number)
+
+        when:
+        services.clear()
+
+        then:
+        registry.getAll(Number) == [12]
+    }
+
     private Factory<Number> numberFactory
     private Factory<String> stringFactory
     private Factory<? super BigDecimal> superBigDecimalFactory
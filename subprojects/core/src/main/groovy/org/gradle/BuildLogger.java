@@ -15,6 +15,8 @@
  */
 package org.gradle;
 
+import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.gradle.api.execution.TaskExecutionGraph;
 import org.gradle.api.execution.TaskExecutionGraphListener;
 import org.gradle.api.initialization.Settings;
@@ -22,11 +24,14 @@ import org.gradle.api.internal.SettingsInternal;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.logging.Logger;
+import org.gradle.api.tasks.TaskContainer;
 import org.gradle.initialization.BuildRequestMetaData;
 import org.gradle.logging.StyledTextOutputFactory;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A {@link org.gradle.BuildListener} which logs the build progress.
@@ -34,6 +39,7 @@ import java.util.List;
 public class BuildLogger implements BuildListener, TaskExecutionGraphListener {
     private final Logger logger;
     private final List<BuildListener> resultLoggers = new ArrayList<BuildListener>();
+    private Project rootProject;
 
     public BuildLogger(Logger logger, StyledTextOutputFactory textOutputFactory, StartParameter startParameter, BuildRequestMetaData requestMetaData) {
         this.logger = logger;
@@ -58,6 +64,7 @@ public class BuildLogger implements BuildListener, TaskExecutionGraphListener {
 
     public void projectsLoaded(Gradle gradle) {
         ProjectInternal projectInternal = (ProjectInternal) gradle.getRootProject();
+        rootProject = projectInternal;
         logger.info(String.format("Projects loaded. Root project using %s.",
                 projectInternal.getBuildScriptSource().getDisplayName()));
         logger.info(String.format("Included projects: %s", projectInternal.getAllprojects()));
@@ -72,8 +79,26 @@ public class BuildLogger implements BuildListener, TaskExecutionGraphListener {
     }
 
     public void buildFinished(BuildResult result) {
+        if (rootProject != null && logger.isInfoEnabled()) {
+            logTaskRealization();
+        }
         for (BuildListener logger : resultLoggers) {
             logger.buildFinished(result);
         }
     }
-}
\ No newline at end of file
+
+    private void logTaskRealization() {
+        int registered = 0;
+        int realized = 0;
+        for (Project project : rootProject.getAllprojects()) {
+            TaskContainer tasks = project.getTasks();
+            Set<String> names = new HashSet<String>(tasks.getNames());
+            for (Task task : tasks) {
+                names.add(task.getName());
+                realized++;
+            }
+            registered += names.size();
+        }
+        logger.info("Tasks realized: {} of {} registered.", realized, registered);
+    }
+}
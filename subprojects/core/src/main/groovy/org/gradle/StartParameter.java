@@ -74,6 +74,9 @@ public class StartParameter extends LoggingConfiguration implements Serializable
     private boolean recompileScripts;
     private boolean parallelProjectExecution;
     private boolean configureOnDemand;
+    private boolean parallelConfiguration;
+    private boolean configurationCache;
+    private boolean concurrentBuildSrc;
     private int maxWorkerCount;
     private boolean continuous;
 
@@ -159,6 +162,9 @@ public class StartParameter extends LoggingConfiguration implements Serializable
         p.refreshDependencies = refreshDependencies;
         p.parallelProjectExecution = parallelProjectExecution;
         p.configureOnDemand = configureOnDemand;
+        p.parallelConfiguration = parallelConfiguration;
+        p.configurationCache = configurationCache;
+        p.concurrentBuildSrc = concurrentBuildSrc;
         p.maxWorkerCount = maxWorkerCount;
         return p;
     }
@@ -677,6 +683,9 @@ public class StartParameter extends LoggingConfiguration implements Serializable
                 + ", refreshDependencies=" + refreshDependencies
                 + ", parallelProjectExecution=" + parallelProjectExecution
                 + ", configureOnDemand=" + configureOnDemand
+                + ", parallelConfiguration=" + parallelConfiguration
+                + ", configurationCache=" + configurationCache
+                + ", concurrentBuildSrc=" + concurrentBuildSrc
                 + ", maxWorkerCount=" + maxWorkerCount
                 + '}';
     }
@@ -693,6 +702,62 @@ public class StartParameter extends LoggingConfiguration implements Serializable
         this.configureOnDemand = configureOnDemand;
     }
 
+    /**
+     * Returns true if decoupled projects are configured concurrently. A project is only configured once its parent has been configured.
+     *
+     * @see #getMaxWorkerCount()
+     */
+    @Incubating
+    public boolean isParallelConfiguration() {
+        return parallelConfiguration;
+    }
+
+    /**
+     * Enables/disables concurrent configuration of decoupled projects.
+     *
+     * @see #isParallelConfiguration()
+     */
+    @Incubating
+    public void setParallelConfiguration(boolean parallelConfiguration) {
+        this.parallelConfiguration = parallelConfiguration;
+    }
+
+    /**
+     * Returns true if the result of a build may be reused without configuring the projects, when nothing that the build depends on has changed.
+     */
+    @Incubating
+    public boolean isConfigurationCache() {
+        return configurationCache;
+    }
+
+    /**
+     * Enables/disables reusing the result of a previous build when nothing that the build depends on has changed.
+     *
+     * @see #isConfigurationCache()
+     */
+    @Incubating
+    public void setConfigurationCache(boolean configurationCache) {
+        this.configurationCache = configurationCache;
+    }
+
+    /**
+     * Returns true if the settings script and the root build script are compiled while buildSrc is being built.
+     */
+    @Incubating
+    public boolean isConcurrentBuildSrc() {
+        return concurrentBuildSrc;
+    }
+
+    /**
+     * Enables/disables compiling the settings script and the root build script while buildSrc is being built.
+     *
+     * @see #isConcurrentBuildSrc()
+     */
+    @Incubating
+    public void setConcurrentBuildSrc(boolean concurrentBuildSrc) {
+        this.concurrentBuildSrc = concurrentBuildSrc;
+    }
+
     @Incubating
     public boolean isContinuous() {
         return continuous;
@@ -35,7 +35,6 @@ import org.gradle.api.plugins.ExtensionContainer;
 import org.gradle.api.specs.AndSpec;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.TaskDependency;
-import org.gradle.api.tasks.TaskInputs;
 import org.gradle.api.tasks.TaskInstantiationException;
 import org.gradle.internal.Factory;
 import org.gradle.internal.reflect.Instantiator;
@@ -424,7 +423,7 @@ public abstract class AbstractTask implements TaskInternal, DynamicObjectAware {
     }
 
     @Inject
-    public TaskInputs getInputs() {
+    public TaskInputsInternal getInputs() {
         // Decoration takes care of the implementation
         throw new UnsupportedOperationException();
     }
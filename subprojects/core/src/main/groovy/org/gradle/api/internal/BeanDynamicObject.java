@@ -15,20 +15,33 @@
  */
 package org.gradle.api.internal;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import groovy.lang.*;
 import groovy.lang.MissingMethodException;
 import org.codehaus.groovy.runtime.InvokerInvocationException;
+import org.codehaus.groovy.runtime.MetaClassHelper;
 import org.gradle.api.internal.coerce.MethodArgumentsTransformer;
 import org.gradle.api.internal.coerce.PropertySetTransformer;
 import org.gradle.api.internal.coerce.StringToEnumTransformer;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A {@link DynamicObject} which uses groovy reflection to provide access to the properties and methods of a bean.
  */
 public class BeanDynamicObject extends AbstractDynamicObject {
 
+    // Resolved property and method lookups, shared by all beans with the same meta-class
+    private static final LoadingCache<MetaClass, MetaClassLookups> LOOKUPS = CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<MetaClass, MetaClassLookups>() {
+        @Override
+        public MetaClassLookups load(MetaClass metaClass) {
+            return new MetaClassLookups();
+        }
+    });
+
     private final Object bean;
     private final boolean includeProperties;
     private final DynamicObject delegate;
@@ -86,6 +99,21 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         }
     }
 
+    private MetaProperty findProperty(MetaClass metaClass, String name) {
+        if (metaClass.getClass() != MetaClassImpl.class) {
+            // Other meta-classes, such as ExpandoMetaClass, may change the properties they provide
+            return metaClass.hasProperty(bean, name);
+        }
+        return LOOKUPS.getUnchecked(metaClass).findProperty(metaClass, name);
+    }
+
+    private boolean respondsTo(MetaClass metaClass, String name, Object... arguments) {
+        if (metaClass.getClass() != MetaClassImpl.class) {
+            return !metaClass.respondsTo(bean, name, arguments).isEmpty();
+        }
+        return LOOKUPS.getUnchecked(metaClass).respondsTo(metaClass, name, arguments);
+    }
+
     @Override
     public boolean isMayImplementMissingMethods() {
         return implementsMissing && delegate.isMayImplementMissingMethods();
@@ -142,7 +170,7 @@ public class BeanDynamicObject extends AbstractDynamicObject {
     private class MetaClassAdapter implements DynamicObject {
 
         public boolean hasProperty(String name) {
-            return includeProperties && getMetaClass().hasProperty(bean, name) != null;
+            return includeProperties && findProperty(getMetaClass(), name) != null;
         }
 
         public Object getProperty(String name) throws MissingPropertyException {
@@ -150,7 +178,7 @@ public class BeanDynamicObject extends AbstractDynamicObject {
                 throw propertyMissingException(name);
             }
 
-            MetaProperty property = getMetaClass().hasProperty(bean, name);
+            MetaProperty property = findProperty(getMetaClass(), name);
             if (property == null) {
                 return getMetaClass().invokeMissingProperty(bean, name, null, true);
             }
@@ -175,7 +203,7 @@ public class BeanDynamicObject extends AbstractDynamicObject {
             }
 
             MetaClass metaClass = getMetaClass();
-            MetaProperty property = metaClass.hasProperty(bean, name);
+            MetaProperty property = findProperty(metaClass, name);
             if (property == null) {
                 getMetaClass().invokeMissingProperty(bean, name, null, false);
             }
@@ -224,7 +252,7 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         }
 
         public boolean hasMethod(final String name, final Object... arguments) {
-            return !getMetaClass().respondsTo(bean, name, arguments).isEmpty();
+            return respondsTo(getMetaClass(), name, arguments);
         }
 
         public Object invokeMethod(final String name, final Object... arguments) throws MissingMethodException {
@@ -281,4 +309,61 @@ public class BeanDynamicObject extends AbstractDynamicObject {
             }
         }
     }
+
+    /**
+     * The property and method lookups of a {@link MetaClassImpl}, which do not depend on the target object and do not change once the meta-class is initialized.
+     * The meta-class is passed in rather than held, so that the lookups do not keep their weakly referenced meta-class alive.
+     */
+    private static class MetaClassLookups {
+        private static final Object NO_PROPERTY = new Object();
+        private final Map<String, Object> properties = new ConcurrentHashMap<String, Object>();
+        private final Map<MethodSignature, Boolean> methods = new ConcurrentHashMap<MethodSignature, Boolean>();
+
+        MetaProperty findProperty(MetaClass metaClass, String name) {
+            Object property = properties.get(name);
+            if (property == null) {
+                property = metaClass.getMetaProperty(name);
+                properties.put(name, property == null ? NO_PROPERTY : property);
+            }
+            return property == NO_PROPERTY ? null : (MetaProperty) property;
+        }
+
+        boolean respondsTo(MetaClass metaClass, String name, Object... arguments) {
+            MethodSignature signature = new MethodSignature(name, arguments);
+            Boolean responds = methods.get(signature);
+            if (responds == null) {
+                responds = !metaClass.respondsTo(null, name, arguments).isEmpty();
+                methods.put(signature, responds);
+            }
+            return responds;
+        }
+    }
+
+    private static class MethodSignature {
+        private final String name;
+        private final Class<?>[] parameterTypes;
+
+        MethodSignature(String name, Object... arguments) {
+            this.name = name;
+            // Same conversion as the meta-class uses to select the method
+            this.parameterTypes = MetaClassHelper.castArgumentsToClassArray(arguments);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            MethodSignature other = (MethodSignature) obj;
+            return name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() ^ Arrays.hashCode(parameterTypes);
+        }
+    }
 }
@@ -60,6 +60,16 @@ public class SingleOperationPersistentStore<V> {
         }
     }
 
+    //Opens and closes the cache for operation
+    public void removeAndClose() {
+        initCaches("write");
+        try {
+            cache.remove(CACHE_KEY);
+        } finally {
+            closeCaches();
+        }
+    }
+
     //Opens and closes the cache for operation
     public V getAndClose() {
         initCaches("read");
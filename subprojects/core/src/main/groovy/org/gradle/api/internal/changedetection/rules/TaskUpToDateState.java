@@ -17,6 +17,8 @@
 package org.gradle.api.internal.changedetection.rules;
 
 import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.TaskInputsInternal;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.changedetection.state.*;
 
@@ -36,6 +38,11 @@ public class TaskUpToDateState {
     private SummaryTaskStateChanges rebuildChanges;
 
     public TaskUpToDateState(TaskInternal task, TaskHistoryRepository.History history, FileCollectionSnapshotter outputFilesSnapshotter, FileCollectionSnapshotter inputFilesSnapshotter) {
+        this(task, history, outputFilesSnapshotter, inputFilesSnapshotter, inputFilesSnapshotter);
+    }
+
+    public TaskUpToDateState(TaskInternal task, TaskHistoryRepository.History history, FileCollectionSnapshotter outputFilesSnapshotter, FileCollectionSnapshotter inputFilesSnapshotter,
+                             FileCollectionSnapshotter compileClasspathSnapshotter) {
         TaskExecution thisExecution = history.getCurrentExecution();
         TaskExecution lastExecution = history.getPreviousExecution();
 
@@ -52,7 +59,7 @@ public class TaskUpToDateState {
 
         // Capture inputs state
         try {
-            FileCollectionSnapshot inputFilesSnapshot = inputFilesSnapshotter.snapshot(task.getInputs().getFiles());
+            FileCollectionSnapshot inputFilesSnapshot = snapshotInputFiles(task.getInputs(), inputFilesSnapshotter, compileClasspathSnapshotter);
             this.inputFilesSnapshot = inputFilesSnapshot.getSnapshot();
             inputFilesState = caching(InputFilesStateChangeRule.create(lastExecution, thisExecution, inputFilesSnapshot));
         } catch (UncheckedIOException e) {
@@ -63,6 +70,17 @@ public class TaskUpToDateState {
         rebuildChanges = new SummaryTaskStateChanges(1, noHistoryState, taskTypeState, inputPropertiesState, outputFilesState);
     }
 
+    private static FileCollectionSnapshot snapshotInputFiles(TaskInputsInternal inputs, FileCollectionSnapshotter inputFilesSnapshotter, FileCollectionSnapshotter compileClasspathSnapshotter) {
+        FileCollection compileClasspath = inputs.getCompileClasspathFiles();
+        if (compileClasspath.isEmpty()) {
+            return inputFilesSnapshotter.snapshot(inputs.getFiles());
+        }
+        // The compile classpath is snapshotted separately, so that changes to it that do not affect compilation do not make the task out of date
+        FileCollectionSnapshot otherFilesSnapshot = inputFilesSnapshotter.snapshot(inputs.getFiles().minus(compileClasspath));
+        FileCollectionSnapshot compileClasspathSnapshot = compileClasspathSnapshotter.snapshot(compileClasspath);
+        return compileClasspathSnapshot.changesSince(compileClasspathSnapshotter.emptySnapshot()).applyTo(otherFilesSnapshot);
+    }
+
     private TaskStateChanges caching(TaskStateChanges wrapped) {
         return new CachingTaskStateChanges(MAX_OUT_OF_DATE_MESSAGES, wrapped);
     }
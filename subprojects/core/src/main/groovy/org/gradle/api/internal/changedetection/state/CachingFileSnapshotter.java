@@ -30,8 +30,12 @@ public class CachingFileSnapshotter implements FileSnapshotter {
     private final FileInfoSerializer serializer = new FileInfoSerializer();
 
     public CachingFileSnapshotter(Hasher hasher, PersistentStore store) {
+        this(hasher, store, "fileHashes");
+    }
+
+    public CachingFileSnapshotter(Hasher hasher, PersistentStore store, String cacheName) {
         this.hasher = hasher;
-        this.cache = store.createCache("fileHashes", File.class, serializer);
+        this.cache = store.createCache(cacheName, File.class, serializer);
     }
 
     public FileInfo snapshot(File file) {
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshots a compile classpath by the hashes of the parts of its files that compilation depends on. Directories that declare services,
+ * like annotation processors, are snapshotted by their full content, as their code runs during compilation.
+ */
+public class CompileClasspathSnapshotter implements FileCollectionSnapshotter {
+    private static final String SERVICES_DIR = "META-INF/services";
+    private final FileCollectionSnapshotter contentSnapshotter;
+    private final FileCollectionSnapshotter abiSnapshotter;
+
+    public CompileClasspathSnapshotter(FileCollectionSnapshotter contentSnapshotter, FileCollectionSnapshotter abiSnapshotter) {
+        this.contentSnapshotter = contentSnapshotter;
+        this.abiSnapshotter = abiSnapshotter;
+    }
+
+    public void registerSerializers(SerializerRegistry<FileCollectionSnapshot> registry) {
+        // produces the same snapshots as the content snapshotter
+    }
+
+    public FileCollectionSnapshot emptySnapshot() {
+        return contentSnapshotter.emptySnapshot();
+    }
+
+    public FileCollectionSnapshot snapshot(FileCollection classpath) {
+        List<File> abiRoots = new ArrayList<File>();
+        List<File> contentRoots = new ArrayList<File>();
+        for (File root : classpath) {
+            if (root.isDirectory() && new File(root, SERVICES_DIR).isDirectory()) {
+                contentRoots.add(root);
+            } else {
+                abiRoots.add(root);
+            }
+        }
+        FileCollectionSnapshot snapshot = abiSnapshotter.snapshot(new SimpleFileCollection(abiRoots));
+        if (contentRoots.isEmpty()) {
+            return snapshot;
+        }
+        return contentSnapshotter.snapshot(new SimpleFileCollection(contentRoots)).changesSince(emptySnapshot()).applyTo(snapshot);
+    }
+}
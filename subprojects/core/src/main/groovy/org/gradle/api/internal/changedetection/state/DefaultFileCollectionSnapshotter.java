@@ -17,6 +17,7 @@
 package org.gradle.api.internal.changedetection.state;
 
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.file.FilePathInterner;
 import org.gradle.api.internal.file.collections.SimpleFileCollection;
 import org.gradle.internal.serialize.SerializerRegistry;
 import org.gradle.util.ChangeListener;
@@ -29,10 +30,16 @@ import java.util.*;
 public class DefaultFileCollectionSnapshotter implements FileCollectionSnapshotter {
     private final FileSnapshotter snapshotter;
     private TaskArtifactStateCacheAccess cacheAccess;
+    private final FilePathInterner pathInterner;
 
     public DefaultFileCollectionSnapshotter(FileSnapshotter snapshotter, TaskArtifactStateCacheAccess cacheAccess) {
+        this(snapshotter, cacheAccess, new FilePathInterner());
+    }
+
+    public DefaultFileCollectionSnapshotter(FileSnapshotter snapshotter, TaskArtifactStateCacheAccess cacheAccess, FilePathInterner pathInterner) {
         this.snapshotter = snapshotter;
         this.cacheAccess = cacheAccess;
+        this.pathInterner = pathInterner;
     }
 
     public void registerSerializers(SerializerRegistry<FileCollectionSnapshot> registry) {
@@ -52,12 +59,13 @@ public class DefaultFileCollectionSnapshotter implements FileCollectionSnapshott
         cacheAccess.useCache("Create file snapshot", new Runnable() {
             public void run() {
                 for (File file : files) {
+                    String path = pathInterner.intern(file.getAbsolutePath());
                     if (file.isFile()) {
-                        snapshots.put(file.getAbsolutePath(), new FileHashSnapshot(snapshotter.snapshot(file).getHash()));
+                        snapshots.put(path, new FileHashSnapshot(snapshotter.snapshot(file).getHash()));
                     } else if (file.isDirectory()) {
-                        snapshots.put(file.getAbsolutePath(), new DirSnapshot());
+                        snapshots.put(path, new DirSnapshot());
                     } else {
-                        snapshots.put(file.getAbsolutePath(), new MissingFileSnapshot());
+                        snapshots.put(path, new MissingFileSnapshot());
                     }
                 }
             }
@@ -17,6 +17,7 @@ package org.gradle.api.internal.file;
 
 import groovy.lang.Closure;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Nullable;
 import org.gradle.api.PathValidation;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileCollection;
@@ -45,10 +46,16 @@ public abstract class AbstractFileResolver implements FileResolver {
 
     private final FileSystem fileSystem;
     private final NotationParser<Object, Object> fileNotationParser;
+    private final FilePathInterner pathInterner;
 
     protected AbstractFileResolver(FileSystem fileSystem) {
+        this(fileSystem, null);
+    }
+
+    protected AbstractFileResolver(FileSystem fileSystem, @Nullable FilePathInterner pathInterner) {
         this.fileSystem = fileSystem;
         this.fileNotationParser = FileOrUriNotationConverter.parser(fileSystem);
+        this.pathInterner = pathInterner;
     }
 
     public FileSystem getFileSystem() {
@@ -56,7 +63,7 @@ public abstract class AbstractFileResolver implements FileResolver {
     }
 
     public FileResolver withBaseDir(Object path) {
-        return new BaseDirFileResolver(fileSystem, resolve(path));
+        return new BaseDirFileResolver(fileSystem, resolve(path), pathInterner);
     }
 
     public File resolve(Object path) {
@@ -81,6 +88,9 @@ public abstract class AbstractFileResolver implements FileResolver {
         File file = doResolve(path);
 
         file = normalise(file);
+        if (pathInterner != null) {
+            file = pathInterner.intern(file);
+        }
 
         validate(file, validation);
 
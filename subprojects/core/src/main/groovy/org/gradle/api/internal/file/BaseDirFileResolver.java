@@ -17,6 +17,7 @@
 package org.gradle.api.internal.file;
 
 import org.apache.commons.lang.StringUtils;
+import org.gradle.api.Nullable;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.GUtil;
@@ -30,7 +31,11 @@ public class BaseDirFileResolver extends AbstractFileResolver {
     private final File baseDir;
 
     public BaseDirFileResolver(FileSystem fileSystem, File baseDir) {
-        super(fileSystem);
+        this(fileSystem, baseDir, null);
+    }
+
+    public BaseDirFileResolver(FileSystem fileSystem, File baseDir, @Nullable FilePathInterner pathInterner) {
+        super(fileSystem, pathInterner);
         assert baseDir.isAbsolute() : String.format("base dir '%s' is not an absolute file.", baseDir);
         this.baseDir = baseDir;
     }
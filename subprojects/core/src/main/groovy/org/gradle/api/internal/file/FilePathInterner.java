@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file;
+
+import org.gradle.api.UncheckedIOException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares {@link File} instances and path strings between the parts of a build that refer to the same files, and caches canonical paths.
+ * There is one instance per build, so that the cached values are discarded when the build completes.
+ */
+public class FilePathInterner {
+    private final ConcurrentMap<String, File> files = new ConcurrentHashMap<String, File>();
+    private final ConcurrentMap<String, String> canonicalPaths = new ConcurrentHashMap<String, String>();
+
+    /**
+     * Returns a file with the same path as the given file, which is the same instance for all equal paths.
+     */
+    public File intern(File file) {
+        File existing = files.putIfAbsent(file.getPath(), file);
+        return existing != null ? existing : file;
+    }
+
+    /**
+     * Returns a string equal to the given path, which is the same instance for all equal paths.
+     */
+    public String intern(String path) {
+        File file = files.get(path);
+        if (file == null) {
+            file = intern(new File(path));
+        }
+        return file.getPath().equals(path) ? file.getPath() : path;
+    }
+
+    /**
+     * Returns the canonical path of the given file. The path is only calculated the first time it is requested for the file during the build.
+     */
+    public String getCanonicalPath(File file) {
+        String path = file.getPath();
+        String canonicalPath = canonicalPaths.get(path);
+        if (canonicalPath == null) {
+            try {
+                canonicalPath = intern(file.getCanonicalPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            canonicalPaths.put(path, canonicalPath);
+        }
+        return canonicalPath;
+    }
+}
@@ -28,4 +28,10 @@ public interface ClassLoaderCache {
 
     void remove(ClassLoaderId id);
 
+    /**
+     * Evicts the least recently used class loaders that have not been requested since the previous call, and closes the class loaders
+     * that are no longer used. Must only be called when no build is running, as class loaders are not usable after they have been closed.
+     */
+    void releaseUnused();
+
 }
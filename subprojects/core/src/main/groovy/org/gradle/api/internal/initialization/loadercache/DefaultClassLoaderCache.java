@@ -19,24 +19,53 @@ package org.gradle.api.internal.initialization.loadercache;
 import com.google.common.base.Joiner;
 import com.google.common.base.Objects;
 import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
 import org.gradle.api.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.concurrent.CompositeStoppable;
 
 import java.net.URLClassLoader;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Caches the class loaders of build scripts and plugins across builds, keyed by id. A class loader is shared by all ids that use the same class path, parent and filter.
+ *
+ * <p>The number of ids retained between builds is bounded. When {@link #releaseUnused()} is called, the least recently used ids beyond the bound are evicted,
+ * except those requested since the previous call. Class loaders that are no longer used by any id are closed at that point, which releases their jar files.</p>
+ */
 public class DefaultClassLoaderCache implements ClassLoaderCache {
+    private static final Logger LOGGER = Logging.getLogger(DefaultClassLoaderCache.class);
+    public static final int DEFAULT_MAX_RETAINED_IDS = 500;
 
     private final Object lock = new Object();
-    private final Map<ClassLoaderId, CachedClassLoader> byId = Maps.newHashMap();
+    // Access ordered, so that the least recently used ids come first
+    private final Map<ClassLoaderId, CachedClassLoader> byId = new LinkedHashMap<ClassLoaderId, CachedClassLoader>(16, 0.75f, true);
     private final Map<ClassLoaderSpec, CachedClassLoader> bySpec = Maps.newHashMap();
+    private final Set<ClassLoaderId> usedSinceRelease = Sets.newHashSet();
+    private final List<ClassLoader> released = Lists.newArrayList();
     private final ClassPathSnapshotter snapshotter;
+    private final int maxRetainedIds;
+    private long hits;
+    private long misses;
+    private long evictions;
 
     public DefaultClassLoaderCache(ClassPathSnapshotter snapshotter) {
+        this(snapshotter, DEFAULT_MAX_RETAINED_IDS);
+    }
+
+    public DefaultClassLoaderCache(ClassPathSnapshotter snapshotter, int maxRetainedIds) {
         this.snapshotter = snapshotter;
+        this.maxRetainedIds = maxRetainedIds;
     }
 
     public ClassLoader get(ClassLoaderId id, ClassPath classPath, ClassLoader parent, @Nullable FilteringClassLoader.Spec filterSpec) {
@@ -44,8 +73,14 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         ClassLoaderSpec spec = new ClassLoaderSpec(parent, classPathSnapshot, filterSpec);
 
         synchronized (lock) {
+            usedSinceRelease.add(id);
             CachedClassLoader cachedLoader = byId.get(id);
             if (cachedLoader == null || !cachedLoader.is(spec)) {
+                if (bySpec.containsKey(spec)) {
+                    hits++;
+                } else {
+                    misses++;
+                }
                 CachedClassLoader newLoader = getAndRetainLoader(classPath, spec, id);
                 byId.put(id, newLoader);
 
@@ -55,6 +90,7 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
 
                 return newLoader.classLoader;
             } else {
+                hits++;
                 return cachedLoader.classLoader;
             }
         }
@@ -62,9 +98,53 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
 
     @Override
     public void remove(ClassLoaderId id) {
-        CachedClassLoader cachedClassLoader = byId.remove(id);
-        if (cachedClassLoader != null) {
-            cachedClassLoader.release(id);
+        synchronized (lock) {
+            CachedClassLoader cachedClassLoader = byId.remove(id);
+            if (cachedClassLoader != null) {
+                cachedClassLoader.release(id);
+            }
+        }
+    }
+
+    @Override
+    public void releaseUnused() {
+        List<ClassLoader> toClose;
+        synchronized (lock) {
+            // Ids requested since the last release were accessed more recently than all others, so stop at the first one
+            Iterator<Map.Entry<ClassLoaderId, CachedClassLoader>> iterator = byId.entrySet().iterator();
+            while (byId.size() > maxRetainedIds && iterator.hasNext()) {
+                Map.Entry<ClassLoaderId, CachedClassLoader> entry = iterator.next();
+                if (usedSinceRelease.contains(entry.getKey())) {
+                    break;
+                }
+                iterator.remove();
+                entry.getValue().release(entry.getKey());
+                evictions++;
+            }
+            usedSinceRelease.clear();
+            toClose = Lists.newArrayList(released);
+            released.clear();
+            LOGGER.info("Class loader cache: {} hits, {} misses, {} evictions, {} ids retained, {} class loaders retained, {} class loaders closed.",
+                hits, misses, evictions, byId.size(), bySpec.size(), toClose.size());
+        }
+        CompositeStoppable.stoppable(toClose).stop();
+    }
+
+    public long getHitCount() {
+        synchronized (lock) {
+            return hits;
+        }
+    }
+
+    public long getMissCount() {
+        synchronized (lock) {
+            return misses;
+        }
+    }
+
+    public long getEvictionCount() {
+        synchronized (lock) {
+            return evictions;
         }
     }
 
@@ -88,7 +168,9 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
 
     @Override
     public int size() {
-        return bySpec.size();
+        synchronized (lock) {
+            return bySpec.size();
+        }
     }
 
     private static class ClassLoaderSpec {
@@ -160,6 +242,10 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
                         parent.release(loaderId);
                     }
                     bySpec.remove(spec);
+                    // A filtering class loader holds no resources of its own
+                    if (parent == null) {
+                        released.add(classLoader);
+                    }
                 }
             } else {
                 throw new IllegalStateException("Classloader '" + this + "' not used by '" + loaderId + "'");
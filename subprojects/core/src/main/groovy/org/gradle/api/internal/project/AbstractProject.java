@@ -50,6 +50,7 @@ import org.gradle.api.resources.ResourceHandler;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.configuration.project.ProjectConfigurationActionContainer;
+import org.gradle.configuration.project.ParallelConfigurationGuard;
 import org.gradle.configuration.project.ProjectEvaluator;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Actions;
@@ -440,7 +441,11 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
         if (!isTrue(path)) {
             throw new InvalidUserDataException("A path must be specified!");
         }
-        return getProjectRegistry().getProject(absoluteProjectPath(path));
+        ProjectInternal project = getProjectRegistry().getProject(absoluteProjectPath(path));
+        if (project != null) {
+            getParallelConfigurationGuard().checkAccess(project);
+        }
+        return project;
     }
 
     public Set<Project> getAllprojects() {
@@ -461,11 +466,18 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
 
     public <T> Iterable<T> configure(Iterable<T> objects, Action<? super T> configureAction) {
         for (T object : objects) {
+            checkConfigure(object);
             configureAction.execute(object);
         }
         return objects;
     }
 
+    private void checkConfigure(Object object) {
+        if (object instanceof ProjectInternal) {
+            getParallelConfigurationGuard().checkConfigure((ProjectInternal) object);
+        }
+    }
+
     public AntBuilder getAnt() {
         if (ant == null) {
             ant = createAntBuilder();
@@ -544,7 +556,10 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
         if (!isTrue(path)) {
             throw new InvalidUserDataException("You must specify a project!");
         }
-        DefaultProject projectToEvaluate = (DefaultProject) project(path);
+        DefaultProject projectToEvaluate = (DefaultProject) getProjectRegistry().getProject(absoluteProjectPath(path));
+        if (projectToEvaluate == null) {
+            throw new UnknownProjectException(String.format("Project with path '%s' could not be found in %s.", path, this));
+        }
         return evaluationDependsOn(projectToEvaluate);
     }
 
@@ -553,7 +568,9 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
             throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
                 projectToEvaluate));
         }
-        return projectToEvaluate.evaluate();
+        projectToEvaluate.evaluate();
+        getParallelConfigurationGuard().dependsOn(projectToEvaluate);
+        return projectToEvaluate;
     }
 
     public String toString() {
@@ -817,10 +834,13 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public Project project(String path, Closure configureClosure) {
-        return ConfigureUtil.configure(configureClosure, project(path));
+        ProjectInternal project = project(path);
+        getParallelConfigurationGuard().checkConfigure(project);
+        return ConfigureUtil.configure(configureClosure, project);
     }
 
     public Object configure(Object object, Closure configureClosure) {
+        checkConfigure(object);
         return ConfigureUtil.configure(configureClosure, object);
     }
 
@@ -983,6 +1003,12 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ParallelConfigurationGuard getParallelConfigurationGuard() {
+        // Decoration takes care of the implementation
+        throw new UnsupportedOperationException();
+    }
+
     public void addDeferredConfiguration(Runnable configuration) {
         getDeferredProjectConfiguration().add(configuration);
     }
@@ -19,6 +19,7 @@ package org.gradle.api.internal.project;
 import org.gradle.initialization.ProjectAccessListener;
 
 public class DefaultProjectAccessListener implements ProjectAccessListener {
+    private final Object taskDiscoveryLock = new Object();
 
     public void beforeRequestingTaskByPath(ProjectInternal targetProject) {
         evaluateProjectAndDiscoverTasks(targetProject);
@@ -30,6 +31,9 @@ public class DefaultProjectAccessListener implements ProjectAccessListener {
 
     private void evaluateProjectAndDiscoverTasks(ProjectInternal targetProject) {
         targetProject.evaluate();
-        targetProject.getTasks().discoverTasks();
+        // The target may be requested by several projects that are configured concurrently
+        synchronized (taskDiscoveryLock) {
+            targetProject.getTasks().discoverTasks();
+        }
     }
 }
\ No newline at end of file
@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal.project.taskfactory;
 
+import org.apache.commons.collections.map.AbstractReferenceMap;
+import org.apache.commons.collections.map.ReferenceMap;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.*;
 import org.gradle.api.internal.AbstractTask;
@@ -41,39 +43,44 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A {@link ITaskFactory} which determines task actions, inputs and outputs based on annotation attached to the task properties. Also provides some validation based on these annotations.
  */
 public class AnnotationProcessingTaskFactory implements ITaskFactory {
-    private final ITaskFactory taskFactory;
-    private final Map<Class, TaskClassInfo> classInfos;
+    // Shared by all builds in this process, so that each task type is inspected only once. The values are softly referenced: they survive
+    // garbage collection between builds, and are only cleared under memory pressure, which then also allows unused task types to be collected.
+    private static final Map<Class<?>, TaskClassInfo> CLASS_INFOS = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.SOFT);
+    private static final Lock CLASS_INFOS_LOCK = new ReentrantLock();
 
-    private final Transformer<Iterable<File>, Object> filePropertyTransformer = new Transformer<Iterable<File>, Object>() {
+    private static final Transformer<Iterable<File>, Object> FILE_PROPERTY_TRANSFORMER = new Transformer<Iterable<File>, Object>() {
         public Iterable<File> transform(Object original) {
             File file = (File) original;
             return file == null ? Collections.<File>emptyList() : Collections.singleton(file);
         }
     };
 
-    private final Transformer<Iterable<File>, Object> iterableFilePropertyTransformer = new Transformer<Iterable<File>, Object>() {
+    private static final Transformer<Iterable<File>, Object> ITERABLE_FILE_PROPERTY_TRANSFORMER = new Transformer<Iterable<File>, Object>() {
         @SuppressWarnings("unchecked")
         public Iterable<File> transform(Object original) {
             return original != null ? (Iterable<File>) original : Collections.<File>emptyList();
         }
     };
 
-    private final List<? extends PropertyAnnotationHandler> handlers = Arrays.asList(
+    private static final List<? extends PropertyAnnotationHandler> HANDLERS = Arrays.asList(
             new InputFilePropertyAnnotationHandler(),
             new InputDirectoryPropertyAnnotationHandler(),
             new InputFilesPropertyAnnotationHandler(),
-            new OutputFilePropertyAnnotationHandler(OutputFile.class, filePropertyTransformer),
-            new OutputFilePropertyAnnotationHandler(OutputFiles.class, iterableFilePropertyTransformer),
-            new OutputDirectoryPropertyAnnotationHandler(OutputDirectory.class, filePropertyTransformer),
-            new OutputDirectoryPropertyAnnotationHandler(OutputDirectories.class, iterableFilePropertyTransformer),
+            new CompileClasspathPropertyAnnotationHandler(),
+            new OutputFilePropertyAnnotationHandler(OutputFile.class, FILE_PROPERTY_TRANSFORMER),
+            new OutputFilePropertyAnnotationHandler(OutputFiles.class, ITERABLE_FILE_PROPERTY_TRANSFORMER),
+            new OutputDirectoryPropertyAnnotationHandler(OutputDirectory.class, FILE_PROPERTY_TRANSFORMER),
+            new OutputDirectoryPropertyAnnotationHandler(OutputDirectories.class, ITERABLE_FILE_PROPERTY_TRANSFORMER),
             new InputPropertyAnnotationHandler(),
             new NestedBeanPropertyAnnotationHandler());
-    private final ValidationAction notNullValidator = new ValidationAction() {
+    private static final ValidationAction NOT_NULL_VALIDATOR = new ValidationAction() {
         public void validate(String propertyName, Object value, Collection<String> messages) {
             if (value == null) {
                 messages.add(String.format("No value has been specified for property '%s'.", propertyName));
@@ -81,12 +88,14 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         }
     };
 
+    private final ITaskFactory taskFactory;
+    private final Map<Class<?>, TaskClassInfo> classInfos;
+
     public AnnotationProcessingTaskFactory(ITaskFactory taskFactory) {
-        this.taskFactory = taskFactory;
-        this.classInfos = new HashMap<Class, TaskClassInfo>();
+        this(new HashMap<Class<?>, TaskClassInfo>(), taskFactory);
     }
 
-    private AnnotationProcessingTaskFactory(Map<Class, TaskClassInfo> classInfos, ITaskFactory taskFactory) {
+    private AnnotationProcessingTaskFactory(Map<Class<?>, TaskClassInfo> classInfos, ITaskFactory taskFactory) {
         this.classInfos = classInfos;
         this.taskFactory = taskFactory;
     }
@@ -129,7 +138,20 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
     }
 
     private TaskClassInfo getTaskClassInfo(Class<? extends Task> type) {
+        CLASS_INFOS_LOCK.lock();
+        try {
+            return getTaskClassInfoUnderLock(type);
+        } finally {
+            CLASS_INFOS_LOCK.unlock();
+        }
+    }
+
+    private TaskClassInfo getTaskClassInfoUnderLock(Class<? extends Task> type) {
         TaskClassInfo taskClassInfo = classInfos.get(type);
+        if (taskClassInfo != null) {
+            return taskClassInfo;
+        }
+        taskClassInfo = CLASS_INFOS.get(type);
         if (taskClassInfo == null) {
             taskClassInfo = new TaskClassInfo();
             findTaskActions(type, taskClassInfo);
@@ -140,12 +162,13 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
             if (!validator.properties.isEmpty()) {
                 taskClassInfo.validator = validator;
             }
-            classInfos.put(type, taskClassInfo);
+            CLASS_INFOS.put(type, taskClassInfo);
         }
+        classInfos.put(type, taskClassInfo);
         return taskClassInfo;
     }
 
-    private void findTaskActions(Class<? extends Task> type, TaskClassInfo taskClassInfo) {
+    private static void findTaskActions(Class<? extends Task> type, TaskClassInfo taskClassInfo) {
         Set<String> methods = new HashSet<String>();
         for (Class current = type; current != null; current = current.getSuperclass()) {
             for (Method method : current.getDeclaredMethods()) {
@@ -154,7 +177,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         }
     }
 
-    private void attachTaskAction(final Method method, TaskClassInfo taskClassInfo, Collection<String> processedMethods) {
+    private static void attachTaskAction(final Method method, TaskClassInfo taskClassInfo, Collection<String> processedMethods) {
         if (method.getAnnotation(TaskAction.class) == null) {
             return;
         }
@@ -187,7 +210,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         processedMethods.add(method.getName());
     }
 
-    private Factory<Action<Task>> createActionFactory(final Method method, final Class<?>[] parameterTypes) {
+    private static Factory<Action<Task>> createActionFactory(final Method method, final Class<?>[] parameterTypes) {
         return new Factory<Action<Task>>() {
             public Action<Task> create() {
                 if (parameterTypes.length == 1) {
@@ -251,7 +274,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         public boolean incremental;
     }
 
-    private class Validator implements Action<Task>, TaskValidator {
+    private static class Validator implements Action<Task>, TaskValidator {
         private Set<PropertyInfo> properties = new LinkedHashSet<PropertyInfo>();
 
         public void addInputsAndOutputs(final TaskInternal task) {
@@ -316,7 +339,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         }
 
         private void attachValidationActions(PropertyInfo propertyInfo, String fieldName) {
-            for (PropertyAnnotationHandler handler : handlers) {
+            for (PropertyAnnotationHandler handler : HANDLERS) {
                 attachValidationAction(handler, propertyInfo, fieldName);
             }
         }
@@ -344,7 +367,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
 
             Annotation optional = annotationTarget.getAnnotation(org.gradle.api.tasks.Optional.class);
             if (optional == null) {
-                propertyInfo.setNotNullValidator(notNullValidator);
+                propertyInfo.setNotNullValidator(NOT_NULL_VALIDATOR);
             }
 
             propertyInfo.attachActions(handler);
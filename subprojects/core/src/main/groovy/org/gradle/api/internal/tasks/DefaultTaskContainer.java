@@ -43,6 +43,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     private final ITaskFactory taskFactory;
     private final ProjectAccessListener projectAccessListener;
     private final Set<String> placeholders = Sets.newHashSet();
+    private final Set<String> registrations = Sets.newHashSet();
     private final NamedEntityInstantiator<Task> instantiator;
 
     public DefaultTaskContainer(MutableModelNode modelNode, ProjectInternal project, Instantiator instantiator, ITaskFactory taskFactory, ProjectAccessListener projectAccessListener) {
@@ -51,6 +52,11 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         this.taskFactory = taskFactory;
         this.projectAccessListener = projectAccessListener;
         this.instantiator = new TaskInstantiator(taskFactory);
+        whenObjectRemoved(new Action<Task>() {
+            public void execute(Task task) {
+                registrations.remove(task.getName());
+            }
+        });
     }
 
     public Task create(Map<String, ?> options) {
@@ -67,6 +73,14 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         }
 
         Task existing = findByNameWithoutRules(name);
+        if (existing == null && registrations.contains(name)) {
+            if (!replace) {
+                throw new InvalidUserDataException(String.format(
+                    "Cannot add %s as a task with that name already exists.", task));
+            }
+            registrations.remove(name);
+            modelNode.removeLink(name);
+        }
         if (existing != null) {
             if (replace) {
                 remove(existing);
@@ -129,6 +143,25 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return task;
     }
 
+    public <T extends Task> void register(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException {
+        if (findByNameWithoutRules(name) != null || (modelNode.hasLink(name) && !placeholders.contains(name))) {
+            throw new InvalidUserDataException(String.format(
+                "Cannot register task '%s' as a task with that name already exists.", name));
+        }
+        if (placeholders.remove(name)) {
+            modelNode.removeLink(name);
+        }
+        ModelType<T> taskModelType = ModelType.of(type);
+        modelNode.addLink(
+            ModelCreators
+                .of(MODEL_PATH.child(name), new RegisteredTaskCreator<T>(name, type, configuration, taskModelType))
+                .withProjection(new UnmanagedModelProjection<T>(taskModelType, true, true))
+                .descriptor(new SimpleModelRuleDescriptor("tasks.register(" + name + ")"))
+                .build()
+        );
+        registrations.add(name);
+    }
+
     public <T extends Task> T replace(String name, Class<T> type) {
         return type.cast(create(GUtil.map(Task.TASK_NAME, name, Task.TASK_TYPE, type, Task.TASK_OVERWRITE, true)));
     }
@@ -142,7 +175,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         }
 
         String projectPath = StringUtils.substringBeforeLast(path, Project.PATH_SEPARATOR);
-        ProjectInternal project = this.project.findProject(!GUtil.isTrue(projectPath) ? Project.PATH_SEPARATOR : projectPath);
+        ProjectInternal project = this.project.getProjectRegistry().getProject(this.project.absoluteProjectPath(!GUtil.isTrue(projectPath) ? Project.PATH_SEPARATOR : projectPath));
         if (project == null) {
             return null;
         }
@@ -271,6 +304,30 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         }
     }
 
+    private static class RegisteredTaskCreator<T extends Task> implements Action<MutableModelNode> {
+        private final String name;
+        private final Class<T> taskType;
+        private final Action<? super T> configuration;
+        private final ModelType<T> taskModelType;
+
+        public RegisteredTaskCreator(String name, Class<T> taskType, Action<? super T> configuration, ModelType<T> taskModelType) {
+            this.name = name;
+            this.taskType = taskType;
+            this.configuration = configuration;
+            this.taskModelType = taskModelType;
+        }
+
+        @Override
+        public void execute(MutableModelNode mutableModelNode) {
+            DefaultTaskContainer taskContainer = mutableModelNode.getParent().getPrivateData(ModelType.of(DefaultTaskContainer.class));
+            taskContainer.registrations.remove(name);
+            T task = taskContainer.instantiator.create(name, taskType);
+            configuration.execute(task);
+            taskContainer.add(task);
+            mutableModelNode.setPrivateData(taskModelType, task);
+        }
+    }
+
     private static class TaskCreator<T extends TaskInternal> implements Action<MutableModelNode> {
         private final String placeholderName;
         private final Class<T> taskType;
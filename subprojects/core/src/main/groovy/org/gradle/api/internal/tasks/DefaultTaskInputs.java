@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks;
 import groovy.lang.Closure;
 import groovy.lang.GString;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.TaskInputsInternal;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.UnionFileCollection;
@@ -29,9 +30,10 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
-public class DefaultTaskInputs implements TaskInputs {
+public class DefaultTaskInputs implements TaskInputsInternal {
     private final DefaultConfigurableFileCollection inputFiles;
     private final DefaultConfigurableFileCollection sourceFiles;
+    private final DefaultConfigurableFileCollection compileClasspathFiles;
     private final FileResolver resolver;
     private final TaskMutator taskMutator;
     private final Map<String, Object> properties = new HashMap<String, Object>();
@@ -41,14 +43,28 @@ public class DefaultTaskInputs implements TaskInputs {
         this.taskMutator = taskMutator;
         inputFiles = new DefaultConfigurableFileCollection(task + " input files", resolver, null);
         sourceFiles = new DefaultConfigurableFileCollection(task + " source files", resolver, null);
+        compileClasspathFiles = new DefaultConfigurableFileCollection(task + " compile classpath", resolver, null);
     }
 
     public boolean getHasInputs() {
-        return !inputFiles.getFrom().isEmpty() || !properties.isEmpty() || !sourceFiles.getFrom().isEmpty();
+        return !inputFiles.getFrom().isEmpty() || !properties.isEmpty() || !sourceFiles.getFrom().isEmpty() || !compileClasspathFiles.getFrom().isEmpty();
     }
 
     public FileCollection getFiles() {
-        return new UnionFileCollection(inputFiles, sourceFiles);
+        return new UnionFileCollection(inputFiles, sourceFiles, compileClasspathFiles);
+    }
+
+    public FileCollection getCompileClasspathFiles() {
+        return compileClasspathFiles;
+    }
+
+    public TaskInputsInternal compileClasspath(final Object... paths) {
+        taskMutator.mutate("TaskInputs.compileClasspath(Object...)", new Runnable() {
+            public void run() {
+                compileClasspathFiles.from(paths);
+            }
+        });
+        return this;
     }
 
     public TaskInputs files(final Object... paths) {
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks;
+
+import org.gradle.api.Incubating;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>Marks a property as specifying the classpath a task compiles against.</p>
+ *
+ * <p>The files are treated like {@link InputFiles}, except that only the parts of the classes that other classes can be compiled
+ * against are considered when checking whether the task is up-to-date. Changing the body of a method or a private member of
+ * a class on the classpath does not cause the task to execute again. Jars and directories that contain service declarations
+ * under {@code META-INF/services}, like annotation processors, are always considered in full.</p>
+ *
+ * <p>This annotation should be attached to the getter method or the field for the property.</p>
+ */
+@Incubating
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.FIELD})
+public @interface CompileClasspath {
+}
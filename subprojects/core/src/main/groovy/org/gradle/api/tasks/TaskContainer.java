@@ -161,6 +161,23 @@ public interface TaskContainer extends TaskCollection<Task>, PolymorphicDomainOb
      */
     <T extends Task> T create(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
 
+    /**
+     * <p>Registers a {@link Task} with the given name and type, without creating it. The task is created, configured with the given action
+     * and added to this container only when it is required. This happens when the task is located by name or path, when it is selected
+     * for execution, when another task depends on it, or when all tasks of the project are listed.</p>
+     *
+     * <p>Until then, the task is not visible to actions such as {@link #all(Action)} or {@link #withType(Class)}, and iterating over this
+     * container does not include it. Its name is included in {@link #getNames()}.</p>
+     *
+     * @param name The name of the task to register.
+     * @param type The type of task to create.
+     * @param configuration The action to configure the task with, once it has been created.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @since 2.6
+     */
+    @Incubating
+    <T extends Task> void register(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
+
     /**
      * <p>Creates a {@link Task} with the given name and adds it to this container, replacing any existing task with the
      * same name.</p>
@@ -45,12 +45,21 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
     }
 
     public PersistentCache open(File cacheDir, String displayName, CacheValidator cacheValidator, Map<String, ?> properties, LockOptions lockOptions, Action<? super PersistentCache> initializer) throws CacheOpenException {
+        ReferenceTrackingCache cache;
         lock.lock();
         try {
-            return doOpen(cacheDir, displayName, cacheValidator, properties, lockOptions, initializer);
+            cache = doOpen(cacheDir, displayName, cacheValidator, properties, lockOptions, initializer);
         } finally {
             lock.unlock();
         }
+        // Open, and possibly initialize, the cache outside the factory lock so that distinct caches can be initialized concurrently
+        try {
+            cache.reference.open();
+        } catch (RuntimeException e) {
+            cache.close();
+            throw e;
+        }
+        return cache;
     }
 
     public PersistentCache openStore(File storeDir, String displayName, LockOptions lockOptions, Action<? super PersistentCache> initializer) throws CacheOpenException {
@@ -72,12 +81,11 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
         }
     }
 
-    private PersistentCache doOpen(File cacheDir, String displayName, CacheValidator validator, Map<String, ?> properties, LockOptions lockOptions, Action<? super PersistentCache> action) {
+    private ReferenceTrackingCache doOpen(File cacheDir, String displayName, CacheValidator validator, Map<String, ?> properties, LockOptions lockOptions, Action<? super PersistentCache> action) {
         File canonicalDir = GFileUtils.canonicalise(cacheDir);
         DirCacheReference dirCacheReference = dirCaches.get(canonicalDir);
         if (dirCacheReference == null) {
             ReferencablePersistentCache cache = new DefaultPersistentDirectoryCache(canonicalDir, displayName, validator, properties, lockOptions, action, lockManager);
-            cache.open();
             dirCacheReference = new DirCacheReference(cache, properties, lockOptions);
             dirCaches.put(canonicalDir, dirCacheReference);
         } else {
@@ -99,8 +107,8 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
         DirCacheReference dirCacheReference = dirCaches.get(canonicalDir);
         if (dirCacheReference == null) {
             ReferencablePersistentCache cache = new DefaultPersistentDirectoryStore(canonicalDir, displayName, lockOptions, lockManager);
-            cache.open();
             dirCacheReference = new DirCacheReference(cache, Collections.<String, Object>emptyMap(), lockOptions);
+            dirCacheReference.open();
             dirCaches.put(canonicalDir, dirCacheReference);
         }
         return new ReferenceTrackingCache(dirCacheReference);
@@ -111,12 +119,20 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
         private final LockOptions lockOptions;
         private final ReferencablePersistentCache cache;
         private final Set<ReferenceTrackingCache> references = new HashSet<ReferenceTrackingCache>();
+        private boolean opened;
 
         public DirCacheReference(ReferencablePersistentCache cache, Map<String, ?> properties, LockOptions lockOptions) {
             this.cache = cache;
             this.properties = properties;
             this.lockOptions = lockOptions;
-            onOpen(cache);
+        }
+
+        public synchronized void open() {
+            if (!opened) {
+                cache.open();
+                opened = true;
+                onOpen(cache);
+            }
         }
 
         public void addReference(ReferenceTrackingCache cache) {
@@ -134,11 +150,14 @@ public class DefaultCacheFactory implements CacheFactory, Closeable {
             }
         }
 
-        public void close() {
-            onClose(cache);
+        public synchronized void close() {
             dirCaches.values().remove(this);
             references.clear();
-            cache.close();
+            if (opened) {
+                onClose(cache);
+                cache.close();
+                opened = false;
+            }
         }
     }
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectScript;
+import org.gradle.groovy.scripts.ScriptCompilerFactory;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.internal.CompiledScript;
+import org.gradle.internal.Actions;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier;
+import org.gradle.plugin.use.internal.PluginRequests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compiles the build scripts of all projects concurrently before the projects are configured, so that configuration finds the compiled classes in the script cache.
+ *
+ * <p>The first pass of each script is compiled against the base class loader of its project, which is already known. The body of a script is compiled against the class loader
+ * of its project, which is only known once the project and its parents have run their {@code buildscript {}} and {@code plugins {}} blocks. The body is compiled ahead of time
+ * only when the first pass of the project and of all its parents is empty, in which case the class loader of the project is the base class loader.</p>
+ *
+ * <p>Failures are only logged here, the script is compiled again when the project is configured and the failure is reported then.</p>
+ */
+public class BuildScriptPrecompiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildScriptPrecompiler.class);
+    private static final String CLASSPATH_CLOSURE_NAME = "buildscript";
+    private final ScriptCompilerFactory scriptCompilerFactory;
+    private final DocumentationRegistry documentationRegistry;
+    private final ExecutorFactory executorFactory;
+    private final int maxWorkerCount;
+
+    public BuildScriptPrecompiler(ScriptCompilerFactory scriptCompilerFactory, DocumentationRegistry documentationRegistry, ExecutorFactory executorFactory, int maxWorkerCount) {
+        this.scriptCompilerFactory = scriptCompilerFactory;
+        this.documentationRegistry = documentationRegistry;
+        this.executorFactory = executorFactory;
+        this.maxWorkerCount = maxWorkerCount;
+    }
+
+    public void precompile(ProjectInternal rootProject) {
+        if (rootProject.getChildProjects().isEmpty()) {
+            return;
+        }
+        Map<ProjectInternal, Boolean> extendsClassPath = new ConcurrentHashMap<ProjectInternal, Boolean>();
+        CountDownLatch initialPasses = new CountDownLatch(rootProject.getAllprojects().size());
+        StoppableExecutor executor = executorFactory.create("Build script compilation", maxWorkerCount);
+        try {
+            for (Project project : rootProject.getAllprojects()) {
+                executor.execute(new InitialPassCompilation((ProjectInternal) project, extendsClassPath, initialPasses));
+            }
+            try {
+                initialPasses.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            scheduleBodyCompilation(rootProject, extendsClassPath, executor);
+        } finally {
+            executor.stop();
+        }
+    }
+
+    private void scheduleBodyCompilation(ProjectInternal project, Map<ProjectInternal, Boolean> extendsClassPath, StoppableExecutor executor) {
+        if (!Boolean.FALSE.equals(extendsClassPath.get(project))) {
+            // The class loader of this project and its children is not known until they are configured
+            LOGGER.info("Not compiling the build scripts of {} and its children ahead of configuration, as their build script classpath is not known yet.", project);
+            return;
+        }
+        executor.execute(new BodyCompilation(project));
+        for (Project child : project.getChildProjects().values()) {
+            scheduleBodyCompilation((ProjectInternal) child, extendsClassPath, executor);
+        }
+    }
+
+    private class InitialPassCompilation implements Runnable {
+        private final ProjectInternal project;
+        private final Map<ProjectInternal, Boolean> extendsClassPath;
+        private final CountDownLatch initialPasses;
+
+        InitialPassCompilation(ProjectInternal project, Map<ProjectInternal, Boolean> extendsClassPath, CountDownLatch initialPasses) {
+            this.project = project;
+            this.extendsClassPath = extendsClassPath;
+            this.initialPasses = initialPasses;
+        }
+
+        public void run() {
+            ScriptSource source = project.getBuildScriptSource();
+            try {
+                CompiledScript<ProjectScript, PluginRequests> initialPass = scriptCompilerFactory.createCompiler(source)
+                        .compile(ProjectScript.class, DefaultScriptPluginFactory.createInitialPassOperation(source, CLASSPATH_CLOSURE_NAME, ProjectScript.class, documentationRegistry),
+                                project.getBaseClassLoaderScope().getExportClassLoader(), CLASSPATH_CLOSURE_NAME, Actions.doNothing())
+                        .getCompiledScript();
+                // A project without buildscript {} and plugins {} blocks uses the class loader of its parent
+                extendsClassPath.put(project, !initialPass.isEmpty() || !initialPass.getData().isEmpty());
+            } catch (Exception e) {
+                LOGGER.info("Could not compile {} ahead of configuration.", source.getDisplayName(), e);
+            } finally {
+                initialPasses.countDown();
+            }
+        }
+    }
+
+    private class BodyCompilation implements Runnable {
+        private final ProjectInternal project;
+
+        BodyCompilation(ProjectInternal project) {
+            this.project = project;
+        }
+
+        public void run() {
+            ScriptSource source = project.getBuildScriptSource();
+            try {
+                scriptCompilerFactory.createCompiler(source)
+                        .compile(ProjectScript.class, DefaultScriptPluginFactory.createBuildScriptOperation(source, CLASSPATH_CLOSURE_NAME),
+                                project.getBaseClassLoaderScope().getExportClassLoader(), CLASSPATH_CLOSURE_NAME, ClosureCreationInterceptingVerifier.INSTANCE);
+            } catch (Exception e) {
+                LOGGER.info("Could not compile {} ahead of configuration.", source.getDisplayName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration;
+
+import groovy.lang.Script;
+import org.gradle.StartParameter;
+import org.gradle.api.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectScript;
+import org.gradle.groovy.scripts.BasicScript;
+import org.gradle.groovy.scripts.ScriptCompilerFactory;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.UriScriptSource;
+import org.gradle.groovy.scripts.internal.CompileOperation;
+import org.gradle.groovy.scripts.internal.CompiledScript;
+import org.gradle.groovy.scripts.internal.FileCacheBackedScriptClassCompiler;
+import org.gradle.initialization.SettingsLocation;
+import org.gradle.initialization.SettingsScript;
+import org.gradle.internal.Actions;
+import org.gradle.internal.classloader.ClassLoaderVisitor;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier;
+import org.gradle.plugin.use.internal.PluginRequests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles the settings script and the root build script while buildSrc is being built, against the Gradle API rather than against the buildSrc classes.
+ *
+ * <p>Once buildSrc has been built, the classes compiled for a script are used in place of compiling the script against the buildSrc classes, when the buildSrc classes
+ * cannot change the result of compiling the script. See {@link ScriptClassPathContents}. Otherwise, the script is compiled against the buildSrc classes when it is applied.</p>
+ *
+ * <p>Failures are ignored here, the script is compiled again when it is applied and the failure is reported then.</p>
+ */
+public class BuildSrcIndependentScriptCompiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildSrcIndependentScriptCompiler.class);
+    private static final String CLASSPATH_CLOSURE_NAME = "buildscript";
+    private static final List<String> GROOVY_DEFAULT_IMPORT_PACKAGES = Arrays.asList("java.lang", "java.util", "java.io", "java.net", "java.math", "groovy.lang", "groovy.util");
+    private final ScriptCompilerFactory scriptCompilerFactory;
+    private final FileCacheBackedScriptClassCompiler scriptClassCompiler;
+    private final DocumentationRegistry documentationRegistry;
+    private final ExecutorFactory executorFactory;
+    private final ClassLoaderScope baseScope;
+    private final Set<String> defaultImportPackages = new HashSet<String>();
+
+    public BuildSrcIndependentScriptCompiler(ScriptCompilerFactory scriptCompilerFactory, FileCacheBackedScriptClassCompiler scriptClassCompiler, DocumentationRegistry documentationRegistry,
+                                             ImportsReader importsReader, ExecutorFactory executorFactory, ClassLoaderScope baseScope) {
+        this.scriptCompilerFactory = scriptCompilerFactory;
+        this.scriptClassCompiler = scriptClassCompiler;
+        this.documentationRegistry = documentationRegistry;
+        this.executorFactory = executorFactory;
+        this.baseScope = baseScope;
+        defaultImportPackages.addAll(Arrays.asList(importsReader.getImportPackages()));
+        defaultImportPackages.addAll(GROOVY_DEFAULT_IMPORT_PACKAGES);
+    }
+
+    /**
+     * Starts compiling the scripts of the given build in the background. The caller must call {@link Compilation#stop()} once buildSrc has been built.
+     */
+    public Compilation start(SettingsLocation settingsLocation, StartParameter startParameter) {
+        List<ScriptToCompile> scripts = new ArrayList<ScriptToCompile>();
+        scripts.add(new ScriptToCompile(settingsLocation.getSettingsScriptSource(), SettingsScript.class));
+        File rootBuildFile = startParameter.getBuildFile() != null ? startParameter.getBuildFile() : new File(settingsLocation.getSettingsDir(), Project.DEFAULT_BUILD_FILE);
+        if (rootBuildFile.isFile()) {
+            scripts.add(new ScriptToCompile(UriScriptSource.file("build file", rootBuildFile), ProjectScript.class));
+        }
+        StoppableExecutor executor = executorFactory.create("Script compilation");
+        Compilation compilation = new Compilation(scripts, executor);
+        executor.execute(compilation);
+        return compilation;
+    }
+
+    public class Compilation implements Runnable {
+        private final List<ScriptToCompile> scripts;
+        private final StoppableExecutor executor;
+        private final List<CompiledScriptClasses> compiled = Collections.synchronizedList(new ArrayList<CompiledScriptClasses>());
+
+        Compilation(List<ScriptToCompile> scripts, StoppableExecutor executor) {
+            this.scripts = scripts;
+            this.executor = executor;
+        }
+
+        public void run() {
+            ClassLoader classLoader = baseScope.getExportClassLoader();
+            for (ScriptToCompile script : scripts) {
+                ScriptSource source = script.source;
+                try {
+                    CompileOperation<PluginRequests> initialOperation = DefaultScriptPluginFactory.createInitialPassOperation(source, CLASSPATH_CLOSURE_NAME, script.scriptType, documentationRegistry);
+                    CompiledScript<? extends BasicScript, PluginRequests> initialPass = scriptCompilerFactory.createCompiler(source)
+                            .compile(script.scriptType, initialOperation, classLoader, CLASSPATH_CLOSURE_NAME, Actions.doNothing())
+                            .getCompiledScript();
+                    compiled.add(new CompiledScriptClasses(source, script.scriptType, initialOperation.getId()));
+
+                    if (!initialPass.isEmpty() || !initialPass.getData().isEmpty()) {
+                        // The body of the script is compiled against the classpath declared by the script
+                        continue;
+                    }
+                    CompileOperation<Boolean> operation = DefaultScriptPluginFactory.createBuildScriptOperation(source, CLASSPATH_CLOSURE_NAME);
+                    scriptCompilerFactory.createCompiler(source)
+                            .compile(script.scriptType, operation, classLoader, CLASSPATH_CLOSURE_NAME, ClosureCreationInterceptingVerifier.INSTANCE);
+                    compiled.add(new CompiledScriptClasses(source, script.scriptType, operation.getId()));
+                } catch (Exception e) {
+                    LOGGER.debug("Could not compile {} while building buildSrc.", source.getDisplayName(), e);
+                }
+            }
+        }
+
+        /**
+         * Waits for the scripts to be compiled.
+         */
+        public void stop() {
+            executor.stop();
+        }
+
+        /**
+         * Uses the compiled classes for those scripts that do not depend on the given buildSrc classes.
+         */
+        public void reuseFor(ClassLoaderScope buildSrcScope) {
+            ClassLoader buildSrcClassLoader = buildSrcScope.getExportClassLoader();
+            Collection<File> buildSrcClassPath = classPathAddedBy(buildSrcClassLoader);
+            if (buildSrcClassPath == null) {
+                LOGGER.debug("Not reusing script classes compiled while building buildSrc, as the buildSrc classpath cannot be inspected.");
+                return;
+            }
+            ScriptClassPathContents buildSrcContents = ScriptClassPathContents.of(buildSrcClassPath);
+            int reused = 0;
+            for (CompiledScriptClasses classes : compiled) {
+                String text = classes.source.getResource().getText();
+                if (buildSrcContents.mayAffect(text == null ? "" : text, defaultImportPackages)) {
+                    continue;
+                }
+                scriptClassCompiler.reuseCompiledClasses(classes.source, classes.scriptType, classes.transformerId, baseScope.getExportClassLoader(), buildSrcClassLoader);
+                reused++;
+            }
+            LOGGER.debug("Reusing {} of {} script classes compiled while building buildSrc.", reused, compiled.size());
+        }
+
+        @Nullable
+        private Collection<File> classPathAddedBy(ClassLoader classLoader) {
+            final Set<URL> baseUrls = new HashSet<URL>();
+            new ClassLoaderVisitor() {
+                @Override
+                public void visitClassPath(URL[] classPath) {
+                    baseUrls.addAll(Arrays.asList(classPath));
+                }
+            }.visit(baseScope.getExportClassLoader());
+            final Set<File> files = new LinkedHashSet<File>();
+            final List<URL> unknown = new ArrayList<URL>();
+            new ClassLoaderVisitor() {
+                @Override
+                public void visitClassPath(URL[] classPath) {
+                    for (URL url : classPath) {
+                        if (baseUrls.contains(url)) {
+                            continue;
+                        }
+                        try {
+                            files.add(new File(url.toURI()));
+                        } catch (Exception e) {
+                            unknown.add(url);
+                        }
+                    }
+                }
+            }.visit(classLoader);
+            return unknown.isEmpty() ? files : null;
+        }
+    }
+
+    private static class ScriptToCompile {
+        final ScriptSource source;
+        final Class<? extends BasicScript> scriptType;
+
+        ScriptToCompile(ScriptSource source, Class<? extends BasicScript> scriptType) {
+            this.source = source;
+            this.scriptType = scriptType;
+        }
+    }
+
+    private static class CompiledScriptClasses {
+        final ScriptSource source;
+        final Class<? extends Script> scriptType;
+        final String transformerId;
+
+        CompiledScriptClasses(ScriptSource source, Class<? extends Script> scriptType, String transformerId) {
+            this.source = source;
+            this.scriptType = scriptType;
+            this.transformerId = transformerId;
+        }
+    }
+}
@@ -22,9 +22,11 @@ import org.gradle.util.SingleMessageLogger;
 
 public class DefaultBuildConfigurer implements BuildConfigurer {
     private final ProjectConfigurer projectConfigurer;
+    private final BuildScriptPrecompiler buildScriptPrecompiler;
 
-    public DefaultBuildConfigurer(ProjectConfigurer projectConfigurer) {
+    public DefaultBuildConfigurer(ProjectConfigurer projectConfigurer, BuildScriptPrecompiler buildScriptPrecompiler) {
         this.projectConfigurer = projectConfigurer;
+        this.buildScriptPrecompiler = buildScriptPrecompiler;
     }
 
     public void configure(GradleInternal gradle) {
@@ -32,6 +34,9 @@ public class DefaultBuildConfigurer implements BuildConfigurer {
         if (gradle.getStartParameter().isConfigureOnDemand()) {
             projectConfigurer.configure(gradle.getRootProject());
         } else {
+            if (gradle.getStartParameter().isParallelConfiguration()) {
+                buildScriptPrecompiler.precompile(gradle.getRootProject());
+            }
             projectConfigurer.configureHierarchy(gradle.getRootProject());
         }
     }
@@ -44,5 +49,8 @@ public class DefaultBuildConfigurer implements BuildConfigurer {
         } else if (startParameter.isConfigureOnDemand()) {
             SingleMessageLogger.incubatingFeatureUsed("Configuration on demand");
         }
+        if (startParameter.isParallelConfiguration() && !startParameter.isConfigureOnDemand()) {
+            SingleMessageLogger.incubatingFeatureUsed("Parallel configuration");
+        }
     }
 }
\ No newline at end of file
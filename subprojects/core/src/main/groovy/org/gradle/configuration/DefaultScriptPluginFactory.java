@@ -73,6 +73,24 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
         return new ScriptPluginImpl(scriptSource, scriptHandler, targetScope, baseScope, classpathClosureName, scriptClass, ownerScript);
     }
 
+    static CompileOperation<PluginRequests> createInitialPassOperation(ScriptSource scriptSource, String classpathClosureName, Class<? extends BasicScript> scriptType, DocumentationRegistry documentationRegistry) {
+        boolean supportsPluginsBlock = ProjectScript.class.isAssignableFrom(scriptType);
+        String onPluginBlockError = supportsPluginsBlock ? null : "Only Project build scripts can contain plugins {} blocks";
+
+        InitialPassStatementTransformer initialPassStatementTransformer = new InitialPassStatementTransformer(classpathClosureName, onPluginBlockError, scriptSource, documentationRegistry);
+        SubsetScriptTransformer initialTransformer = new SubsetScriptTransformer(initialPassStatementTransformer);
+        return new FactoryBackedCompileOperation<PluginRequests>(classpathClosureName, initialTransformer, initialPassStatementTransformer, PluginRequestsSerializer.INSTANCE);
+    }
+
+    static CompileOperation<Boolean> createBuildScriptOperation(ScriptSource scriptSource, String classpathClosureName) {
+        BuildScriptTransformer buildScriptTransformer = new BuildScriptTransformer(classpathClosureName, scriptSource);
+        String operationId = "no_" + classpathClosureName;
+        if (ModelBlockTransformer.isEnabled()) {
+            operationId = "m_".concat(operationId);
+        }
+        return new FactoryBackedCompileOperation<Boolean>(operationId, buildScriptTransformer, buildScriptTransformer, BaseSerializerFactory.BOOLEAN_SERIALIZER);
+    }
+
     private class ScriptPluginImpl implements ScriptPlugin {
         private final ScriptSource scriptSource;
         private final ClassLoaderScope targetScope;
@@ -112,12 +130,7 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
 
             // Pass 1, extract plugin requests and execute buildscript {}, ignoring (i.e. not even compiling) anything else
 
-            boolean supportsPluginsBlock = ProjectScript.class.isAssignableFrom(scriptType);
-            String onPluginBlockError = supportsPluginsBlock ? null : "Only Project build scripts can contain plugins {} blocks";
-
-            InitialPassStatementTransformer initialPassStatementTransformer = new InitialPassStatementTransformer(classpathClosureName, onPluginBlockError, scriptSource, documentationRegistry);
-            SubsetScriptTransformer initialTransformer = new SubsetScriptTransformer(initialPassStatementTransformer);
-            CompileOperation<PluginRequests> initialOperation = new FactoryBackedCompileOperation<PluginRequests>(classpathClosureName, initialTransformer, initialPassStatementTransformer, PluginRequestsSerializer.INSTANCE);
+            CompileOperation<PluginRequests> initialOperation = createInitialPassOperation(scriptSource, classpathClosureName, scriptType, documentationRegistry);
 
             ScriptRunner<? extends BasicScript, PluginRequests> initialRunner = compiler.compile(scriptType, initialOperation, baseScope.getExportClassLoader(), classpathClosureName, Actions.doNothing());
             initialRunner.getScript().init(target, services);
@@ -129,12 +142,7 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
 
             // Pass 2, compile everything except buildscript {} and plugin requests, then run
 
-            BuildScriptTransformer buildScriptTransformer = new BuildScriptTransformer(classpathClosureName, scriptSource);
-            String operationId = "no_" + classpathClosureName;
-            if (ModelBlockTransformer.isEnabled()) {
-                operationId = "m_".concat(operationId);
-            }
-            CompileOperation<Boolean> operation = new FactoryBackedCompileOperation<Boolean>(operationId, buildScriptTransformer, buildScriptTransformer, BaseSerializerFactory.BOOLEAN_SERIALIZER);
+            CompileOperation<Boolean> operation = createBuildScriptOperation(scriptSource, classpathClosureName);
 
             final ScriptRunner<? extends BasicScript, Boolean> runner = compiler.compile(scriptType, operation, targetScope.getLocalClassLoader(), classpathClosureName, ClosureCreationInterceptingVerifier.INSTANCE);
 
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration;
+
+import org.gradle.api.UncheckedIOException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The packages and global AST transformations that a classpath contributes to the scripts compiled against it.
+ */
+class ScriptClassPathContents {
+    private static final String GLOBAL_AST_TRANSFORMATIONS = "META-INF/services/org.codehaus.groovy.transform.ASTTransformation";
+    private final Set<String> packages = new HashSet<String>();
+    private boolean affectsAllScripts;
+
+    static ScriptClassPathContents of(Iterable<File> classPath) {
+        ScriptClassPathContents contents = new ScriptClassPathContents();
+        for (File file : classPath) {
+            if (file.isDirectory()) {
+                contents.visitDir(file, "");
+            } else if (file.isFile()) {
+                contents.visitJar(file);
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Returns true when compiling the given script against this classpath may produce different classes than compiling it without this classpath. This is the case
+     * when the classpath contains global AST transformations or a file that cannot be read, or classes in the default package, in one of the given default import packages, or in a package that
+     * is mentioned by the script.
+     */
+    boolean mayAffect(String scriptText, Collection<String> defaultImportPackages) {
+        if (affectsAllScripts || packages.contains("")) {
+            return true;
+        }
+        for (String packageName : packages) {
+            if (defaultImportPackages.contains(packageName) || scriptText.contains(packageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void visitDir(File dir, String path) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                visitDir(file, path + file.getName() + "/");
+            } else {
+                visitEntry(path + file.getName());
+            }
+        }
+    }
+
+    private void visitJar(File jar) {
+        ZipFile zipFile;
+        try {
+            zipFile = new ZipFile(jar);
+        } catch (IOException e) {
+            // Cannot tell which classes it contains
+            affectsAllScripts = true;
+            return;
+        }
+        try {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory()) {
+                    visitEntry(entry.getName());
+                }
+            }
+        } finally {
+            try {
+                zipFile.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void visitEntry(String path) {
+        if (path.equals(GLOBAL_AST_TRANSFORMATIONS)) {
+            affectsAllScripts = true;
+        } else if (path.endsWith(".class")) {
+            int index = path.lastIndexOf('/');
+            packages.add(index < 0 ? "" : path.substring(0, index).replace('/', '.'));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.cache;
+
+import org.gradle.api.Nullable;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.resource.Resource;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects the scripts and files used to configure a build, and whatever it does that prevents its result from being reused.
+ */
+public class ConfigurationInputs {
+    private final Set<File> scriptFiles = new LinkedHashSet<File>();
+    private final Set<File> usedFiles = new LinkedHashSet<File>();
+    private boolean configured;
+    private String nonCacheableReason;
+
+    public synchronized void scriptUsed(ScriptSource scriptSource) {
+        Resource resource = scriptSource.getResource();
+        File file = resource.getFile();
+        if (file != null) {
+            scriptFiles.add(file);
+        } else if (resource.getURI() != null) {
+            // Remote scripts may change without notice
+            notCacheable("the build uses the remote script " + resource.getURI());
+        }
+    }
+
+    /**
+     * Called when the build logic locates a file through the project file APIs. Files located once the task graph is
+     * ready are used by the tasks rather than by the configuration, and are ignored.
+     */
+    public synchronized void fileUsed(File file) {
+        if (!configured) {
+            usedFiles.add(file);
+        }
+    }
+
+    public synchronized void configurationCompleted() {
+        configured = true;
+    }
+
+    /**
+     * Called when the build logic registers a listener that would not be notified if the result of the build was reused.
+     */
+    public synchronized void listenerRegistered(Object listener) {
+        notCacheable("the build registers the listener " + listener);
+    }
+
+    private void notCacheable(String reason) {
+        if (nonCacheableReason == null) {
+            nonCacheableReason = reason;
+        }
+    }
+
+    public synchronized Set<File> getScriptFiles() {
+        return new LinkedHashSet<File>(scriptFiles);
+    }
+
+    public synchronized Set<File> getUsedFiles() {
+        return new LinkedHashSet<File>(usedFiles);
+    }
+
+    /**
+     * @return false when the configuration uses a script that is not a local file, or registers a listener that would be skipped
+     */
+    public synchronized boolean isCacheable() {
+        return nonCacheableReason == null;
+    }
+
+    /**
+     * @return the first reason why the configuration is not cacheable, or null when it is cacheable
+     */
+    @Nullable
+    public synchronized String getNonCacheableReason() {
+        return nonCacheableReason;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.cache;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.ListSerializer;
+
+import java.util.List;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * The fingerprint of a build whose tasks were all up-to-date.
+ */
+public class ConfigurationResult {
+
+    private final byte[] requestHash;
+    private final List<String> configurationFiles;
+    private final byte[] configurationFilesHash;
+    private final List<String> trackedFiles;
+    private final byte[] trackedFilesHash;
+    private final int taskCount;
+
+    /**
+     * @param requestHash hash of the build request, such as the requested tasks and properties
+     * @param configurationFiles scripts, property files and other files read to configure the build, tracked by content
+     * @param trackedFiles files and directories used by the build and its tasks, tracked by their file system metadata
+     * @param taskCount number of tasks the build executed
+     */
+    public ConfigurationResult(byte[] requestHash, List<String> configurationFiles, byte[] configurationFilesHash, List<String> trackedFiles, byte[] trackedFilesHash, int taskCount) {
+        this.requestHash = requestHash;
+        this.configurationFiles = configurationFiles;
+        this.configurationFilesHash = configurationFilesHash;
+        this.trackedFiles = trackedFiles;
+        this.trackedFilesHash = trackedFilesHash;
+        this.taskCount = taskCount;
+    }
+
+    public byte[] getRequestHash() {
+        return requestHash;
+    }
+
+    public List<String> getConfigurationFiles() {
+        return configurationFiles;
+    }
+
+    public byte[] getConfigurationFilesHash() {
+        return configurationFilesHash;
+    }
+
+    public List<String> getTrackedFiles() {
+        return trackedFiles;
+    }
+
+    public byte[] getTrackedFilesHash() {
+        return trackedFilesHash;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<ConfigurationResult> {
+
+        private final ListSerializer<String> listSerializer = new ListSerializer<String>(STRING_SERIALIZER);
+
+        public ConfigurationResult read(Decoder decoder) throws Exception {
+            byte[] requestHash = decoder.readBinary();
+            List<String> configurationFiles = listSerializer.read(decoder);
+            byte[] configurationFilesHash = decoder.readBinary();
+            List<String> trackedFiles = listSerializer.read(decoder);
+            byte[] trackedFilesHash = decoder.readBinary();
+            int taskCount = decoder.readSmallInt();
+            return new ConfigurationResult(requestHash, configurationFiles, configurationFilesHash, trackedFiles, trackedFilesHash, taskCount);
+        }
+
+        public void write(Encoder encoder, ConfigurationResult value) throws Exception {
+            encoder.writeBinary(value.requestHash);
+            listSerializer.write(encoder, value.configurationFiles);
+            encoder.writeBinary(value.configurationFilesHash);
+            listSerializer.write(encoder, value.trackedFiles);
+            encoder.writeBinary(value.trackedFilesHash);
+            encoder.writeSmallInt(value.taskCount);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.cache;
+
+import org.gradle.api.internal.GradleInternal;
+
+/**
+ * Allows a build to skip configuration and task execution when the previous build of the same tasks had nothing to do
+ * and nothing the build depends on has changed since.
+ */
+public interface ConfigurationResultCache {
+
+    ConfigurationResultCache NO_OP = new ConfigurationResultCache() {
+        public boolean isUpToDate(GradleInternal gradle) {
+            return false;
+        }
+
+        public void store(GradleInternal gradle) {
+        }
+    };
+
+    /**
+     * Called once the projects of the build have been loaded.
+     *
+     * @return true when the result of the previous build can be reused, so that the projects do not need to be configured.
+     */
+    boolean isUpToDate(GradleInternal gradle);
+
+    /**
+     * Called once all tasks of the build have been executed successfully.
+     */
+    void store(GradleInternal gradle);
+}
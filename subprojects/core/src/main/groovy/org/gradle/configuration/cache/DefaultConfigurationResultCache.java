@@ -0,0 +1,377 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.cache;
+
+import org.gradle.StartParameter;
+import org.gradle.TaskExecutionRequest;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.execution.TaskExecutionGraphListener;
+import org.gradle.api.execution.internal.TaskInputsListener;
+import org.gradle.api.initialization.dsl.ScriptHandler;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.cache.SingleOperationPersistentStore;
+import org.gradle.api.internal.file.FileCollectionInternal;
+import org.gradle.api.internal.file.FileSystemSubset;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.util.GradleVersion;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Reuses the result of the previous build when all its tasks were up-to-date and nothing the build depends on has changed since.
+ *
+ * <p>The scripts and property files used to configure the build, and the files the build logic located through the project file
+ * APIs while it was configured, are compared by content. Files the build logic reads without going through these APIs are not
+ * tracked. The files consumed and produced by the tasks, the buildSrc sources and the build script classpath are recorded when the
+ * result is stored, and are compared by file system metadata: each recorded file by its size and timestamp, and each recorded
+ * directory by the names of its entries, so that checking the result does not walk the source trees. The environment variables
+ * and system properties of the build are compared as part of the build request.</p>
+ *
+ * <p>A result is only recorded when reusing it would behave the same as running the build: the build must not use remote scripts,
+ * changing or dynamic dependencies, or listeners that would not be notified when configuration and execution are skipped.
+ * The recorded result is discarded by any build that does not reuse it, so that it never outlives a build that did work.</p>
+ */
+public class DefaultConfigurationResultCache implements ConfigurationResultCache, TaskInputsListener, TaskExecutionGraphListener {
+    private static final Logger LOGGER = Logging.getLogger(DefaultConfigurationResultCache.class);
+    private static final String UP_TO_DATE = "UP-TO-DATE";
+    private static final String IGNORED_DIR = ".gradle";
+
+    private final CacheRepository cacheRepository;
+    private final ConfigurationInputs configurationInputs;
+    private final List<FileCollectionInternal> taskInputs = new ArrayList<FileCollectionInternal>();
+
+    public DefaultConfigurationResultCache(CacheRepository cacheRepository, ConfigurationInputs configurationInputs) {
+        this.cacheRepository = cacheRepository;
+        this.configurationInputs = configurationInputs;
+    }
+
+    public void onExecute(TaskInternal taskInternal, FileCollectionInternal fileSystemInputs) {
+        synchronized (taskInputs) {
+            taskInputs.add(fileSystemInputs);
+        }
+    }
+
+    public void graphPopulated(TaskExecutionGraph graph) {
+        configurationInputs.configurationCompleted();
+    }
+
+    public boolean isUpToDate(GradleInternal gradle) {
+        if (gradle.getParent() != null) {
+            return false;
+        }
+        SingleOperationPersistentStore<ConfigurationResult> store = createStore(gradle);
+        if (isUpToDate(gradle, store)) {
+            return true;
+        }
+        store.removeAndClose();
+        return false;
+    }
+
+    private boolean isUpToDate(GradleInternal gradle, SingleOperationPersistentStore<ConfigurationResult> store) {
+        if (!isEnabled(gradle)) {
+            return false;
+        }
+        if (!configurationInputs.isCacheable()) {
+            LOGGER.info("Not reusing the configuration result, as {}.", configurationInputs.getNonCacheableReason());
+            return false;
+        }
+        ConfigurationResult previous = store.getAndClose();
+        if (previous == null) {
+            LOGGER.info("No configuration result is available from a previous build.");
+            return false;
+        }
+        if (!Arrays.equals(previous.getRequestHash(), hashRequest(gradle.getStartParameter()))) {
+            LOGGER.info("Not reusing the configuration result, as the build request or environment has changed.");
+            return false;
+        }
+        if (!Arrays.equals(previous.getConfigurationFilesHash(), hashContent(toFiles(previous.getConfigurationFiles())))) {
+            LOGGER.info("Not reusing the configuration result, as a script or property file has changed.");
+            return false;
+        }
+        if (!Arrays.equals(previous.getTrackedFilesHash(), hashMetadata(toFiles(previous.getTrackedFiles())))) {
+            LOGGER.info("Not reusing the configuration result, as a task input or output has changed.");
+            return false;
+        }
+        LOGGER.lifecycle("Reusing the result of the previous build, as the build and all its {} tasks are up-to-date.", previous.getTaskCount());
+        return true;
+    }
+
+    public void store(GradleInternal gradle) {
+        if (!isEnabled(gradle)) {
+            return;
+        }
+        if (!configurationInputs.isCacheable()) {
+            LOGGER.info("Not storing the configuration result, as {}.", configurationInputs.getNonCacheableReason());
+            return;
+        }
+        List<Task> tasks = gradle.getTaskGraph().getAllTasks();
+        for (Task task : tasks) {
+            if (!UP_TO_DATE.equals(task.getState().getSkipMessage())) {
+                LOGGER.info("Not storing the configuration result, as {} was not up-to-date.", task);
+                return;
+            }
+        }
+
+        Set<File> configurationFiles = new LinkedHashSet<File>(configurationInputs.getScriptFiles());
+        configurationFiles.addAll(configurationInputs.getUsedFiles());
+        configurationFiles.add(new File(gradle.getStartParameter().getGradleUserHomeDir(), Project.GRADLE_PROPERTIES));
+        Set<File> trackedFiles = new LinkedHashSet<File>();
+        collectFiles(new File(gradle.getRootProject().getProjectDir(), "buildSrc"), trackedFiles);
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            configurationFiles.add(new File(project.getProjectDir(), Project.GRADLE_PROPERTIES));
+            ExternalModuleDependency changing = findChangingDependency(project.getBuildscript().getConfigurations());
+            if (changing == null) {
+                changing = findChangingDependency(project.getConfigurations());
+            }
+            if (changing != null) {
+                LOGGER.info("Not storing the configuration result, as {} uses the changing or dynamic dependency {}:{}:{}.", project, changing.getGroup(), changing.getName(), changing.getVersion());
+                return;
+            }
+            Configuration classpath = project.getBuildscript().getConfigurations().findByName(ScriptHandler.CLASSPATH_CONFIGURATION);
+            if (classpath != null && classpath.getState() == Configuration.State.RESOLVED) {
+                trackedFiles.addAll(classpath.getFiles());
+            }
+        }
+        collectTaskInputs(trackedFiles);
+        for (Task task : tasks) {
+            for (File output : task.getOutputs().getFiles()) {
+                collectFiles(output, trackedFiles);
+            }
+        }
+
+        createStore(gradle).putAndClose(new ConfigurationResult(
+            hashRequest(gradle.getStartParameter()),
+            toPaths(configurationFiles), hashContent(configurationFiles),
+            toPaths(trackedFiles), hashMetadata(trackedFiles),
+            tasks.size()));
+    }
+
+    /**
+     * Records the input files of the tasks, along with the directories between them and the roots of their file trees, so that
+     * files added to or removed from these trees are noticed without walking them.
+     */
+    private void collectTaskInputs(Set<File> trackedFiles) {
+        FileSystemSubset.Builder builder = FileSystemSubset.builder();
+        List<FileCollectionInternal> inputs;
+        synchronized (taskInputs) {
+            inputs = new ArrayList<FileCollectionInternal>(taskInputs);
+        }
+        for (FileCollectionInternal files : inputs) {
+            files.registerWatchPoints(builder);
+        }
+        Set<File> roots = new LinkedHashSet<File>();
+        for (File root : builder.build().getRoots()) {
+            roots.add(root);
+        }
+        trackedFiles.addAll(roots);
+        for (FileCollectionInternal files : inputs) {
+            for (File file : files) {
+                collectFiles(file, trackedFiles);
+                addDirectoriesBelowRoot(file, roots, trackedFiles);
+            }
+        }
+    }
+
+    private static void addDirectoriesBelowRoot(File file, Set<File> roots, Set<File> trackedFiles) {
+        List<File> directories = new ArrayList<File>();
+        for (File parent = file.getParentFile(); parent != null; parent = parent.getParentFile()) {
+            if (roots.contains(parent)) {
+                trackedFiles.addAll(directories);
+                return;
+            }
+            directories.add(parent);
+        }
+    }
+
+    /**
+     * Dependencies that may resolve to something else without any of the build's files changing, such as changing modules,
+     * dynamic versions and snapshots, can't be trusted to be the same when the build is not run.
+     */
+    private static ExternalModuleDependency findChangingDependency(Iterable<Configuration> configurations) {
+        for (Configuration configuration : configurations) {
+            if (configuration.getState() == Configuration.State.UNRESOLVED) {
+                continue;
+            }
+            for (Dependency dependency : configuration.getDependencies()) {
+                if (dependency instanceof ExternalModuleDependency) {
+                    ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+                    if (moduleDependency.isChanging() || isDynamic(moduleDependency.getVersion())) {
+                        return moduleDependency;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    static boolean isDynamic(String version) {
+        if (version == null) {
+            return true;
+        }
+        return version.endsWith("+")
+            || version.startsWith("latest.")
+            || version.endsWith("SNAPSHOT")
+            || version.startsWith("[") || version.startsWith("]") || version.startsWith("(")
+            || version.contains(",");
+    }
+
+    private SingleOperationPersistentStore<ConfigurationResult> createStore(GradleInternal gradle) {
+        return new SingleOperationPersistentStore<ConfigurationResult>(cacheRepository, gradle, "configuration result", new ConfigurationResult.Serializer());
+    }
+
+    private static boolean isEnabled(GradleInternal gradle) {
+        StartParameter startParameter = gradle.getStartParameter();
+        return gradle.getParent() == null
+            && !startParameter.isRerunTasks()
+            && !startParameter.isRefreshDependencies()
+            && !startParameter.isRecompileScripts()
+            && !startParameter.isDryRun()
+            && !startParameter.isContinuous();
+    }
+
+    static byte[] hashRequest(StartParameter startParameter) {
+        return hashRequest(startParameter, System.getenv(), System.getProperties());
+    }
+
+    static byte[] hashRequest(StartParameter startParameter, Map<String, String> environment, Properties systemProperties) {
+        StringBuilder request = new StringBuilder();
+        request.append(GradleVersion.current().getVersion()).append('\n');
+        request.append(startParameter.getCurrentDir()).append('\n');
+        request.append(startParameter.getBuildFile()).append('\n');
+        request.append(startParameter.getSettingsFile()).append('\n');
+        request.append(startParameter.getInitScripts()).append('\n');
+        for (TaskExecutionRequest taskRequest : startParameter.getTaskRequests()) {
+            request.append(taskRequest.getProjectPath()).append(taskRequest.getArgs()).append('\n');
+        }
+        request.append(startParameter.getExcludedTaskNames()).append('\n');
+        request.append(new TreeMap<String, String>(startParameter.getProjectProperties())).append('\n');
+        request.append(new TreeMap<String, String>(startParameter.getSystemPropertiesArgs())).append('\n');
+        request.append(startParameter.isOffline()).append(startParameter.isContinueOnFailure()).append(startParameter.isConfigureOnDemand()).append('\n');
+        // Build logic may read any of these, so all of them are part of the request
+        request.append(new TreeMap<String, String>(environment)).append('\n');
+        request.append(new TreeMap<Object, Object>(systemProperties));
+        return HashUtil.createHash(request.toString(), "MD5").asByteArray();
+    }
+
+    static byte[] hashContent(Collection<File> files) {
+        MessageDigest digest = createDigest();
+        for (File file : files) {
+            digest.update(file.getAbsolutePath().getBytes());
+            if (file.isFile()) {
+                digest.update((byte) 1);
+                digest.update(HashUtil.createHash(file, "MD5").asByteArray());
+            } else {
+                digest.update((byte) 0);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Adds the given file, or the given directory and everything below it, to the files to track.
+     */
+    static void collectFiles(File file, Collection<File> files) {
+        files.add(file);
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children == null) {
+                return;
+            }
+            Arrays.sort(children);
+            for (File child : children) {
+                if (!child.getName().equals(IGNORED_DIR)) {
+                    collectFiles(child, files);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes the metadata of the given files, without looking at what is below the given directories other than the names of their entries.
+     */
+    static byte[] hashMetadata(Collection<File> files) {
+        MessageDigest digest = createDigest();
+        for (File file : files) {
+            digest.update(file.getAbsolutePath().getBytes());
+            if (file.isDirectory()) {
+                digest.update((byte) 2);
+                String[] names = file.list();
+                if (names == null) {
+                    continue;
+                }
+                Arrays.sort(names);
+                for (String name : names) {
+                    if (!name.equals(IGNORED_DIR)) {
+                        digest.update(name.getBytes());
+                        digest.update((byte) 0);
+                    }
+                }
+            } else if (file.isFile()) {
+                digest.update((byte) 1);
+                update(digest, file.length());
+                update(digest, file.lastModified());
+            } else {
+                digest.update((byte) 0);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, long value) {
+        for (int i = 0; i < 8; i++) {
+            digest.update((byte) (value >>> (i * 8)));
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static List<String> toPaths(Collection<File> files) {
+        List<String> paths = new ArrayList<String>(files.size());
+        for (File file : files) {
+            paths.add(file.getAbsolutePath());
+        }
+        return paths;
+    }
+
+    private static List<File> toFiles(List<String> paths) {
+        List<File> files = new ArrayList<File>(paths.size());
+        for (String path : paths) {
+            files.add(new File(path));
+        }
+        return files;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.cache;
+
+import org.gradle.api.PathValidation;
+import org.gradle.api.internal.file.DefaultFileOperations;
+import org.gradle.api.internal.file.FileLookup;
+import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.file.TemporaryFileProvider;
+import org.gradle.api.internal.tasks.TaskResolver;
+import org.gradle.internal.reflect.Instantiator;
+
+import java.io.File;
+
+/**
+ * Reports the files located by the build logic to the {@link ConfigurationInputs}, so that a build that reads them while it is
+ * configured, such as with {@code version = file('version.txt').text}, is not reused once they change.
+ */
+public class RecordingFileOperations extends DefaultFileOperations {
+    private final ConfigurationInputs configurationInputs;
+
+    public RecordingFileOperations(FileResolver fileResolver, TaskResolver taskResolver, TemporaryFileProvider temporaryFileProvider, Instantiator instantiator, FileLookup fileLookup,
+                                   ConfigurationInputs configurationInputs) {
+        super(fileResolver, taskResolver, temporaryFileProvider, instantiator, fileLookup);
+        this.configurationInputs = configurationInputs;
+    }
+
+    @Override
+    public File file(Object path) {
+        File file = super.file(path);
+        configurationInputs.fileUsed(file);
+        return file;
+    }
+
+    @Override
+    public File file(Object path, PathValidation validation) {
+        File file = super.file(path, validation);
+        configurationInputs.fileUsed(file);
+        return file;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.cache;
+
+import org.gradle.BuildListener;
+import org.gradle.api.Action;
+import org.gradle.api.execution.TaskActionListener;
+import org.gradle.api.execution.TaskExecutionGraphListener;
+import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.internal.event.ListenerBroadcast;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.messaging.dispatch.Dispatch;
+import org.gradle.messaging.dispatch.MethodInvocation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reports the build, task graph and task listeners registered by build logic to the {@link ConfigurationInputs}, as these
+ * listeners would not be notified when the result of a previous build is reused.
+ *
+ * <p>Listeners implemented by Gradle's core runtime, such as the build and task loggers, are not reported. Closures and
+ * actions registered with a broadcaster are always reported.</p>
+ */
+public class TrackingListenerManager implements ListenerManager {
+    private static final List<Class<?>> TRACKED_TYPES = Arrays.<Class<?>>asList(BuildListener.class, TaskExecutionGraphListener.class, TaskExecutionListener.class, TaskActionListener.class);
+
+    private final ListenerManager delegate;
+    private final ConfigurationInputs configurationInputs;
+
+    public TrackingListenerManager(ListenerManager delegate, ConfigurationInputs configurationInputs) {
+        this.delegate = delegate;
+        this.configurationInputs = configurationInputs;
+    }
+
+    public void addListener(Object listener) {
+        maybeTrack(listener);
+        delegate.addListener(listener);
+    }
+
+    public void removeListener(Object listener) {
+        delegate.removeListener(listener);
+    }
+
+    public <T> T getBroadcaster(Class<T> listenerClass) {
+        return delegate.getBroadcaster(listenerClass);
+    }
+
+    public <T> ListenerBroadcast<T> createAnonymousBroadcaster(Class<T> listenerClass) {
+        if (!TRACKED_TYPES.contains(listenerClass)) {
+            return delegate.createAnonymousBroadcaster(listenerClass);
+        }
+        TrackingListenerBroadcast<T> broadcast = new TrackingListenerBroadcast<T>(listenerClass);
+        broadcast.addUntracked(delegate.getBroadcaster(listenerClass));
+        return broadcast;
+    }
+
+    public void useLogger(Object logger) {
+        maybeTrack(logger);
+        delegate.useLogger(logger);
+    }
+
+    public ListenerManager createChild() {
+        return new TrackingListenerManager(delegate.createChild(), configurationInputs);
+    }
+
+    private void maybeTrack(Object listener) {
+        if (listener.getClass().getClassLoader() == TrackingListenerManager.class.getClassLoader()) {
+            return;
+        }
+        for (Class<?> type : TRACKED_TYPES) {
+            if (type.isInstance(listener)) {
+                configurationInputs.listenerRegistered(listener);
+                return;
+            }
+        }
+    }
+
+    private class TrackingListenerBroadcast<T> extends ListenerBroadcast<T> {
+        TrackingListenerBroadcast(Class<T> type) {
+            super(type);
+        }
+
+        void addUntracked(T listener) {
+            super.add(listener);
+        }
+
+        @Override
+        public void add(T listener) {
+            maybeTrack(listener);
+            super.add(listener);
+        }
+
+        @Override
+        public void addAll(Iterable<? extends T> listeners) {
+            for (T listener : listeners) {
+                maybeTrack(listener);
+            }
+            super.addAll(listeners);
+        }
+
+        @Override
+        public void add(Dispatch<MethodInvocation> dispatch) {
+            configurationInputs.listenerRegistered(getType().getSimpleName() + " closure");
+            super.add(dispatch);
+        }
+
+        @Override
+        public void add(String methodName, Action<?> action) {
+            configurationInputs.listenerRegistered(getType().getSimpleName() + " action for " + methodName + "()");
+            super.add(methodName, action);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.internal.UncheckedException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Makes sure that a project is evaluated by a single thread at a time, so that projects can be configured concurrently.
+ *
+ * <p>A thread that requests a project which is being evaluated by another thread, for example through {@code evaluationDependsOn()}
+ * or a task path, waits until that evaluation has completed. When waiting would close a cycle between threads, the request returns
+ * immediately and sees the partially configured project, as it would when the cycle occurs on a single thread.</p>
+ *
+ * <p>A listener that requests a project gives up the {@link ProjectEvaluationListenerLock} while the request is served,
+ * so that the listeners of the requested project can be notified by whichever thread evaluates it.</p>
+ *
+ * <p>The {@link ParallelConfigurationGuard} is told which project the current thread is evaluating.</p>
+ */
+public class ExclusiveProjectEvaluator implements ProjectEvaluator {
+    private final ProjectEvaluator delegate;
+    private final ProjectEvaluationListenerLock listenerLock;
+    private final ParallelConfigurationGuard guard;
+    private final Object lock = new Object();
+    private final Map<ProjectInternal, Thread> owners = new HashMap<ProjectInternal, Thread>();
+    private final Map<Thread, ProjectInternal> waiting = new HashMap<Thread, ProjectInternal>();
+
+    public ExclusiveProjectEvaluator(ProjectEvaluator delegate, ProjectEvaluationListenerLock listenerLock, ParallelConfigurationGuard guard) {
+        this.delegate = delegate;
+        this.listenerLock = listenerLock;
+        this.guard = guard;
+    }
+
+    public void evaluate(ProjectInternal project, ProjectStateInternal state) {
+        int listenerLockCount = listenerLock.releaseAll();
+        try {
+            if (!acquire(project, state)) {
+                return;
+            }
+            guard.beforeEvaluate(project);
+            try {
+                delegate.evaluate(project, state);
+            } finally {
+                guard.afterEvaluate(project);
+                release(project);
+            }
+        } finally {
+            listenerLock.reacquire(listenerLockCount);
+        }
+    }
+
+    private boolean acquire(ProjectInternal project, ProjectStateInternal state) {
+        Thread current = Thread.currentThread();
+        synchronized (lock) {
+            while (true) {
+                if (state.getExecuted()) {
+                    return false;
+                }
+                Thread owner = owners.get(project);
+                if (owner == null) {
+                    owners.put(project, current);
+                    return true;
+                }
+                if (owner == current || isWaitingFor(owner, current)) {
+                    return false;
+                }
+                waiting.put(current, project);
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } finally {
+                    waiting.remove(current);
+                }
+            }
+        }
+    }
+
+    private boolean isWaitingFor(Thread thread, Thread target) {
+        Thread next = thread;
+        while (next != null) {
+            ProjectInternal project = waiting.get(next);
+            if (project == null) {
+                return false;
+            }
+            next = owners.get(project);
+            if (next == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void release(ProjectInternal project) {
+        synchronized (lock) {
+            owners.remove(project);
+            lock.notifyAll();
+        }
+    }
+}
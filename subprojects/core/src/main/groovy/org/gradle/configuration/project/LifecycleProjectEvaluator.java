@@ -31,23 +31,31 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
     private static final Logger LOGGER = LoggerFactory.getLogger(LifecycleProjectEvaluator.class);
 
     private final ProjectEvaluator delegate;
+    private final ProjectEvaluationListenerLock listenerLock;
 
     public LifecycleProjectEvaluator(ProjectEvaluator delegate) {
+        this(delegate, new ProjectEvaluationListenerLock());
+    }
+
+    public LifecycleProjectEvaluator(ProjectEvaluator delegate, ProjectEvaluationListenerLock listenerLock) {
         this.delegate = delegate;
+        this.listenerLock = listenerLock;
     }
 
     public void evaluate(ProjectInternal project, ProjectStateInternal state) {
-        //TODO this is one of the places to look into thread safety when we implement parallel configuration
         if (state.getExecuted() || state.getExecuting()) {
             return;
         }
 
         ProjectEvaluationListener listener = project.getProjectEvaluationBroadcaster();
+        listenerLock.lock();
         try {
             listener.beforeEvaluate(project);
         } catch (Exception e) {
             addConfigurationFailure(project, state, e);
             return;
+        } finally {
+            listenerLock.unlock();
         }
 
         state.setExecuting(true);
@@ -63,6 +71,7 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
     }
 
     private void notifyAfterEvaluate(ProjectEvaluationListener listener, ProjectInternal project, ProjectStateInternal state) {
+        listenerLock.lock();
         try {
             listener.afterEvaluate(project, state);
         } catch (Exception e) {
@@ -72,6 +81,8 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
                 return;
             }
             addConfigurationFailure(project, state, e);
+        } finally {
+            listenerLock.unlock();
         }
     }
 
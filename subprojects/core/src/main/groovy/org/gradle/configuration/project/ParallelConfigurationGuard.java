@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.InvalidUserCodeException;
+import org.gradle.api.internal.project.ProjectInternal;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fails a build that accesses a project from the configuration of another project, when the two may be configured concurrently.
+ *
+ * <p>While projects are configured in parallel, the configuration of a project may look up itself, its ancestors, its descendants and the projects
+ * it has requested using {@code evaluationDependsOn()}. Its ancestors and the projects it depends on have been configured already, and its
+ * descendants are not configured until it has been configured. Any other project may be configured at the same time by another thread.
+ * The configuration of a project may only run configure actions against itself and its descendants, as its ancestors and the projects it
+ * depends on may be read concurrently by other projects.</p>
+ */
+public class ParallelConfigurationGuard {
+    private final ThreadLocal<LinkedList<ProjectInternal>> configuring = new ThreadLocal<LinkedList<ProjectInternal>>() {
+        @Override
+        protected LinkedList<ProjectInternal> initialValue() {
+            return new LinkedList<ProjectInternal>();
+        }
+    };
+    private final Map<ProjectInternal, Set<ProjectInternal>> dependencies = new HashMap<ProjectInternal, Set<ProjectInternal>>();
+    private volatile boolean enabled;
+
+    /**
+     * Starts checking project access, called when projects start being configured concurrently.
+     */
+    public void start() {
+        enabled = true;
+    }
+
+    public void stop() {
+        enabled = false;
+        synchronized (dependencies) {
+            dependencies.clear();
+        }
+    }
+
+    public void beforeEvaluate(ProjectInternal project) {
+        configuring.get().addFirst(project);
+    }
+
+    public void afterEvaluate(ProjectInternal project) {
+        configuring.get().remove(project);
+    }
+
+    /**
+     * Records that the project being configured by the current thread has requested the given project to be configured first.
+     */
+    public void dependsOn(ProjectInternal target) {
+        ProjectInternal current = configuring.get().peek();
+        if (!enabled || current == null) {
+            return;
+        }
+        synchronized (dependencies) {
+            Set<ProjectInternal> targets = dependencies.get(current);
+            if (targets == null) {
+                targets = new HashSet<ProjectInternal>();
+                dependencies.put(current, targets);
+            }
+            targets.add(target);
+        }
+    }
+
+    public void checkAccess(ProjectInternal target) {
+        ProjectInternal current = configuring.get().peek();
+        if (!enabled || current == null) {
+            return;
+        }
+        if (isSameOrDescendant(target, current) || isSameOrDescendant(current, target) || isDependency(current, target)) {
+            return;
+        }
+        throw new InvalidUserCodeException(String.format("Cannot access %s from %s while projects are configured in parallel. Call evaluationDependsOn('%s') first, or access it from a common parent project.",
+                target, current, target.getPath()));
+    }
+
+    public void checkConfigure(ProjectInternal target) {
+        ProjectInternal current = configuring.get().peek();
+        if (!enabled || current == null) {
+            return;
+        }
+        if (isSameOrDescendant(target, current)) {
+            return;
+        }
+        throw new InvalidUserCodeException(String.format("Cannot configure %s from %s while projects are configured in parallel. Configure it from its own build script or from a common parent project.",
+                target, current));
+    }
+
+    private boolean isDependency(ProjectInternal project, ProjectInternal target) {
+        synchronized (dependencies) {
+            Set<ProjectInternal> targets = dependencies.get(project);
+            return targets != null && targets.contains(target);
+        }
+    }
+
+    private static boolean isSameOrDescendant(ProjectInternal project, ProjectInternal ancestor) {
+        for (ProjectInternal next = project; next != null; next = next.getParent()) {
+            if (next == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
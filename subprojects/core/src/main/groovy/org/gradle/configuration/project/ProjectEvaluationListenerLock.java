@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project;
+
+import org.gradle.internal.UncheckedException;
+
+/**
+ * Makes sure that project evaluation listeners, including the {@code beforeProject()}, {@code afterProject()} and {@code afterEvaluate()}
+ * closures of build scripts, are not notified by two threads at the same time when projects are configured concurrently.
+ *
+ * <p>The lock is reentrant. A thread that holds it while requesting the evaluation of another project gives it up until the request
+ * has completed, see {@link ExclusiveProjectEvaluator}, so that the thread evaluating that project can notify its listeners.</p>
+ */
+public class ProjectEvaluationListenerLock {
+    private Thread owner;
+    private int holdCount;
+
+    public synchronized void lock() {
+        Thread current = Thread.currentThread();
+        while (owner != null && owner != current) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        owner = current;
+        holdCount++;
+    }
+
+    public synchronized void unlock() {
+        if (owner != Thread.currentThread()) {
+            throw new IllegalStateException("Project evaluation listener lock is not held by the current thread.");
+        }
+        if (--holdCount == 0) {
+            owner = null;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Gives up the lock when the current thread holds it.
+     *
+     * @return the number of times the current thread held the lock, to pass to {@link #reacquire(int)}
+     */
+    public synchronized int releaseAll() {
+        if (owner != Thread.currentThread()) {
+            return 0;
+        }
+        int released = holdCount;
+        holdCount = 0;
+        owner = null;
+        notifyAll();
+        return released;
+    }
+
+    public synchronized void reacquire(int count) {
+        if (count == 0) {
+            return;
+        }
+        lock();
+        holdCount += count - 1;
+    }
+}
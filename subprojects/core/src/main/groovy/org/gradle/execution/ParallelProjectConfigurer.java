@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.execution;
+
+import org.gradle.api.BuildCancelledException;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.project.ParallelConfigurationGuard;
+import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+/**
+ * Configures a project hierarchy using several threads. A project is configured once its parent has been configured,
+ * so that sibling projects are configured concurrently. Configuration stops at the first failure.
+ *
+ * <p>Projects requested across the hierarchy while configuring are evaluated on demand,
+ * see {@link org.gradle.configuration.project.ExclusiveProjectEvaluator}. Project evaluation listeners are notified
+ * by one thread at a time, see {@link org.gradle.configuration.project.ProjectEvaluationListenerLock}. Access from one project to another
+ * project that may be configured concurrently fails, see {@link ParallelConfigurationGuard}.</p>
+ */
+public class ParallelProjectConfigurer implements ProjectConfigurer {
+    private final ProjectConfigurer delegate;
+    private final BuildCancellationToken cancellationToken;
+    private final ExecutorFactory executorFactory;
+    private final int maxWorkerCount;
+    private final ParallelConfigurationGuard guard;
+
+    public ParallelProjectConfigurer(ProjectConfigurer delegate, BuildCancellationToken cancellationToken, ExecutorFactory executorFactory, int maxWorkerCount,
+                                     ParallelConfigurationGuard guard) {
+        this.delegate = delegate;
+        this.cancellationToken = cancellationToken;
+        this.executorFactory = executorFactory;
+        this.maxWorkerCount = maxWorkerCount;
+        this.guard = guard;
+    }
+
+    public void configure(ProjectInternal project) {
+        delegate.configure(project);
+    }
+
+    public void configureHierarchy(ProjectInternal project) {
+        delegate.configure(project);
+        if (project.getChildProjects().isEmpty()) {
+            return;
+        }
+        StoppableExecutor executor = executorFactory.create("Project configuration", maxWorkerCount);
+        guard.start();
+        try {
+            HierarchyConfiguration configuration = new HierarchyConfiguration(executor);
+            configuration.configureChildren(project);
+            configuration.awaitCompletion();
+        } finally {
+            executor.stop();
+            guard.stop();
+        }
+    }
+
+    private class HierarchyConfiguration {
+        private final StoppableExecutor executor;
+        private int pending;
+        private Throwable failure;
+
+        HierarchyConfiguration(StoppableExecutor executor) {
+            this.executor = executor;
+        }
+
+        void configureChildren(ProjectInternal parent) {
+            for (Project child : parent.getChildProjects().values()) {
+                schedule((ProjectInternal) child);
+            }
+        }
+
+        private void schedule(final ProjectInternal project) {
+            synchronized (this) {
+                if (failure != null) {
+                    return;
+                }
+                pending++;
+            }
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        if (cancellationToken.isCancellationRequested()) {
+                            throw new BuildCancelledException();
+                        }
+                        project.evaluate();
+                        configureChildren(project);
+                    } catch (Throwable t) {
+                        failed(t);
+                    } finally {
+                        completed();
+                    }
+                }
+            });
+        }
+
+        private synchronized void failed(Throwable t) {
+            if (failure == null) {
+                failure = t;
+            }
+        }
+
+        private synchronized void completed() {
+            pending--;
+            notifyAll();
+        }
+
+        synchronized void awaitCompletion() {
+            while (pending > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ import com.google.common.base.StandardSystemProperty;
 import com.google.common.collect.*;
 import org.gradle.api.*;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.file.FilePathInterner;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.CachingTaskDependencyResolveContext;
 import org.gradle.api.logging.Logger;
@@ -44,7 +45,6 @@ import org.gradle.util.CollectionUtils;
 import org.gradle.util.TextUtil;
 
 import java.io.File;
-import java.io.IOException;
 import java.io.StringWriter;
 import java.util.*;
 import java.util.concurrent.locks.Condition;
@@ -81,10 +81,16 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
     private boolean tasksCancelled;
 
     private final boolean intraProjectParallelization;
+    private final FilePathInterner pathInterner;
 
     public DefaultTaskExecutionPlan(BuildCancellationToken cancellationToken, boolean intraProjectParallelization) {
+        this(cancellationToken, intraProjectParallelization, new FilePathInterner());
+    }
+
+    public DefaultTaskExecutionPlan(BuildCancellationToken cancellationToken, boolean intraProjectParallelization, FilePathInterner pathInterner) {
         this.cancellationToken = cancellationToken;
         this.intraProjectParallelization = intraProjectParallelization;
+        this.pathInterner = pathInterner;
 
         if (intraProjectParallelization) {
             LOGGER.info("intra project task parallelization is enabled");
@@ -92,7 +98,11 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
     }
 
     public DefaultTaskExecutionPlan(BuildCancellationToken cancellationToken) {
-        this(cancellationToken, Boolean.getBoolean(INTRA_PROJECT_TOGGLE));
+        this(cancellationToken, new FilePathInterner());
+    }
+
+    public DefaultTaskExecutionPlan(BuildCancellationToken cancellationToken, FilePathInterner pathInterner) {
+        this(cancellationToken, Boolean.getBoolean(INTRA_PROJECT_TOGGLE), pathInterner);
     }
 
     public void addToTaskGraph(Collection<? extends Task> tasks) {
@@ -535,13 +545,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
             paths = Sets.newHashSet(Iterables.transform(task.getOutputs().getFiles(), new Function<File, String>() {
                 @Override
                 public String apply(File file) {
-                    String path;
-                    try {
-                        path = file.getCanonicalPath();
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
-                    return path;
+                    return pathInterner.getCanonicalPath(file);
                 }
             }));
             canonicalizedOutputCache.put(task, paths);
@@ -23,6 +23,7 @@ import org.gradle.api.execution.TaskExecutionListener;
 import org.gradle.api.execution.internal.InternalTaskExecutionListener;
 import org.gradle.api.execution.internal.TaskOperationInternal;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.file.FilePathInterner;
 import org.gradle.api.internal.tasks.TaskStateInternal;
 import org.gradle.api.specs.Spec;
 import org.gradle.execution.TaskFailureHandler;
@@ -54,11 +55,15 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
     private TaskGraphState taskGraphState = TaskGraphState.EMPTY;
 
     public DefaultTaskGraphExecuter(ListenerManager listenerManager, TaskPlanExecutor taskPlanExecutor, BuildCancellationToken cancellationToken) {
+        this(listenerManager, taskPlanExecutor, cancellationToken, new FilePathInterner());
+    }
+
+    public DefaultTaskGraphExecuter(ListenerManager listenerManager, TaskPlanExecutor taskPlanExecutor, BuildCancellationToken cancellationToken, FilePathInterner pathInterner) {
         this.taskPlanExecutor = taskPlanExecutor;
         graphListeners = listenerManager.createAnonymousBroadcaster(TaskExecutionGraphListener.class);
         taskListeners = listenerManager.createAnonymousBroadcaster(TaskExecutionListener.class);
         internalTaskListeners = listenerManager.createAnonymousBroadcaster(InternalTaskExecutionListener.class);
-        taskExecutionPlan = new DefaultTaskExecutionPlan(cancellationToken);
+        taskExecutionPlan = new DefaultTaskExecutionPlan(cancellationToken, pathInterner);
     }
 
     public void useFailureHandler(TaskFailureHandler handler) {
@@ -23,10 +23,10 @@ import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Cast;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 public class CachingScriptClassCompiler implements ScriptClassCompiler {
-    private final Map<Key, CompiledScript<?, ?>> cachedCompiledScripts = Maps.newHashMap();
+    private final ConcurrentMap<Key, CompiledScript<?, ?>> cachedCompiledScripts = Maps.newConcurrentMap();
     private final ScriptClassCompiler scriptClassCompiler;
 
     public CachingScriptClassCompiler(ScriptClassCompiler scriptClassCompiler) {
@@ -39,7 +39,10 @@ public class CachingScriptClassCompiler implements ScriptClassCompiler {
         CompiledScript<T, M> compiledScript = Cast.uncheckedCast(cachedCompiledScripts.get(key));
         if (compiledScript == null) {
             compiledScript = scriptClassCompiler.compile(source, classLoader, classLoaderId, operation, classpathClosureName, scriptBaseClass, verifier);
-            cachedCompiledScripts.put(key, compiledScript);
+            CompiledScript<T, M> existing = Cast.uncheckedCast(cachedCompiledScripts.putIfAbsent(key, compiledScript));
+            if (existing != null) {
+                return existing;
+            }
         }
         return compiledScript;
     }
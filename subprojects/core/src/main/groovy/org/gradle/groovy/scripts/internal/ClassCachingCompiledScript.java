@@ -35,6 +35,11 @@ public class ClassCachingCompiledScript<T extends Script, M> implements Compiled
         return scriptClass;
     }
 
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
     @Override
     public M getData() {
         return delegate.getData();
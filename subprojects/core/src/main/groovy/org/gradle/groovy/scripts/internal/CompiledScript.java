@@ -22,5 +22,10 @@ public interface CompiledScript<T extends Script, D> {
 
     Class<? extends T> loadClass();
 
+    /**
+     * Returns true when the script has no statements, so that running it does nothing.
+     */
+    boolean isEmpty();
+
     D getData();
 }
@@ -203,7 +203,7 @@ public class DefaultScriptCompilationHandler implements ScriptCompilationHandler
 
             @Override
             public Class<? extends T> loadClass() {
-                if (new File(scriptCacheDir, EMPTY_SCRIPT_MARKER_FILE_NAME).isFile()) {
+                if (isEmpty()) {
                     classLoaderCache.remove(classLoaderId);
                     return emptyScriptGenerator.generate(scriptBaseClass);
                 }
@@ -220,6 +220,11 @@ public class DefaultScriptCompilationHandler implements ScriptCompilationHandler
                 }
             }
 
+            @Override
+            public boolean isEmpty() {
+                return new File(scriptCacheDir, EMPTY_SCRIPT_MARKER_FILE_NAME).isFile();
+            }
+
             @Override
             public M getData() {
                 return metadata;
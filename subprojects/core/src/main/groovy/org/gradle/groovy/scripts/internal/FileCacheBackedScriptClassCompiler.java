@@ -16,32 +16,47 @@
 package org.gradle.groovy.scripts.internal;
 
 import groovy.lang.Script;
+import org.apache.commons.lang.StringUtils;
 import org.codehaus.groovy.ast.ClassNode;
 import org.gradle.api.Action;
+import org.gradle.api.GradleException;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.PersistentCache;
+import org.gradle.groovy.scripts.DelegatingScriptSource;
 import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.classloader.ClassLoaderVisitor;
+import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.hash.HashUtil;
 import org.gradle.logging.ProgressLogger;
 import org.gradle.logging.ProgressLoggerFactory;
+import org.gradle.util.GFileUtils;
 
 import java.io.Closeable;
 import java.io.File;
+import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A {@link ScriptClassCompiler} which compiles scripts to a cache directory, and loads them from there.
+ *
+ * <p>Compiled classes are keyed by the content of the script and the classpath it is compiled against, rather than by the location of the script,
+ * so that scripts with identical content share a single compilation. A script that uses classes compiled for another script loads them from
+ * the same cache entry, rewriting their debug information as they are loaded so that it points at its own file.</p>
  */
 public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler, Closeable {
+    private static final String SOURCE_FILE_NAME = "source-file.txt";
     private final ScriptCompilationHandler scriptCompilationHandler;
     private final ProgressLoggerFactory progressLoggerFactory;
     private final CacheRepository cacheRepository;
     private final CacheValidator validator;
     private final CompositeStoppable caches = new CompositeStoppable();
+    private final Map<ClassLoader, String> classPathHashes = new ConcurrentHashMap<ClassLoader, String>();
+    private final Map<String, String> reusedClassPathHashes = new ConcurrentHashMap<String, String>();
 
     public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler,
                                               ProgressLoggerFactory progressLoggerFactory) {
@@ -54,33 +69,84 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
     @Override
     public <T extends Script, M> CompiledScript<T, M> compile(final ScriptSource source, final ClassLoader classLoader, final ClassLoaderId classLoaderId, CompileOperation<M> operation, String classpathClosureName, final Class<T> scriptBaseClass,
                                                               Action<? super ClassNode> verifier) {
+        String sourceHash = HashUtil.createCompactMD5(source.getResource().getText());
         Map<String, Object> properties = new HashMap<String, Object>();
-        properties.put("source.filename", source.getFileName());
-        properties.put("source.hash", HashUtil.createCompactMD5(source.getResource().getText()));
+        properties.put("source.hash", sourceHash);
 
+        ScriptSource sharedSource = new SharedScriptSource(source, sourceHash);
         String transformerId = operation.getId();
-        String cacheName = String.format("scripts/%s/%s/%s", source.getClassName(), scriptBaseClass.getSimpleName(), transformerId);
+        String classPathHash = classPathHash(classLoader);
+        String reusedClassPathHash = reusedClassPathHashes.get(reuseKey(sharedSource, scriptBaseClass, transformerId, classPathHash));
+        if (reusedClassPathHash != null) {
+            classPathHash = reusedClassPathHash;
+        }
+        String cacheName = String.format("scripts/%s/%s/%s/%s", sharedSource.getClassName(), classPathHash, scriptBaseClass.getSimpleName(), transformerId);
         PersistentCache cache = cacheRepository.cache(cacheName)
                 .withProperties(properties)
                 .withValidator(validator)
                 .withDisplayName(String.format("%s class cache for %s", transformerId, source.getDisplayName()))
-                .withInitializer(new ProgressReportingInitializer(progressLoggerFactory, new CacheInitializer(source, classLoader, operation, classpathClosureName, verifier, scriptBaseClass)))
+                .withInitializer(new ProgressReportingInitializer(progressLoggerFactory, new CacheInitializer(sharedSource, classLoader, operation, classpathClosureName, verifier, scriptBaseClass)))
                 .open();
 
         // This isn't quite right. The cache will be closed at the end of the build, releasing the shared lock on the classes. Instead, the cache for a script should be
         // closed once we no longer require the script classes. This may be earlier than the end of the current build, or it may used across multiple builds
-        caches.add(cache);
+        addCache(cache);
 
         final File classesDir = classesDir(cache);
         final File metadataDir = metadataDir(cache);
 
-        return scriptCompilationHandler.loadFromDir(source, classLoader, classesDir, metadataDir, operation, scriptBaseClass, classLoaderId);
+        CompiledScript<T, M> compiledScript = scriptCompilationHandler.loadFromDir(sharedSource, classLoader, classesDir, metadataDir, operation, scriptBaseClass, classLoaderId);
+        if (source.getFileName().equals(GFileUtils.readFileQuietly(new File(cache.getBaseDir(), SOURCE_FILE_NAME)))) {
+            return compiledScript;
+        }
+        // Compiled for another script with the same content, load the classes so that they refer to this script instead
+        return new ClassCachingCompiledScript<T, M>(new RelocatedCompiledScript<T, M>(compiledScript, sharedSource, classLoader, classesDir, scriptBaseClass));
+    }
+
+    /**
+     * Uses the classes of the given script compiled against one class loader when the script is later compiled against another class loader.
+     * The caller is responsible for making sure that compiling against either class loader produces the same classes.
+     */
+    public void reuseCompiledClasses(ScriptSource source, Class<? extends Script> scriptBaseClass, String transformerId, ClassLoader compiledAgainst, ClassLoader usedWith) {
+        String compiledAgainstHash = classPathHash(compiledAgainst);
+        String usedWithHash = classPathHash(usedWith);
+        if (compiledAgainstHash.equals(usedWithHash)) {
+            return;
+        }
+        ScriptSource sharedSource = new SharedScriptSource(source, HashUtil.createCompactMD5(source.getResource().getText()));
+        reusedClassPathHashes.put(reuseKey(sharedSource, scriptBaseClass, transformerId, usedWithHash), compiledAgainstHash);
+    }
+
+    private static String reuseKey(ScriptSource sharedSource, Class<? extends Script> scriptBaseClass, String transformerId, String classPathHash) {
+        return String.format("%s/%s/%s/%s", sharedSource.getClassName(), classPathHash, scriptBaseClass.getSimpleName(), transformerId);
     }
 
     public void close() {
         caches.stop();
     }
 
+    private synchronized void addCache(PersistentCache cache) {
+        caches.add(cache);
+    }
+
+    private String classPathHash(ClassLoader classLoader) {
+        String hash = classPathHashes.get(classLoader);
+        if (hash == null) {
+            final StringBuilder classPath = new StringBuilder();
+            new ClassLoaderVisitor() {
+                @Override
+                public void visitClassPath(URL[] urls) {
+                    for (URL url : urls) {
+                        classPath.append(url).append('\n');
+                    }
+                }
+            }.visit(classLoader);
+            hash = HashUtil.createCompactMD5(classPath.toString());
+            classPathHashes.put(classLoader, hash);
+        }
+        return hash;
+    }
+
     private File classesDir(PersistentCache cache) {
         return new File(cache.getBaseDir(), "classes");
     }
@@ -111,6 +177,66 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
             File classesDir = classesDir(cache);
             File metadataDir = metadataDir(cache);
             scriptCompilationHandler.compileToDir(source, classLoader, classesDir, metadataDir, transformer, classpathClosureName, scriptBaseClass, verifier);
+            GFileUtils.writeFile(source.getFileName(), new File(cache.getBaseDir(), SOURCE_FILE_NAME));
+        }
+    }
+
+    /**
+     * Loads the classes compiled for another script with the same content, binding them to the file of this script.
+     */
+    private static class RelocatedCompiledScript<T extends Script, M> implements CompiledScript<T, M> {
+        private final CompiledScript<T, M> delegate;
+        private final ScriptSource source;
+        private final ClassLoader parent;
+        private final File classesDir;
+        private final Class<T> scriptBaseClass;
+
+        RelocatedCompiledScript(CompiledScript<T, M> delegate, ScriptSource source, ClassLoader parent, File classesDir, Class<T> scriptBaseClass) {
+            this.delegate = delegate;
+            this.source = source;
+            this.parent = parent;
+            this.classesDir = classesDir;
+            this.scriptBaseClass = scriptBaseClass;
+        }
+
+        @Override
+        public Class<? extends T> loadClass() {
+            if (delegate.isEmpty()) {
+                return delegate.loadClass();
+            }
+            ClassLoader loader = new SourceFileRewritingClassLoader(new DefaultClassPath(classesDir).getAsURLArray(), parent, source.getFileName());
+            try {
+                return loader.loadClass(source.getClassName()).asSubclass(scriptBaseClass);
+            } catch (ClassNotFoundException e) {
+                throw new GradleException(String.format("Could not load compiled classes for %s from cache.", source.getDisplayName()), e);
+            }
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return delegate.isEmpty();
+        }
+
+        @Override
+        public M getData() {
+            return delegate.getData();
+        }
+    }
+
+    /**
+     * Names the script class after the content of the script rather than its location, so that the compiled classes can be shared.
+     */
+    private static class SharedScriptSource extends DelegatingScriptSource {
+        private final String className;
+
+        public SharedScriptSource(ScriptSource source, String sourceHash) {
+            super(source);
+            this.className = StringUtils.substringBeforeLast(source.getClassName(), "_") + "_" + sourceHash;
+        }
+
+        @Override
+        public String getClassName() {
+            return className;
         }
     }
 
@@ -44,6 +44,11 @@ public class ShortCircuitEmptyScriptCompiler implements ScriptClassCompiler {
                     return emptyScriptGenerator.generate(scriptBaseClass);
                 }
 
+                @Override
+                public boolean isEmpty() {
+                    return true;
+                }
+
                 @Override
                 public M getData() {
                     return operation.getExtractedData();
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.groovy.scripts.internal;
+
+import org.apache.commons.io.IOUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Loads compiled script classes, pointing the debug information of each class at the given source file. This allows scripts with identical
+ * content to share a single compilation while still reporting their own file in stack traces.
+ */
+class SourceFileRewritingClassLoader extends URLClassLoader {
+    private final String sourceFileName;
+
+    SourceFileRewritingClassLoader(URL[] urls, ClassLoader parent, String sourceFileName) {
+        super(urls, parent);
+        this.sourceFileName = sourceFileName;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        URL resource = findResource(name.replace('.', '/') + ".class");
+        if (resource == null) {
+            throw new ClassNotFoundException(name);
+        }
+        byte[] bytes;
+        try {
+            InputStream inputStream = resource.openStream();
+            try {
+                bytes = IOUtils.toByteArray(inputStream);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+        byte[] rewritten = rewrite(bytes);
+        return defineClass(name, rewritten, 0, rewritten.length);
+    }
+
+    private byte[] rewrite(byte[] bytes) {
+        ClassReader reader = new ClassReader(bytes);
+        ClassWriter writer = new ClassWriter(0);
+        reader.accept(new ClassVisitor(Opcodes.ASM5, writer) {
+            @Override
+            public void visitSource(String source, String debug) {
+                super.visitSource(sourceFileName, debug);
+            }
+        }, 0);
+        return writer.toByteArray();
+    }
+}
@@ -50,6 +50,12 @@ public class DefaultCommandLineConverter extends AbstractCommandLineConverter<St
 
     private static final String CONFIGURE_ON_DEMAND = "configure-on-demand";
 
+    private static final String PARALLEL_CONFIGURATION = "parallel-configuration";
+
+    private static final String CONFIGURATION_CACHE = "configuration-cache";
+
+    private static final String CONCURRENT_BUILD_SRC = "concurrent-buildsrc";
+
     private static final String CONTINUOUS = "continuous";
     private static final String CONTINUOUS_SHORT_FLAG = "t";
 
@@ -87,6 +93,9 @@ public class DefaultCommandLineConverter extends AbstractCommandLineConverter<St
                 deprecated("Please use --parallel, optionally in conjunction with --max-workers.").incubating();
         parser.option(MAX_WORKERS).hasArgument().hasDescription("Configure the number of concurrent workers Gradle is allowed to use.").incubating();
         parser.option(CONFIGURE_ON_DEMAND).hasDescription("Only relevant projects are configured in this build run. This means faster build for large multi-project builds.").incubating();
+        parser.option(PARALLEL_CONFIGURATION).hasDescription("Configure decoupled projects in parallel. Each project is configured after its parent project.").incubating();
+        parser.option(CONFIGURATION_CACHE).hasDescription("Skips configuration and task execution when the build and all its task inputs and outputs are unchanged since the last up-to-date build.").incubating();
+        parser.option(CONCURRENT_BUILD_SRC).hasDescription("Compiles the settings script and the root build script while buildSrc is being built.").incubating();
         parser.option(CONTINUOUS, CONTINUOUS_SHORT_FLAG).hasDescription("Enables continuous build. Gradle does not exit and will re-execute tasks when task file inputs change.").incubating();
         parser.allowOneOf(MAX_WORKERS, PARALLEL_THREADS);
     }
@@ -197,6 +206,18 @@ public class DefaultCommandLineConverter extends AbstractCommandLineConverter<St
             startParameter.setConfigureOnDemand(true);
         }
 
+        if (options.hasOption(PARALLEL_CONFIGURATION)) {
+            startParameter.setParallelConfiguration(true);
+        }
+
+        if (options.hasOption(CONFIGURATION_CACHE)) {
+            startParameter.setConfigurationCache(true);
+        }
+
+        if (options.hasOption(CONCURRENT_BUILD_SRC)) {
+            startParameter.setConcurrentBuildSrc(true);
+        }
+
         if (options.hasOption(CONTINUOUS)) {
             startParameter.setContinuous(true);
         }
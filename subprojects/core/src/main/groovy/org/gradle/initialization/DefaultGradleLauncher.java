@@ -22,6 +22,7 @@ import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.SettingsInternal;
 import org.gradle.api.logging.StandardOutputListener;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.cache.ConfigurationResultCache;
 import org.gradle.execution.BuildExecuter;
 import org.gradle.internal.Factory;
 import org.gradle.internal.UncheckedException;
@@ -52,6 +53,7 @@ public class DefaultGradleLauncher extends GradleLauncher {
     private final BuildCompletionListener buildCompletionListener;
     private final InternalBuildListener internalBuildListener;
     private final BuildExecuter buildExecuter;
+    private final ConfigurationResultCache configurationResultCache;
     private final Closeable buildServices;
 
     /**
@@ -62,7 +64,7 @@ public class DefaultGradleLauncher extends GradleLauncher {
                                  LoggingManagerInternal loggingManager, BuildListener buildListener,
                                  ModelConfigurationListener modelConfigurationListener, TasksCompletionListener tasksCompletionListener,
                                  BuildCompletionListener buildCompletionListener, InternalBuildListener internalBuildListener,
-                                 BuildExecuter buildExecuter, Closeable buildServices) {
+                                 BuildExecuter buildExecuter, ConfigurationResultCache configurationResultCache, Closeable buildServices) {
         this.gradle = gradle;
         this.initScriptHandler = initScriptHandler;
         this.settingsHandler = settingsHandler;
@@ -74,6 +76,7 @@ public class DefaultGradleLauncher extends GradleLauncher {
         this.modelConfigurationListener = modelConfigurationListener;
         this.tasksCompletionListener = tasksCompletionListener;
         this.buildExecuter = buildExecuter;
+        this.configurationResultCache = configurationResultCache;
         this.buildCompletionListener = buildCompletionListener;
         this.buildServices = buildServices;
         this.internalBuildListener = internalBuildListener;
@@ -157,6 +160,10 @@ public class DefaultGradleLauncher extends GradleLauncher {
             }
         });
 
+        if (upTo == Stage.Build && configurationResultCache.isUpToDate(gradle)) {
+            return;
+        }
+
         // Configure build
         runBuildOperation(BuildOperationType.CONFIGURING_BUILD, new Factory<Void>() {
             @Override
@@ -197,6 +204,7 @@ public class DefaultGradleLauncher extends GradleLauncher {
             public Void create() {
                 buildExecuter.execute();
                 tasksCompletionListener.onTasksFinished(gradle);
+                configurationResultCache.store(gradle);
                 return null;
             }
         });
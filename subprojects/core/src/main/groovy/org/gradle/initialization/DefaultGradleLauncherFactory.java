@@ -21,10 +21,13 @@ import org.gradle.StartParameter;
 import org.gradle.TaskExecutionLogger;
 import org.gradle.api.internal.ExceptionAnalyser;
 import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.logging.StandardOutputListener;
 import org.gradle.cache.CacheRepository;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.BuildSrcIndependentScriptCompiler;
+import org.gradle.configuration.cache.ConfigurationResultCache;
 import org.gradle.execution.BuildExecuter;
 import org.gradle.initialization.buildsrc.BuildSourceBuilder;
 import org.gradle.initialization.layout.BuildLayoutFactory;
@@ -112,6 +115,7 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         listenerManager.useLogger(new TaskExecutionLogger(serviceRegistry.get(ProgressLoggerFactory.class), loggerProvider));
         if (tracker.getCurrentBuild() == null) {
             listenerManager.useLogger(new BuildLogger(Logging.getLogger(BuildLogger.class), serviceRegistry.get(StyledTextOutputFactory.class), startParameter, requestMetaData));
+            listenerManager.addListener(new ClassLoaderCacheReleaser(sharedServices.get(ClassLoaderCache.class)));
         }
         listenerManager.addListener(tracker);
 
@@ -134,7 +138,8 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
                 new BuildSourceBuilder(
                     this,
                     serviceRegistry.get(ClassLoaderScopeRegistry.class).getCoreAndPluginsScope(),
-                    serviceRegistry.get(CacheRepository.class))
+                    serviceRegistry.get(CacheRepository.class)),
+                startParameter.isConcurrentBuildSrc() ? serviceRegistry.get(BuildSrcIndependentScriptCompiler.class) : null
             ),
             serviceRegistry.get(BuildLoader.class),
             serviceRegistry.get(BuildConfigurer.class),
@@ -146,7 +151,23 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
             listenerManager.getBroadcaster(BuildCompletionListener.class),
             listenerManager.getBroadcaster(InternalBuildListener.class),
             gradle.getServices().get(BuildExecuter.class),
+            serviceRegistry.get(ConfigurationResultCache.class),
             serviceRegistry
         );
     }
+
+    /**
+     * Releases unused class loaders once a top-level build has completed, when none of them are in use.
+     */
+    private static class ClassLoaderCacheReleaser implements BuildCompletionListener {
+        private final ClassLoaderCache classLoaderCache;
+
+        public ClassLoaderCacheReleaser(ClassLoaderCache classLoaderCache) {
+            this.classLoaderCache = classLoaderCache;
+        }
+
+        public void completed() {
+            classLoaderCache.releaseUnused();
+        }
+    }
 }
@@ -17,10 +17,12 @@
 package org.gradle.initialization;
 
 import org.gradle.StartParameter;
+import org.gradle.api.Nullable;
 import org.gradle.api.initialization.ProjectDescriptor;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.SettingsInternal;
 import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.configuration.BuildSrcIndependentScriptCompiler;
 import org.gradle.initialization.buildsrc.BuildSourceBuilder;
 
 import java.io.File;
@@ -33,12 +35,22 @@ public class SettingsHandler {
     private ISettingsFinder settingsFinder;
     private SettingsProcessor settingsProcessor;
     private BuildSourceBuilder buildSourceBuilder;
+    private BuildSrcIndependentScriptCompiler scriptCompiler;
 
     public SettingsHandler(ISettingsFinder settingsFinder, SettingsProcessor settingsProcessor,
                            BuildSourceBuilder buildSourceBuilder) {
+        this(settingsFinder, settingsProcessor, buildSourceBuilder, null);
+    }
+
+    /**
+     * @param scriptCompiler Compiles scripts while buildSrc is being built. When null, buildSrc is built before anything else happens.
+     */
+    public SettingsHandler(ISettingsFinder settingsFinder, SettingsProcessor settingsProcessor,
+                           BuildSourceBuilder buildSourceBuilder, @Nullable BuildSrcIndependentScriptCompiler scriptCompiler) {
         this.settingsFinder = settingsFinder;
         this.settingsProcessor = settingsProcessor;
         this.buildSourceBuilder = buildSourceBuilder;
+        this.scriptCompiler = scriptCompiler;
     }
 
     public SettingsInternal findAndLoadSettings(GradleInternal gradle) {
@@ -84,11 +96,28 @@ public class SettingsHandler {
         // the settings script to reference classes in the buildSrc.
         StartParameter buildSrcStartParameter = startParameter.newBuild();
         buildSrcStartParameter.setCurrentDir(new File(settingsLocation.getSettingsDir(), BaseSettings.DEFAULT_BUILD_SRC_DIR));
-        ClassLoaderScope buildSourceClassLoader = buildSourceBuilder.buildAndCreateClassLoader(buildSrcStartParameter);
+        ClassLoaderScope buildSourceClassLoader = buildSourceClassLoader(settingsLocation, startParameter, buildSrcStartParameter);
 
         return settingsProcessor.process(gradle, settingsLocation, buildSourceClassLoader, startParameter);
     }
 
+    private ClassLoaderScope buildSourceClassLoader(SettingsLocation settingsLocation, StartParameter startParameter, StartParameter buildSrcStartParameter) {
+        if (scriptCompiler == null || !buildSrcStartParameter.getCurrentDir().isDirectory()) {
+            return buildSourceBuilder.buildAndCreateClassLoader(buildSrcStartParameter);
+        }
+
+        // Compile the scripts that turn out not to use the buildSrc classes while buildSrc is being built
+        BuildSrcIndependentScriptCompiler.Compilation compilation = scriptCompiler.start(settingsLocation, startParameter);
+        ClassLoaderScope buildSourceClassLoader;
+        try {
+            buildSourceClassLoader = buildSourceBuilder.buildAndCreateClassLoader(buildSrcStartParameter);
+        } finally {
+            compilation.stop();
+        }
+        compilation.reuseFor(buildSourceClassLoader);
+        return buildSourceClassLoader;
+    }
+
     private SettingsLocation findSettings(StartParameter startParameter) {
         return settingsFinder.find(startParameter);
     }
@@ -29,6 +29,7 @@ import org.gradle.api.internal.classpath.PluginModuleRegistry;
 import org.gradle.api.internal.component.ComponentTypeRegistry;
 import org.gradle.api.internal.component.DefaultComponentTypeRegistry;
 import org.gradle.api.internal.file.FileLookup;
+import org.gradle.api.internal.file.FilePathInterner;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.initialization.DefaultScriptHandlerFactory;
 import org.gradle.api.internal.initialization.ScriptHandlerFactory;
@@ -47,7 +48,13 @@ import org.gradle.cache.internal.CacheFactory;
 import org.gradle.cache.internal.DefaultCacheRepository;
 import org.gradle.cache.internal.DefaultCacheScopeMapping;
 import org.gradle.configuration.*;
+import org.gradle.configuration.cache.ConfigurationInputs;
+import org.gradle.configuration.cache.ConfigurationResultCache;
+import org.gradle.configuration.cache.DefaultConfigurationResultCache;
+import org.gradle.configuration.cache.RecordingScriptPluginFactory;
+import org.gradle.configuration.cache.TrackingListenerManager;
 import org.gradle.configuration.project.*;
+import org.gradle.execution.ParallelProjectConfigurer;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.execution.TaskPathProjectEvaluator;
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory;
@@ -102,6 +109,10 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         });
     }
 
+    protected FilePathInterner createFilePathInterner() {
+        return new FilePathInterner();
+    }
+
     protected TimeProvider createTimeProvider() {
         return new TrueTimeProvider();
     }
@@ -114,7 +125,10 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         return new ProjectFactory(instantiator, projectRegistry);
     }
 
-    protected ListenerManager createListenerManager(ListenerManager listenerManager) {
+    protected ListenerManager createListenerManager(ListenerManager listenerManager, StartParameter startParameter, ConfigurationInputs configurationInputs) {
+        if (startParameter.isConfigurationCache()) {
+            return new TrackingListenerManager(listenerManager.createChild(), configurationInputs);
+        }
         return listenerManager.createChild();
     }
 
@@ -158,13 +172,18 @@ public class BuildScopeServices extends DefaultServiceRegistry {
                 factory);
     }
 
-    protected ProjectEvaluator createProjectEvaluator() {
+    protected ParallelConfigurationGuard createParallelConfigurationGuard() {
+        return new ParallelConfigurationGuard();
+    }
+
+    protected ProjectEvaluator createProjectEvaluator(ParallelConfigurationGuard guard) {
         ConfigureActionsProjectEvaluator withActionsEvaluator = new ConfigureActionsProjectEvaluator(
                 new PluginsProjectConfigureActions(get(ClassLoaderRegistry.class).getPluginsClassLoader()),
                 new BuildScriptProcessor(get(ScriptPluginFactory.class)),
                 new DelayedConfigurationActions()
         );
-        return new LifecycleProjectEvaluator(withActionsEvaluator);
+        ProjectEvaluationListenerLock listenerLock = new ProjectEvaluationListenerLock();
+        return new ExclusiveProjectEvaluator(new LifecycleProjectEvaluator(withActionsEvaluator, listenerLock), listenerLock, guard);
     }
 
     protected ITaskFactory createITaskFactory() {
@@ -213,8 +232,21 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
+    protected ConfigurationInputs createConfigurationInputs() {
+        return new ConfigurationInputs();
+    }
+
+    protected ConfigurationResultCache createConfigurationResultCache(StartParameter startParameter, CacheRepository cacheRepository, ConfigurationInputs configurationInputs, ListenerManager listenerManager) {
+        if (!startParameter.isConfigurationCache()) {
+            return ConfigurationResultCache.NO_OP;
+        }
+        DefaultConfigurationResultCache configurationResultCache = new DefaultConfigurationResultCache(cacheRepository, configurationInputs);
+        listenerManager.addListener(configurationResultCache);
+        return configurationResultCache;
+    }
+
     protected ScriptPluginFactory createScriptObjectConfigurerFactory() {
-        return new DefaultScriptPluginFactory(
+        ScriptPluginFactory scriptPluginFactory = new DefaultScriptPluginFactory(
                 get(ScriptCompilerFactory.class),
                 getFactory(LoggingManagerInternal.class),
                 get(Instantiator.class),
@@ -224,6 +256,10 @@ public class BuildScopeServices extends DefaultServiceRegistry {
                 get(DocumentationRegistry.class),
                 get(ModelRuleSourceDetector.class)
         );
+        if (get(StartParameter.class).isConfigurationCache()) {
+            return new RecordingScriptPluginFactory(scriptPluginFactory, get(ConfigurationInputs.class));
+        }
+        return scriptPluginFactory;
     }
 
     protected InitScriptHandler createInitScriptHandler() {
@@ -277,12 +313,27 @@ public class BuildScopeServices extends DefaultServiceRegistry {
                 startParameter.getGradleUserHomeDir());
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, StartParameter startParameter, ExecutorFactory executorFactory,
+                                                        ParallelConfigurationGuard guard) {
+        ProjectConfigurer projectConfigurer = new TaskPathProjectEvaluator(cancellationToken);
+        if (startParameter.isParallelConfiguration()) {
+            return new ParallelProjectConfigurer(projectConfigurer, cancellationToken, executorFactory, startParameter.getMaxWorkerCount(), guard);
+        }
+        return projectConfigurer;
+    }
+
+    protected BuildScriptPrecompiler createBuildScriptPrecompiler(ScriptCompilerFactory scriptCompilerFactory, DocumentationRegistry documentationRegistry, ExecutorFactory executorFactory, StartParameter startParameter) {
+        return new BuildScriptPrecompiler(scriptCompilerFactory, documentationRegistry, executorFactory, startParameter.getMaxWorkerCount(), guard);
+    }
+
+    protected BuildSrcIndependentScriptCompiler createBuildSrcIndependentScriptCompiler(ScriptCompilerFactory scriptCompilerFactory, FileCacheBackedScriptClassCompiler scriptClassCompiler,
+                                                                                         DocumentationRegistry documentationRegistry, ImportsReader importsReader,
+                                                                                         ExecutorFactory executorFactory, ClassLoaderScopeRegistry classLoaderScopeRegistry) {
+        return new BuildSrcIndependentScriptCompiler(scriptCompilerFactory, scriptClassCompiler, documentationRegistry, importsReader, executorFactory, classLoaderScopeRegistry.getCoreAndPluginsScope());
     }
 
-    protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
-        return new DefaultBuildConfigurer(projectConfigurer);
+    protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer, BuildScriptPrecompiler buildScriptPrecompiler) {
+        return new DefaultBuildConfigurer(projectConfigurer, buildScriptPrecompiler);
     }
 
     protected ProjectAccessListener createProjectAccessListener() {
@@ -19,6 +19,7 @@ import org.gradle.api.Action;
 import org.gradle.api.internal.DependencyInjectingInstantiator;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.artifacts.dsl.dependencies.ProjectFinder;
+import org.gradle.api.internal.file.FilePathInterner;
 import org.gradle.api.internal.plugins.*;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.options.OptionReader;
@@ -93,8 +94,8 @@ public class GradleScopeServices extends DefaultServiceRegistry {
         };
     }
 
-    TaskGraphExecuter createTaskGraphExecuter(ListenerManager listenerManager, TaskPlanExecutor taskPlanExecutor, BuildCancellationToken cancellationToken) {
-        return new DefaultTaskGraphExecuter(listenerManager, taskPlanExecutor, cancellationToken);
+    TaskGraphExecuter createTaskGraphExecuter(ListenerManager listenerManager, TaskPlanExecutor taskPlanExecutor, BuildCancellationToken cancellationToken, FilePathInterner pathInterner) {
+        return new DefaultTaskGraphExecuter(listenerManager, taskPlanExecutor, cancellationToken, pathInterner);
     }
 
     ServiceRegistryFactory createServiceRegistryFactory(final ServiceRegistry services) {
@@ -16,8 +16,10 @@
 
 package org.gradle.internal.service.scopes;
 
+import org.gradle.StartParameter;
 import org.gradle.api.Action;
 import org.gradle.api.AntBuilder;
+import org.gradle.api.UnknownProjectException;
 import org.gradle.api.component.SoftwareComponentContainer;
 import org.gradle.api.initialization.dsl.ScriptHandler;
 import org.gradle.api.internal.*;
@@ -39,6 +41,8 @@ import org.gradle.api.internal.project.ant.AntLoggingAdapter;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
 import org.gradle.api.internal.tasks.DefaultTaskContainerFactory;
 import org.gradle.api.internal.tasks.TaskContainerInternal;
+import org.gradle.configuration.cache.ConfigurationInputs;
+import org.gradle.configuration.cache.RecordingFileOperations;
 import org.gradle.configuration.project.DefaultProjectConfigurationActionContainer;
 import org.gradle.configuration.project.ProjectConfigurationActionContainer;
 import org.gradle.initialization.ProjectAccessListener;
@@ -89,7 +93,7 @@ public class ProjectScopeServices extends DefaultServiceRegistry {
     }
 
     protected FileResolver createFileResolver() {
-        return new BaseDirFileResolver(get(FileSystem.class), project.getProjectDir());
+        return new BaseDirFileResolver(get(FileSystem.class), project.getProjectDir(), get(FilePathInterner.class));
     }
 
     protected LoggingManagerInternal createLoggingManager() {
@@ -101,6 +105,9 @@ public class ProjectScopeServices extends DefaultServiceRegistry {
     }
 
     protected DefaultFileOperations createFileOperations() {
+        if (get(StartParameter.class).isConfigurationCache()) {
+            return new RecordingFileOperations(get(FileResolver.class), project.getTasks(), get(TemporaryFileProvider.class), get(Instantiator.class), get(FileLookup.class), get(ConfigurationInputs.class));
+        }
         return new DefaultFileOperations(get(FileResolver.class), project.getTasks(), get(TemporaryFileProvider.class), get(Instantiator.class), get(FileLookup.class));
     }
 
@@ -145,7 +152,12 @@ public class ProjectScopeServices extends DefaultServiceRegistry {
     protected ProjectFinder createProjectFinder() {
         return new ProjectFinder() {
             public ProjectInternal getProject(String path) {
-                return project.project(path);
+                // A project dependency may refer to any project, so bypass the checks made for lookups from build logic
+                ProjectInternal target = project.getProjectRegistry().getProject(project.absoluteProjectPath(path));
+                if (target == null) {
+                    throw new UnknownProjectException(String.format("Project with path '%s' could not be found in %s.", path, project));
+                }
+                return target;
             }
         };
     }
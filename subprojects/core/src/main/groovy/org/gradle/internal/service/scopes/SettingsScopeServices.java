@@ -19,6 +19,7 @@ package org.gradle.internal.service.scopes;
 import org.gradle.api.internal.DependencyInjectingInstantiator;
 import org.gradle.api.internal.SettingsInternal;
 import org.gradle.api.internal.file.BaseDirFileResolver;
+import org.gradle.api.internal.file.FilePathInterner;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.plugins.*;
 import org.gradle.initialization.DefaultProjectDescriptorRegistry;
@@ -37,7 +38,7 @@ public class SettingsScopeServices extends DefaultServiceRegistry {
     }
 
     protected FileResolver createFileResolver() {
-        return new BaseDirFileResolver(get(FileSystem.class), settings.getSettingsDir());
+        return new BaseDirFileResolver(get(FileSystem.class), settings.getSettingsDir(), get(FilePathInterner.class));
     }
 
     protected PluginRegistry createPluginRegistry(PluginRegistry parentRegistry) {
@@ -22,6 +22,7 @@ import org.gradle.api.internal.changedetection.TaskArtifactStateRepository;
 import org.gradle.api.internal.changedetection.changes.DefaultTaskArtifactStateRepository;
 import org.gradle.api.internal.changedetection.changes.ShortCircuitTaskArtifactStateRepository;
 import org.gradle.api.internal.changedetection.state.*;
+import org.gradle.api.internal.file.FilePathInterner;
 import org.gradle.api.internal.hash.DefaultHasher;
 import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.execution.*;
@@ -37,9 +38,12 @@ import org.gradle.internal.id.RandomLongIdGenerator;
 import org.gradle.internal.operations.BuildOperationProcessor;
 import org.gradle.internal.operations.DefaultBuildOperationProcessor;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.serialize.DefaultSerializerRegistry;
 import org.gradle.internal.serialize.SerializerRegistry;
 
+import java.util.List;
+
 public class TaskExecutionServices {
 
     TaskExecuter createTaskExecuter(TaskArtifactStateRepository repository, ListenerManager listenerManager, Gradle gradle) {
@@ -84,8 +88,10 @@ public class TaskExecutionServices {
         return new CachingFileSnapshotter(new DefaultHasher(), cacheAccess);
     }
 
-    TaskArtifactStateRepository createTaskArtifactStateRepository(Instantiator instantiator, TaskArtifactStateCacheAccess cacheAccess, StartParameter startParameter, FileSnapshotter fileSnapshotter) {
-        FileCollectionSnapshotter fileCollectionSnapshotter = new DefaultFileCollectionSnapshotter(fileSnapshotter, cacheAccess);
+    TaskArtifactStateRepository createTaskArtifactStateRepository(Instantiator instantiator, TaskArtifactStateCacheAccess cacheAccess, StartParameter startParameter, FileSnapshotter fileSnapshotter,
+                                                                  FilePathInterner pathInterner, ServiceRegistry services) {
+        FileCollectionSnapshotter fileCollectionSnapshotter = new DefaultFileCollectionSnapshotter(fileSnapshotter, cacheAccess, pathInterner);
+        FileCollectionSnapshotter compileClasspathSnapshotter = createCompileClasspathSnapshotter(services.getAll(CompileClasspathEntryHasher.class), cacheAccess, fileCollectionSnapshotter, pathInterner);
 
         FileCollectionSnapshotter outputFilesSnapshotter = new OutputFilesCollectionSnapshotter(fileCollectionSnapshotter, new RandomLongIdGenerator(), cacheAccess);
 
@@ -105,11 +111,22 @@ public class TaskExecutionServices {
                 taskHistoryRepository,
                 instantiator,
                 outputFilesSnapshotter,
-                fileCollectionSnapshotter
+                fileCollectionSnapshotter,
+                compileClasspathSnapshotter
             )
         );
     }
 
+    private static FileCollectionSnapshotter createCompileClasspathSnapshotter(List<CompileClasspathEntryHasher> hashers, TaskArtifactStateCacheAccess cacheAccess,
+                                                                               FileCollectionSnapshotter fileCollectionSnapshotter, FilePathInterner pathInterner) {
+        if (hashers.isEmpty()) {
+            // nothing knows how to read class files, so the compile classpath is snapshotted like any other input files
+            return fileCollectionSnapshotter;
+        }
+        FileSnapshotter abiSnapshotter = new CachingFileSnapshotter(hashers.get(0), cacheAccess, "compileClasspathHashes");
+        return new CompileClasspathSnapshotter(fileCollectionSnapshotter, new DefaultFileCollectionSnapshotter(abiSnapshotter, cacheAccess, pathInterner));
+    }
+
     TaskPlanExecutor createTaskExecutorFactory(StartParameter startParameter, ExecutorFactory executorFactory) {
         return new TaskPlanExecutorFactory(startParameter.getParallelThreadCount(), executorFactory).create();
     }
@@ -17,12 +17,12 @@
 package org.gradle.internal.service.scopes;
 
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.TaskInputsInternal;
 import org.gradle.api.internal.TaskOutputsInternal;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.DefaultTaskInputs;
 import org.gradle.api.internal.tasks.DefaultTaskOutputs;
 import org.gradle.api.internal.tasks.TaskMutator;
-import org.gradle.api.tasks.TaskInputs;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.logging.LoggingManagerInternal;
@@ -40,7 +40,7 @@ public class TaskScopeServices extends DefaultServiceRegistry {
         this.taskInternal = taskInternal;
     }
 
-    protected TaskInputs createTaskInputs() {
+    protected TaskInputsInternal createTaskInputs() {
         return new DefaultTaskInputs(project.getFileResolver(), taskInternal, get(TaskMutator.class));
     }
 
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal
+
+import spock.lang.Specification
+
+class BeanDynamicObjectTest extends Specification {
+    def "looks up properties of beans that share a meta-class"() {
+        def first = new Thing(prop: "first")
+        def second = new Thing(prop: "second")
+
+        expect:
+        new BeanDynamicObject(first).getProperty("prop") == "first"
+        new BeanDynamicObject(second).getProperty("prop") == "second"
+        new BeanDynamicObject(first).hasProperty("prop")
+        !new BeanDynamicObject(first).hasProperty("unknown")
+        !new BeanDynamicObject(second).hasProperty("unknown")
+    }
+
+    def "sees properties added to an expando meta-class after a lookup"() {
+        def bean = new Thing()
+
+        expect:
+        !new BeanDynamicObject(bean).hasProperty("added")
+
+        when:
+        bean.metaClass.added = "value"
+
+        then:
+        new BeanDynamicObject(bean).hasProperty("added")
+        new BeanDynamicObject(bean).getProperty("added") == "value"
+    }
+
+    def "looks up methods by the types of the arguments"() {
+        def dynamicObject = new BeanDynamicObject(new Thing())
+
+        expect:
+        dynamicObject.hasMethod("method", "a")
+        !dynamicObject.hasMethod("method", 12)
+        dynamicObject.hasMethod("method", "b")
+        dynamicObject.invokeMethod("method", "a") == "a"
+    }
+
+    static class Thing {
+        String prop
+
+        String method(String value) {
+            return value
+        }
+    }
+}
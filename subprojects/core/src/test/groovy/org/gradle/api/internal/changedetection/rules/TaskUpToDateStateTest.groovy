@@ -17,13 +17,14 @@
 package org.gradle.api.internal.changedetection.rules
 
 import org.gradle.api.UncheckedIOException
+import org.gradle.api.internal.TaskInputsInternal
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.TaskOutputsInternal
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshotter
 import org.gradle.api.internal.changedetection.state.FilesSnapshotSet
 import org.gradle.api.internal.changedetection.state.TaskHistoryRepository
-import org.gradle.api.tasks.TaskInputs
+import org.gradle.api.internal.file.collections.SimpleFileCollection
 import spock.lang.Issue
 import spock.lang.Specification
 
@@ -34,7 +35,9 @@ class TaskUpToDateStateTest extends Specification {
     private FileCollectionSnapshotter stubInputFileSnapshotter
 
     def setup() {
-        TaskInputs stubInputs = Stub(TaskInputs)
+        TaskInputsInternal stubInputs = Stub(TaskInputsInternal) {
+            _ * getCompileClasspathFiles() >> new SimpleFileCollection()
+        }
         TaskOutputsInternal stubOutputs = Stub(TaskOutputsInternal)
         this.stubTask = Stub(TaskInternal) {
             _ * getName() >> { "testTask" }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class FilePathInternerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def interner = new FilePathInterner()
+
+    def "returns same file instance for equal paths"() {
+        def file = tmpDir.file("a/b")
+
+        expect:
+        interner.intern(file).is(file)
+        interner.intern(new File(file.path)).is(file)
+        !interner.intern(tmpDir.file("a/c")).is(file)
+    }
+
+    def "returns same string instance for equal paths"() {
+        def path = tmpDir.file("a/b").absolutePath
+        def other = new String(path)
+
+        expect:
+        interner.intern(path).is(path)
+        interner.intern(other).is(path)
+        interner.intern(tmpDir.file("a/b")).path.is(path)
+    }
+
+    def "caches canonical path"() {
+        def file = tmpDir.file("a/../b")
+
+        expect:
+        interner.getCanonicalPath(file) == file.canonicalPath
+        interner.getCanonicalPath(new File(file.path)).is(interner.getCanonicalPath(file))
+    }
+}
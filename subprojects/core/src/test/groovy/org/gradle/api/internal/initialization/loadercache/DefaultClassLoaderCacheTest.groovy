@@ -21,6 +21,8 @@ import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.classpath.DefaultClassPath
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
 import org.junit.Rule
 import spock.lang.Specification
 
@@ -165,4 +167,72 @@ class DefaultClassLoaderCacheTest extends Specification {
         then:
         cache.size() == 0
     }
+
+    def "evicts least recently used ids not used since last release"() {
+        def cache = new DefaultClassLoaderCache(new FileClassPathSnapshotter(), 1)
+        def root = classLoader(classPath("root"))
+        def id3 = new ClassLoaderId() {}
+
+        given:
+        def l1 = cache.get(id1, classPath("c1"), root, null)
+        cache.get(id2, classPath("c2"), root, null)
+        cache.releaseUnused()
+
+        when:
+        def l3 = cache.get(id3, classPath("c3"), root, null)
+        cache.releaseUnused()
+
+        then:
+        cache.size() == 1
+        cache.evictionCount == 2
+        cache.get(id3, classPath("c3"), root, null).is(l3)
+        !cache.get(id1, classPath("c1"), root, null).is(l1)
+    }
+
+    def "retains all ids used since last release"() {
+        def cache = new DefaultClassLoaderCache(new FileClassPathSnapshotter(), 1)
+        def root = classLoader(classPath("root"))
+
+        when:
+        def l1 = cache.get(id1, classPath("c1"), root, null)
+        def l2 = cache.get(id2, classPath("c2"), root, null)
+        cache.releaseUnused()
+
+        then:
+        cache.size() == 2
+        cache.evictionCount == 0
+        cache.get(id1, classPath("c1"), root, null).is(l1)
+        cache.get(id2, classPath("c2"), root, null).is(l2)
+    }
+
+    @Requires(TestPrecondition.JDK7_OR_LATER)
+    def "closes class loaders that are no longer used on release"() {
+        def root = classLoader(classPath("root"))
+        file("c1/org/gradle/Thing.txt").createFile()
+        def loader = cache.get(id1, classPath("c1"), root, null)
+        cache.get(id1, classPath("c2"), root, null)
+
+        expect:
+        loader.getResource("org/gradle/Thing.txt") != null
+
+        when:
+        cache.releaseUnused()
+
+        then:
+        loader.getResource("org/gradle/Thing.txt") == null
+    }
+
+    def "counts hits and misses"() {
+        def root = classLoader(classPath("root"))
+
+        when:
+        cache.get(id1, classPath("c1"), root, null)
+        cache.get(id1, classPath("c1"), root, null)
+        cache.get(id2, classPath("c1"), root, null)
+        cache.get(id2, classPath("c2"), root, null)
+
+        then:
+        cache.hitCount == 2
+        cache.missCount == 2
+    }
 }
@@ -42,6 +42,7 @@ import org.gradle.api.invocation.Gradle
 import org.gradle.api.plugins.PluginContainer
 import org.gradle.configuration.ScriptPluginFactory
 import org.gradle.configuration.project.ProjectConfigurationActionContainer
+import org.gradle.configuration.project.ParallelConfigurationGuard
 import org.gradle.configuration.project.ProjectEvaluator
 import org.gradle.groovy.scripts.EmptyScript
 import org.gradle.groovy.scripts.ScriptSource
@@ -165,6 +166,7 @@ class DefaultProjectTest {
 
             allowing(serviceRegistryMock).get((Type) DeferredProjectConfiguration); will(returnValue(context.mock(DeferredProjectConfiguration)))
             allowing(serviceRegistryMock).get((Type) ProjectAccessListener); will(returnValue(context.mock(ProjectAccessListener)))
+            allowing(serviceRegistryMock).get((Type) ParallelConfigurationGuard); will(returnValue(new ParallelConfigurationGuard()))
 
             ITaskFactory taskFactoryMock = context.mock(ITaskFactory)
             allowing(serviceRegistryMock).get(ITaskFactory); will(returnValue(taskFactoryMock))
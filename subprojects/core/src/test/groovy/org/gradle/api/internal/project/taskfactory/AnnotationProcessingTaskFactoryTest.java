@@ -82,9 +82,13 @@ public class AnnotationProcessingTaskFactoryTest {
     }
 
     private <T extends Task> T expectTaskCreated(final Class<T> type, final Object... params) {
+        return expectTaskCreated(createTask(type, params));
+    }
+
+    private <T extends Task> T createTask(final Class<T> type, final Object... params) {
         DefaultProject project = TestUtil.createRootProject();
         final Class<? extends T> decorated = project.getServices().get(ClassGenerator.class).generate(type);
-        T task = AbstractTask.injectIntoNewInstance(project, "task", new Callable<T>() {
+        return AbstractTask.injectIntoNewInstance(project, "task", new Callable<T>() {
             public T call() throws Exception {
                 if (params.length > 0) {
                     return type.cast(decorated.getConstructors()[0].newInstance(params));
@@ -93,7 +97,6 @@ public class AnnotationProcessingTaskFactoryTest {
                 }
             }
         });
-        return expectTaskCreated(task);
     }
 
     private <T extends Task> T expectTaskCreated(final T task) {
@@ -170,6 +173,21 @@ public class AnnotationProcessingTaskFactoryTest {
         assertThat(readField(task.getActions().get(0), Action.class, "action"), sameInstance(readField(task2.getActions().get(0), Action.class, "action")));
     }
 
+    @Test
+    public void sharesClassMetaInfoBetweenFactories() {
+        TaskWithInputFile task = expectTaskCreated(TaskWithInputFile.class, existingFile);
+
+        final TaskWithInputFile task2 = createTask(TaskWithInputFile.class, missingFile);
+        final ITaskFactory otherDelegate = context.mock(ITaskFactory.class, "otherDelegate");
+        context.checking(new Expectations() {{
+            one(otherDelegate).createTask(args);
+            will(returnValue(task2));
+        }});
+        new AnnotationProcessingTaskFactory(otherDelegate).createTask(args);
+
+        assertThat(readField(task.getActions().get(0), Action.class, "action"), sameInstance(readField(task2.getActions().get(0), Action.class, "action")));
+    }
+
     @Test
     public void failsWhenStaticMethodHasTaskActionAnnotation() {
         assertTaskCreationFails(TaskWithStaticMethod.class,
@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks
 import org.gradle.api.*
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectRegistry
 import org.gradle.api.internal.project.taskfactory.ITaskFactory
 import org.gradle.api.tasks.TaskDependency
 import org.gradle.initialization.ProjectAccessListener
@@ -33,8 +34,11 @@ public class DefaultTaskContainerTest extends Specification {
 
     private taskFactory = Mock(ITaskFactory)
     def modelRegistry = new DefaultModelRegistry(null)
+    private projectRegistry = Mock(ProjectRegistry)
     private project = Mock(ProjectInternal, name: "<project>") {
         getModelRegistry() >> modelRegistry
+        getProjectRegistry() >> projectRegistry
+        absoluteProjectPath(_) >> { String path -> path }
     }
     private taskCount = 1;
     private accessListener = Mock(ProjectAccessListener)
@@ -210,7 +214,7 @@ public class DefaultTaskContainerTest extends Specification {
 
     void "does not find tasks from unknown projects"() {
         when:
-        project.findProject(":unknown") >> null
+        projectRegistry.getProject(":unknown") >> null
 
         then:
         container.findByPath(":unknown:task") == null
@@ -346,6 +350,121 @@ public class DefaultTaskContainerTest extends Specification {
         container.names == ['task1', 'task2'] as SortedSet
     }
 
+    void "registered task is not created until it is located"() {
+        given:
+        def action = Mock(Action)
+        def task = task("task", DefaultTask)
+
+        when:
+        container.register("task", DefaultTask, action)
+
+        then:
+        0 * taskFactory.create(_, _)
+        0 * action.execute(_)
+        container.names == ['task'] as SortedSet
+        container.size() == 0
+
+        when:
+        def found = container.getByName("task")
+
+        then:
+        1 * taskFactory.create("task", DefaultTask) >> task
+        1 * action.execute(task)
+        found == task
+        container.size() == 1
+    }
+
+    void "registered task is created when container is realized"() {
+        given:
+        def action = Mock(Action)
+        def task = task("task", DefaultTask)
+        task.getTaskDependencies() >> Stub(TaskDependency)
+        container.register("task", DefaultTask, action)
+
+        when:
+        container.realize()
+
+        then:
+        1 * taskFactory.create("task", DefaultTask) >> task
+        1 * action.execute(task)
+        container.size() == 1
+    }
+
+    void "cannot register task with the same name as an existing task"() {
+        given:
+        addTask("task")
+
+        when:
+        container.register("task", DefaultTask, Mock(Action))
+
+        then:
+        InvalidUserDataException e = thrown()
+        e.message == "Cannot register task 'task' as a task with that name already exists."
+    }
+
+    void "cannot create task with the same name as a registered task"() {
+        given:
+        container.register("task", DefaultTask, Mock(Action))
+        taskFactory.createTask(singletonMap(Task.TASK_NAME, "task")) >> task("task")
+
+        when:
+        container.create("task")
+
+        then:
+        thrown(InvalidUserDataException)
+    }
+
+    void "can replace registered task"() {
+        given:
+        def action = Mock(Action)
+        container.register("task", DefaultTask, action)
+        def task = task("task")
+        taskFactory.createTask(singletonMap(Task.TASK_NAME, "task")) >> task
+
+        when:
+        def replaced = container.replace("task")
+
+        then:
+        replaced == task
+        container.getByName("task") == task
+        0 * action.execute(_)
+    }
+
+    void "can create task with the name of a registered task that was realized and removed"() {
+        given:
+        def registered = task("task", DefaultTask)
+        def created = task("task")
+        container.register("task", DefaultTask, Mock(Action))
+        taskFactory.create("task", DefaultTask) >> registered
+        taskFactory.createTask(singletonMap(Task.TASK_NAME, "task")) >> created
+
+        when:
+        container.getByName("task")
+        container.remove(registered)
+        def result = container.create("task")
+
+        then:
+        result == created
+        container.getByName("task") == created
+    }
+
+    void "registered task replaces placeholder"() {
+        given:
+        def placeholderAction = addPlaceholderTask("task")
+        def action = Mock(Action)
+        def task = task("task", DefaultTask)
+        container.register("task", DefaultTask, action)
+
+        when:
+        def found = container.getByName("task")
+
+        then:
+        1 * taskFactory.create("task", DefaultTask) >> task
+        1 * action.execute(task)
+        0 * placeholderAction.execute(_)
+        found == task
+    }
+
     void "maybeCreate creates new task"() {
         given:
         def options = singletonMap(Task.TASK_NAME, "task")
@@ -394,7 +513,7 @@ public class DefaultTaskContainerTest extends Specification {
         def otherProject = Mock(ProjectInternal)
         def otherTaskContainer = Mock(TaskContainerInternal)
 
-        project.findProject(projectPath) >> otherProject
+        projectRegistry.getProject(projectPath) >> otherProject
         otherProject.getTasks() >> otherTaskContainer
 
         otherTaskContainer.findByName(taskName) >> task
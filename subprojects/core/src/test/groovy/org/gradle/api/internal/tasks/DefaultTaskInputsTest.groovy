@@ -45,6 +45,7 @@ class DefaultTaskInputsTest extends Specification {
         !inputs.hasInputs
         !inputs.hasSourceFiles
         inputs.sourceFiles.empty
+        inputs.compileClasspathFiles.empty
     }
 
     def canRegisterInputFiles() {
@@ -63,6 +64,16 @@ class DefaultTaskInputsTest extends Specification {
         inputs.files.files == [treeFile] as Set
     }
 
+    def canRegisterCompileClasspath() {
+        when:
+        inputs.compileClasspath('a')
+
+        then:
+        inputs.compileClasspathFiles.files == [new File('a')] as Set
+        inputs.files.files == [new File('a')] as Set
+        inputs.hasInputs
+    }
+
     def canRegisterInputProperty() {
         when:
         inputs.property('a', 'value')
@@ -91,6 +91,29 @@ class DefaultCacheFactoryTest extends Specification {
         factory.close()
     }
 
+    public void "initializes distinct caches concurrently"() {
+        def other = null
+        def initializer = { cache ->
+            def thread = new Thread({ other = factory.open(tmpDir.file("other"), null, null, [prop: 'value'], mode(Shared), null) })
+            thread.start()
+            thread.join(10000)
+        } as Action
+
+        when:
+        def cache = factory.open(tmpDir.file("cache"), null, null, [prop: 'value'], mode(Shared), initializer)
+
+        then:
+        other != null
+        !cache.reference.cache.is(other.reference.cache)
+
+        and:
+        2 * opened.execute(_)
+        0 * opened._
+
+        cleanup:
+        factory.close()
+    }
+
     public void "reuses directory backed store instances"() {
         when:
         def ref1 = factory.openStore(tmpDir.testDirectory, null, mode(Exclusive), null)
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.groovy.scripts.ScriptCompiler
+import org.gradle.groovy.scripts.ScriptCompilerFactory
+import org.gradle.groovy.scripts.ScriptRunner
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.groovy.scripts.internal.CompiledScript
+import org.gradle.internal.resource.Resource
+import org.gradle.plugin.use.internal.PluginRequests
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class BuildScriptPrecompilerTest extends ConcurrentSpec {
+    def scriptCompilerFactory = Mock(ScriptCompilerFactory)
+    def precompiler = new BuildScriptPrecompiler(scriptCompilerFactory, Stub(DocumentationRegistry), executorFactory, 4)
+    def baseLoader = Stub(ClassLoader)
+    def root = project()
+    def child1 = project()
+    def child2 = project()
+    def compilers = [:]
+
+    def setup() {
+        root.childProjects >> [child1: child1, child2: child2]
+        root.allprojects >> ([root, child1, child2] as Set)
+        child1.childProjects >> [:]
+        child2.childProjects >> [:]
+    }
+
+    def "does nothing for a single project build"() {
+        def single = project()
+        single.childProjects >> [:]
+
+        when:
+        precompiler.precompile(single)
+
+        then:
+        0 * scriptCompilerFactory._
+    }
+
+    def "compiles build scripts of all projects concurrently"() {
+        given:
+        script(root, "println 'root'")
+        script(child1, "println 'child'")
+        script(child2, "println 'child'")
+
+        when:
+        precompiler.precompile(root)
+
+        then:
+        1 * compilers[child1].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> {
+            instant.child1
+            thread.blockUntil.child2
+            runner()
+        }
+        1 * compilers[child2].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> {
+            instant.child2
+            thread.blockUntil.child1
+            runner()
+        }
+        1 * compilers[root].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> runner()
+
+        then:
+        1 * compilers[root].compile(_, { it.id.endsWith("no_buildscript") }, baseLoader, "buildscript", _) >> runner()
+        1 * compilers[child1].compile(_, { it.id.endsWith("no_buildscript") }, baseLoader, "buildscript", _) >> runner()
+        1 * compilers[child2].compile(_, { it.id.endsWith("no_buildscript") }, baseLoader, "buildscript", _) >> runner()
+    }
+
+    def "does not compile the body of scripts when a parent extends the build script classpath"() {
+        given:
+        script(root, "buildscript { dependencies { classpath 'group:plugin:1.0' } }")
+        script(child1, "println 'child'")
+        script(child2, "println 'child'")
+
+        when:
+        precompiler.precompile(root)
+
+        then:
+        1 * compilers[root].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> runner(false)
+        1 * compilers[child1].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> runner()
+        1 * compilers[child2].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> runner()
+        0 * compilers[root]._
+        0 * compilers[child1]._
+        0 * compilers[child2]._
+    }
+
+    def "compiles the body of scripts whose parents do not extend the build script classpath"() {
+        given:
+        script(root, "println 'root'")
+        script(child1, "buildscript { dependencies { classpath 'group:plugin:1.0' } }")
+        script(child2, "println 'buildscript'")
+
+        when:
+        precompiler.precompile(root)
+
+        then:
+        1 * compilers[root].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> runner()
+        1 * compilers[child1].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> runner(false)
+        1 * compilers[child2].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> runner()
+
+        then:
+        1 * compilers[root].compile(_, { it.id.endsWith("no_buildscript") }, baseLoader, "buildscript", _) >> runner()
+        1 * compilers[child2].compile(_, { it.id.endsWith("no_buildscript") }, baseLoader, "buildscript", _) >> runner()
+        0 * compilers[child1]._
+    }
+
+    def "ignores compilation failures"() {
+        given:
+        script(root, "println 'root'")
+        script(child1, "broken {")
+        script(child2, "println 'child'")
+
+        when:
+        precompiler.precompile(root)
+
+        then:
+        1 * compilers[root].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> runner()
+        1 * compilers[child1].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> { throw new RuntimeException("broken") }
+        1 * compilers[child2].compile(_, { it.id == "buildscript" }, baseLoader, "buildscript", _) >> runner()
+
+        then:
+        1 * compilers[root].compile(_, { it.id.endsWith("no_buildscript") }, baseLoader, "buildscript", _) >> runner()
+        1 * compilers[child2].compile(_, { it.id.endsWith("no_buildscript") }, baseLoader, "buildscript", _) >> runner()
+        0 * compilers[child1]._
+    }
+
+    def project() {
+        def project = Mock(ProjectInternal)
+        def scope = Stub(ClassLoaderScope)
+        scope.exportClassLoader >> baseLoader
+        project.baseClassLoaderScope >> scope
+        return project
+    }
+
+    def script(ProjectInternal project, String text) {
+        def source = Stub(ScriptSource)
+        def resource = Stub(Resource)
+        def compiler = Mock(ScriptCompiler)
+        resource.text >> text
+        source.resource >> resource
+        source.displayName >> "build file"
+        project.buildScriptSource >> source
+        scriptCompilerFactory.createCompiler(source) >> compiler
+        compilers[project] = compiler
+    }
+
+    def runner(boolean empty = true) {
+        def pluginRequests = Stub(PluginRequests)
+        pluginRequests.empty >> true
+        def compiledScript = Stub(CompiledScript)
+        compiledScript.empty >> empty
+        compiledScript.data >> pluginRequests
+        def runner = Stub(ScriptRunner)
+        runner.compiledScript >> compiledScript
+        return runner
+    }
+}
@@ -26,7 +26,8 @@ class DefaultBuildConfigurerTest extends Specification {
     private gradle = Mock(GradleInternal)
     private rootProject = Mock(ProjectInternal)
     private projectConfigurer = Mock(ProjectConfigurer)
-    private configurer = new DefaultBuildConfigurer(projectConfigurer)
+    private buildScriptPrecompiler = Mock(BuildScriptPrecompiler)
+    private configurer = new DefaultBuildConfigurer(projectConfigurer, buildScriptPrecompiler)
 
     def setup() {
         gradle.startParameter >> startParameter
@@ -37,6 +38,20 @@ class DefaultBuildConfigurerTest extends Specification {
         when:
         configurer.configure(gradle)
 
+        then:
+        1 * projectConfigurer.configureHierarchy(rootProject)
+        0 * buildScriptPrecompiler._
+    }
+
+    def "compiles build scripts ahead of configuration when projects are configured in parallel"() {
+        startParameter.isParallelConfiguration() >> true
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * buildScriptPrecompiler.precompile(rootProject)
+
         then:
         1 * projectConfigurer.configureHierarchy(rootProject)
     }
@@ -48,5 +63,6 @@ class DefaultBuildConfigurerTest extends Specification {
         then:
         startParameter.isConfigureOnDemand() >> true
         1 * projectConfigurer.configure(rootProject)
+        0 * buildScriptPrecompiler._
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ScriptClassPathContentsTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final defaultImports = ["org.gradle.api", "java.util"]
+
+    def "does not affect scripts that do not mention its packages"() {
+        def classesDir = tmpDir.createDir("classes")
+        classesDir.createFile("com/acme/Thing.class")
+        classesDir.createFile("com/acme/thing.properties")
+        def jarContents = tmpDir.createDir("jar-contents")
+        jarContents.createFile("org/example/Other.class")
+        def jar = tmpDir.file("lib.jar")
+        jarContents.zipTo(jar)
+
+        expect:
+        def contents = ScriptClassPathContents.of([classesDir, jar, tmpDir.file("missing")])
+        !contents.mayAffect("task hello { doLast { println 'hello' } }", defaultImports)
+        contents.mayAffect("import com.acme.Thing", defaultImports)
+        contents.mayAffect("task hello(type: org.example.Other)", defaultImports)
+    }
+
+    def "affects scripts when it contains classes in the default package or a default import package"() {
+        def classesDir = tmpDir.createDir("classes")
+        classesDir.createFile(path)
+
+        expect:
+        ScriptClassPathContents.of([classesDir]).mayAffect("task hello", defaultImports)
+
+        where:
+        path << ["Thing.class", "org/gradle/api/Thing.class", "java/util/Thing.class"]
+    }
+
+    def "affects all scripts when it contains global AST transformations"() {
+        def classesDir = tmpDir.createDir("classes")
+        classesDir.createFile("META-INF/services/org.codehaus.groovy.transform.ASTTransformation")
+
+        expect:
+        ScriptClassPathContents.of([classesDir]).mayAffect("task hello", defaultImports)
+    }
+
+    def "affects all scripts when a jar cannot be read"() {
+        def jar = tmpDir.createFile("broken.jar")
+        jar.text = "not a jar"
+
+        expect:
+        ScriptClassPathContents.of([jar]).mayAffect("task hello", defaultImports)
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.cache
+
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.resource.Resource
+import spock.lang.Specification
+
+class ConfigurationInputsTest extends Specification {
+    def inputs = new ConfigurationInputs()
+
+    def "collects local script files"() {
+        def file = new File("build.gradle")
+
+        when:
+        inputs.scriptUsed(script(file, file.toURI()))
+        inputs.scriptUsed(script(null, null))
+
+        then:
+        inputs.scriptFiles == [file] as Set
+        inputs.cacheable
+    }
+
+    def "collects files used until the configuration is completed"() {
+        def file = new File("version.txt")
+
+        when:
+        inputs.fileUsed(file)
+        inputs.configurationCompleted()
+        inputs.fileUsed(new File("other.txt"))
+
+        then:
+        inputs.usedFiles == [file] as Set
+        inputs.cacheable
+    }
+
+    def "configuration that uses a remote script is not cacheable"() {
+        when:
+        inputs.scriptUsed(script(null, new URI("http://example.com/script.gradle")))
+
+        then:
+        inputs.scriptFiles.empty
+        !inputs.cacheable
+        inputs.nonCacheableReason == "the build uses the remote script http://example.com/script.gradle"
+    }
+
+    def "configuration that registers a listener is not cacheable"() {
+        when:
+        inputs.listenerRegistered("listener")
+        inputs.listenerRegistered("other")
+
+        then:
+        !inputs.cacheable
+        inputs.nonCacheableReason == "the build registers the listener listener"
+    }
+
+    private ScriptSource script(File file, URI uri) {
+        def resource = Stub(Resource) {
+            getFile() >> file
+            getURI() >> uri
+        }
+        return Stub(ScriptSource) {
+            getResource() >> resource
+        }
+    }
+}
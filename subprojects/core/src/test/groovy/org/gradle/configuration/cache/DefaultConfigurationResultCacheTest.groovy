@@ -0,0 +1,274 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.cache
+
+import org.gradle.StartParameter
+import org.gradle.api.execution.TaskExecutionGraph
+import org.gradle.api.internal.GradleInternal
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.configuration.cache.DefaultConfigurationResultCache.*
+
+class DefaultConfigurationResultCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def indexedCache = Mock(PersistentIndexedCache)
+    def cacheBuilder = Stub(CacheBuilder)
+    def cacheRepository = Stub(CacheRepository) {
+        store(_, _) >> cacheBuilder
+    }
+    def startParameter = new StartParameter()
+    def gradle = Stub(GradleInternal) {
+        getStartParameter() >> startParameter
+    }
+    def inputs = new ConfigurationInputs()
+    def cache = new DefaultConfigurationResultCache(cacheRepository, inputs)
+
+    def setup() {
+        cacheBuilder.withDisplayName(_) >> cacheBuilder
+        cacheBuilder.withLockOptions(_) >> cacheBuilder
+        cacheBuilder.open() >> Stub(PersistentCache) {
+            createCache(_) >> indexedCache
+        }
+    }
+
+    def "discards the previous result when the build request has changed"() {
+        given:
+        indexedCache.get(0L) >> new ConfigurationResult(new byte[0], [], new byte[0], [], new byte[0], 1)
+
+        when:
+        def upToDate = cache.isUpToDate(gradle)
+
+        then:
+        !upToDate
+        1 * indexedCache.remove(0L)
+    }
+
+    def "discards the previous result when the build does not allow it to be reused"() {
+        given:
+        startParameter.rerunTasks = true
+
+        when:
+        def upToDate = cache.isUpToDate(gradle)
+
+        then:
+        !upToDate
+        0 * indexedCache.get(_)
+        1 * indexedCache.remove(0L)
+    }
+
+    def "discards the previous result when the build registers a listener before its projects are configured"() {
+        given:
+        inputs.listenerRegistered("listener")
+
+        when:
+        def upToDate = cache.isUpToDate(gradle)
+
+        then:
+        !upToDate
+        0 * indexedCache.get(_)
+        1 * indexedCache.remove(0L)
+    }
+
+    def "reuses the previous result when nothing has changed"() {
+        given:
+        def file = temp.file("build.gradle")
+        file.text = "apply plugin: 'java'"
+        indexedCache.get(0L) >> new ConfigurationResult(hashRequest(startParameter), [file.path], hashContent([file]), [temp.testDirectory.path], hashMetadata([temp.testDirectory]), 1)
+
+        when:
+        def upToDate = cache.isUpToDate(gradle)
+
+        then:
+        upToDate
+        0 * indexedCache.remove(_)
+    }
+
+    def "stops collecting the files used by the build logic once the task graph is ready"() {
+        def file = new File("version.txt")
+
+        when:
+        inputs.fileUsed(file)
+        cache.graphPopulated(Stub(TaskExecutionGraph))
+        inputs.fileUsed(new File("output.txt"))
+
+        then:
+        inputs.usedFiles == [file] as Set
+    }
+
+    def "does not store a result when the build registers a listener"() {
+        given:
+        inputs.listenerRegistered("listener")
+
+        when:
+        cache.store(gradle)
+
+        then:
+        0 * indexedCache.put(_, _)
+    }
+
+    def "versions that may resolve to another module are dynamic"() {
+        expect:
+        isDynamic(version) == dynamic
+
+        where:
+        version          | dynamic
+        "1.0"            | false
+        "1.0-rc-1"       | false
+        "1.+"            | true
+        "+"              | true
+        "latest.release" | true
+        "1.0-SNAPSHOT"   | true
+        "[1.0,2.0)"      | true
+        "]1.0,2.0]"      | true
+        null             | true
+    }
+
+    def "metadata hash changes when a file below a collected directory is added, removed or modified"() {
+        def root = temp.createDir("root")
+        def file = root.file("a/b.txt")
+        file.text = "content"
+        def files = []
+        collectFiles(root, files)
+        def original = hashMetadata(files)
+
+        expect:
+        files == [root, root.file("a"), file]
+        hashMetadata(files) == original
+
+        when:
+        root.file("a/c.txt").text = "other"
+
+        then:
+        hashMetadata(files) != original
+
+        when:
+        root.file("a/c.txt").delete()
+        file.text = "changed content"
+
+        then:
+        hashMetadata(files) != original
+    }
+
+    def "metadata hash does not look below the given directories"() {
+        def root = temp.createDir("root")
+        def file = root.file("a/b.txt")
+        file.text = "content"
+        def original = hashMetadata([root])
+
+        when:
+        file.text = "changed content"
+        root.file("a/c.txt").text = "other"
+
+        then:
+        hashMetadata([root]) == original
+    }
+
+    def "metadata hash ignores Gradle state directories"() {
+        def root = temp.createDir("root")
+        root.file("b.txt").text = "content"
+        def files = []
+        collectFiles(root, files)
+        def original = hashMetadata(files)
+
+        when:
+        root.file(".gradle/state.bin").text = "state"
+
+        then:
+        hashMetadata(files) == original
+
+        when:
+        files = []
+        collectFiles(root, files)
+
+        then:
+        files == [root, root.file("b.txt")]
+    }
+
+    def "metadata hash tracks missing roots"() {
+        def missing = temp.file("missing")
+        def original = hashMetadata([missing])
+
+        when:
+        missing.text = "created"
+
+        then:
+        hashMetadata([missing]) != original
+    }
+
+    def "content hash changes when a file is modified or created"() {
+        def script = temp.file("build.gradle")
+        def properties = temp.file("gradle.properties")
+        script.text = "apply plugin: 'java'"
+        def original = hashContent([script, properties])
+
+        expect:
+        hashContent([script, properties]) == original
+
+        when:
+        properties.text = "a=b"
+
+        then:
+        hashContent([script, properties]) != original
+    }
+
+    def "request hash changes with requested tasks and properties"() {
+        def startParameter = new StartParameter()
+        startParameter.taskNames = ["build"]
+        def original = hashRequest(startParameter)
+
+        expect:
+        hashRequest(startParameter.newInstance()) == original
+
+        when:
+        def other = startParameter.newInstance()
+        other.taskNames = ["test"]
+
+        then:
+        hashRequest(other) != original
+
+        when:
+        other = startParameter.newInstance()
+        other.projectProperties = [version: "1.0"]
+
+        then:
+        hashRequest(other) != original
+    }
+
+    def "request hash changes with the environment and system properties"() {
+        def startParameter = new StartParameter()
+        def properties = new Properties()
+        properties.a = "b"
+        def original = hashRequest(startParameter, [PATH: "/bin"], properties)
+
+        expect:
+        hashRequest(startParameter, [PATH: "/bin"], properties) == original
+        hashRequest(startParameter, [PATH: "/usr/bin"], properties) != original
+
+        when:
+        properties.a = "c"
+
+        then:
+        hashRequest(startParameter, [PATH: "/bin"], properties) != original
+    }
+}
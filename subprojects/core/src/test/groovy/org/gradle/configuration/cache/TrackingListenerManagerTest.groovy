@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.cache
+
+import org.gradle.BuildAdapter
+import org.gradle.BuildListener
+import org.gradle.api.Action
+import org.gradle.api.execution.TaskExecutionGraphListener
+import org.gradle.internal.event.DefaultListenerManager
+import org.gradle.listener.ClosureBackedMethodInvocationDispatch
+import spock.lang.Specification
+
+class TrackingListenerManagerTest extends Specification {
+    def inputs = new ConfigurationInputs()
+    def listenerManager = new TrackingListenerManager(new DefaultListenerManager(), inputs)
+
+    def "does not report listeners implemented by Gradle"() {
+        when:
+        listenerManager.addListener(new BuildAdapter())
+        listenerManager.createAnonymousBroadcaster(BuildListener).add(new BuildAdapter())
+
+        then:
+        inputs.cacheable
+    }
+
+    def "reports build listeners implemented by build logic"() {
+        def listener = buildLogicListener()
+
+        when:
+        listenerManager.addListener(listener)
+
+        then:
+        !inputs.cacheable
+    }
+
+    def "does not report other listeners implemented by build logic"() {
+        def listener = new GroovyClassLoader(getClass().classLoader).parseClass("class OtherListener implements Runnable { void run() {} }").newInstance()
+
+        when:
+        listenerManager.addListener(listener)
+
+        then:
+        inputs.cacheable
+    }
+
+    def "reports closures and actions added to an anonymous broadcaster"() {
+        when:
+        listenerManager.createAnonymousBroadcaster(TaskExecutionGraphListener).add(new ClosureBackedMethodInvocationDispatch("graphPopulated", {}))
+
+        then:
+        inputs.nonCacheableReason == "the build registers the listener TaskExecutionGraphListener closure"
+
+        when:
+        inputs = new ConfigurationInputs()
+        listenerManager = new TrackingListenerManager(new DefaultListenerManager(), inputs)
+        listenerManager.createAnonymousBroadcaster(BuildListener).add("buildFinished", Mock(Action))
+
+        then:
+        inputs.nonCacheableReason == "the build registers the listener BuildListener action for buildFinished()"
+    }
+
+    def "anonymous broadcasters still receive the events of the build"() {
+        def listener = Mock(BuildListener)
+        def broadcast = listenerManager.createAnonymousBroadcaster(BuildListener)
+        listenerManager.addListener(listener)
+
+        when:
+        broadcast.source.projectsEvaluated(null)
+
+        then:
+        1 * listener.projectsEvaluated(null)
+    }
+
+    def "children report to the same inputs"() {
+        when:
+        listenerManager.createChild().addListener(buildLogicListener())
+
+        then:
+        !inputs.cacheable
+    }
+
+    private Object buildLogicListener() {
+        return new GroovyClassLoader(getClass().classLoader).parseClass("class BuildLogicListener extends org.gradle.BuildAdapter {}").newInstance()
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project
+
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class ExclusiveProjectEvaluatorTest extends ConcurrentSpec {
+    def delegate = Mock(ProjectEvaluator)
+    def listenerLock = new ProjectEvaluationListenerLock()
+    def guard = new ParallelConfigurationGuard()
+    def evaluator = new ExclusiveProjectEvaluator(delegate, listenerLock, guard)
+    def project = Mock(ProjectInternal)
+    def state = new ProjectStateInternal()
+
+    def "evaluates project using delegate"() {
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * delegate.evaluate(project, state)
+        0 * _
+    }
+
+    def "does not evaluate project that has already been evaluated"() {
+        given:
+        state.executed()
+
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        0 * _
+    }
+
+    def "nested request for project being evaluated by the same thread returns immediately"() {
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * delegate.evaluate(project, state) >> {
+            evaluator.evaluate(project, state)
+        }
+        0 * _
+    }
+
+    def "request for project being evaluated by another thread waits for the evaluation to complete"() {
+        when:
+        async {
+            start {
+                evaluator.evaluate(project, state)
+            }
+            start {
+                thread.blockUntil.started
+                evaluator.evaluate(project, state)
+                instant.requested
+            }
+        }
+
+        then:
+        1 * delegate.evaluate(project, state) >> {
+            instant.started
+            thread.block()
+            instant.evaluated
+            state.executed()
+        }
+        0 * _
+
+        and:
+        instant.requested > instant.evaluated
+    }
+
+    def "projects that request each other from different threads do not deadlock"() {
+        def project2 = Mock(ProjectInternal)
+        def state2 = new ProjectStateInternal()
+
+        when:
+        async {
+            start {
+                evaluator.evaluate(project, state)
+            }
+            start {
+                evaluator.evaluate(project2, state2)
+            }
+        }
+
+        then:
+        1 * delegate.evaluate(project, state) >> {
+            instant.started1
+            thread.blockUntil.started2
+            evaluator.evaluate(project2, state2)
+            state.executed()
+        }
+        1 * delegate.evaluate(project2, state2) >> {
+            instant.started2
+            thread.blockUntil.started1
+            evaluator.evaluate(project, state)
+            state2.executed()
+        }
+        0 * _
+    }
+
+    def "listener that requests a project being evaluated by another thread gives up the listener lock while waiting"() {
+        when:
+        async {
+            start {
+                evaluator.evaluate(project, state)
+            }
+            start {
+                thread.blockUntil.started
+                // a listener of some other project requests the project, whose evaluation notifies its own listeners meanwhile
+                listenerLock.lock()
+                instant.listenerStarted
+                evaluator.evaluate(project, state)
+                instant.requested
+                assert listenerLock.releaseAll() == 1
+            }
+        }
+
+        then:
+        1 * delegate.evaluate(project, state) >> {
+            instant.started
+            thread.blockUntil.listenerStarted
+            listenerLock.lock()
+            listenerLock.unlock()
+            instant.evaluated
+            state.executed()
+        }
+        0 * _
+
+        and:
+        instant.requested > instant.evaluated
+    }
+}
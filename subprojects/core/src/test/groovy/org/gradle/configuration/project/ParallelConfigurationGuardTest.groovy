@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project
+
+import org.gradle.api.InvalidUserCodeException
+import org.gradle.api.internal.project.ProjectInternal
+import spock.lang.Specification
+
+class ParallelConfigurationGuardTest extends Specification {
+    def guard = new ParallelConfigurationGuard()
+    def root = project(":", null)
+    def child1 = project(":child1", root)
+    def child2 = project(":child2", root)
+    def grandChild = project(":child1:grandChild", child1)
+
+    def "allows access to any project when projects are not configured in parallel"() {
+        given:
+        guard.beforeEvaluate(child1)
+
+        when:
+        guard.checkAccess(child2)
+        guard.checkConfigure(child2)
+        guard.checkConfigure(root)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "allows access to any project from a thread that is not configuring a project"() {
+        given:
+        guard.start()
+
+        when:
+        guard.checkAccess(child2)
+        guard.checkConfigure(child2)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "allows project to access itself, its ancestors and its descendants"() {
+        given:
+        guard.start()
+        guard.beforeEvaluate(child1)
+
+        when:
+        guard.checkAccess(child1)
+        guard.checkAccess(root)
+        guard.checkAccess(grandChild)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "fails when project accesses a project that may be configured concurrently"() {
+        given:
+        guard.start()
+        guard.beforeEvaluate(child1)
+
+        when:
+        guard.checkAccess(child2)
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message == "Cannot access project ':child2' from project ':child1' while projects are configured in parallel. Call evaluationDependsOn(':child2') first, or access it from a common parent project."
+    }
+
+    def "allows project to access a project it depends on"() {
+        given:
+        guard.start()
+        guard.beforeEvaluate(child1)
+        guard.dependsOn(child2)
+
+        when:
+        guard.checkAccess(child2)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "allows project to configure itself and its descendants"() {
+        given:
+        guard.start()
+        guard.beforeEvaluate(child1)
+
+        when:
+        guard.checkConfigure(child1)
+        guard.checkConfigure(grandChild)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "fails when project configures a project other than itself and its descendants"() {
+        given:
+        guard.start()
+        guard.beforeEvaluate(child1)
+        guard.dependsOn(child2)
+
+        when:
+        guard.checkConfigure(target)
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message == "Cannot configure ${target} from project ':child1' while projects are configured in parallel. Configure it from its own build script or from a common parent project."
+
+        where:
+        target << [root, child2]
+    }
+
+    def "checks access from the project that is being evaluated by the current thread"() {
+        given:
+        guard.start()
+        guard.beforeEvaluate(child1)
+        guard.beforeEvaluate(child2)
+
+        when:
+        guard.checkConfigure(child2)
+
+        then:
+        noExceptionThrown()
+
+        when:
+        guard.afterEvaluate(child2)
+        guard.checkConfigure(child2)
+
+        then:
+        thrown(InvalidUserCodeException)
+    }
+
+    def "forgets dependencies when stopped"() {
+        given:
+        guard.start()
+        guard.beforeEvaluate(child1)
+        guard.dependsOn(child2)
+        guard.stop()
+        guard.start()
+
+        when:
+        guard.checkAccess(child2)
+
+        then:
+        thrown(InvalidUserCodeException)
+    }
+
+    private ProjectInternal project(String path, ProjectInternal parent) {
+        def project = Stub(ProjectInternal)
+        project.path >> path
+        project.parent >> parent
+        project.toString() >> (path == ":" ? "root project" : "project '${path}'")
+        return project
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project
+
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class ProjectEvaluationListenerLockTest extends ConcurrentSpec {
+    def lock = new ProjectEvaluationListenerLock()
+
+    def "lock is reentrant"() {
+        when:
+        lock.lock()
+        lock.lock()
+        lock.unlock()
+        lock.unlock()
+
+        then:
+        lock.releaseAll() == 0
+    }
+
+    def "thread waits for the lock held by another thread"() {
+        when:
+        async {
+            start {
+                lock.lock()
+                instant.locked
+                thread.block()
+                instant.unlocking
+                lock.unlock()
+            }
+            start {
+                thread.blockUntil.locked
+                lock.lock()
+                instant.acquired
+                lock.unlock()
+            }
+        }
+
+        then:
+        instant.acquired > instant.unlocking
+    }
+
+    def "released lock is reacquired with the same hold count"() {
+        when:
+        lock.lock()
+        lock.lock()
+        def count = lock.releaseAll()
+
+        then:
+        count == 2
+
+        when:
+        async {
+            start {
+                lock.lock()
+                lock.unlock()
+            }
+        }
+        lock.reacquire(count)
+        lock.unlock()
+
+        then:
+        lock.releaseAll() == 1
+    }
+
+    def "fails to unlock when the lock is not held by the current thread"() {
+        when:
+        lock.unlock()
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.execution
+
+import org.gradle.api.BuildCancelledException
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.configuration.project.ParallelConfigurationGuard
+import org.gradle.initialization.BuildCancellationToken
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class ParallelProjectConfigurerTest extends ConcurrentSpec {
+    def delegate = Mock(ProjectConfigurer)
+    def cancellationToken = Stub(BuildCancellationToken)
+    def guard = Mock(ParallelConfigurationGuard)
+    def configurer = new ParallelProjectConfigurer(delegate, cancellationToken, executorFactory, 4, guard)
+    def root = Mock(ProjectInternal)
+    def child1 = Mock(ProjectInternal)
+    def child2 = Mock(ProjectInternal)
+    def grandChild = Mock(ProjectInternal)
+
+    def setup() {
+        root.childProjects >> [child1: child1, child2: child2]
+        child1.childProjects >> [grandChild: grandChild]
+        child2.childProjects >> [:]
+        grandChild.childProjects >> [:]
+    }
+
+    def "configures single project using delegate"() {
+        when:
+        configurer.configure(root)
+
+        then:
+        1 * delegate.configure(root)
+        0 * delegate._
+    }
+
+    def "configures sibling projects concurrently after their parent"() {
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configure(root)
+        1 * child1.evaluate() >> {
+            instant.child1
+            thread.blockUntil.child2
+        }
+        1 * child2.evaluate() >> {
+            instant.child2
+            thread.blockUntil.child1
+        }
+        1 * grandChild.evaluate() >> { instant.grandChild }
+
+        and:
+        instant.grandChild > instant.child1
+    }
+
+    def "checks project access while children are configured"() {
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configure(root)
+
+        then:
+        1 * guard.start()
+
+        then:
+        1 * child1.evaluate()
+        1 * child2.evaluate()
+        1 * grandChild.evaluate()
+
+        then:
+        1 * guard.stop()
+    }
+
+    def "does not configure children of a project that fails"() {
+        def failure = new RuntimeException()
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+
+        and:
+        1 * child1.evaluate() >> {
+            thread.blockUntil.child2
+            throw failure
+        }
+        1 * child2.evaluate() >> { instant.child2 }
+        0 * grandChild.evaluate()
+    }
+
+    def "project configuration fails when cancelled"() {
+        given:
+        cancellationToken.cancellationRequested >> true
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        thrown(BuildCancelledException)
+
+        and:
+        0 * child1.evaluate()
+        0 * child2.evaluate()
+    }
+}
@@ -24,12 +24,25 @@ import org.gradle.cache.PersistentCache
 import org.gradle.groovy.scripts.Script
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.Transformer
+import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.resource.Resource
 import org.gradle.logging.ProgressLogger
 import org.gradle.logging.ProgressLoggerFactory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassVisitor
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import org.objectweb.asm.Type
 import spock.lang.Specification
 
+import java.lang.reflect.InvocationTargetException
+
 class FileCacheBackedScriptClassCompilerTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
     final ScriptCompilationHandler scriptCompilationHandler = Mock()
     final CacheRepository cacheRepository = Mock()
     final CacheBuilder cacheBuilder = Mock()
@@ -39,7 +52,7 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
     final ClassLoader classLoader = Mock()
     final Transformer transformer = Mock()
     final CompileOperation<?> operation = Mock()
-    final File cacheDir = new File("base-dir")
+    final TestFile cacheDir = tmpDir.file("base-dir")
     final File classesDir = new File(cacheDir, "classes")
     final File metadataDir = new File(cacheDir, "metadata")
     final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, validator, scriptCompilationHandler, Stub(ProgressLoggerFactory))
@@ -60,6 +73,7 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         _ * operation.transformer >> transformer
         _ * cache.baseDir >> cacheDir
         _ * validator.isValid() >> true
+        cacheDir.file("source-file.txt").text = 'ScriptFileName'
     }
 
     def "loads classes from cache directory"() {
@@ -68,9 +82,9 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
 
         then:
         result == Script
-        1 * cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
+        1 * cacheRepository.cache({ it.startsWith("scripts/ScriptClassName_") && it.endsWith("/Script/TransformerId") }) >> cacheBuilder
         1 * cacheBuilder.withProperties(!null) >> { args ->
-            assert args[0].get('source.filename') == 'ScriptFileName'
+            assert !args[0].containsKey('source.filename')
             assert args[0].containsKey('source.hash')
             return cacheBuilder
         }
@@ -78,18 +92,18 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         1 * cacheBuilder.withDisplayName(!null) >> cacheBuilder
         1 * cacheBuilder.withValidator(!null) >> cacheBuilder
         1 * cacheBuilder.open() >> cache
-        1 * scriptCompilationHandler.loadFromDir(source, classLoader, classesDir, metadataDir, operation, Script, classLoaderId) >> compiledScript
+        1 * scriptCompilationHandler.loadFromDir({ it.className.startsWith('ScriptClassName_') && it.fileName == 'ScriptFileName' }, classLoader, classesDir, metadataDir, operation, Script, classLoaderId) >> compiledScript
         0 * scriptCompilationHandler._
     }
 
     def "passes CacheValidator to cacheBuilder"() {
         setup:
-        cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
+        cacheRepository.cache(_) >> cacheBuilder
         cacheBuilder.withProperties(!null) >> cacheBuilder
         cacheBuilder.withInitializer(!null) >> cacheBuilder
         cacheBuilder.withDisplayName(!null) >> cacheBuilder
         cacheBuilder.open() >> cache
-        scriptCompilationHandler.loadFromDir(source, classLoader, classesDir, metadataDir, operation, Script, classLoaderId) >> compiledScript
+        scriptCompilationHandler.loadFromDir({ it.className.startsWith('ScriptClassName_') && it.fileName == 'ScriptFileName' }, classLoader, classesDir, metadataDir, operation, Script, classLoaderId) >> compiledScript
 
         when:
         compiler.compile(source, classLoader, classLoaderId, operation, classpathClosureName, Script, verifier)
@@ -110,15 +124,78 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
 
         then:
         result == Script
-        1 * cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
+        1 * cacheRepository.cache({ it.startsWith("scripts/ScriptClassName_") }) >> cacheBuilder
         1 * cacheBuilder.withProperties(!null) >> cacheBuilder
         1 * cacheBuilder.withDisplayName(!null) >> cacheBuilder
         1 * cacheBuilder.withValidator(!null) >> cacheBuilder
         1 * cacheBuilder.withInitializer(!null) >> { args -> initializer = args[0]; return cacheBuilder }
         1 * cacheBuilder.open() >> { initializer.execute(cache); return cache }
-        1 * scriptCompilationHandler.compileToDir(source, classLoader, classesDir, metadataDir, operation, classpathClosureName, Script, verifier)
-        1 * scriptCompilationHandler.loadFromDir(source, classLoader, classesDir, metadataDir, operation, Script, classLoaderId) >> compiledScript
+        1 * scriptCompilationHandler.compileToDir({ it.className.startsWith('ScriptClassName_') && it.fileName == 'ScriptFileName' }, classLoader, classesDir, metadataDir, operation, classpathClosureName, Script, verifier)
+        1 * scriptCompilationHandler.loadFromDir({ it.className.startsWith('ScriptClassName_') && it.fileName == 'ScriptFileName' }, classLoader, classesDir, metadataDir, operation, Script, classLoaderId) >> compiledScript
+        0 * scriptCompilationHandler._
+    }
+
+    def "scripts with identical content share compiled classes"() {
+        def otherSource = Mock(ScriptSource)
+        def cacheNames = []
+        _ * otherSource.resource >> source.resource
+        _ * otherSource.className >> 'ScriptClassName_otherlocation'
+        _ * otherSource.fileName >> 'ScriptFileName'
+        cacheBuilder.open() >> cache
+        cacheBuilder._ >> cacheBuilder
+
+        when:
+        compiler.compile(source, classLoader, classLoaderId, operation, classpathClosureName, Script, verifier)
+        compiler.compile(otherSource, classLoader, classLoaderId, operation, classpathClosureName, Script, verifier)
+
+        then:
+        2 * cacheRepository.cache(_) >> { args -> cacheNames << args[0]; return cacheBuilder }
+        2 * scriptCompilationHandler.loadFromDir({ it.className == cacheNames[0].split('/')[1] }, classLoader, classesDir, metadataDir, operation, Script, classLoaderId) >> compiledScript
+        cacheNames[0] == cacheNames[1]
+    }
+
+    def "uses classes compiled against another classpath when told to reuse them"() {
+        def apiClassLoader = new URLClassLoader([new URL("file:/api/")] as URL[], (ClassLoader) null)
+        def buildSrcClassLoader = new URLClassLoader([new URL("file:/api/"), new URL("file:/buildSrc/")] as URL[], (ClassLoader) null)
+        def cacheNames = []
+        cacheBuilder.open() >> cache
+        cacheBuilder._ >> cacheBuilder
+
+        when:
+        compiler.compile(source, apiClassLoader, classLoaderId, operation, classpathClosureName, Script, verifier)
+        compiler.compile(source, buildSrcClassLoader, classLoaderId, operation, classpathClosureName, Script, verifier)
+        compiler.reuseCompiledClasses(source, Script, 'TransformerId', apiClassLoader, buildSrcClassLoader)
+        compiler.compile(source, buildSrcClassLoader, classLoaderId, operation, classpathClosureName, Script, verifier)
+
+        then:
+        3 * cacheRepository.cache(_) >> { args -> cacheNames << args[0]; return cacheBuilder }
+        1 * scriptCompilationHandler.loadFromDir(_, apiClassLoader, classesDir, metadataDir, operation, Script, classLoaderId) >> compiledScript
+        2 * scriptCompilationHandler.loadFromDir(_, buildSrcClassLoader, classesDir, metadataDir, operation, Script, classLoaderId) >> compiledScript
+        cacheNames[0] != cacheNames[1]
+        cacheNames[0] == cacheNames[2]
+    }
+
+    def "binds classes compiled for another script to this script when loading them"() {
+        def parentLoader = Script.classLoader
+        def className = "ScriptClassName_" + HashUtil.createCompactMD5('this is the script')
+        cacheDir.file("source-file.txt").text = 'OtherFileName'
+        cacheDir.file("classes/${className}.class").bytes = classWithSourceFile(className, "OtherFileName")
+        cacheBuilder.open() >> cache
+        cacheBuilder._ >> cacheBuilder
+
+        when:
+        def result = compiler.compile(source, parentLoader, classLoaderId, operation, classpathClosureName, Script, verifier).loadClass()
+
+        then:
+        1 * cacheRepository.cache({ it.startsWith("scripts/ScriptClassName_") }) >> cacheBuilder
+        1 * scriptCompilationHandler.loadFromDir({ it.className.startsWith('ScriptClassName_') && it.fileName == 'ScriptFileName' }, parentLoader, classesDir, metadataDir, operation, Script, classLoaderId) >> compiledScript
+        0 * cacheRepository._
         0 * scriptCompilationHandler._
+
+        and:
+        result.name == className
+        sourceFileOf(result) == 'ScriptFileName'
+        sourceFileOf(cacheDir.file("classes/${className}.class").bytes) == 'OtherFileName'
     }
 
     def "reports compilation progress even in case of a failure"() {
@@ -145,4 +222,40 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         then:
         1 * logger.completed()
     }
+
+    static byte[] classWithSourceFile(String className, String sourceFile) {
+        def writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, className, null, Type.getInternalName(Script), null)
+        writer.visitSource(sourceFile, null)
+        def method = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "fail", "()V", null, null)
+        method.visitCode()
+        method.visitTypeInsn(Opcodes.NEW, "java/lang/RuntimeException")
+        method.visitInsn(Opcodes.DUP)
+        method.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/RuntimeException", "<init>", "()V", false)
+        method.visitInsn(Opcodes.ATHROW)
+        method.visitMaxs(2, 0)
+        method.visitEnd()
+        writer.visitEnd()
+        return writer.toByteArray()
+    }
+
+    static String sourceFileOf(Class<?> type) {
+        try {
+            type.getMethod("fail").invoke(null)
+            throw new AssertionError("expected a failure")
+        } catch (InvocationTargetException e) {
+            return e.cause.stackTrace[0].fileName
+        }
+    }
+
+    static String sourceFileOf(byte[] bytes) {
+        def sourceFile = null
+        new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM5) {
+            @Override
+            void visitSource(String source, String debug) {
+                sourceFile = source
+            }
+        }, 0)
+        return sourceFile
+    }
 }
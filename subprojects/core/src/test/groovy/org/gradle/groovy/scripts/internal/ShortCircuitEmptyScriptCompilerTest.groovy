@@ -54,6 +54,7 @@ class ShortCircuitEmptyScriptCompilerTest extends Specification {
 
         then:
         scriptClass == TestScript
+        compiledScript.empty
         compiledScript.data == metadata
         1 * emptyScriptGenerator.generate(Script) >> TestScript
         0 * emptyScriptGenerator._
@@ -59,6 +59,9 @@ public class CommandLineConverterTestSupport {
     protected int expectedParallelExecutorCount;
     protected int expectedMaxWorkersCount = Runtime.getRuntime().availableProcessors();
     protected boolean expectedConfigureOnDemand;
+    protected boolean expectedParallelConfiguration;
+    protected boolean expectedConfigurationCache;
+    protected boolean expectedConcurrentBuildSrc;
     protected boolean expectedContinuous;
 
     protected void checkConversion(String... args) {
@@ -97,6 +100,9 @@ public class CommandLineConverterTestSupport {
         assertEquals(expectedProjectCacheDir, startParameter.getProjectCacheDir());
         assertEquals(expectedParallelExecutorCount, startParameter.getParallelThreadCount());
         assertEquals(expectedConfigureOnDemand, startParameter.isConfigureOnDemand());
+        assertEquals(expectedParallelConfiguration, startParameter.isParallelConfiguration());
+        assertEquals(expectedConfigurationCache, startParameter.isConfigurationCache());
+        assertEquals(expectedConcurrentBuildSrc, startParameter.isConcurrentBuildSrc());
         assertEquals(expectedMaxWorkersCount, startParameter.getMaxWorkerCount());
         assertEquals(expectedContinuous, startParameter.isContinuous());
     }
@@ -347,6 +347,24 @@ public class DefaultCommandLineConverterTest extends CommandLineConverterTestSup
         checkConversion("--configure-on-demand");
     }
 
+    @Test
+    public void withParallelConfiguration() {
+        expectedParallelConfiguration = true;
+        checkConversion("--parallel-configuration");
+    }
+
+    @Test
+    public void withConfigurationCache() {
+        expectedConfigurationCache = true;
+        checkConversion("--configuration-cache");
+    }
+
+    @Test
+    public void withConcurrentBuildSrc() {
+        expectedConcurrentBuildSrc = true;
+        checkConversion("--concurrent-buildsrc");
+    }
+
     @Test
     public void withContinuous() {
         expectedContinuous = true;
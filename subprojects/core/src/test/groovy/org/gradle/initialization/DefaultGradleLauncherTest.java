@@ -27,6 +27,7 @@ import org.gradle.api.internal.file.TestFiles;
 import org.gradle.api.internal.initialization.ClassLoaderScope;
 import org.gradle.api.internal.project.DefaultProject;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.cache.ConfigurationResultCache;
 import org.gradle.execution.BuildExecuter;
 import org.gradle.execution.TaskGraphExecuter;
 import org.gradle.internal.progress.BuildOperationInternal;
@@ -85,6 +86,7 @@ public class DefaultGradleLauncherTest {
     private TasksCompletionListener tasksCompletionListener = context.mock(TasksCompletionListener.class);
     private BuildCompletionListener buildCompletionListener = context.mock(BuildCompletionListener.class);
     private InternalBuildListener internalBuildListener = context.mock(InternalBuildListener.class);
+    private ConfigurationResultCache configurationResultCache = context.mock(ConfigurationResultCache.class);
     private Closeable buildServices = context.mock(Closeable.class);
     public TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider();
 
@@ -119,7 +121,7 @@ public class DefaultGradleLauncherTest {
         gradleLauncher = new DefaultGradleLauncher(gradleMock, initScriptHandlerMock, settingsHandlerMock,
             buildLoaderMock, buildConfigurerMock, exceptionAnalyserMock, loggingManagerMock, buildBroadcaster,
             modelListenerMock, tasksCompletionListener, buildCompletionListener, internalBuildListener, buildExecuter,
-            buildServices);
+            configurationResultCache, buildServices);
 
         context.checking(new Expectations() {
             {
@@ -288,6 +290,33 @@ public class DefaultGradleLauncherTest {
         assertThat(buildResult.getFailure(), sameInstance((Throwable) transformedException));
     }
 
+    @Test
+    public void testSkipsConfigurationAndTaskExecutionWhenPreviousResultIsUpToDate() {
+        expectLoggingStarted();
+        expectInitScriptsExecuted();
+        expectSettingsBuilt();
+        context.checking(new Expectations() {{
+            one(gradleMock).getParent();
+            one(buildBroadcaster).buildStarted(gradleMock);
+            one(buildLoaderMock).load(expectedRootProjectDescriptor, expectedDefaultProjectDescriptor, gradleMock, baseClassLoaderScope);
+            one(buildBroadcaster).projectsLoaded(gradleMock);
+            one(configurationResultCache).isUpToDate(gradleMock);
+            will(returnValue(true));
+            startEvent(this, BuildOperationType.RUNNING_BUILD);
+            startEvent(this, BuildOperationType.EVALUATING_INIT_SCRIPTS);
+            finishEvent(this, BuildOperationType.EVALUATING_INIT_SCRIPTS);
+            startEvent(this, BuildOperationType.EVALUATING_SETTINGS);
+            finishEvent(this, BuildOperationType.EVALUATING_SETTINGS);
+            startEvent(this, BuildOperationType.LOADING_BUILD);
+            finishEvent(this, BuildOperationType.LOADING_BUILD);
+            finishEvent(this, BuildOperationType.RUNNING_BUILD);
+            one(buildBroadcaster).buildFinished(with(result(nullValue(Throwable.class))));
+        }});
+
+        BuildResult buildResult = gradleLauncher.run();
+        assertThat(buildResult.getFailure(), nullValue());
+    }
+
     @Test
     public void testCleansUpOnStop() throws IOException {
         context.checking(new Expectations() {{
@@ -362,6 +391,8 @@ public class DefaultGradleLauncherTest {
         context.checking(new Expectations() {
             {
                 one(buildLoaderMock).load(expectedRootProjectDescriptor, expectedDefaultProjectDescriptor, gradleMock, baseClassLoaderScope);
+                one(configurationResultCache).isUpToDate(gradleMock);
+                will(returnValue(false));
                 one(buildConfigurerMock).configure(gradleMock);
                 one(buildExecuter).select(gradleMock);
             }
@@ -373,6 +404,7 @@ public class DefaultGradleLauncherTest {
             {
                 one(buildExecuter).execute();
                 one(tasksCompletionListener).onTasksFinished(gradleMock);
+                one(configurationResultCache).store(gradleMock);
             }
         });
     }
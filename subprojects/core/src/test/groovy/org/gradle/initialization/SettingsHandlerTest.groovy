@@ -20,13 +20,18 @@ import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.SettingsInternal
 import org.gradle.api.internal.initialization.ClassLoaderScope
 import org.gradle.api.internal.project.ProjectRegistry
+import org.gradle.configuration.BuildSrcIndependentScriptCompiler
 import org.gradle.initialization.buildsrc.BuildSourceBuilder
 import org.gradle.internal.service.ServiceRegistry
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.GFileUtils
 import org.gradle.util.WrapUtil
+import org.junit.Rule
 import spock.lang.Specification
 
 class SettingsHandlerTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
 
     def gradle = Mock(GradleInternal)
     def settings = Mock(SettingsInternal)
@@ -59,4 +64,39 @@ class SettingsHandlerTest extends Specification {
         settingsHandler.findAndLoadSettings(gradle).is(settings)
     }
 
+    public void compilesScriptsWhileBuildSrcIsBuilt() {
+        def scriptCompiler = Mock(BuildSrcIndependentScriptCompiler)
+        def compilation = Mock(BuildSrcIndependentScriptCompiler.Compilation)
+        def location = new SettingsLocation(tmpDir.testDirectory, null)
+        tmpDir.createDir(BaseSettings.DEFAULT_BUILD_SRC_DIR)
+        settingsHandler = new SettingsHandler(settingsFinder, settingsProcessor, buildSourceBuilder, scriptCompiler)
+
+        when:
+        def projectRegistry = Mock(ProjectRegistry)
+        def projectDescriptor = Mock(DefaultProjectDescriptor)
+        startParameter.setCurrentDir(location.getSettingsDir())
+
+        settings.getProjectRegistry() >> projectRegistry
+        projectRegistry.getAllProjects() >> WrapUtil.toSet(projectDescriptor)
+        projectDescriptor.getProjectDir() >> location.settingsDir
+        projectDescriptor.getBuildFile() >> new File(location.getSettingsDir(), "build.gradle")
+        gradle.getStartParameter() >> startParameter
+        settingsFinder.find(startParameter) >> location
+        def result = settingsHandler.findAndLoadSettings(gradle)
+
+        then:
+        1 * scriptCompiler.start(location, startParameter) >> compilation
+
+        then:
+        1 * buildSourceBuilder.buildAndCreateClassLoader(_) >> classLoaderScope
+
+        then:
+        1 * compilation.stop()
+
+        then:
+        1 * compilation.reuseFor(classLoaderScope)
+        1 * settingsProcessor.process(gradle, location, classLoaderScope, startParameter) >> settings
+        result.is(settings)
+    }
+
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.internal.service.scopes
 
+import org.gradle.StartParameter
 import org.gradle.api.AntBuilder
 import org.gradle.api.RecordingAntBuildListener
 import org.gradle.api.artifacts.ConfigurationContainer
@@ -37,6 +38,8 @@ import org.gradle.api.internal.project.taskfactory.ITaskFactory
 import org.gradle.api.internal.tasks.DefaultTaskContainerFactory
 import org.gradle.api.internal.tasks.TaskContainerInternal
 import org.gradle.api.logging.LoggingManager
+import org.gradle.configuration.cache.ConfigurationInputs
+import org.gradle.configuration.cache.RecordingFileOperations
 import org.gradle.configuration.project.DefaultProjectConfigurationActionContainer
 import org.gradle.configuration.project.ProjectConfigurationActionContainer
 import org.gradle.groovy.scripts.ScriptSource
@@ -77,6 +80,7 @@ class ProjectScopeServicesTest extends Specification {
     ModelRuleSourceDetector modelRuleSourceDetector = Mock()
     def classLoaderScope = Mock(ClassLoaderScope)
     DependencyResolutionServices dependencyResolutionServices = Stub()
+    def startParameter = new StartParameter()
 
     @Rule
     TestNameTestDirectoryProvider testDirectoryProvider = new TestNameTestDirectoryProvider()
@@ -100,6 +104,8 @@ class ProjectScopeServicesTest extends Specification {
         parent.get(ModelRegistryStore) >> modelRegistryStore
         parent.get(ModelRuleSourceDetector) >> modelRuleSourceDetector
         parent.get(ModelRuleExtractor) >> Stub(ModelRuleExtractor)
+        parent.get(StartParameter) >> startParameter
+        parent.get(ConfigurationInputs) >> new ConfigurationInputs()
         registry = new ProjectScopeServices(parent, project)
     }
 
@@ -176,6 +182,16 @@ class ProjectScopeServicesTest extends Specification {
         provides(FileOperations, DefaultFileOperations)
     }
 
+    def "provides a FileOperations instance that records the files used by the build when the configuration cache is enabled"() {
+        1 * project.tasks
+
+        given:
+        startParameter.configurationCache = true
+
+        expect:
+        provides(FileOperations, RecordingFileOperations)
+    }
+
     def "provides a TemporaryFileProvider"() {
         expect:
         provides(TemporaryFileProvider, DefaultTemporaryFileProvider)
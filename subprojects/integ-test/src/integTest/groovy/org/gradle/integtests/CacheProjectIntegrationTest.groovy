@@ -16,9 +16,11 @@
 
 package org.gradle.integtests
 
+import org.apache.commons.lang.StringUtils
 import org.gradle.api.internal.artifacts.ivyservice.CacheLayout
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.UriScriptSource
+import org.gradle.internal.hash.HashUtil
 import org.gradle.integtests.fixtures.AbstractIntegrationTest
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.server.http.MavenHttpRepository
@@ -38,9 +40,8 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
     TestFile projectDir
     TestFile userHomeDir
     TestFile buildFile
-    TestFile propertiesFile
-    TestFile classFile
     TestFile artifactsCache
+    String version
 
     MavenHttpRepository repo
 
@@ -49,14 +50,11 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
         // Use own home dir so we don't blast the shared one when we run with -C rebuild
         executer.requireOwnGradleUserHomeDir()
 
-        String version = GradleVersion.current().version
+        version = GradleVersion.current().version
         projectDir = file("project")
         projectDir.mkdirs()
         userHomeDir = executer.gradleUserHomeDir
         buildFile = projectDir.file('build.gradle')
-        ScriptSource source = new UriScriptSource("build file", buildFile)
-        propertiesFile = userHomeDir.file("caches/$version/scripts/$source.className/ProjectScript/no_buildscript/cache.properties")
-        classFile = userHomeDir.file("caches/$version/scripts/$source.className/ProjectScript/no_buildscript/classes/${source.className}.class")
         artifactsCache = projectDir.file(".gradle/$version/taskArtifacts/taskArtifacts.bin")
 
         repo = new MavenHttpRepository(server, mavenRepo)
@@ -128,6 +126,28 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
         assert dependenciesCache.isDirectory() && dependenciesCache.listFiles().length > 0
     }
 
+    // Compiled classes are cached by the content of the script, so the location changes when the script changes
+    private String getScriptClassName() {
+        ScriptSource source = new UriScriptSource("build file", buildFile)
+        return StringUtils.substringBeforeLast(source.className, "_") + "_" + HashUtil.createCompactMD5(buildFile.text)
+    }
+
+    private TestFile getScriptCacheDir() {
+        File[] classPathDirs = userHomeDir.file("caches/$version/scripts/$scriptClassName").listFiles()
+        assert classPathDirs != null
+        def cacheDirs = classPathDirs.collect { new TestFile(it).file("ProjectScript/no_buildscript") }.findAll { it.directory }
+        assert cacheDirs.size() == 1
+        return cacheDirs[0]
+    }
+
+    private TestFile getPropertiesFile() {
+        return scriptCacheDir.file("cache.properties")
+    }
+
+    private TestFile getClassFile() {
+        return scriptCacheDir.file("classes/${scriptClassName}.class")
+    }
+
     private TestFile findDependencyCacheDir() {
         def resolverArtifactCache = new TestFile(userHomeDir.file("caches/${CacheLayout.ROOT.getKey()}/${CacheLayout.FILE_STORE.getKey()}"))
         return resolverArtifactCache.file("commons-io/commons-io/")
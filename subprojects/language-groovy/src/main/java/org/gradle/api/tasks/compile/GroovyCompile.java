@@ -18,17 +18,31 @@ package org.gradle.api.tasks.compile;
 
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.changedetection.changes.IncrementalTaskInputsInternal;
+import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.compile.*;
 import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonManager;
 import org.gradle.api.internal.tasks.compile.daemon.InProcessCompilerDaemonFactory;
+import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilerFactory;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.cache.CompileCaches;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
+import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
+import org.gradle.api.internal.tasks.compile.incremental.jar.LocalJarClasspathSnapshotStore;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.cache.CacheRepository;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.util.GFileUtils;
+import org.gradle.util.SingleMessageLogger;
 
+import javax.inject.Inject;
 import java.io.File;
 
 /**
@@ -41,6 +55,75 @@ public class GroovyCompile extends AbstractCompile {
     private final GroovyCompileOptions groovyCompileOptions = new GroovyCompileOptions();
 
     @TaskAction
+    protected void compile(IncrementalTaskInputs inputs) {
+        if (!compileOptions.isIncremental()) {
+            compile();
+            return;
+        }
+
+        SingleMessageLogger.incubatingFeatureUsed("Incremental groovy compilation");
+
+        checkGroovyClasspathIsNonEmpty();
+        DefaultGroovyJavaJointCompileSpec spec = createSpec();
+        final CacheRepository cacheRepository = getCacheRepository();
+        final GeneralCompileCaches generalCaches = getGeneralCompileCaches();
+        final GroovyCompile groovyCompile = this;
+        CompileCaches compileCaches = new CompileCaches() {
+            public ClassAnalysisCache getClassAnalysisCache() {
+                return generalCaches.getClassAnalysisCache();
+            }
+
+            public JarSnapshotCache getJarSnapshotCache() {
+                return generalCaches.getJarSnapshotCache();
+            }
+
+            public LocalJarClasspathSnapshotStore getLocalJarClasspathSnapshotStore() {
+                return new LocalJarClasspathSnapshotStore(cacheRepository, groovyCompile);
+            }
+
+            public LocalClassSetAnalysisStore getLocalClassSetAnalysisStore() {
+                return new LocalClassSetAnalysisStore(cacheRepository, groovyCompile);
+            }
+        };
+        CleaningGroovyCompiler cleaningCompiler = new CleaningGroovyCompiler(createDelegatingCompiler(spec), getOutputs());
+        // Groovy does not require a class to live in a source file named after it, which selective recompilation relies on
+        IncrementalCompilerFactory<GroovyJavaJointCompileSpec> factory = new IncrementalCompilerFactory<GroovyJavaJointCompileSpec>(
+                (FileOperations) getProject(), getPath(), cleaningCompiler, source, compileCaches, (IncrementalTaskInputsInternal) inputs,
+                getExecutorFactory(), true);
+        WorkResult result = factory.createCompiler().execute(spec);
+        setDidWork(result.getDidWork());
+    }
+
+    @Inject
+    protected GeneralCompileCaches getGeneralCompileCaches() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected CacheRepository getCacheRepository() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected ExecutorFactory getExecutorFactory() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected CompilerDaemonManager getCompilerDaemonManager() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected InProcessCompilerDaemonFactory getInProcessCompilerDaemonFactory() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected JavaCompilerFactory getJavaCompilerFactory() {
+        throw new UnsupportedOperationException();
+    }
+
     protected void compile() {
         checkGroovyClasspathIsNonEmpty();
         DefaultGroovyJavaJointCompileSpec spec = createSpec();
@@ -50,17 +133,17 @@ public class GroovyCompile extends AbstractCompile {
 
     private Compiler<GroovyJavaJointCompileSpec> getCompiler(GroovyJavaJointCompileSpec spec) {
         if (compiler == null) {
-            ProjectInternal projectInternal = (ProjectInternal) getProject();
-            CompilerDaemonManager compilerDaemonManager = getServices().get(CompilerDaemonManager.class);
-            InProcessCompilerDaemonFactory inProcessCompilerDaemonFactory = getServices().get(InProcessCompilerDaemonFactory.class);
-            JavaCompilerFactory javaCompilerFactory = getServices().get(JavaCompilerFactory.class);
-            GroovyCompilerFactory groovyCompilerFactory = new GroovyCompilerFactory(projectInternal, javaCompilerFactory, compilerDaemonManager, inProcessCompilerDaemonFactory);
-            Compiler<GroovyJavaJointCompileSpec> delegatingCompiler = groovyCompilerFactory.newCompiler(spec);
-            compiler = new CleaningGroovyCompiler(delegatingCompiler, getOutputs());
+            compiler = new CleaningGroovyCompiler(createDelegatingCompiler(spec), getOutputs());
         }
         return compiler;
     }
 
+    private Compiler<GroovyJavaJointCompileSpec> createDelegatingCompiler(GroovyJavaJointCompileSpec spec) {
+        ProjectInternal projectInternal = (ProjectInternal) getProject();
+        GroovyCompilerFactory groovyCompilerFactory = new GroovyCompilerFactory(projectInternal, getJavaCompilerFactory(), getCompilerDaemonManager(), getInProcessCompilerDaemonFactory());
+        return groovyCompilerFactory.newCompiler(spec);
+    }
+
     private DefaultGroovyJavaJointCompileSpec createSpec() {
         DefaultGroovyJavaJointCompileSpec spec = new DefaultGroovyJavaJointCompileSpecFactory(compileOptions).create();
         spec.setSource(getSource());
@@ -34,7 +34,7 @@ public abstract class CleaningJavaCompilerSupport<T extends JavaCompileSpec> imp
         return compiler.execute(spec);
     }
 
-    protected abstract Compiler<T> getCompiler();
+    public abstract Compiler<T> getCompiler();
 
     protected abstract StaleClassCleaner createCleaner(T spec);
 }
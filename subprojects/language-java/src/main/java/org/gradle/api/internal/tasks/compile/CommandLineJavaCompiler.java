@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.language.base.internal.compile.Compiler;
@@ -25,6 +26,11 @@ import org.gradle.process.internal.ExecHandleBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 
 /**
@@ -39,21 +45,51 @@ public class CommandLineJavaCompiler implements Compiler<JavaCompileSpec>, Seria
         String executable = spec.getCompileOptions().getForkOptions().getExecutable();
         LOGGER.info("Compiling with Java command line compiler '{}'.", executable);
 
-        ExecHandle handle = createCompilerHandle(executable, spec);
-        executeCompiler(handle);
+        OutputStream diagnostics = openDiagnostics(spec);
+        try {
+            ExecHandle handle = createCompilerHandle(executable, spec, diagnostics);
+            executeCompiler(handle);
+        } finally {
+            closeDiagnostics(diagnostics);
+        }
 
         return new SimpleWorkResult(true);
     }
 
-    private ExecHandle createCompilerHandle(String executable, JavaCompileSpec spec) {
+    private ExecHandle createCompilerHandle(String executable, JavaCompileSpec spec, OutputStream diagnostics) {
         ExecHandleBuilder builder = new ExecHandleBuilder();
         builder.setWorkingDir(spec.getWorkingDir());
         builder.setExecutable(executable);
         argumentsGenerator.collectArguments(spec, new ExecSpecBackedArgCollector(builder));
         builder.setIgnoreExitValue(true);
+        if (diagnostics != null) {
+            builder.setErrorOutput(diagnostics);
+        }
         return builder.build();
     }
 
+    private static OutputStream openDiagnostics(JavaCompileSpec spec) {
+        File diagnosticsFile = spec.getDiagnosticsFile();
+        if (diagnosticsFile == null) {
+            return null;
+        }
+        try {
+            return new FileOutputStream(diagnosticsFile);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeDiagnostics(OutputStream diagnostics) {
+        if (diagnostics != null) {
+            try {
+                diagnostics.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
     private void executeCompiler(ExecHandle handle) {
         handle.start();
         ExecResult result = handle.waitForFinish();
@@ -16,13 +16,18 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
 import org.gradle.api.tasks.compile.CompileOptions;
 
 import java.io.File;
+import java.util.List;
 
 public class DefaultJavaCompileSpec extends DefaultJvmLanguageCompileSpec implements JavaCompileSpec {
     private CompileOptions compileOptions;
     private File dependencyCacheDir;
+    private File annotationProcessingResultFile;
+    private File diagnosticsFile;
+    private List<AnnotationProcessorDeclaration> annotationProcessors;
 
     public CompileOptions getCompileOptions() {
         return compileOptions;
@@ -39,4 +44,28 @@ public class DefaultJavaCompileSpec extends DefaultJvmLanguageCompileSpec implem
     public void setDependencyCacheDir(File dependencyCacheDir) {
         this.dependencyCacheDir = dependencyCacheDir;
     }
+
+    public File getAnnotationProcessingResultFile() {
+        return annotationProcessingResultFile;
+    }
+
+    public void setAnnotationProcessingResultFile(File annotationProcessingResultFile) {
+        this.annotationProcessingResultFile = annotationProcessingResultFile;
+    }
+
+    public File getDiagnosticsFile() {
+        return diagnosticsFile;
+    }
+
+    public void setDiagnosticsFile(File diagnosticsFile) {
+        this.diagnosticsFile = diagnosticsFile;
+    }
+
+    public List<AnnotationProcessorDeclaration> getAnnotationProcessors() {
+        return annotationProcessors;
+    }
+
+    public void setAnnotationProcessors(List<AnnotationProcessorDeclaration> annotationProcessors) {
+        this.annotationProcessors = annotationProcessors;
+    }
 }
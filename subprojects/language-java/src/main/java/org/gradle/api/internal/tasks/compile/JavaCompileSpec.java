@@ -16,9 +16,12 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
 import org.gradle.api.tasks.compile.CompileOptions;
 
 import java.io.File;
+import java.util.List;
 
 public interface JavaCompileSpec extends JvmLanguageCompileSpec {
     CompileOptions getCompileOptions();
@@ -28,4 +31,28 @@ public interface JavaCompileSpec extends JvmLanguageCompileSpec {
     void setDependencyCacheDir(File dependencyCacheDir);
 
     File getDestinationDir();
+
+    /**
+     * @return the file the compiler writes the outputs of incremental annotation processors to, or null when they need not be tracked
+     */
+    @Nullable
+    File getAnnotationProcessingResultFile();
+
+    void setAnnotationProcessingResultFile(@Nullable File annotationProcessingResultFile);
+
+    /**
+     * @return the file the compiler writes its warnings and errors to instead of the console, or null when they go to the console
+     */
+    @Nullable
+    File getDiagnosticsFile();
+
+    void setDiagnosticsFile(@Nullable File diagnosticsFile);
+
+    /**
+     * @return the annotation processors of the compilation, or null when they have not been detected yet
+     */
+    @Nullable
+    List<AnnotationProcessorDeclaration> getAnnotationProcessors();
+
+    void setAnnotationProcessors(@Nullable List<AnnotationProcessorDeclaration> annotationProcessors);
 }
@@ -15,7 +15,12 @@
  */
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDetector;
+import org.gradle.api.internal.tasks.compile.processing.TrackingProcessorLoader;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.internal.Factory;
@@ -26,7 +31,11 @@ import org.slf4j.LoggerFactory;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.List;
 
@@ -41,8 +50,18 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
+        boolean success;
+        Writer diagnostics = openDiagnostics(spec);
+        try {
+            if (spec.getCompileOptions().isReuseCompiler()) {
+                success = compileWithSharedCompiler(spec, diagnostics);
+            } else {
+                JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+                success = call(createCompileTask(spec, compiler, diagnostics), compiler, spec);
+            }
+        } finally {
+            closeDiagnostics(diagnostics);
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
@@ -50,12 +69,77 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         return new SimpleWorkResult(true);
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, JavaCompiler compiler, Writer diagnostics) {
         List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        CompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, getCharset(spec));
         Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(spec.getSource());
-        return compiler.getTask(null, null, null, options, null, compilationUnits);
+        return compiler.getTask(diagnostics, null, null, options, null, compilationUnits);
+    }
+
+    private boolean compileWithSharedCompiler(JavaCompileSpec spec, Writer diagnostics) {
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        SharedJavaCompilerCache.Lease lease = SharedJavaCompilerCache.getInstance().acquire(javaHomeBasedJavaCompilerFactory, getCharset(spec), spec.getClasspath());
+        try {
+            StandardJavaFileManager fileManager = lease.getFileManager();
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(spec.getSource());
+            JavaCompiler compiler = lease.getCompiler();
+            return call(compiler.getTask(diagnostics, fileManager, null, options, null, compilationUnits), compiler, spec);
+        } finally {
+            lease.release();
+        }
+    }
+
+    private static boolean call(JavaCompiler.CompilationTask task, JavaCompiler compiler, JavaCompileSpec spec) {
+        File resultFile = spec.getAnnotationProcessingResultFile();
+        if (resultFile == null) {
+            return task.call();
+        }
+        // run the processors ourselves so that the files they generate can be related to the types they were generated from.
+        // a compilation may call the compiler more than once, so the result of the earlier calls is extended
+        AnnotationProcessingResult result = AnnotationProcessingResult.readFrom(resultFile);
+        if (result == null) {
+            result = new AnnotationProcessingResult();
+        }
+        List<AnnotationProcessorDeclaration> processors = new AnnotationProcessorDetector().getProcessors(spec);
+        TrackingProcessorLoader processorLoader = new TrackingProcessorLoader();
+        boolean success;
+        try {
+            if (!processors.isEmpty()) {
+                task.setProcessors(processorLoader.load(processors, AnnotationProcessorDetector.getProcessorPath(spec), compiler.getClass().getClassLoader(), result));
+            }
+            success = task.call();
+        } finally {
+            processorLoader.stop();
+        }
+        result.writeTo(resultFile);
+        return success;
+    }
+
+    // the compiler writes its diagnostics to System.err when it is not given a writer
+    private static Writer openDiagnostics(JavaCompileSpec spec) {
+        File diagnosticsFile = spec.getDiagnosticsFile();
+        if (diagnosticsFile == null) {
+            return null;
+        }
+        try {
+            return new FileWriter(diagnosticsFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeDiagnostics(Writer diagnostics) {
+        if (diagnostics != null) {
+            try {
+                diagnostics.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static Charset getCharset(JavaCompileSpec spec) {
+        CompileOptions compileOptions = spec.getCompileOptions();
+        return compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
     }
 }
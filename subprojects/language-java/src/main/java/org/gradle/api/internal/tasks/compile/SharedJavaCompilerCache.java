@@ -0,0 +1,340 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.hash.DefaultHasher;
+import org.gradle.api.internal.hash.Hasher;
+import org.gradle.internal.Factory;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.TrueTimeProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the Java compiler and its file managers alive between the compilations run in this process,
+ * so that they do not have to be created again by the next compilation.
+ * <p>
+ * A file manager is only used by one compilation at a time. It is closed when the compilation has finished, which releases the jars it opened
+ * so that they can be deleted or replaced while it is idle. The file manager opens them again when it is reused. It is discarded as soon as the
+ * content of one of the jars it was used with changes. Before a file manager is reused, all of its locations are reset so that the class path,
+ * source path, output directories and processor path of the previous compilation do not leak into the next one.
+ * <p>
+ * At most {@value #MAX_IDLE_PER_ENCODING} idle file managers are kept for each encoding and {@value #MAX_IDLE} in total, the ones that have been idle
+ * the longest are discarded first. A file manager that has been idle for five minutes is discarded.
+ */
+public class SharedJavaCompilerCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedJavaCompilerCache.class);
+    private static final SharedJavaCompilerCache INSTANCE = new SharedJavaCompilerCache(new DefaultHasher(), new TrueTimeProvider());
+    static final int MAX_IDLE_PER_ENCODING = 4;
+    static final int MAX_IDLE = 8;
+    static final long IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+
+    private final Hasher hasher;
+    private final TimeProvider timeProvider;
+    private final Statistics statistics = new Statistics();
+    private final ListMultimap<String, CachedFileManager> idleFileManagers = ArrayListMultimap.create();
+    private final Map<File, JarFingerprint> jarFingerprints = new HashMap<File, JarFingerprint>();
+    private JavaCompiler compiler;
+
+    SharedJavaCompilerCache(Hasher hasher, TimeProvider timeProvider) {
+        this.hasher = hasher;
+        this.timeProvider = timeProvider;
+    }
+
+    public static SharedJavaCompilerCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Checks out a compiler and a file manager that can be used with the given classpath. The lease must be released once the compilation has finished.
+     */
+    public Lease acquire(Factory<JavaCompiler> compilerFactory, Charset charset, Iterable<File> classpath) {
+        long start = System.nanoTime();
+        Map<File, byte[]> jarHashes = hashJars(classpath);
+        String key = charset == null ? "" : charset.name();
+
+        JavaCompiler javaCompiler;
+        CachedFileManager fileManager = null;
+        synchronized (this) {
+            if (compiler == null) {
+                compiler = compilerFactory.create();
+            }
+            javaCompiler = compiler;
+            discardExpired(timeProvider.getCurrentTime());
+            List<CachedFileManager> candidates = idleFileManagers.get(key);
+            while (fileManager == null && !candidates.isEmpty()) {
+                CachedFileManager candidate = candidates.remove(candidates.size() - 1);
+                if (candidate.isUpToDate(jarHashes)) {
+                    fileManager = candidate;
+                } else {
+                    statistics.invalidated.incrementAndGet();
+                }
+            }
+        }
+
+        if (fileManager == null) {
+            statistics.created.incrementAndGet();
+            fileManager = new CachedFileManager(javaCompiler.getStandardFileManager(null, null, charset));
+        } else {
+            statistics.reused.incrementAndGet();
+            fileManager.resetLocations();
+        }
+        fileManager.jarHashes.putAll(jarHashes);
+        long prepareTime = System.nanoTime() - start;
+        statistics.prepareNanos.addAndGet(prepareTime);
+        return new Lease(javaCompiler, key, fileManager, prepareTime);
+    }
+
+    private void release(Lease lease, long compileTime) {
+        statistics.compileNanos.addAndGet(compileTime);
+        lease.fileManager.flush();
+        lease.fileManager.close();
+        synchronized (this) {
+            long now = timeProvider.getCurrentTime();
+            lease.fileManager.idleSince = now;
+            idleFileManagers.put(lease.key, lease.fileManager);
+            discardExpired(now);
+            List<CachedFileManager> sameEncoding = idleFileManagers.get(lease.key);
+            while (sameEncoding.size() > MAX_IDLE_PER_ENCODING) {
+                sameEncoding.remove(0);
+                statistics.discarded.incrementAndGet();
+            }
+            while (idleFileManagers.size() > MAX_IDLE) {
+                discardLongestIdle();
+            }
+        }
+        LOGGER.info("Compiled with shared Java compiler in {}ms. Preparing the {} file manager took {}ms, checking {} classpath jars.",
+                compileTime / 1000000, lease.reused ? "reused" : "new", lease.prepareTime / 1000000, lease.fileManager.jarHashes.size());
+    }
+
+    // Idle file managers have been closed already, so they are simply dropped
+    private void discardExpired(long now) {
+        Iterator<CachedFileManager> iterator = idleFileManagers.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().idleSince >= IDLE_TIMEOUT_MILLIS) {
+                iterator.remove();
+                statistics.discarded.incrementAndGet();
+            }
+        }
+    }
+
+    private void discardLongestIdle() {
+        CachedFileManager longestIdle = null;
+        for (CachedFileManager fileManager : idleFileManagers.values()) {
+            if (longestIdle == null || fileManager.idleSince < longestIdle.idleSince) {
+                longestIdle = fileManager;
+            }
+        }
+        idleFileManagers.values().remove(longestIdle);
+        statistics.discarded.incrementAndGet();
+    }
+
+    /**
+     * Discards all idle file managers and forgets the compiler.
+     */
+    public synchronized void clear() {
+        idleFileManagers.clear();
+        jarFingerprints.clear();
+        compiler = null;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    private Map<File, byte[]> hashJars(Iterable<File> classpath) {
+        Map<File, byte[]> hashes = new HashMap<File, byte[]>();
+        for (File file : classpath) {
+            if (file.isFile()) {
+                hashes.put(file, hashJar(file));
+            }
+        }
+        return hashes;
+    }
+
+    // Only hashes the content of a jar again when its size or timestamp changed since it was last hashed
+    private byte[] hashJar(File jar) {
+        long length = jar.length();
+        long lastModified = jar.lastModified();
+        synchronized (this) {
+            JarFingerprint fingerprint = jarFingerprints.get(jar);
+            if (fingerprint != null && fingerprint.length == length && fingerprint.lastModified == lastModified) {
+                return fingerprint.hash;
+            }
+        }
+        byte[] hash = hasher.hash(jar);
+        synchronized (this) {
+            jarFingerprints.put(jar, new JarFingerprint(length, lastModified, hash));
+        }
+        return hash;
+    }
+
+    public class Lease {
+        private final JavaCompiler compiler;
+        private final String key;
+        private final CachedFileManager fileManager;
+        private final long prepareTime;
+        private final boolean reused;
+        private final long start;
+
+        private Lease(JavaCompiler compiler, String key, CachedFileManager fileManager, long prepareTime) {
+            this.compiler = compiler;
+            this.key = key;
+            this.fileManager = fileManager;
+            this.prepareTime = prepareTime;
+            this.reused = fileManager.uses++ > 0;
+            this.start = System.nanoTime();
+        }
+
+        public JavaCompiler getCompiler() {
+            return compiler;
+        }
+
+        public StandardJavaFileManager getFileManager() {
+            return fileManager.fileManager;
+        }
+
+        public void release() {
+            SharedJavaCompilerCache.this.release(this, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counters describing how well the cache is doing, accumulated over the lifetime of the process.
+     */
+    public static class Statistics {
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong reused = new AtomicLong();
+        private final AtomicLong invalidated = new AtomicLong();
+        private final AtomicLong discarded = new AtomicLong();
+        private final AtomicLong prepareNanos = new AtomicLong();
+        private final AtomicLong compileNanos = new AtomicLong();
+
+        /**
+         * @return the number of file managers created, each of them opening the classpath jars again
+         */
+        public long getFileManagersCreated() {
+            return created.get();
+        }
+
+        public long getFileManagersReused() {
+            return reused.get();
+        }
+
+        /**
+         * @return the number of file managers discarded because a jar they had been used with changed
+         */
+        public long getFileManagersInvalidated() {
+            return invalidated.get();
+        }
+
+        /**
+         * @return the number of idle file managers discarded because too many were idle or because they had been idle for too long
+         */
+        public long getFileManagersDiscarded() {
+            return discarded.get();
+        }
+
+        /**
+         * @return the time spent checking the classpath jars and obtaining a file manager
+         */
+        public long getPrepareMillis() {
+            return prepareNanos.get() / 1000000;
+        }
+
+        public long getCompileMillis() {
+            return compileNanos.get() / 1000000;
+        }
+    }
+
+    private static class CachedFileManager {
+        final StandardJavaFileManager fileManager;
+        final Map<File, byte[]> jarHashes = new HashMap<File, byte[]>();
+        int uses;
+        long idleSince;
+
+        CachedFileManager(StandardJavaFileManager fileManager) {
+            this.fileManager = fileManager;
+        }
+
+        boolean isUpToDate(Map<File, byte[]> currentHashes) {
+            for (Map.Entry<File, byte[]> entry : currentHashes.entrySet()) {
+                byte[] previous = jarHashes.get(entry.getKey());
+                if (previous != null && !Arrays.equals(previous, entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Puts every location back to its default, as for a newly created file manager. The options of the next compilation set them again.
+        void resetLocations() {
+            try {
+                for (StandardLocation location : StandardLocation.values()) {
+                    fileManager.setLocation(location, null);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void flush() {
+            try {
+                fileManager.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class JarFingerprint {
+        final long length;
+        final long lastModified;
+        final byte[] hash;
+
+        JarFingerprint(long length, long lastModified, byte[] hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
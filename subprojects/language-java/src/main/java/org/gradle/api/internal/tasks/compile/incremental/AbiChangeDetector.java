@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.*;
+
+/**
+ * Compares the ABI of freshly compiled classes with the ABI recorded by the previous compilation.
+ */
+class AbiChangeDetector {
+
+    private final ClassDependenciesAnalyzer analyzer;
+
+    public AbiChangeDetector(ClassDependenciesAnalyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    /**
+     * @return the given top level classes whose ABI, or the ABI of one of their inner classes, differs from the previous compilation
+     */
+    public Set<String> getClassesWithChangedAbi(Collection<String> classNames, File destinationDir, PreviousCompilation previousCompilation) {
+        Set<String> result = new LinkedHashSet<String>();
+        for (String className : classNames) {
+            Map<String, byte[]> previous = previousCompilation.getAbiHashes(className);
+            Map<String, byte[]> current = getAbiHashes(className, destinationDir);
+            if (previous.isEmpty() || !sameHashes(previous, current)) {
+                result.add(className);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, byte[]> getAbiHashes(String className, File destinationDir) {
+        Map<String, byte[]> result = new HashMap<String, byte[]>();
+        File classFile = new File(destinationDir, className.replace('.', '/') + ".class");
+        addAbiHash(className, classFile, result);
+
+        final String innerClassPrefix = classFile.getName().replaceAll("\\.class$", "") + "$";
+        File[] innerClassFiles = classFile.getParentFile().listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.startsWith(innerClassPrefix) && name.endsWith(".class");
+            }
+        });
+        if (innerClassFiles != null) {
+            String packagePrefix = className.substring(0, className.length() - innerClassPrefix.length() + 1);
+            for (File innerClassFile : innerClassFiles) {
+                addAbiHash(packagePrefix + innerClassFile.getName().replaceAll("\\.class$", ""), innerClassFile, result);
+            }
+        }
+        return result;
+    }
+
+    private void addAbiHash(String className, File classFile, Map<String, byte[]> hashes) {
+        if (classFile.isFile()) {
+            hashes.put(className, analyzer.getClassAnalysis(className, classFile).getAbiHash());
+        }
+    }
+
+    private static boolean sameHashes(Map<String, byte[]> previous, Map<String, byte[]> current) {
+        if (!previous.keySet().equals(current.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, byte[]> entry : previous.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), current.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -16,17 +16,27 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.file.FileTree;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.cache.Loader;
 import org.gradle.api.internal.cache.Stash;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDetector;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.util.Clock;
 
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+
 public class ClassSetAnalysisUpdater {
 
     private final static Logger LOG = Logging.getLogger(ClassSetAnalysisUpdater.class);
@@ -34,20 +44,117 @@ public class ClassSetAnalysisUpdater {
     private final Stash<ClassSetAnalysisData> stash;
     private final FileOperations fileOperations;
     private ClassDependenciesAnalyzer analyzer;
+    private final SourceToNameConverter sourceMapping;
+    private final Loader<ClassSetAnalysisData> previousAnalysis;
 
     public ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer) {
+        this(stash, fileOperations, analyzer, null);
+    }
+
+    public ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer,
+                                   @Nullable SourceToNameConverter sourceMapping) {
+        this(stash, null, fileOperations, analyzer, sourceMapping);
+    }
+
+    /**
+     * @param previousAnalysis when not null, used to keep track of the types generated by annotation processors during earlier incremental compilations
+     * @param sourceMapping when not null, used to check that each top level class was compiled from a source file named after it
+     */
+    public ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, @Nullable Loader<ClassSetAnalysisData> previousAnalysis, FileOperations fileOperations,
+                                   ClassDependenciesAnalyzer analyzer, @Nullable SourceToNameConverter sourceMapping) {
         this.stash = stash;
+        this.previousAnalysis = previousAnalysis;
         this.fileOperations = fileOperations;
         this.analyzer = analyzer;
+        this.sourceMapping = sourceMapping;
     }
 
     public void updateAnalysis(JavaCompileSpec spec) {
         Clock clock = new Clock();
         FileTree tree = fileOperations.fileTree(spec.getDestinationDir());
         ClassFilesAnalyzer analyzer = new ClassFilesAnalyzer(this.analyzer);
-        tree.visit(analyzer);
-        ClassSetAnalysisData data = analyzer.getAnalysis();
+        ClassSetAnalysisData data;
+        if (sourceMapping == null) {
+            tree.visit(analyzer);
+            data = analyzer.getAnalysis();
+        } else {
+            SourceMappingVerifier verifier = new SourceMappingVerifier(analyzer);
+            tree.visit(verifier);
+            data = analyzer.getAnalysis();
+            if (verifier.unmappedClass != null) {
+                data = data.withFullRebuildCause("Class '" + verifier.unmappedClass + "' was not compiled from a source file named after it");
+            }
+        }
+        if (spec.getAnnotationProcessingResultFile() != null) {
+            data = addAnnotationProcessingResult(data, spec);
+        }
         stash.put(data);
         LOG.info("Class dependency analysis for incremental compilation took {}.", clock.getTime());
     }
+
+    private ClassSetAnalysisData addAnnotationProcessingResult(ClassSetAnalysisData data, JavaCompileSpec spec) {
+        AnnotationProcessingResult current = AnnotationProcessingResult.readFrom(spec.getAnnotationProcessingResultFile());
+        if (current == null) {
+            //the compiler does not support tracking, e.g. javac was run as an external process
+            if (new AnnotationProcessorDetector().getProcessors(spec).isEmpty()) {
+                return data;
+            }
+            current = new AnnotationProcessingResult();
+            current.setFullRebuildCause("the annotation processors could not be tracked by the compiler in use");
+            return data.withAnnotationProcessingResult(current);
+        }
+
+        //an incremental compilation only knows about the types it generated, the remaining ones are taken over from the previous compilation
+        ClassSetAnalysisData previous = previousAnalysis == null ? null : previousAnalysis.get();
+        AnnotationProcessingResult previousResult = previous == null ? null : previous.getAnnotationProcessingResult();
+        if (previousResult != null && current.getFullRebuildCause() == null) {
+            File destinationDir = spec.getDestinationDir();
+            for (Map.Entry<String, Set<String>> entry : previousResult.getGeneratedTypesByOrigin().entrySet()) {
+                for (String generatedType : entry.getValue()) {
+                    if (classExists(destinationDir, generatedType)) {
+                        current.addGeneratedType(generatedType, entry.getKey());
+                    }
+                }
+            }
+            for (String aggregatedType : previousResult.getAggregatedTypes()) {
+                if (classExists(destinationDir, aggregatedType)) {
+                    current.getAggregatedTypes().add(aggregatedType);
+                }
+            }
+            for (String generatedType : previousResult.getGeneratedTypesDependingOnAllOthers()) {
+                if (classExists(destinationDir, generatedType)) {
+                    current.getGeneratedTypesDependingOnAllOthers().add(generatedType);
+                }
+            }
+        }
+        return data.withAnnotationProcessingResult(current);
+    }
+
+    private static boolean classExists(File destinationDir, String className) {
+        return new File(destinationDir, className.replace('.', '/') + ".class").isFile();
+    }
+
+    private class SourceMappingVerifier implements FileVisitor {
+        private final FileVisitor delegate;
+        private String unmappedClass;
+
+        SourceMappingVerifier(FileVisitor delegate) {
+            this.delegate = delegate;
+        }
+
+        public void visitDir(FileVisitDetails dirDetails) {
+            delegate.visitDir(dirDetails);
+        }
+
+        public void visitFile(FileVisitDetails fileDetails) {
+            delegate.visitFile(fileDetails);
+            String path = fileDetails.getPath();
+            if (unmappedClass == null && path.endsWith(".class") && path.indexOf('$') < 0) {
+                String className = path.replaceAll("/", ".").replaceAll("\\.class$", "");
+                if (!sourceMapping.hasSourceFile(className)) {
+                    unmappedClass = className;
+                }
+            }
+        }
+    }
 }
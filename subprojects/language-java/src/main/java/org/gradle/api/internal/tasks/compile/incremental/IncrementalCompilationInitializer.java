@@ -63,7 +63,9 @@ class IncrementalCompilationInitializer {
 
             //the stale class might be a source class that was deleted
             //it's no harm to include it in sourceToCompile anyway
-            sourceToCompile.include(path.concat(".java"));
+            for (String extension : SourceToNameConverter.SOURCE_EXTENSIONS) {
+                sourceToCompile.include(path.concat(extension));
+            }
         }
     }
 }
@@ -16,8 +16,9 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
-import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompilerSupport;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.cache.CompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
@@ -28,22 +29,23 @@ import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.language.base.internal.compile.Compiler;
 
-public class IncrementalCompilerDecorator {
+public class IncrementalCompilerDecorator<T extends JavaCompileSpec> {
 
     private static final Logger LOG = Logging.getLogger(IncrementalCompilerDecorator.class);
     private final JarClasspathSnapshotMaker jarClasspathSnapshotMaker;
     private final CompileCaches compileCaches;
-    private final CleaningJavaCompiler cleaningCompiler;
+    private final CleaningJavaCompilerSupport<T> cleaningCompiler;
     private final String displayName;
     private final RecompilationSpecProvider staleClassDetecter;
     private final ClassSetAnalysisUpdater classSetAnalysisUpdater;
     private final CompilationSourceDirs sourceDirs;
     private final IncrementalCompilationInitializer compilationInitializer;
+    private final AbiChangeDetector abiChangeDetector;
 
     public IncrementalCompilerDecorator(JarClasspathSnapshotMaker jarClasspathSnapshotMaker, CompileCaches compileCaches,
-                                        IncrementalCompilationInitializer compilationInitializer, CleaningJavaCompiler cleaningCompiler, String displayName,
+                                        IncrementalCompilationInitializer compilationInitializer, CleaningJavaCompilerSupport<T> cleaningCompiler, String displayName,
                                         RecompilationSpecProvider staleClassDetecter, ClassSetAnalysisUpdater classSetAnalysisUpdater,
-                                        CompilationSourceDirs sourceDirs) {
+                                        CompilationSourceDirs sourceDirs, ClassDependenciesAnalyzer analyzer) {
         this.jarClasspathSnapshotMaker = jarClasspathSnapshotMaker;
         this.compileCaches = compileCaches;
         this.compilationInitializer = compilationInitializer;
@@ -52,14 +54,15 @@ public class IncrementalCompilerDecorator {
         this.staleClassDetecter = staleClassDetecter;
         this.classSetAnalysisUpdater = classSetAnalysisUpdater;
         this.sourceDirs = sourceDirs;
+        this.abiChangeDetector = new AbiChangeDetector(analyzer);
     }
 
-    public Compiler<JavaCompileSpec> prepareCompiler(final IncrementalTaskInputs inputs) {
-        final Compiler<JavaCompileSpec> compiler = getCompiler(inputs, sourceDirs);
-        return new IncrementalCompilationFinalizer(compiler, jarClasspathSnapshotMaker, classSetAnalysisUpdater);
+    public Compiler<T> prepareCompiler(final IncrementalTaskInputs inputs) {
+        final Compiler<T> compiler = getCompiler(inputs, sourceDirs);
+        return new IncrementalCompilationFinalizer<T>(compiler, jarClasspathSnapshotMaker, classSetAnalysisUpdater);
     }
 
-    private Compiler<JavaCompileSpec> getCompiler(IncrementalTaskInputs inputs, CompilationSourceDirs sourceDirs) {
+    private Compiler<T> getCompiler(IncrementalTaskInputs inputs, CompilationSourceDirs sourceDirs) {
         if (!inputs.isIncremental()) {
             LOG.lifecycle("{} - is not incremental (e.g. outputs have changed, no previous execution, etc.).", displayName);
             return cleaningCompiler;
@@ -73,7 +76,11 @@ public class IncrementalCompilerDecorator {
             LOG.lifecycle("{} - is not incremental. No class analysis data available from the previous build.", displayName);
             return cleaningCompiler;
         }
+        if (data.getFullRebuildCause() != null) {
+            LOG.lifecycle("{} - is not incremental. {}.", displayName, data.getFullRebuildCause());
+            return cleaningCompiler;
+        }
         PreviousCompilation previousCompilation = new PreviousCompilation(new ClassSetAnalysis(data), compileCaches.getLocalJarClasspathSnapshotStore(), compileCaches.getJarSnapshotCache());
-        return new SelectiveCompiler(inputs, previousCompilation, cleaningCompiler, staleClassDetecter, compilationInitializer, jarClasspathSnapshotMaker);
+        return new SelectiveCompiler<T>(inputs, previousCompilation, cleaningCompiler, staleClassDetecter, compilationInitializer, jarClasspathSnapshotMaker, abiChangeDetector);
     }
 }
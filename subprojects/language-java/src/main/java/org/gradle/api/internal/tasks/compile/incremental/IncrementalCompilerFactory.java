@@ -20,7 +20,7 @@ import org.gradle.api.internal.changedetection.changes.IncrementalTaskInputsInte
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.hash.DefaultHasher;
 import org.gradle.api.internal.hash.Hasher;
-import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompilerSupport;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
@@ -28,34 +28,47 @@ import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDe
 import org.gradle.api.internal.tasks.compile.incremental.cache.CompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.jar.*;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.language.base.internal.compile.Compiler;
 
 import java.util.List;
 
-public class IncrementalCompilerFactory {
+public class IncrementalCompilerFactory<T extends JavaCompileSpec> {
 
-    private final IncrementalCompilerDecorator incrementalSupport;
+    private final IncrementalCompilerDecorator<T> incrementalSupport;
     private final IncrementalTaskInputs inputs;
 
-    public IncrementalCompilerFactory(FileOperations fileOperations, String compileDisplayName, CleaningJavaCompiler cleaningJavaCompiler,
-                                      List<Object> source, CompileCaches compileCaches, IncrementalTaskInputsInternal inputs) {
+    public IncrementalCompilerFactory(FileOperations fileOperations, String compileDisplayName, CleaningJavaCompilerSupport<T> cleaningJavaCompiler,
+                                      List<Object> source, CompileCaches compileCaches, IncrementalTaskInputsInternal inputs,
+                                      ExecutorFactory executorFactory) {
+        this(fileOperations, compileDisplayName, cleaningJavaCompiler, source, compileCaches, inputs, executorFactory, false);
+    }
+
+    /**
+     * @param verifySourceMapping whether to check that every compiled top level class comes from a source file named after it,
+     * falling back to full recompilation otherwise. Needed for languages that do not enforce this, like Groovy.
+     */
+    public IncrementalCompilerFactory(FileOperations fileOperations, String compileDisplayName, CleaningJavaCompilerSupport<T> cleaningJavaCompiler,
+                                      List<Object> source, CompileCaches compileCaches, IncrementalTaskInputsInternal inputs,
+                                      ExecutorFactory executorFactory, boolean verifySourceMapping) {
         this.inputs = inputs;
         //bunch of services that enable incremental java compilation.
         Hasher hasher = new DefaultHasher(); //TODO SF use caching hasher
         ClassDependenciesAnalyzer analyzer = new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(), hasher, compileCaches.getClassAnalysisCache());
-        JarSnapshotter jarSnapshotter = new CachingJarSnapshotter(hasher, analyzer, compileCaches.getJarSnapshotCache(), inputs.getInputFilesSnapshot());
+        JarSnapshotter jarSnapshotter = new CachingJarSnapshotter(hasher, analyzer, compileCaches.getJarSnapshotCache());
 
-        JarClasspathSnapshotMaker jarClasspathSnapshotMaker = new JarClasspathSnapshotMaker(compileCaches.getLocalJarClasspathSnapshotStore(), new JarClasspathSnapshotFactory(jarSnapshotter), new ClasspathJarFinder(fileOperations));
+        JarClasspathSnapshotMaker jarClasspathSnapshotMaker = new JarClasspathSnapshotMaker(compileCaches.getLocalJarClasspathSnapshotStore(), new JarClasspathSnapshotFactory(jarSnapshotter, executorFactory), new ClasspathJarFinder(fileOperations));
         CompilationSourceDirs sourceDirs = new CompilationSourceDirs(source);
         SourceToNameConverter sourceToNameConverter = new SourceToNameConverter(sourceDirs); //TODO SF replace with converter that parses input source class
         RecompilationSpecProvider recompilationSpecProvider = new RecompilationSpecProvider(sourceToNameConverter, fileOperations);
-        ClassSetAnalysisUpdater classSetAnalysisUpdater = new ClassSetAnalysisUpdater(compileCaches.getLocalClassSetAnalysisStore(), fileOperations, analyzer);
+        ClassSetAnalysisUpdater classSetAnalysisUpdater = new ClassSetAnalysisUpdater(compileCaches.getLocalClassSetAnalysisStore(), compileCaches.getLocalClassSetAnalysisStore(), fileOperations, analyzer,
+                verifySourceMapping ? sourceToNameConverter : null);
         IncrementalCompilationInitializer compilationInitializer = new IncrementalCompilationInitializer(fileOperations);
-        incrementalSupport = new IncrementalCompilerDecorator(jarClasspathSnapshotMaker, compileCaches, compilationInitializer,
-                cleaningJavaCompiler, compileDisplayName, recompilationSpecProvider, classSetAnalysisUpdater, sourceDirs);
+        incrementalSupport = new IncrementalCompilerDecorator<T>(jarClasspathSnapshotMaker, compileCaches, compilationInitializer,
+                cleaningJavaCompiler, compileDisplayName, recompilationSpecProvider, classSetAnalysisUpdater, sourceDirs, analyzer);
     }
 
-    public Compiler<JavaCompileSpec> createCompiler() {
+    public Compiler<T> createCompiler() {
         return incrementalSupport.prepareCompiler(inputs);
     }
 }
@@ -34,6 +34,11 @@ class JavaChangeProcessor {
     public void processChange(InputFileDetails input, RecompilationSpec spec) {
         String className = sourceToNameConverter.getClassName(input.getFile());
         spec.getClassNames().add(className);
+        if (input.isModified() && !previousCompilation.getAbiHashes(className).isEmpty()) {
+            //the dependents are only recompiled if the ABI of the class changes, which is only known after it has been recompiled
+            spec.getClassesToCheckAbi().add(className);
+            return;
+        }
         DependentsSet actualDependents = previousCompilation.getDependents(className);
         if (actualDependents.isDependencyToAll()) {
             spec.setFullRebuildCause(actualDependents.getDescription(), input.getFile());
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import org.gradle.api.internal.cache.Loader;
+import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetPartitioner;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDetector;
+import org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.language.base.internal.compile.Compiler;
+import org.gradle.util.Clock;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles groups of source files that do not depend on each other concurrently, each group with its own invocation of the given compiler.
+ * The groups are derived from the class set analysis of the previous compilation, and groups are joined when the current source of one of them
+ * mentions a class of another. All sources are compiled with a single invocation when there is no such analysis, when it does not cover all sources,
+ * when an annotation processor needs to see all sources at once, or when the compilation of one of the groups fails.
+ * <p>
+ * Each group is compiled into its own directory, and its warnings and errors are written to a file. Only when no group failed are the classes
+ * moved to the destination directory and the diagnostics printed, so a failed attempt leaves no trace besides the single invocation that follows it.
+ */
+public class PartitioningJavaCompiler implements Compiler<JavaCompileSpec> {
+    private static final Logger LOG = Logging.getLogger(PartitioningJavaCompiler.class);
+    private static final Pattern IDENTIFIER = Pattern.compile("\\p{javaJavaIdentifierStart}\\p{javaJavaIdentifierPart}*");
+
+    private final Compiler<JavaCompileSpec> delegate;
+    private final Loader<ClassSetAnalysisData> analysisLoader;
+    private final CompilationSourceDirs sourceDirs;
+    private final ExecutorFactory executorFactory;
+    private final int maxPartitions;
+
+    public PartitioningJavaCompiler(Compiler<JavaCompileSpec> delegate, Loader<ClassSetAnalysisData> analysisLoader, CompilationSourceDirs sourceDirs, ExecutorFactory executorFactory) {
+        this(delegate, analysisLoader, sourceDirs, executorFactory, Runtime.getRuntime().availableProcessors());
+    }
+
+    PartitioningJavaCompiler(Compiler<JavaCompileSpec> delegate, Loader<ClassSetAnalysisData> analysisLoader, CompilationSourceDirs sourceDirs, ExecutorFactory executorFactory, int maxPartitions) {
+        this.delegate = delegate;
+        this.analysisLoader = analysisLoader;
+        this.sourceDirs = sourceDirs;
+        this.executorFactory = executorFactory;
+        this.maxPartitions = maxPartitions;
+    }
+
+    public WorkResult execute(JavaCompileSpec spec) {
+        List<List<File>> partitions = partition(spec);
+        if (partitions == null) {
+            return delegate.execute(spec);
+        }
+
+        Clock clock = new Clock();
+        try {
+            compilePartitions(spec, partitions);
+        } catch (RuntimeException e) {
+            LOG.lifecycle("Compilation of {} independent source partitions failed. Compiling all sources with a single invocation.", partitions.size());
+            LOG.debug("Compilation of source partitions failed.", e);
+            return delegate.execute(spec);
+        }
+        LOG.info("Compiled {} independent source partitions in {}.", partitions.size(), clock.getTime());
+        return new SimpleWorkResult(true);
+    }
+
+    List<List<File>> partition(JavaCompileSpec spec) {
+        if (maxPartitions < 2 || !sourceDirs.areSourceDirsKnown()) {
+            return null;
+        }
+        if (spec.getAnnotationProcessingResultFile() != null && !processorsAreIsolating(spec)) {
+            LOG.info("Not partitioning the sources. Not all annotation processors are isolating.");
+            return null;
+        }
+        ClassSetAnalysisData data = analysisLoader.get();
+        if (data == null) {
+            LOG.info("Not partitioning the sources. No class analysis data available from the previous compilation.");
+            return null;
+        }
+
+        SourceToNameConverter converter = new SourceToNameConverter(sourceDirs);
+        Map<String, File> sourcesByClass = new HashMap<String, File>();
+        for (File source : spec.getSource()) {
+            String className;
+            try {
+                className = converter.getClassName(source);
+            } catch (IllegalArgumentException e) {
+                LOG.info("Not partitioning the sources. {}", e.getMessage());
+                return null;
+            }
+            sourcesByClass.put(className, source);
+        }
+
+        List<Set<String>> groups = new ClassSetPartitioner(data).partition(sourcesByClass.keySet());
+        if (groups == null) {
+            LOG.info("Not partitioning the sources. The class analysis of the previous compilation does not cover all sources.");
+            return null;
+        }
+        if (groups.size() > 1) {
+            groups = joinGroupsReferencedBySources(groups, sourcesByClass, spec.getCompileOptions() == null ? null : spec.getCompileOptions().getEncoding());
+        }
+        if (groups.size() < 2) {
+            return null;
+        }
+
+        // Assign the largest groups first, each one to the partition with the fewest sources so far
+        Collections.sort(groups, new Comparator<Set<String>>() {
+            public int compare(Set<String> o1, Set<String> o2) {
+                return o2.size() - o1.size();
+            }
+        });
+        int count = Math.min(maxPartitions, groups.size());
+        List<List<File>> partitions = new ArrayList<List<File>>(count);
+        for (int i = 0; i < count; i++) {
+            partitions.add(new ArrayList<File>());
+        }
+        for (Set<String> group : groups) {
+            List<File> smallest = partitions.get(0);
+            for (List<File> partition : partitions) {
+                if (partition.size() < smallest.size()) {
+                    smallest = partition;
+                }
+            }
+            for (String className : group) {
+                smallest.add(sourcesByClass.get(className));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * The analysis of the previous compilation does not know about the references that were added to the sources since.
+     * A source that mentions the simple name of a class from another group may depend on that class, so both groups are joined.
+     * Names found in comments or string literals join groups as well, which costs concurrency but never correctness.
+     */
+    private static List<Set<String>> joinGroupsReferencedBySources(List<Set<String>> groups, Map<String, File> sourcesByClass, String encoding) {
+        // classes with the same simple name may be declared in more than one group, a reference is then assumed to be to all of them
+        ListMultimap<String, Integer> groupsBySimpleName = ArrayListMultimap.create();
+        for (int i = 0; i < groups.size(); i++) {
+            for (String className : groups.get(i)) {
+                groupsBySimpleName.put(className.substring(className.lastIndexOf('.') + 1), i);
+            }
+        }
+
+        int[] joinedWith = new int[groups.size()];
+        for (int i = 0; i < joinedWith.length; i++) {
+            joinedWith[i] = i;
+        }
+        for (int i = 0; i < groups.size(); i++) {
+            for (String className : groups.get(i)) {
+                File source = sourcesByClass.get(className);
+                String text = encoding == null ? GFileUtils.readFile(source) : GFileUtils.readFile(source, encoding);
+                Matcher matcher = IDENTIFIER.matcher(text);
+                while (matcher.find()) {
+                    for (Integer referenced : groupsBySimpleName.get(matcher.group())) {
+                        joinedWith[root(joinedWith, referenced)] = root(joinedWith, i);
+                    }
+                }
+            }
+        }
+
+        Map<Integer, Set<String>> joined = new LinkedHashMap<Integer, Set<String>>();
+        for (int i = 0; i < groups.size(); i++) {
+            int root = root(joinedWith, i);
+            Set<String> group = joined.get(root);
+            if (group == null) {
+                group = new HashSet<String>();
+                joined.put(root, group);
+            }
+            group.addAll(groups.get(i));
+        }
+        if (joined.size() < groups.size()) {
+            LOG.info("Joined {} groups of sources that reference each other into {}.", groups.size(), joined.size());
+        }
+        return new ArrayList<Set<String>>(joined.values());
+    }
+
+    private static int root(int[] joinedWith, int group) {
+        int root = group;
+        while (joinedWith[root] != root) {
+            root = joinedWith[root];
+        }
+        return root;
+    }
+
+    private static boolean processorsAreIsolating(JavaCompileSpec spec) {
+        for (AnnotationProcessorDeclaration processor : new AnnotationProcessorDetector().getProcessors(spec)) {
+            if (processor.getType() != IncrementalAnnotationProcessorType.ISOLATING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void compilePartitions(JavaCompileSpec spec, List<List<File>> partitions) {
+        StoppableExecutor executor = executorFactory.create("Java source partition compiler", partitions.size());
+        try {
+            List<Future<WorkResult>> results = new ArrayList<Future<WorkResult>>();
+            List<JavaCompileSpec> partitionSpecs = new ArrayList<JavaCompileSpec>();
+            for (int i = 0; i < partitions.size(); i++) {
+                final JavaCompileSpec partitionSpec = copySpec(spec, partitions.get(i), i);
+                partitionSpecs.add(partitionSpec);
+                results.add(executor.submit(new Callable<WorkResult>() {
+                    public WorkResult call() {
+                        return delegate.execute(partitionSpec);
+                    }
+                }));
+            }
+            for (Future<WorkResult> result : results) {
+                result.get();
+            }
+            for (JavaCompileSpec partitionSpec : partitionSpecs) {
+                moveOutputs(partitionSpec.getDestinationDir(), spec.getDestinationDir());
+                printDiagnostics(partitionSpec.getDiagnosticsFile());
+            }
+            if (spec.getAnnotationProcessingResultFile() != null) {
+                mergeAnnotationProcessingResults(spec.getAnnotationProcessingResultFile(), partitionSpecs);
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } finally {
+            executor.stop();
+        }
+    }
+
+    private static void moveOutputs(File from, File to) {
+        File[] files = from.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            File target = new File(to, file.getName());
+            if (file.isDirectory()) {
+                GFileUtils.mkdirs(target);
+                moveOutputs(file, target);
+            } else {
+                GFileUtils.deleteQuietly(target);
+                GFileUtils.moveFile(file, target);
+            }
+        }
+    }
+
+    private static void printDiagnostics(File diagnosticsFile) {
+        if (diagnosticsFile.isFile()) {
+            System.err.print(GFileUtils.readFile(diagnosticsFile));
+        }
+    }
+
+    private static void mergeAnnotationProcessingResults(File resultFile, List<JavaCompileSpec> partitionSpecs) {
+        AnnotationProcessingResult merged = AnnotationProcessingResult.readFrom(resultFile);
+        if (merged == null) {
+            merged = new AnnotationProcessingResult();
+        }
+        for (JavaCompileSpec partitionSpec : partitionSpecs) {
+            AnnotationProcessingResult partitionResult = AnnotationProcessingResult.readFrom(partitionSpec.getAnnotationProcessingResultFile());
+            if (partitionResult == null) {
+                merged.setFullRebuildCause("the annotation processors of a source partition could not be tracked");
+            } else {
+                merged.addAll(partitionResult);
+            }
+        }
+        merged.writeTo(resultFile);
+    }
+
+    private static JavaCompileSpec copySpec(JavaCompileSpec spec, List<File> sources, int index) {
+        DefaultJavaCompileSpec copy = new DefaultJavaCompileSpec();
+        copy.setSource(new SimpleFileCollection(sources));
+        copy.setWorkingDir(spec.getWorkingDir());
+        copy.setTempDir(new File(spec.getTempDir(), "partition-" + index));
+        copy.setDestinationDir(new File(copy.getTempDir(), "classes"));
+        GFileUtils.deleteQuietly(copy.getDestinationDir());
+        GFileUtils.mkdirs(copy.getDestinationDir());
+        copy.setDiagnosticsFile(new File(copy.getTempDir(), "diagnostics.txt"));
+        GFileUtils.deleteQuietly(copy.getDiagnosticsFile());
+        copy.setClasspath(spec.getClasspath());
+        copy.setDependencyCacheDir(spec.getDependencyCacheDir());
+        copy.setSourceCompatibility(spec.getSourceCompatibility());
+        copy.setTargetCompatibility(spec.getTargetCompatibility());
+        copy.setCompileOptions(spec.getCompileOptions());
+        copy.setAnnotationProcessors(spec.getAnnotationProcessors());
+        if (spec.getAnnotationProcessingResultFile() != null) {
+            copy.setAnnotationProcessingResultFile(new File(copy.getTempDir(), spec.getAnnotationProcessingResultFile().getName()));
+            GFileUtils.deleteQuietly(copy.getAnnotationProcessingResultFile());
+        }
+        return copy;
+    }
+}
@@ -22,9 +22,12 @@ import org.gradle.api.internal.tasks.compile.incremental.jar.JarChangeProcessor;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
 import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 
+import java.util.*;
+
 public class RecompilationSpecProvider {
 
     private final SourceToNameConverter sourceToNameConverter;
@@ -49,9 +52,56 @@ public class RecompilationSpecProvider {
             return action.spec;
         }
         inputs.removed(action);
+        if (action.spec.getFullRebuildCause() == null) {
+            addAnnotationProcessingTypes(action.spec.getClassNames(), action.spec.getClassesToCheckAbi(), previousCompilation);
+        }
         return action.spec;
     }
 
+    /**
+     * Adds the types that need to be recompiled together with the given classes because annotation processors generate one from the other:
+     * the types generated from the given classes, the types the given generated classes originate from,
+     * and all types processed or generated by aggregating processors when any class is recompiled.
+     * The added generated types are also added to the classes whose ABI needs to be checked.
+     */
+    public void addAnnotationProcessingTypes(Collection<String> classNames, Collection<String> classesToCheckAbi, PreviousCompilation previousCompilation) {
+        AnnotationProcessingResult processing = previousCompilation.getAnnotationProcessingResult();
+        if (processing == null || classNames.isEmpty()) {
+            return;
+        }
+        Map<String, String> originsByGeneratedType = new HashMap<String, String>();
+        for (Map.Entry<String, Set<String>> entry : processing.getGeneratedTypesByOrigin().entrySet()) {
+            for (String generatedType : entry.getValue()) {
+                originsByGeneratedType.put(generatedType, entry.getKey());
+            }
+        }
+
+        Deque<String> queue = new ArrayDeque<String>(classNames);
+        if (!processing.getAggregatedTypes().isEmpty() || !processing.getGeneratedTypesDependingOnAllOthers().isEmpty()) {
+            queue.addAll(processing.getAggregatedTypes());
+            queue.addAll(processing.getGeneratedTypesDependingOnAllOthers());
+            classesToCheckAbi.addAll(processing.getGeneratedTypesDependingOnAllOthers());
+        }
+        Set<String> visited = new HashSet<String>();
+        while (!queue.isEmpty()) {
+            String className = queue.removeFirst();
+            if (!visited.add(className)) {
+                continue;
+            }
+            classNames.add(className);
+            String origin = originsByGeneratedType.get(className);
+            if (origin != null) {
+                //a generated type can only be recompiled by processing the type it was generated from again
+                queue.add(origin);
+            }
+            Set<String> generatedTypes = processing.getGeneratedTypesByOrigin().get(className);
+            if (generatedTypes != null) {
+                queue.addAll(generatedTypes);
+                classesToCheckAbi.addAll(generatedTypes);
+            }
+        }
+    }
+
     private static class InputChangeAction implements Action<InputFileDetails> {
         private final RecompilationSpec spec;
         private final JavaChangeProcessor javaChangeProcessor;
@@ -67,10 +117,11 @@ public class RecompilationSpecProvider {
             if (spec.getFullRebuildCause() != null) {
                 return;
             }
-            if (input.getFile().getName().endsWith(".java")) {
+            String name = input.getFile().getName();
+            if (name.endsWith(".java") || name.endsWith(".groovy")) {
                 javaChangeProcessor.processChange(input, spec);
             }
-            if (input.getFile().getName().endsWith(".jar")) {
+            if (name.endsWith(".jar")) {
                 jarChangeProcessor.processChange(input, spec);
             }
         }
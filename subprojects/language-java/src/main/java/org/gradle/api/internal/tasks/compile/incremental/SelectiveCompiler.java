@@ -16,8 +16,10 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
-import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompilerSupport;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotProvider;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
@@ -28,26 +30,33 @@ import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.util.Clock;
 
-class SelectiveCompiler implements org.gradle.language.base.internal.compile.Compiler<JavaCompileSpec> {
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+class SelectiveCompiler<T extends JavaCompileSpec> implements org.gradle.language.base.internal.compile.Compiler<T> {
     private static final Logger LOG = Logging.getLogger(SelectiveCompiler.class);
     private final IncrementalTaskInputs inputs;
     private final PreviousCompilation previousCompilation;
-    private final CleaningJavaCompiler cleaningCompiler;
+    private final CleaningJavaCompilerSupport<T> cleaningCompiler;
     private final RecompilationSpecProvider recompilationSpecProvider;
     private final IncrementalCompilationInitializer incrementalCompilationInitilizer;
     private final JarClasspathSnapshotProvider jarClasspathSnapshotProvider;
+    private final AbiChangeDetector abiChangeDetector;
 
-    public SelectiveCompiler(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, CleaningJavaCompiler cleaningCompiler,
-                             RecompilationSpecProvider recompilationSpecProvider, IncrementalCompilationInitializer compilationInitializer, JarClasspathSnapshotProvider jarClasspathSnapshotProvider) {
+    public SelectiveCompiler(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, CleaningJavaCompilerSupport<T> cleaningCompiler,
+                             RecompilationSpecProvider recompilationSpecProvider, IncrementalCompilationInitializer compilationInitializer, JarClasspathSnapshotProvider jarClasspathSnapshotProvider,
+                             AbiChangeDetector abiChangeDetector) {
         this.inputs = inputs;
         this.previousCompilation = previousCompilation;
         this.cleaningCompiler = cleaningCompiler;
         this.recompilationSpecProvider = recompilationSpecProvider;
         this.incrementalCompilationInitilizer = compilationInitializer;
         this.jarClasspathSnapshotProvider = jarClasspathSnapshotProvider;
+        this.abiChangeDetector = abiChangeDetector;
     }
 
-    public WorkResult execute(JavaCompileSpec spec) {
+    public WorkResult execute(T spec) {
         Clock clock = new Clock();
         JarClasspathSnapshot jarClasspathSnapshot = jarClasspathSnapshotProvider.getJarClasspathSnapshot(spec.getClasspath());
         RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(inputs, previousCompilation, jarClasspathSnapshot);
@@ -57,17 +66,50 @@ class SelectiveCompiler implements org.gradle.language.base.internal.compile.Com
             return cleaningCompiler.execute(spec);
         }
 
+        FileCollection allSource = spec.getSource();
+        Iterable<File> classpath = spec.getClasspath();
         incrementalCompilationInitilizer.initializeCompilation(spec, recompilationSpec.getClassNames());
         if (spec.getSource().isEmpty()) {
             LOG.lifecycle("None of the classes needs to compiled! Analysis took {}. ", clock.getTime());
             return new RecompilationNotNecessary();
         }
 
+        WorkResult result;
         try {
             //use the original compiler to avoid cleaning up all the files
-            return cleaningCompiler.getCompiler().execute(spec);
+            result = cleaningCompiler.getCompiler().execute(spec);
         } finally {
             LOG.lifecycle("Incremental compilation of {} classes completed in {}.", recompilationSpec.getClassNames().size(), clock.getTime());
         }
+        if (recompilationSpec.getClassesToCheckAbi().isEmpty()) {
+            return result;
+        }
+
+        Set<String> changedAbi = abiChangeDetector.getClassesWithChangedAbi(recompilationSpec.getClassesToCheckAbi(), spec.getDestinationDir(), previousCompilation);
+        if (changedAbi.isEmpty()) {
+            LOG.lifecycle("The ABI of the recompiled classes did not change, their dependents do not need to be recompiled.");
+            return result;
+        }
+        spec.setSource(allSource);
+        spec.setClasspath(classpath);
+        DependentsSet dependents = previousCompilation.getDependents(changedAbi);
+        if (dependents.isDependencyToAll()) {
+            LOG.lifecycle("Full recompilation is required because the ABI of a class that is a dependency to all other classes changed.");
+            return cleaningCompiler.execute(spec);
+        }
+        Set<String> remaining = new LinkedHashSet<String>(dependents.getDependentClasses());
+        recompilationSpecProvider.addAnnotationProcessingTypes(remaining, new LinkedHashSet<String>(), previousCompilation);
+        remaining.removeAll(recompilationSpec.getClassNames());
+        if (remaining.isEmpty()) {
+            return result;
+        }
+
+        clock = new Clock();
+        incrementalCompilationInitilizer.initializeCompilation(spec, remaining);
+        try {
+            return cleaningCompiler.getCompiler().execute(spec);
+        } finally {
+            LOG.lifecycle("The ABI of {} recompiled classes changed. Incremental compilation of their {} dependents completed in {}.", changedAbi.size(), remaining.size(), clock.getTime());
+        }
     }
 }
@@ -25,6 +25,11 @@ import static java.lang.String.format;
 
 public class SourceToNameConverter {
 
+    /**
+     * The extensions of the source files that compile to classes named after their path.
+     */
+    public static final String[] SOURCE_EXTENSIONS = {".java", ".groovy"};
+
     private CompilationSourceDirs sourceDirs;
 
     public SourceToNameConverter(CompilationSourceDirs sourceDirs) {
@@ -37,7 +42,7 @@ public class SourceToNameConverter {
             if (javaSourceClass.getAbsolutePath().startsWith(sourceDir.getAbsolutePath())) { //perf tweak only
                 String relativePath = GFileUtils.relativePath(sourceDir, javaSourceClass);
                 if (!relativePath.startsWith("..")) {
-                    return relativePath.replaceAll("/", ".").replaceAll("\\.java$", "");
+                    return relativePath.replaceAll("/", ".").replaceAll("\\.(java|groovy)$", "");
                 }
             }
         }
@@ -45,4 +50,19 @@ public class SourceToNameConverter {
                 javaSourceClass, dirs));
 
     }
-}
\ No newline at end of file
+
+    /**
+     * @return whether the given top level class has a source file named after it in one of the source dirs
+     */
+    public boolean hasSourceFile(String className) {
+        String path = className.replace('.', '/');
+        for (File sourceDir : sourceDirs.getSourceDirs()) {
+            for (String extension : SOURCE_EXTENSIONS) {
+                if (new File(sourceDir, path + extension).isFile()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
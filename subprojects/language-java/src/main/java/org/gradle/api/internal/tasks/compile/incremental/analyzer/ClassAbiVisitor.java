@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import org.gradle.internal.UncheckedException;
+import org.objectweb.asm.*;
+
+import java.lang.reflect.Array;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the parts of a class that other classes can compile against: the class declaration, the non-private fields with their constant values,
+ * the non-private methods and the annotations of all of them. Private members and method bodies are ignored,
+ * so the resulting hash only changes when recompiling the dependents of the class might make a difference.
+ */
+class ClassAbiVisitor extends ClassVisitor {
+
+    private final static int API = Opcodes.ASM5;
+    private final List<String> members = new ArrayList<String>();
+    private String header;
+    private String className;
+
+    public ClassAbiVisitor() {
+        super(API);
+    }
+
+    public byte[] getAbiHash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        digest.update(header.getBytes());
+        // Reordering members does not change what other classes compile against
+        Collections.sort(members);
+        for (String member : members) {
+            digest.update((byte) '\n');
+            digest.update(member.getBytes());
+        }
+        return digest.digest();
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+        className = name;
+        String[] sortedInterfaces = interfaces.clone();
+        Arrays.sort(sortedInterfaces);
+        header = "class " + (access & ~Opcodes.ACC_SUPER) + " " + name + " " + signature + " " + superName + " " + Arrays.toString(sortedInterfaces);
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+        return new AbiAnnotationVisitor("annotation " + desc + " " + visible);
+    }
+
+    @Override
+    public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+        return new AbiAnnotationVisitor("type annotation " + typeRef + " " + typePath + " " + desc + " " + visible);
+    }
+
+    @Override
+    public void visitInnerClass(String name, String outerName, String innerName, int access) {
+        if (className.equals(outerName) && !isPrivate(access)) {
+            members.add("inner " + access + " " + name);
+        }
+    }
+
+    @Override
+    public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+        // synthetic fields, like the timestamps the Groovy compiler adds to each class, cannot be referenced from source
+        if (isPrivate(access) || (access & Opcodes.ACC_SYNTHETIC) != 0) {
+            return null;
+        }
+        final String field = "field " + access + " " + name + " " + desc + " " + signature + " " + valueToString(value);
+        members.add(field);
+        return new FieldVisitor(API) {
+            @Override
+            public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                return new AbiAnnotationVisitor(field + " annotation " + desc + " " + visible);
+            }
+
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+                return new AbiAnnotationVisitor(field + " type annotation " + typeRef + " " + typePath + " " + desc + " " + visible);
+            }
+        };
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+        if (isPrivate(access) || name.equals("<clinit>")) {
+            return null;
+        }
+        String[] sortedExceptions = exceptions == null ? new String[0] : exceptions.clone();
+        Arrays.sort(sortedExceptions);
+        final String method = "method " + access + " " + name + " " + desc + " " + signature + " " + Arrays.toString(sortedExceptions);
+        members.add(method);
+        return new MethodVisitor(API) {
+            @Override
+            public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                return new AbiAnnotationVisitor(method + " annotation " + desc + " " + visible);
+            }
+
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+                return new AbiAnnotationVisitor(method + " type annotation " + typeRef + " " + typePath + " " + desc + " " + visible);
+            }
+
+            @Override
+            public AnnotationVisitor visitParameterAnnotation(int parameter, String desc, boolean visible) {
+                return new AbiAnnotationVisitor(method + " parameter " + parameter + " annotation " + desc + " " + visible);
+            }
+
+            @Override
+            public AnnotationVisitor visitAnnotationDefault() {
+                return new AbiAnnotationVisitor(method + " default");
+            }
+        };
+    }
+
+    private static boolean isPrivate(int access) {
+        return (access & Opcodes.ACC_PRIVATE) != 0;
+    }
+
+    private static String valueToString(Object value) {
+        if (value == null || !value.getClass().isArray()) {
+            return String.valueOf(value);
+        }
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < Array.getLength(value); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(Array.get(value, i));
+        }
+        return builder.append("]").toString();
+    }
+
+    /**
+     * Records an annotation together with all of its values, once the annotation has been visited completely.
+     */
+    private class AbiAnnotationVisitor extends AnnotationVisitor {
+        private final StringBuilder description;
+        private final AbiAnnotationVisitor parent;
+
+        AbiAnnotationVisitor(String prefix) {
+            this(new StringBuilder(prefix), null);
+        }
+
+        private AbiAnnotationVisitor(StringBuilder description, AbiAnnotationVisitor parent) {
+            super(API);
+            this.description = description;
+            this.parent = parent;
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            description.append(" ").append(name).append("=").append(valueToString(value));
+        }
+
+        @Override
+        public void visitEnum(String name, String desc, String value) {
+            description.append(" ").append(name).append("=").append(desc).append(".").append(value);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String desc) {
+            description.append(" ").append(name).append("=@").append(desc).append("(");
+            return new AbiAnnotationVisitor(description, this);
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            description.append(" ").append(name).append("={");
+            return new AbiAnnotationVisitor(description, this);
+        }
+
+        @Override
+        public void visitEnd() {
+            if (parent != null) {
+                description.append(" )");
+            } else {
+                members.add(description.toString());
+            }
+        }
+    }
+}
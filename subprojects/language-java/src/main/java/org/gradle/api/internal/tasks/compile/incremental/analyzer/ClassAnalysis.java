@@ -16,16 +16,24 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.analyzer;
 
+import org.gradle.api.Nullable;
+
 import java.util.Set;
 
 public class ClassAnalysis {
 
     private final Set<String> classDependencies;
     private final boolean dependencyToAll;
+    private final byte[] abiHash;
 
     public ClassAnalysis(Set<String> classDependencies, boolean dependencyToAll) {
+        this(classDependencies, dependencyToAll, null);
+    }
+
+    public ClassAnalysis(Set<String> classDependencies, boolean dependencyToAll, @Nullable byte[] abiHash) {
         this.classDependencies = classDependencies;
         this.dependencyToAll = dependencyToAll;
+        this.abiHash = abiHash;
     }
 
     public Set<String> getClassDependencies() {
@@ -35,4 +43,12 @@ public class ClassAnalysis {
     public boolean isDependencyToAll() {
         return dependencyToAll;
     }
+
+    /**
+     * @return hash of the signatures, constants and annotations other classes can compile against, or null when it is not known
+     */
+    @Nullable
+    public byte[] getAbiHash() {
+        return abiHash;
+    }
 }
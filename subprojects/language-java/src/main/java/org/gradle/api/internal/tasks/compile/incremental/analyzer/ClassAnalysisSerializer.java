@@ -32,11 +32,16 @@ public class ClassAnalysisSerializer implements Serializer<ClassAnalysis> {
     public ClassAnalysis read(Decoder decoder) throws Exception {
         boolean relatedToAll = decoder.readBoolean();
         Set<String> classes = setSerializer.read(decoder);
-        return new ClassAnalysis(classes, relatedToAll);
+        byte[] abiHash = decoder.readBoolean() ? decoder.readBinary() : null;
+        return new ClassAnalysis(classes, relatedToAll, abiHash);
     }
 
     public void write(Encoder encoder, ClassAnalysis value) throws Exception {
         encoder.writeBoolean(value.isDependencyToAll());
         setSerializer.write(encoder, value.getClassDependencies());
+        encoder.writeBoolean(value.getAbiHash() != null);
+        if (value.getAbiHash() != null) {
+            encoder.writeBinary(value.getAbiHash());
+        }
     }
 }
@@ -52,10 +52,22 @@ public class ClassFilesAnalyzer implements FileVisitor {
         }
 
         ClassAnalysis analysis = analyzer.getClassAnalysis(className, file);
-        accumulator.addClass(className, analysis.isDependencyToAll(), analysis.getClassDependencies());
+        accumulator.addClass(className, analysis.isDependencyToAll(), analysis.getClassDependencies(), analysis.getAbiHash());
+    }
+
+    /**
+     * Analyzes a class whose content has already been read, for example from a jar entry.
+     */
+    public void visitClass(String className, byte[] classBytes) {
+        if (!className.startsWith(packagePrefix)) {
+            return;
+        }
+
+        ClassAnalysis analysis = analyzer.getClassAnalysis(className, classBytes);
+        accumulator.addClass(className, analysis.isDependencyToAll(), analysis.getClassDependencies(), analysis.getAbiHash());
     }
 
     public ClassSetAnalysisData getAnalysis() {
-        return new ClassSetAnalysisData(accumulator.getDependentsMap());
+        return new ClassSetAnalysisData(accumulator.getDependentsMap(), accumulator.getAbiHashes());
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.changedetection.state.CompileClasspathEntryHasher;
+import org.gradle.api.internal.hash.DefaultHasher;
+import org.gradle.api.internal.hash.Hasher;
+import org.gradle.internal.UncheckedException;
+import org.objectweb.asm.ClassReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Hashes class files by their ABI, and jars by the ABI of the classes and the content of the resources they contain.
+ * Jars that declare services, like annotation processors, are hashed by their full content, as their code runs during compilation.
+ */
+public class ClasspathEntryAbiHasher implements CompileClasspathEntryHasher {
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+    private final Hasher contentHasher = new DefaultHasher();
+
+    public byte[] hash(File file) {
+        String name = file.getName();
+        try {
+            if (name.endsWith(".class")) {
+                return hash(Files.toByteArray(file));
+            }
+            if (name.endsWith(".jar")) {
+                return hashJar(file);
+            }
+        } catch (ZipException e) {
+            // not a jar after all, treat it like any other file
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not hash '%s'.", file), e);
+        }
+        return contentHasher.hash(file);
+    }
+
+    /**
+     * @return the ABI hash of the given class file, or the hash of its content when it cannot be read as a class
+     */
+    public byte[] hash(byte[] classFile) {
+        ClassAbiVisitor visitor = new ClassAbiVisitor();
+        try {
+            new ClassReader(classFile).accept(visitor, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (RuntimeException e) {
+            return contentHasher.hash(classFile);
+        }
+        return visitor.getAbiHash();
+    }
+
+    private byte[] hashJar(File file) throws IOException {
+        SortedMap<String, byte[]> entryHashes = new TreeMap<String, byte[]>();
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (entry.getName().startsWith(SERVICES_PREFIX)) {
+                    return contentHasher.hash(file);
+                }
+                byte[] content = readEntry(zipFile, entry);
+                entryHashes.put(entry.getName(), entry.getName().endsWith(".class") ? hash(content) : contentHasher.hash(content));
+            }
+        } finally {
+            zipFile.close();
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        // the order of the entries within the jar does not matter to the compiler
+        for (Map.Entry<String, byte[]> entry : entryHashes.entrySet()) {
+            digest.update(entry.getKey().getBytes("UTF-8"));
+            digest.update(entry.getValue());
+        }
+        return digest.digest();
+    }
+
+    private static byte[] readEntry(ZipFile zipFile, ZipEntry entry) throws IOException {
+        InputStream input = zipFile.getInputStream(entry);
+        try {
+            return ByteStreams.toByteArray(input);
+        } finally {
+            input.close();
+        }
+    }
+}
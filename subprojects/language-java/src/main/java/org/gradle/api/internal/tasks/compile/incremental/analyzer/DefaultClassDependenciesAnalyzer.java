@@ -30,13 +30,22 @@ import java.util.Set;
 public class DefaultClassDependenciesAnalyzer implements ClassDependenciesAnalyzer {
 
     public ClassAnalysis getClassAnalysis(String className, InputStream input) throws IOException {
+        return getClassAnalysis(className, new ClassReader(input));
+    }
+
+    public ClassAnalysis getClassAnalysis(String className, byte[] classBytes) {
+        return getClassAnalysis(className, new ClassReader(classBytes));
+    }
+
+    private ClassAnalysis getClassAnalysis(String className, ClassReader reader) {
         ClassRelevancyFilter filter = new ClassRelevancyFilter(className);
-        ClassReader reader = new ClassReader(input);
         ClassDependenciesVisitor visitor = new ClassDependenciesVisitor();
         reader.accept(visitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
 
         Set<String> classDependencies = getClassDependencies(filter, reader);
-        return new ClassAnalysis(classDependencies, visitor.dependentToAll);
+        ClassAbiVisitor abiVisitor = new ClassAbiVisitor();
+        reader.accept(abiVisitor, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return new ClassAnalysis(classDependencies, visitor.dependentToAll, abiVisitor.getAbiHash());
     }
 
     private Set<String> getClassDependencies(ClassRelevancyFilter filter, ClassReader reader) {
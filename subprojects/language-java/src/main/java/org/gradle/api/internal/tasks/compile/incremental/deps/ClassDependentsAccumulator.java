@@ -16,18 +16,28 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
+import org.gradle.api.Nullable;
+
 import java.util.HashMap;
 import java.util.Map;
 
 public class ClassDependentsAccumulator {
 
     private final Map<String, DependentsSet> dependents = new HashMap<String, DependentsSet>();
+    private final Map<String, byte[]> abiHashes = new HashMap<String, byte[]>();
     private final String packagePrefix;
 
     public ClassDependentsAccumulator(String packagePrefix) {
         this.packagePrefix = packagePrefix;
     }
 
+    public void addClass(String className, boolean dependencyToAll, Iterable<String> classDependencies, @Nullable byte[] abiHash) {
+        addClass(className, dependencyToAll, classDependencies);
+        if (abiHash != null && className.startsWith(packagePrefix)) {
+            abiHashes.put(className, abiHash);
+        }
+    }
+
     public void addClass(String className, boolean dependencyToAll, Iterable<String> classDependencies) {
         if (className.startsWith(packagePrefix)) {
             rememberClass(className).setDependencyToAll(dependencyToAll);
@@ -54,4 +64,8 @@ public class ClassDependentsAccumulator {
     public Map<String, DependentsSet> getDependentsMap() {
         return dependents;
     }
+
+    public Map<String, byte[]> getAbiHashes() {
+        return abiHashes;
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import org.gradle.api.Nullable;
+
+import java.util.*;
+
+/**
+ * Compact representation of the dependents of a set of classes. Each class name is stored once in a sorted table and referred to by its index.
+ * The dependents of all classes are stored in a single array of indexes, where the dependents of the class with index {@code i} are found between
+ * {@code offsets[i]} (inclusive) and {@code offsets[i + 1]} (exclusive).
+ */
+public class ClassDependentsGraph {
+
+    // The class only appears as a dependent of other classes
+    static final byte UNKNOWN = 0;
+    // The class is a dependency to all other classes and its dependents are not known
+    static final byte DEPENDENCY_TO_ALL = 1;
+    // The class is a dependency to all other classes, its dependents are known
+    static final byte DEPENDENCY_TO_ALL_WITH_DEPENDENTS = 2;
+    static final byte DEPENDENTS = 3;
+
+    private final String[] classNames;
+    private final byte[] kinds;
+    private final int[] offsets;
+    private final int[] dependents;
+
+    ClassDependentsGraph(String[] classNames, byte[] kinds, int[] offsets, int[] dependents) {
+        this.classNames = classNames;
+        this.kinds = kinds;
+        this.offsets = offsets;
+        this.dependents = dependents;
+    }
+
+    public static ClassDependentsGraph of(Map<String, ? extends DependentsSet> dependentsByClass) {
+        SortedSet<String> names = new TreeSet<String>(dependentsByClass.keySet());
+        for (DependentsSet set : dependentsByClass.values()) {
+            if (!(set instanceof DependencyToAll)) {
+                names.addAll(set.getDependentClasses());
+            }
+        }
+        String[] classNames = names.toArray(new String[names.size()]);
+        byte[] kinds = new byte[classNames.length];
+        int[] offsets = new int[classNames.length + 1];
+        int[] dependents = new int[countDependents(dependentsByClass)];
+        int next = 0;
+        for (int i = 0; i < classNames.length; i++) {
+            offsets[i] = next;
+            DependentsSet set = dependentsByClass.get(classNames[i]);
+            if (set == null) {
+                kinds[i] = UNKNOWN;
+            } else if (set instanceof DependencyToAll) {
+                kinds[i] = DEPENDENCY_TO_ALL;
+            } else {
+                kinds[i] = set.isDependencyToAll() ? DEPENDENCY_TO_ALL_WITH_DEPENDENTS : DEPENDENTS;
+                int start = next;
+                for (String dependent : set.getDependentClasses()) {
+                    dependents[next++] = Arrays.binarySearch(classNames, dependent);
+                }
+                Arrays.sort(dependents, start, next);
+            }
+        }
+        offsets[classNames.length] = next;
+        return new ClassDependentsGraph(classNames, kinds, offsets, dependents);
+    }
+
+    private static int countDependents(Map<String, ? extends DependentsSet> dependentsByClass) {
+        int count = 0;
+        for (DependentsSet set : dependentsByClass.values()) {
+            if (!(set instanceof DependencyToAll)) {
+                count += set.getDependentClasses().size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of classes in the graph, including the ones that are only known as dependents of other classes
+     */
+    public int size() {
+        return classNames.length;
+    }
+
+    /**
+     * @return the index of the given class, or a negative value if the graph does not contain it
+     */
+    public int indexOf(String className) {
+        return Arrays.binarySearch(classNames, className);
+    }
+
+    public String getClassName(int index) {
+        return classNames[index];
+    }
+
+    /**
+     * @return whether the class was analyzed, rather than only being known as a dependent of other classes
+     */
+    public boolean isKnown(int index) {
+        return kinds[index] != UNKNOWN;
+    }
+
+    public boolean isDependencyToAll(int index) {
+        return kinds[index] == DEPENDENCY_TO_ALL || kinds[index] == DEPENDENCY_TO_ALL_WITH_DEPENDENTS;
+    }
+
+    public int getDependentsCount(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    public int getDependent(int index, int n) {
+        return dependents[offsets[index] + n];
+    }
+
+    /**
+     * @return the dependents of the given class in the same form as before this representation existed, or null when the class was not analyzed
+     */
+    @Nullable
+    public DependentsSet getDependents(String className) {
+        int index = indexOf(className);
+        if (index < 0 || kinds[index] == UNKNOWN) {
+            return null;
+        }
+        if (kinds[index] == DEPENDENCY_TO_ALL) {
+            return new DependencyToAll();
+        }
+        Set<String> result = new HashSet<String>();
+        for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+            result.add(classNames[dependents[i]]);
+        }
+        return new DefaultDependentsSet(kinds[index] == DEPENDENCY_TO_ALL_WITH_DEPENDENTS, result);
+    }
+
+    /**
+     * Collects the classes that depend on the given class, directly or transitively. The given class is only part of the result
+     * when it depends on itself through other classes.
+     */
+    public BitSet getTransitiveDependents(int index) {
+        BitSet visited = new BitSet(classNames.length);
+        int[] queue = new int[classNames.length + 1];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = index;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int dependent = dependents[i];
+                if (!visited.get(dependent)) {
+                    visited.set(dependent);
+                    queue[tail++] = dependent;
+                }
+            }
+        }
+        return visited;
+    }
+
+    public Iterable<String> getClassNames() {
+        return Collections.unmodifiableList(Arrays.asList(classNames));
+    }
+
+    String[] getClassNameTable() {
+        return classNames;
+    }
+
+    byte[] getKinds() {
+        return kinds;
+    }
+
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    int[] getDependentsTable() {
+        return dependents;
+    }
+}
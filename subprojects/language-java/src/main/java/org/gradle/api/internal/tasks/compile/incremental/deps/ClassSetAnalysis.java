@@ -16,9 +16,11 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class ClassSetAnalysis {
@@ -42,35 +44,37 @@ public class ClassSetAnalysis {
     }
 
     public DependentsSet getRelevantDependents(String className) {
-        DependentsSet deps = data.getDependents(className);
-        if (deps == null) {
+        ClassDependentsGraph graph = data.getGraph();
+        int index = graph.indexOf(className);
+        if (index < 0 || !graph.isKnown(index)) {
             return new DefaultDependentsSet();
         }
-        if (deps.isDependencyToAll()) {
+        if (graph.isDependencyToAll(index)) {
             return new DependencyToAll();
         }
+        BitSet dependents = graph.getTransitiveDependents(index);
+        dependents.clear(index);
         Set<String> result = new HashSet<String>();
-        recurseDependents(new HashSet<String>(), result, deps.getDependentClasses());
-        result.remove(className);
+        for (int d = dependents.nextSetBit(0); d >= 0; d = dependents.nextSetBit(d + 1)) {
+            String dependent = graph.getClassName(d);
+            if (!dependent.contains("$")) { //filter out the inner classes
+                result.add(dependent);
+            }
+        }
         return new DefaultDependentsSet(result);
     }
 
     public boolean isDependencyToAll(String className) {
-        DependentsSet deps = data.getDependents(className);
-        return deps != null && deps.isDependencyToAll();
+        ClassDependentsGraph graph = data.getGraph();
+        int index = graph.indexOf(className);
+        return index >= 0 && graph.isDependencyToAll(index);
     }
 
-    private void recurseDependents(Set<String> visited, Set<String> result, Set<String> dependentClasses) {
-        for (String d : dependentClasses) {
-            if (!visited.add(d)) {
-                continue;
-            }
-            if (!d.contains("$")) { //filter out the inner classes
-                result.add(d);
-            }
-            DependentsSet currentDependents = data.getDependents(d);
-            recurseDependents(visited, result, currentDependents.getDependentClasses());
-        }
+    /**
+     * @return the ABI hashes of the given top level class and of its inner classes recorded by the analysis
+     */
+    public Map<String, byte[]> getAbiHashes(String topLevelClassName) {
+        return data.getAbiHashes(topLevelClassName);
     }
 
     public ClassSetAnalysisData getData() {
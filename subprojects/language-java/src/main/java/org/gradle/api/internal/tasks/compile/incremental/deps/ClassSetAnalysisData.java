@@ -16,69 +16,192 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
-import org.gradle.internal.serialize.MapSerializer;
-import org.gradle.internal.serialize.SetSerializer;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
-
-import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
 
 public class ClassSetAnalysisData {
 
-    final Map<String, DependentsSet> dependents;
+    final ClassDependentsGraph graph;
+    // ABI hash of each class of the graph, by index
+    final byte[][] abiHashes;
+    final String fullRebuildCause;
+    final AnnotationProcessingResult annotationProcessingResult;
 
     public ClassSetAnalysisData(Map<String, DependentsSet> dependents) {
-        this.dependents = dependents;
+        this(dependents, Collections.<String, byte[]>emptyMap());
     }
 
-    public DependentsSet getDependents(String className) {
-        return dependents.get(className);
+    public ClassSetAnalysisData(Map<String, DependentsSet> dependents, Map<String, byte[]> abiHashes) {
+        this.graph = ClassDependentsGraph.of(dependents);
+        this.abiHashes = new byte[graph.size()][];
+        for (Map.Entry<String, byte[]> entry : abiHashes.entrySet()) {
+            int index = graph.indexOf(entry.getKey());
+            if (index >= 0) {
+                this.abiHashes[index] = entry.getValue();
+            }
+        }
+        this.fullRebuildCause = null;
+        this.annotationProcessingResult = null;
     }
 
-    public static class Serializer implements org.gradle.internal.serialize.Serializer<ClassSetAnalysisData> {
+    ClassSetAnalysisData(ClassDependentsGraph graph, byte[][] abiHashes, @Nullable String fullRebuildCause, @Nullable AnnotationProcessingResult annotationProcessingResult) {
+        this.graph = graph;
+        this.abiHashes = abiHashes;
+        this.fullRebuildCause = fullRebuildCause;
+        this.annotationProcessingResult = annotationProcessingResult;
+    }
 
-        private final MapSerializer<String, DependentsSet> serializer = new MapSerializer<String, DependentsSet>(
-                STRING_SERIALIZER, new DependentsSetSerializer());
+    /**
+     * @return a copy of this analysis that can not be used to compile selectively, for the given reason
+     */
+    public ClassSetAnalysisData withFullRebuildCause(String fullRebuildCause) {
+        return new ClassSetAnalysisData(graph, abiHashes, fullRebuildCause, annotationProcessingResult);
+    }
 
-        public ClassSetAnalysisData read(Decoder decoder) throws Exception {
-            //we only support one kind of data
-            return new ClassSetAnalysisData(serializer.read(decoder));
-        }
+    /**
+     * @return a copy of this analysis that also knows which types were generated by annotation processors.
+     * The next compilation needs to recompile all classes when the generated types could not be related to their sources.
+     */
+    public ClassSetAnalysisData withAnnotationProcessingResult(AnnotationProcessingResult annotationProcessingResult) {
+        String cause = fullRebuildCause != null ? fullRebuildCause : annotationProcessingResult.getFullRebuildCause();
+        return new ClassSetAnalysisData(graph, abiHashes, cause, annotationProcessingResult);
+    }
 
-        public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
-            //we only support one kind of data
-            serializer.write(encoder, value.dependents);
+    /**
+     * @return the types generated by annotation processors during the compilations of this class set, or null when they were not tracked
+     */
+    @Nullable
+    public AnnotationProcessingResult getAnnotationProcessingResult() {
+        return annotationProcessingResult;
+    }
+
+    /**
+     * @return the reason why the next compilation needs to recompile all classes, or null when it can be selective
+     */
+    @Nullable
+    public String getFullRebuildCause() {
+        return fullRebuildCause;
+    }
+
+    public DependentsSet getDependents(String className) {
+        return graph.getDependents(className);
+    }
+
+    /**
+     * @return the ABI hash of the given class, or null when it is not known
+     */
+    @Nullable
+    public byte[] getAbiHash(String className) {
+        int index = graph.indexOf(className);
+        return index < 0 ? null : abiHashes[index];
+    }
+
+    /**
+     * @return the ABI hashes of the given top level class and of all its inner classes, for the classes whose ABI hash is known
+     */
+    public Map<String, byte[]> getAbiHashes(String topLevelClassName) {
+        Map<String, byte[]> result = new HashMap<String, byte[]>();
+        byte[] hash = getAbiHash(topLevelClassName);
+        if (hash != null) {
+            result.put(topLevelClassName, hash);
         }
+        // Inner class names sort right after the prefix they share
+        String prefix = topLevelClassName + "$";
+        int index = graph.indexOf(prefix);
+        for (int i = index < 0 ? -index - 1 : index; i < graph.size() && graph.getClassName(i).startsWith(prefix); i++) {
+            if (abiHashes[i] != null) {
+                result.put(graph.getClassName(i), abiHashes[i]);
+            }
+        }
+        return result;
+    }
 
-        private static class DependentsSetSerializer implements org.gradle.internal.serialize.Serializer<DependentsSet> {
+    public ClassDependentsGraph getGraph() {
+        return graph;
+    }
 
-            private SetSerializer<String> setSerializer = new SetSerializer<String>(STRING_SERIALIZER, false);
+    /**
+     * Writes the class name table once, followed by the kind and the dependent indexes of each class, the ABI hash of each class, the full rebuild cause and the annotation processing result.
+     */
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<ClassSetAnalysisData> {
+        private final AnnotationProcessingResult.Serializer annotationProcessingResultSerializer = new AnnotationProcessingResult.Serializer();
 
-            public DependentsSet read(Decoder decoder) throws Exception {
-                int control = decoder.readSmallInt();
-                if (control == 0) {
-                    return new DependencyToAll();
+        public ClassSetAnalysisData read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            String[] classNames = new String[count];
+            for (int i = 0; i < count; i++) {
+                classNames[i] = decoder.readString();
+            }
+            byte[] kinds = new byte[count];
+            int[] offsets = new int[count + 1];
+            int[] dependents = new int[decoder.readSmallInt()];
+            int next = 0;
+            for (int i = 0; i < count; i++) {
+                offsets[i] = next;
+                kinds[i] = decoder.readByte();
+                if (kinds[i] < ClassDependentsGraph.UNKNOWN || kinds[i] > ClassDependentsGraph.DEPENDENTS) {
+                    throw new IllegalArgumentException("Unable to read the data. Unexpected control value: " + kinds[i]);
                 }
-                if (control != 1 && control != 2) {
-                    throw new IllegalArgumentException("Unable to read the data. Unexpected control value: " + control);
+                int dependentsCount = decoder.readSmallInt();
+                int previous = 0;
+                for (int j = 0; j < dependentsCount; j++) {
+                    previous += decoder.readSmallInt();
+                    dependents[next++] = previous;
                 }
-                Set<String> classes = setSerializer.read(decoder);
-                return new DefaultDependentsSet(control == 1, classes);
             }
+            offsets[count] = next;
+            byte[][] abiHashes = new byte[count][];
+            for (int i = 0; i < count; i++) {
+                if (decoder.readBoolean()) {
+                    abiHashes[i] = decoder.readBinary();
+                }
+            }
+            String fullRebuildCause = decoder.readBoolean() ? decoder.readString() : null;
+            AnnotationProcessingResult annotationProcessingResult = decoder.readBoolean() ? annotationProcessingResultSerializer.read(decoder) : null;
+            return new ClassSetAnalysisData(new ClassDependentsGraph(classNames, kinds, offsets, dependents), abiHashes, fullRebuildCause, annotationProcessingResult);
+        }
 
-            public void write(Encoder encoder, DependentsSet value) throws Exception {
-                if (value instanceof DependencyToAll) {
-                    encoder.writeSmallInt(0);
-                } else if (value instanceof DefaultDependentsSet) {
-                    encoder.writeSmallInt(value.isDependencyToAll() ? 1 : 2);
-                    setSerializer.write(encoder, value.getDependentClasses());
-                } else {
-                    throw new IllegalArgumentException("Don't know how to serialize value of type: " + value.getClass() + ", value: " + value);
+        public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
+            ClassDependentsGraph graph = value.graph;
+            String[] classNames = graph.getClassNameTable();
+            byte[] kinds = graph.getKinds();
+            int[] offsets = graph.getOffsets();
+            int[] dependents = graph.getDependentsTable();
+            encoder.writeSmallInt(classNames.length);
+            for (String className : classNames) {
+                encoder.writeString(className);
+            }
+            encoder.writeSmallInt(offsets[classNames.length]);
+            for (int i = 0; i < classNames.length; i++) {
+                encoder.writeByte(kinds[i]);
+                encoder.writeSmallInt(offsets[i + 1] - offsets[i]);
+                // The dependents of a class are sorted, so only the gaps between them are written
+                int previous = 0;
+                for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                    encoder.writeSmallInt(dependents[j] - previous);
+                    previous = dependents[j];
                 }
             }
+            for (byte[] abiHash : value.abiHashes) {
+                encoder.writeBoolean(abiHash != null);
+                if (abiHash != null) {
+                    encoder.writeBinary(abiHash);
+                }
+            }
+            encoder.writeBoolean(value.fullRebuildCause != null);
+            if (value.fullRebuildCause != null) {
+                encoder.writeString(value.fullRebuildCause);
+            }
+            encoder.writeBoolean(value.annotationProcessingResult != null);
+            if (value.annotationProcessingResult != null) {
+                annotationProcessingResultSerializer.write(encoder, value.annotationProcessingResult);
+            }
         }
     }
 }
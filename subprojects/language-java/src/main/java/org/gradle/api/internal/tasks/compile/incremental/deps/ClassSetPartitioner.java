@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import org.gradle.api.Nullable;
+
+import java.util.*;
+
+/**
+ * Splits a set of top level classes into groups that do not depend on each other, based on the class set analysis of a previous compilation.
+ * Dependencies on classes outside of the given set are ignored, so two classes only end up in the same group
+ * when one of them, or one of their inner classes, refers to the other.
+ */
+public class ClassSetPartitioner {
+
+    private final ClassSetAnalysisData data;
+
+    public ClassSetPartitioner(ClassSetAnalysisData data) {
+        this.data = data;
+    }
+
+    /**
+     * @return the groups of classes, or null when the analysis does not know about one of the classes or when one of them may be a dependency to all other classes
+     */
+    @Nullable
+    public List<Set<String>> partition(Set<String> classNames) {
+        ClassDependentsGraph graph = data.getGraph();
+        Map<String, String> parents = new HashMap<String, String>();
+        for (String className : classNames) {
+            int index = graph.indexOf(className);
+            if (index < 0 || !graph.isKnown(index)) {
+                return null;
+            }
+            parents.put(className, className);
+        }
+
+        for (int index = 0; index < graph.size(); index++) {
+            String dependency = topLevelClassName(graph.getClassName(index));
+            if (!classNames.contains(dependency)) {
+                continue;
+            }
+            if (graph.isDependencyToAll(index)) {
+                return null;
+            }
+            for (int n = 0; n < graph.getDependentsCount(index); n++) {
+                String topLevelDependent = topLevelClassName(graph.getClassName(graph.getDependent(index, n)));
+                if (classNames.contains(topLevelDependent)) {
+                    union(parents, dependency, topLevelDependent);
+                }
+            }
+        }
+
+        Map<String, Set<String>> groups = new LinkedHashMap<String, Set<String>>();
+        for (String className : classNames) {
+            String root = find(parents, className);
+            Set<String> group = groups.get(root);
+            if (group == null) {
+                group = new LinkedHashSet<String>();
+                groups.put(root, group);
+            }
+            group.add(className);
+        }
+        return new ArrayList<Set<String>>(groups.values());
+    }
+
+    private static String topLevelClassName(String className) {
+        int index = className.indexOf('$');
+        return index < 0 ? className : className.substring(0, index);
+    }
+
+    private static void union(Map<String, String> parents, String a, String b) {
+        String rootA = find(parents, a);
+        String rootB = find(parents, b);
+        if (!rootA.equals(rootB)) {
+            parents.put(rootA, rootB);
+        }
+    }
+
+    private static String find(Map<String, String> parents, String className) {
+        String root = className;
+        while (!parents.get(root).equals(root)) {
+            root = parents.get(root);
+        }
+        // Compress the path, so that later lookups are cheap
+        String current = className;
+        while (!current.equals(root)) {
+            String next = parents.get(current);
+            parents.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import com.google.common.io.ByteStreams;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
@@ -22,8 +24,13 @@ import org.gradle.api.internal.hash.Hasher;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 class DefaultJarSnapshotter {
 
@@ -35,8 +42,32 @@ class DefaultJarSnapshotter {
         this.analyzer = analyzer;
     }
 
+    /**
+     * Snapshots the classes of the jar by streaming its entries, so that the jar does not need to be extracted first.
+     */
     public JarSnapshot createSnapshot(byte[] hash, JarArchive jarArchive) {
-        return createSnapshot(hash, jarArchive.contents, new ClassFilesAnalyzer(analyzer));
+        ClassFilesAnalyzer classFilesAnalyzer = new ClassFilesAnalyzer(analyzer);
+        Map<String, byte[]> hashes = new HashMap<String, byte[]>();
+        try {
+            ZipInputStream input = new ZipInputStream(new BufferedInputStream(new FileInputStream(jarArchive.file)));
+            try {
+                ZipEntry entry;
+                while ((entry = input.getNextEntry()) != null) {
+                    if (entry.isDirectory() || !entry.getName().endsWith(".class")) {
+                        continue;
+                    }
+                    byte[] classBytes = ByteStreams.toByteArray(input);
+                    String className = entry.getName().replace('/', '.').replaceAll("\\.class$", "");
+                    classFilesAnalyzer.visitClass(className, classBytes);
+                    hashes.put(className, hasher.hash(classBytes));
+                }
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not create snapshot of %s.", jarArchive.file), e);
+        }
+        return new JarSnapshot(new JarSnapshotData(hash, hashes, classFilesAnalyzer.getAnalysis()));
     }
 
     JarSnapshot createSnapshot(byte[] hash, FileTree classes, final ClassFilesAnalyzer analyzer) {
@@ -62,7 +62,7 @@ public class JarChangeDependentsFinder {
 
         if (jarChangeDetails.isModified()) {
             JarSnapshot currentSnapshot = jarClasspathSnapshot.getSnapshot(jarArchive);
-            AffectedClasses affected = currentSnapshot.getAffectedClassesSince(previous);
+            AffectedClasses affected = currentSnapshot.getAbiAffectedClassesSince(previous);
             if (affected.getAltered().isDependencyToAll()) {
                 //at least one of the classes changed in the jar is a 'dependency-to-all'
                 return affected.getAltered();
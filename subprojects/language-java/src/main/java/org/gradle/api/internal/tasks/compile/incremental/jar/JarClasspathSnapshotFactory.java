@@ -16,28 +16,48 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
 import java.io.File;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class JarClasspathSnapshotFactory {
 
     private final JarSnapshotter jarSnapshotter;
+    private final ExecutorFactory executorFactory;
 
     public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter) {
+        this(jarSnapshotter, null);
+    }
+
+    /**
+     * @param executorFactory used to snapshot several jars concurrently, may be null to snapshot the jars one after the other
+     */
+    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter, ExecutorFactory executorFactory) {
         this.jarSnapshotter = jarSnapshotter;
+        this.executorFactory = executorFactory;
     }
 
     JarClasspathSnapshot createSnapshot(Iterable<JarArchive> jarArchives) {
+        List<JarArchive> jars = new ArrayList<JarArchive>();
+        for (JarArchive jar : jarArchives) {
+            jars.add(jar);
+        }
+        List<JarSnapshot> snapshots = snapshotAll(jars);
+
         Map<File, JarSnapshot> jarSnapshots = new HashMap<File, JarSnapshot>();
         Map<File, byte[]> jarHashes = new HashMap<File, byte[]>();
         Set<String> allClasses = new HashSet<String>();
         Set<String> duplicateClasses = new HashSet<String>();
 
-        for (JarArchive jar : jarArchives) {
-            JarSnapshot snapshot = jarSnapshotter.createSnapshot(jar);
+        for (int i = 0; i < jars.size(); i++) {
+            JarArchive jar = jars.get(i);
+            JarSnapshot snapshot = snapshots.get(i);
             jarSnapshots.put(jar.file, snapshot);
             jarHashes.put(jar.file, snapshot.getHash());
             for (String c : snapshot.getClasses()) {
@@ -49,4 +69,38 @@ public class JarClasspathSnapshotFactory {
         JarClasspathSnapshotData jarClasspathSnapshotData = new JarClasspathSnapshotData(jarHashes, duplicateClasses);
         return new JarClasspathSnapshot(jarSnapshots, jarClasspathSnapshotData);
     }
+
+    private List<JarSnapshot> snapshotAll(List<JarArchive> jars) {
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), jars.size());
+        if (executorFactory == null || threads < 2) {
+            List<JarSnapshot> snapshots = new ArrayList<JarSnapshot>(jars.size());
+            for (JarArchive jar : jars) {
+                snapshots.add(jarSnapshotter.createSnapshot(jar));
+            }
+            return snapshots;
+        }
+
+        StoppableExecutor executor = executorFactory.create("Jar snapshotter", threads);
+        try {
+            List<Future<JarSnapshot>> futures = new ArrayList<Future<JarSnapshot>>(jars.size());
+            for (final JarArchive jar : jars) {
+                futures.add(executor.submit(new Callable<JarSnapshot>() {
+                    public JarSnapshot call() {
+                        return jarSnapshotter.createSnapshot(jar);
+                    }
+                }));
+            }
+            List<JarSnapshot> snapshots = new ArrayList<JarSnapshot>(jars.size());
+            for (Future<JarSnapshot> future : futures) {
+                snapshots.add(future.get());
+            }
+            return snapshots;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } finally {
+            executor.stop();
+        }
+    }
 }
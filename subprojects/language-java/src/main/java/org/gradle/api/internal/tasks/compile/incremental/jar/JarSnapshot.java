@@ -43,19 +43,36 @@ public class JarSnapshot {
         return new DefaultDependentsSet(result);
     }
 
+    /**
+     * @return the classes that were removed or changed since the other snapshot, together with their dependents
+     */
     public AffectedClasses getAffectedClassesSince(JarSnapshot other) {
-        DependentsSet affectedClasses = affectedSince(other);
+        DependentsSet affectedClasses = affectedSince(other, false);
         Set<String> addedClasses = addedSince(other);
         return new AffectedClasses(affectedClasses, addedClasses);
     }
 
-    private DependentsSet affectedSince(JarSnapshot other) {
+    /**
+     * Like {@link #getAffectedClassesSince(JarSnapshot)}, but ignores the classes whose ABI is known to be unchanged,
+     * for example because only the body of a method changed. Classes compiled against this jar only need to be recompiled when one of those classes is affected.
+     */
+    public AffectedClasses getAbiAffectedClassesSince(JarSnapshot other) {
+        DependentsSet affectedClasses = affectedSince(other, true);
+        Set<String> addedClasses = addedSince(other);
+        return new AffectedClasses(affectedClasses, addedClasses);
+    }
+
+    private DependentsSet affectedSince(JarSnapshot other, boolean ignoreUnchangedAbi) {
         final Set<String> affected = new HashSet<String>();
         for (Map.Entry<String, byte[]> otherClass : other.getHashes().entrySet()) {
             String otherClassName = otherClass.getKey();
             byte[] otherClassBytes = otherClass.getValue();
             byte[] thisClsBytes = getHashes().get(otherClassName);
             if (thisClsBytes == null || !Arrays.equals(thisClsBytes, otherClassBytes)) {
+                if (thisClsBytes != null && ignoreUnchangedAbi && hasSameAbi(other, otherClassName)) {
+                    //changed since, but not in a way that matters to the classes compiled against it
+                    continue;
+                }
                 //removed since or changed since
                 affected.add(otherClassName);
                 DependentsSet dependents = other.getAnalysis().getRelevantDependents(otherClassName);
@@ -68,6 +85,12 @@ public class JarSnapshot {
         return new DefaultDependentsSet(affected);
     }
 
+    private boolean hasSameAbi(JarSnapshot other, String className) {
+        byte[] thisAbiHash = data.data.getAbiHash(className);
+        byte[] otherAbiHash = other.data.data.getAbiHash(className);
+        return thisAbiHash != null && otherAbiHash != null && Arrays.equals(thisAbiHash, otherAbiHash);
+    }
+
     private Set<String> addedSince(JarSnapshot other) {
         Set<String> addedClasses = new HashSet<String>(getClasses());
         addedClasses.removeAll(other.getClasses());
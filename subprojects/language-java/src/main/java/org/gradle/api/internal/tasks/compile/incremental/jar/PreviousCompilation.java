@@ -16,8 +16,10 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 
 import java.io.File;
 import java.util.Map;
@@ -51,4 +53,19 @@ public class PreviousCompilation {
     public DependentsSet getDependents(String className) {
         return analysis.getRelevantDependents(className);
     }
+
+    /**
+     * @return the ABI hashes of the given top level class and of its inner classes, as compiled by the previous compilation
+     */
+    public Map<String, byte[]> getAbiHashes(String topLevelClassName) {
+        return analysis.getAbiHashes(topLevelClassName);
+    }
+
+    /**
+     * @return the types generated by annotation processors during the previous compilation, or null when they were not tracked
+     */
+    @Nullable
+    public AnnotationProcessingResult getAnnotationProcessingResult() {
+        return analysis.getData().getAnnotationProcessingResult();
+    }
 }
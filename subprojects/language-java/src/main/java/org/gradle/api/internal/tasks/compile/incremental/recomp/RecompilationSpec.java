@@ -23,12 +23,20 @@ import java.util.LinkedHashSet;
 public class RecompilationSpec {
 
     private final Collection<String> classesToCompile = new LinkedHashSet<String>();
+    private final Collection<String> classesToCheckAbi = new LinkedHashSet<String>();
     private String fullRebuildCause;
 
     public Collection<String> getClassNames() {
         return classesToCompile;
     }
 
+    /**
+     * @return the classes whose dependents only need to be recompiled if the ABI of the recompiled class turns out to be different
+     */
+    public Collection<String> getClassesToCheckAbi() {
+        return classesToCheckAbi;
+    }
+
     public boolean isFullRebuildNeeded() {
         return fullRebuildCause != null;
     }
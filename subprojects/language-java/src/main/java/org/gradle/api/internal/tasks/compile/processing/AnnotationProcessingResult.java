@@ -0,0 +1,187 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.Nullable;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.InputStreamBackedDecoder;
+import org.gradle.internal.serialize.OutputStreamBackedEncoder;
+import org.gradle.util.GFileUtils;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * The types generated by the annotation processors of a compilation, and the source types they were generated from.
+ */
+public class AnnotationProcessingResult {
+
+    private final Map<String, Set<String>> generatedTypesByOrigin = new HashMap<String, Set<String>>();
+    private final Set<String> aggregatedTypes = new HashSet<String>();
+    private final Set<String> generatedTypesDependingOnAllOthers = new HashSet<String>();
+    private String fullRebuildCause;
+
+    /**
+     * Records a type generated by an isolating processor from the given top level type.
+     */
+    public void addGeneratedType(String generatedType, String originatingType) {
+        Set<String> generatedTypes = generatedTypesByOrigin.get(originatingType);
+        if (generatedTypes == null) {
+            generatedTypes = new HashSet<String>();
+            generatedTypesByOrigin.put(originatingType, generatedTypes);
+        }
+        generatedTypes.add(generatedType);
+    }
+
+    /**
+     * @return the types generated by isolating processors, by the top level type they were generated from
+     */
+    public Map<String, Set<String>> getGeneratedTypesByOrigin() {
+        return generatedTypesByOrigin;
+    }
+
+    /**
+     * @return the top level types processed by aggregating processors. They all need to be processed again when any of them is.
+     */
+    public Set<String> getAggregatedTypes() {
+        return aggregatedTypes;
+    }
+
+    /**
+     * @return the types generated by aggregating processors
+     */
+    public Set<String> getGeneratedTypesDependingOnAllOthers() {
+        return generatedTypesDependingOnAllOthers;
+    }
+
+    /**
+     * @return the reason why the generated types cannot be related to their sources, or null when they all can
+     */
+    @Nullable
+    public String getFullRebuildCause() {
+        return fullRebuildCause;
+    }
+
+    public void setFullRebuildCause(String fullRebuildCause) {
+        if (this.fullRebuildCause == null) {
+            this.fullRebuildCause = fullRebuildCause;
+        }
+    }
+
+    /**
+     * Adds everything recorded by the given result to this one.
+     */
+    public void addAll(AnnotationProcessingResult other) {
+        for (Map.Entry<String, Set<String>> entry : other.generatedTypesByOrigin.entrySet()) {
+            for (String generatedType : entry.getValue()) {
+                addGeneratedType(generatedType, entry.getKey());
+            }
+        }
+        aggregatedTypes.addAll(other.aggregatedTypes);
+        generatedTypesDependingOnAllOthers.addAll(other.generatedTypesDependingOnAllOthers);
+        if (other.fullRebuildCause != null) {
+            setFullRebuildCause(other.fullRebuildCause);
+        }
+    }
+
+    public boolean isEmpty() {
+        return generatedTypesByOrigin.isEmpty() && aggregatedTypes.isEmpty() && generatedTypesDependingOnAllOthers.isEmpty() && fullRebuildCause == null;
+    }
+
+    public void writeTo(File file) {
+        try {
+            GFileUtils.mkdirs(file.getParentFile());
+            OutputStreamBackedEncoder encoder = new OutputStreamBackedEncoder(new BufferedOutputStream(new FileOutputStream(file)));
+            try {
+                new Serializer().write(encoder, this);
+            } finally {
+                encoder.close();
+            }
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not write annotation processing result to '%s'.", file), e);
+        }
+    }
+
+    /**
+     * @return the result read from the given file, or null when the file does not exist
+     */
+    @Nullable
+    public static AnnotationProcessingResult readFrom(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            InputStreamBackedDecoder decoder = new InputStreamBackedDecoder(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                return new Serializer().read(decoder);
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not read annotation processing result from '%s'.", file), e);
+        }
+    }
+
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<AnnotationProcessingResult> {
+
+        public AnnotationProcessingResult read(Decoder decoder) throws Exception {
+            AnnotationProcessingResult result = new AnnotationProcessingResult();
+            int origins = decoder.readSmallInt();
+            for (int i = 0; i < origins; i++) {
+                String originatingType = decoder.readString();
+                Set<String> generatedTypes = new HashSet<String>();
+                readStrings(decoder, generatedTypes);
+                result.generatedTypesByOrigin.put(originatingType, generatedTypes);
+            }
+            readStrings(decoder, result.aggregatedTypes);
+            readStrings(decoder, result.generatedTypesDependingOnAllOthers);
+            result.fullRebuildCause = decoder.readBoolean() ? decoder.readString() : null;
+            return result;
+        }
+
+        public void write(Encoder encoder, AnnotationProcessingResult value) throws Exception {
+            encoder.writeSmallInt(value.generatedTypesByOrigin.size());
+            for (Map.Entry<String, Set<String>> entry : value.generatedTypesByOrigin.entrySet()) {
+                encoder.writeString(entry.getKey());
+                writeStrings(encoder, entry.getValue());
+            }
+            writeStrings(encoder, value.aggregatedTypes);
+            writeStrings(encoder, value.generatedTypesDependingOnAllOthers);
+            encoder.writeBoolean(value.fullRebuildCause != null);
+            if (value.fullRebuildCause != null) {
+                encoder.writeString(value.fullRebuildCause);
+            }
+        }
+
+        private static void readStrings(Decoder decoder, Set<String> target) throws IOException {
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                target.add(decoder.readString());
+            }
+        }
+
+        private static void writeStrings(Encoder encoder, Set<String> values) throws IOException {
+            encoder.writeSmallInt(values.size());
+            for (String value : values) {
+                encoder.writeString(value);
+            }
+        }
+    }
+}
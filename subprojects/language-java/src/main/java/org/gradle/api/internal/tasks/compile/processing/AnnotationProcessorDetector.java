@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.util.GFileUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Finds the annotation processors javac discovers for a compilation, and how each of them supports incremental compilation.
+ */
+public class AnnotationProcessorDetector {
+    public static final String PROCESSOR_SERVICES_FILE = "META-INF/services/javax.annotation.processing.Processor";
+    public static final String INCREMENTAL_PROCESSORS_FILE = "META-INF/gradle/incremental.annotation.processors";
+
+    /**
+     * @return the processor path of the given compilation, or an empty list when annotation processing is disabled
+     */
+    public static List<File> getProcessorPath(JavaCompileSpec spec) {
+        List<String> compilerArgs = spec.getCompileOptions().getCompilerArgs();
+        if (compilerArgs.contains("-proc:none")) {
+            return Collections.emptyList();
+        }
+        int index = compilerArgs.indexOf("-processorpath");
+        if (index >= 0 && index + 1 < compilerArgs.size()) {
+            List<File> processorPath = new ArrayList<File>();
+            for (String path : Splitter.on(File.pathSeparatorChar).omitEmptyStrings().split(compilerArgs.get(index + 1))) {
+                processorPath.add(new File(path));
+            }
+            return processorPath;
+        }
+        return Lists.newArrayList(spec.getClasspath());
+    }
+
+    /**
+     * Returns the processors of the given compilation. They are only detected by the first step of the compilation that asks for them,
+     * and kept in the spec for the later ones, as detecting them opens every jar of the processor path.
+     */
+    public List<AnnotationProcessorDeclaration> getProcessors(JavaCompileSpec spec) {
+        List<AnnotationProcessorDeclaration> processors = spec.getAnnotationProcessors();
+        if (processors == null) {
+            processors = detectProcessors(spec);
+            spec.setAnnotationProcessors(processors);
+        }
+        return processors;
+    }
+
+    public List<AnnotationProcessorDeclaration> detectProcessors(JavaCompileSpec spec) {
+        List<File> processorPath = getProcessorPath(spec);
+        if (processorPath.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, IncrementalAnnotationProcessorType> types = new HashMap<String, IncrementalAnnotationProcessorType>();
+        Set<String> discovered = new LinkedHashSet<String>();
+        for (File file : processorPath) {
+            for (String line : readLines(file, INCREMENTAL_PROCESSORS_FILE)) {
+                int separator = line.indexOf(',');
+                if (separator > 0) {
+                    types.put(line.substring(0, separator).trim(), parseType(line.substring(separator + 1).trim()));
+                }
+            }
+            discovered.addAll(readLines(file, PROCESSOR_SERVICES_FILE));
+        }
+
+        // explicitly named processors replace the discovered ones
+        List<String> compilerArgs = spec.getCompileOptions().getCompilerArgs();
+        int index = compilerArgs.indexOf("-processor");
+        Iterable<String> processorNames = index >= 0 && index + 1 < compilerArgs.size()
+                ? Splitter.on(',').trimResults().omitEmptyStrings().split(compilerArgs.get(index + 1))
+                : discovered;
+
+        List<AnnotationProcessorDeclaration> processors = new ArrayList<AnnotationProcessorDeclaration>();
+        for (String name : processorNames) {
+            IncrementalAnnotationProcessorType type = types.get(name);
+            processors.add(new AnnotationProcessorDeclaration(name, type == null ? IncrementalAnnotationProcessorType.UNKNOWN : type));
+        }
+        return processors;
+    }
+
+    private static IncrementalAnnotationProcessorType parseType(String type) {
+        try {
+            return IncrementalAnnotationProcessorType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return IncrementalAnnotationProcessorType.UNKNOWN;
+        }
+    }
+
+    private static List<String> readLines(File file, String resource) {
+        try {
+            if (file.isDirectory()) {
+                File resourceFile = new File(file, resource);
+                return resourceFile.isFile() ? parseLines(GFileUtils.readFile(resourceFile)) : Collections.<String>emptyList();
+            }
+            if (!file.isFile()) {
+                return Collections.emptyList();
+            }
+            ZipFile zipFile = new ZipFile(file);
+            try {
+                ZipEntry entry = zipFile.getEntry(resource);
+                if (entry == null) {
+                    return Collections.emptyList();
+                }
+                InputStream inputStream = zipFile.getInputStream(entry);
+                try {
+                    return parseLines(read(inputStream));
+                } finally {
+                    inputStream.close();
+                }
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not read '%s' from '%s'.", resource, file), e);
+        }
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
+        StringBuilder content = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            content.append(line).append('\n');
+        }
+        return content.toString();
+    }
+
+    private static List<String> parseLines(String content) {
+        List<String> lines = new ArrayList<String>();
+        for (String line : Splitter.on('\n').split(content)) {
+            int comment = line.indexOf('#');
+            String trimmed = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (trimmed.length() > 0) {
+                lines.add(trimmed);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+/**
+ * How an annotation processor relates its generated files to the sources it processed,
+ * as declared in {@value AnnotationProcessorDetector#INCREMENTAL_PROCESSORS_FILE}.
+ */
+public enum IncrementalAnnotationProcessorType {
+    /**
+     * Generates each file from a single annotated type, which it passes as the only originating element.
+     */
+    ISOLATING,
+    /**
+     * Generates files from all the annotated types it is given, for example a registry of them.
+     */
+    AGGREGATING,
+    /**
+     * Not declared as incremental. Nothing is known about how its generated files relate to the processed sources.
+     */
+    UNKNOWN
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs an incremental annotation processor, recording the files it generates and the source types they originate from.
+ */
+class TrackingProcessor implements Processor {
+    private final Processor delegate;
+    private final IncrementalAnnotationProcessorType type;
+    private final AnnotationProcessingResult result;
+
+    TrackingProcessor(Processor delegate, IncrementalAnnotationProcessorType type, AnnotationProcessingResult result) {
+        this.delegate = delegate;
+        this.type = type;
+        this.result = result;
+    }
+
+    public Set<String> getSupportedOptions() {
+        return delegate.getSupportedOptions();
+    }
+
+    public Set<String> getSupportedAnnotationTypes() {
+        return delegate.getSupportedAnnotationTypes();
+    }
+
+    public SourceVersion getSupportedSourceVersion() {
+        return delegate.getSupportedSourceVersion();
+    }
+
+    public void init(ProcessingEnvironment processingEnv) {
+        delegate.init(new TrackingProcessingEnvironment(processingEnv, new TrackingFiler(processingEnv.getFiler())));
+    }
+
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (type == IncrementalAnnotationProcessorType.AGGREGATING) {
+            for (TypeElement annotation : annotations) {
+                for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                    String topLevelType = getTopLevelTypeName(element);
+                    if (topLevelType != null) {
+                        result.getAggregatedTypes().add(topLevelType);
+                    }
+                }
+            }
+        }
+        return delegate.process(annotations, roundEnv);
+    }
+
+    public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+        return delegate.getCompletions(element, annotation, member, userText);
+    }
+
+    private void recordGeneratedType(CharSequence name, Element[] originatingElements) {
+        String generatedType = name.toString();
+        if (type == IncrementalAnnotationProcessorType.AGGREGATING) {
+            result.getGeneratedTypesDependingOnAllOthers().add(generatedType);
+            return;
+        }
+        String originatingType = originatingElements.length == 1 ? getTopLevelTypeName(originatingElements[0]) : null;
+        if (originatingType == null) {
+            result.setFullRebuildCause(String.format("Isolating annotation processor '%s' did not provide exactly one originating type for '%s'", delegate.getClass().getName(), generatedType));
+            return;
+        }
+        result.addGeneratedType(generatedType, originatingType);
+    }
+
+    private void recordGeneratedResource(CharSequence relativeName) {
+        // aggregating processors regenerate their resources from all aggregated types, isolating processors would leave stale resources behind
+        if (type == IncrementalAnnotationProcessorType.ISOLATING) {
+            result.setFullRebuildCause(String.format("Isolating annotation processor '%s' generated resource '%s'", delegate.getClass().getName(), relativeName));
+        }
+    }
+
+    private static String getTopLevelTypeName(Element element) {
+        Element current = element;
+        while (current != null && current.getEnclosingElement() != null && current.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+            current = current.getEnclosingElement();
+        }
+        return current instanceof TypeElement ? ((TypeElement) current).getQualifiedName().toString() : null;
+    }
+
+    private class TrackingFiler implements Filer {
+        private final Filer delegate;
+
+        TrackingFiler(Filer delegate) {
+            this.delegate = delegate;
+        }
+
+        public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+            recordGeneratedType(name, originatingElements);
+            return delegate.createSourceFile(name, originatingElements);
+        }
+
+        public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+            recordGeneratedType(name, originatingElements);
+            return delegate.createClassFile(name, originatingElements);
+        }
+
+        public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements) throws IOException {
+            recordGeneratedResource(relativeName);
+            return delegate.createResource(location, pkg, relativeName, originatingElements);
+        }
+
+        public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+            return delegate.getResource(location, pkg, relativeName);
+        }
+    }
+
+    private static class TrackingProcessingEnvironment implements ProcessingEnvironment {
+        private final ProcessingEnvironment delegate;
+        private final Filer filer;
+
+        TrackingProcessingEnvironment(ProcessingEnvironment delegate, Filer filer) {
+            this.delegate = delegate;
+            this.filer = filer;
+        }
+
+        public Map<String, String> getOptions() {
+            return delegate.getOptions();
+        }
+
+        public Messager getMessager() {
+            return delegate.getMessager();
+        }
+
+        public Filer getFiler() {
+            return filer;
+        }
+
+        public Elements getElementUtils() {
+            return delegate.getElementUtils();
+        }
+
+        public Types getTypeUtils() {
+            return delegate.getTypeUtils();
+        }
+
+        public SourceVersion getSourceVersion() {
+            return delegate.getSourceVersion();
+        }
+
+        public Locale getLocale() {
+            return delegate.getLocale();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+
+import javax.annotation.processing.Processor;
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instantiates the annotation processors of a compilation so that javac runs them through {@link TrackingProcessor}s
+ * instead of discovering them itself. The loader must be stopped once the compilation has finished, which releases the processor path.
+ */
+public class TrackingProcessorLoader implements Stoppable {
+    private URLClassLoader classLoader;
+
+    public List<Processor> load(List<AnnotationProcessorDeclaration> declarations, List<File> processorPath, ClassLoader parent, AnnotationProcessingResult result) {
+        stop();
+        classLoader = new URLClassLoader(toUrls(processorPath), parent);
+        List<Processor> processors = new ArrayList<Processor>();
+        for (AnnotationProcessorDeclaration declaration : declarations) {
+            Processor processor = instantiate(declaration.getClassName(), classLoader);
+            if (declaration.getType() == IncrementalAnnotationProcessorType.UNKNOWN) {
+                result.setFullRebuildCause(String.format("Annotation processor '%s' is not declared as incremental", declaration.getClassName()));
+                processors.add(processor);
+            } else {
+                processors.add(new TrackingProcessor(processor, declaration.getType(), result));
+            }
+        }
+        return processors;
+    }
+
+    /**
+     * Closes the class loader of the processors, on JVMs where class loaders can be closed, so that the processor path jars are not held open.
+     */
+    public void stop() {
+        if (classLoader != null) {
+            CompositeStoppable.stoppable(classLoader).stop();
+            classLoader = null;
+        }
+    }
+
+    private static Processor instantiate(String className, ClassLoader classLoader) {
+        try {
+            return (Processor) classLoader.loadClass(className).newInstance();
+        } catch (Exception e) {
+            throw new IllegalArgumentException(String.format("Could not create annotation processor '%s'.", className), e);
+        }
+    }
+
+    private static URL[] toUrls(List<File> files) {
+        URL[] urls = new URL[files.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = files.get(i).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return urls;
+    }
+}
@@ -35,7 +35,7 @@ public class CompileOptions extends AbstractOptions {
     private static final long serialVersionUID = 0;
 
     private static final ImmutableSet<String> EXCLUDE_FROM_ANT_PROPERTIES =
-            ImmutableSet.of("debugOptions", "forkOptions", "compilerArgs", "dependOptions", "useDepend", "incremental");
+            ImmutableSet.of("debugOptions", "forkOptions", "compilerArgs", "dependOptions", "useDepend", "incremental", "reuseCompiler", "parallelPartitions");
 
     private boolean failOnError = true;
 
@@ -71,6 +71,10 @@ public class CompileOptions extends AbstractOptions {
 
     private FileCollection sourcepath;
 
+    private boolean reuseCompiler;
+
+    private boolean parallelPartitions;
+
     /**
      * Tells whether to fail the build when compilation fails. Defaults to {@code true}.
      */
@@ -425,5 +429,43 @@ public class CompileOptions extends AbstractOptions {
     public void setSourcepath(FileCollection sourcepath) {
         this.sourcepath = sourcepath;
     }
-}
 
+    /**
+     * Tells whether the Java compiler and the classpath jars it opens are kept between compilations. Defaults to {@code false}.
+     * Only applies when compiling in-process with the Java compiler API.
+     */
+    @Incubating
+    public boolean isReuseCompiler() {
+        return reuseCompiler;
+    }
+
+    /**
+     * Sets whether the Java compiler and the classpath jars it opens are kept between compilations.
+     * When enabled, later compilations in the same process reuse the jars already opened by the compiler,
+     * as long as those jars have not changed.
+     */
+    @Incubating
+    public void setReuseCompiler(boolean reuseCompiler) {
+        this.reuseCompiler = reuseCompiler;
+    }
+
+    /**
+     * Tells whether groups of source files that do not depend on each other are compiled concurrently. Defaults to {@code false}.
+     * See {@link #setParallelPartitions(boolean)}.
+     */
+    @Incubating
+    public boolean isParallelPartitions() {
+        return parallelPartitions;
+    }
+
+    /**
+     * Sets whether groups of source files that do not depend on each other are compiled concurrently.
+     * The groups are derived from the class dependencies found by the previous compilation, so this only has an effect
+     * when {@link #setIncremental(boolean) incremental} compilation is enabled as well.
+     * All sources are compiled together when the dependencies are not known or when one of the groups fails to compile.
+     */
+    @Incubating
+    public void setParallelPartitions(boolean parallelPartitions) {
+        this.parallelPartitions = parallelPartitions;
+    }
+}
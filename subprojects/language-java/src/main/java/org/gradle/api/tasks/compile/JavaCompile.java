@@ -19,13 +19,16 @@ package org.gradle.api.tasks.compile;
 import org.gradle.api.AntBuilder;
 import org.gradle.api.Incubating;
 import org.gradle.api.JavaVersion;
+import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.changedetection.changes.IncrementalTaskInputsInternal;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
 import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpecFactory;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.CompilationSourceDirs;
 import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilerFactory;
+import org.gradle.api.internal.tasks.compile.incremental.PartitioningJavaCompiler;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
 import org.gradle.api.internal.tasks.compile.incremental.cache.CompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
@@ -36,6 +39,7 @@ import org.gradle.api.tasks.*;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.cache.CacheRepository;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.jvm.platform.JavaPlatform;
 import org.gradle.jvm.platform.internal.DefaultJavaPlatform;
 import org.gradle.language.base.internal.compile.Compiler;
@@ -119,8 +123,13 @@ public class JavaCompile extends AbstractCompile {
                 return new LocalClassSetAnalysisStore(repository, javaCompile);
             }
         };
-        IncrementalCompilerFactory factory = new IncrementalCompilerFactory(
-                (FileOperations) getProject(), getPath(), createCompiler(spec), source, compileCaches, (IncrementalTaskInputsInternal) inputs);
+        Compiler<JavaCompileSpec> javaCompiler = resolveCompiler(spec);
+        if (compileOptions.isParallelPartitions()) {
+            javaCompiler = new PartitioningJavaCompiler(javaCompiler, compileCaches.getLocalClassSetAnalysisStore(), new CompilationSourceDirs(source), getExecutorFactory());
+        }
+        CleaningJavaCompiler cleaningCompiler = new CleaningJavaCompiler(javaCompiler, getAntBuilderFactory(), getOutputs());
+        IncrementalCompilerFactory<JavaCompileSpec> factory = new IncrementalCompilerFactory<JavaCompileSpec>(
+                (FileOperations) getProject(), getPath(), cleaningCompiler, source, compileCaches, (IncrementalTaskInputsInternal) inputs, getExecutorFactory());
         Compiler<JavaCompileSpec> compiler = factory.createCompiler();
         performCompilation(spec, compiler);
     }
@@ -131,6 +140,9 @@ public class JavaCompile extends AbstractCompile {
     @Inject protected CacheRepository getCacheRepository() {
         throw new UnsupportedOperationException();
     }
+    @Inject protected ExecutorFactory getExecutorFactory() {
+        throw new UnsupportedOperationException();
+    }
 
     protected void compile() {
         DefaultJavaCompileSpec spec = createSpec();
@@ -143,10 +155,13 @@ public class JavaCompile extends AbstractCompile {
     }
 
     private CleaningJavaCompiler createCompiler(JavaCompileSpec spec) {
+        return new CleaningJavaCompiler(resolveCompiler(spec), getAntBuilderFactory(), getOutputs());
+    }
+
+    private Compiler<JavaCompileSpec> resolveCompiler(JavaCompileSpec spec) {
         // TODO:DAZ Supply the target platform to the task, using the compatibility flags as overrides
         // Or maybe split the legacy compile task from the new one
-        Compiler<JavaCompileSpec> javaCompiler = CompilerUtil.castCompiler(getToolResolver().resolveCompiler(spec.getClass(), getPlatform()).get());
-        return new CleaningJavaCompiler(javaCompiler, getAntBuilderFactory(), getOutputs());
+        return CompilerUtil.castCompiler(getToolResolver().resolveCompiler(spec.getClass(), getPlatform()).get());
     }
 
     protected JavaPlatform getPlatform() {
@@ -181,6 +196,17 @@ public class JavaCompile extends AbstractCompile {
         this.dependencyCacheDir = dependencyCacheDir;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only the parts of the classes on the classpath that the source files can be compiled against are considered when checking whether this task is up-to-date.</p>
+     */
+    @Override
+    @CompileClasspath
+    public FileCollection getClasspath() {
+        return super.getClasspath();
+    }
+
     /**
      * Returns the compilation options.
      *
@@ -18,6 +18,7 @@ package org.gradle.language.java.internal;
 
 import org.gradle.api.internal.component.ArtifactType;
 import org.gradle.api.internal.component.ComponentTypeRegistry;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClasspathEntryAbiHasher;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
 import org.gradle.jvm.JvmLibrary;
@@ -25,6 +26,7 @@ import org.gradle.language.java.artifact.JavadocArtifact;
 
 public class JavaLanguagePluginServiceRegistry implements PluginServiceRegistry {
     public void registerGlobalServices(ServiceRegistration registration) {
+        registration.add(ClasspathEntryAbiHasher.class);
     }
 
     public void registerBuildServices(ServiceRegistration registration) {
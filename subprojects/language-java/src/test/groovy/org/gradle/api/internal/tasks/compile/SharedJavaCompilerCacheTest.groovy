@@ -0,0 +1,257 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.internal.hash.DefaultHasher
+import org.gradle.internal.Factory
+import org.gradle.internal.TimeProvider
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+import java.nio.charset.Charset
+
+class SharedJavaCompilerCacheTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def compiler = Mock(JavaCompiler)
+    def compilerFactory = Mock(Factory)
+    long now
+    def timeProvider = Stub(TimeProvider) {
+        getCurrentTime() >> { now }
+    }
+    @Subject cache = new SharedJavaCompilerCache(new DefaultHasher(), timeProvider)
+
+    File jar
+    File classes
+
+    def setup() {
+        jar = temp.file("lib.jar")
+        jar.text = "original"
+        classes = temp.createDir("classes")
+    }
+
+    def "creates the compiler once"() {
+        when:
+        cache.acquire(compilerFactory, null, [jar]).release()
+        cache.acquire(compilerFactory, null, [jar]).release()
+
+        then:
+        1 * compilerFactory.create() >> compiler
+        2 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        0 * compilerFactory._
+    }
+
+    def "reuses file manager when the classpath jars did not change"() {
+        compilerFactory.create() >> compiler
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.acquire(compilerFactory, null, [jar, classes])
+        first.release()
+        def second = cache.acquire(compilerFactory, null, [classes, jar])
+        second.release()
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        2 * fileManager.flush()
+        2 * fileManager.close()
+
+        and:
+        first.fileManager.is(fileManager)
+        second.fileManager.is(fileManager)
+        cache.statistics.fileManagersCreated == 1
+        cache.statistics.fileManagersReused == 1
+    }
+
+    def "resets the locations of a file manager before it is reused"() {
+        compilerFactory.create() >> compiler
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+        def reset = []
+
+        when:
+        def first = cache.acquire(compilerFactory, null, [jar])
+
+        then:
+        0 * fileManager.setLocation(_, _)
+
+        when:
+        first.release()
+        cache.acquire(compilerFactory, null, [jar])
+
+        then:
+        StandardLocation.values().length * fileManager.setLocation(_, null) >> { StandardLocation location, paths -> reset << location }
+        0 * fileManager.setLocation(_, _)
+
+        and:
+        reset as Set == StandardLocation.values() as Set
+    }
+
+    def "discards file manager when a classpath jar changed"() {
+        compilerFactory.create() >> compiler
+        def oldFileManager = Mock(StandardJavaFileManager)
+        def newFileManager = Mock(StandardJavaFileManager)
+
+        when:
+        cache.acquire(compilerFactory, null, [jar]).release()
+        jar.text = "changed content"
+        def lease = cache.acquire(compilerFactory, null, [jar])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [oldFileManager, newFileManager]
+        1 * oldFileManager.close()
+
+        and:
+        lease.fileManager.is(newFileManager)
+        cache.statistics.fileManagersInvalidated == 1
+    }
+
+    def "reuses file manager when the classpath contains jars that it has not been used with"() {
+        compilerFactory.create() >> compiler
+        def fileManager = Mock(StandardJavaFileManager)
+        def other = temp.file("other.jar")
+        other.text = "other"
+
+        when:
+        cache.acquire(compilerFactory, null, [jar]).release()
+        def lease = cache.acquire(compilerFactory, null, [jar, other])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        lease.fileManager.is(fileManager)
+    }
+
+    def "does not share a file manager between concurrent compilations"() {
+        compilerFactory.create() >> compiler
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.acquire(compilerFactory, null, [jar])
+        def second = cache.acquire(compilerFactory, null, [jar])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+        first.fileManager.is(fileManager1)
+        second.fileManager.is(fileManager2)
+    }
+
+    def "uses separate file managers for different encodings"() {
+        compilerFactory.create() >> compiler
+        def utf8 = Charset.forName("UTF-8")
+        def utf8FileManager = Mock(StandardJavaFileManager)
+
+        when:
+        cache.acquire(compilerFactory, null, [jar]).release()
+        def lease = cache.acquire(compilerFactory, utf8, [jar])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        1 * compiler.getStandardFileManager(null, null, utf8) >> utf8FileManager
+        lease.fileManager.is(utf8FileManager)
+    }
+
+    def "closes file manager when the compilation has finished"() {
+        compilerFactory.create() >> compiler
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        def lease = cache.acquire(compilerFactory, null, [jar])
+
+        then:
+        0 * fileManager.close()
+
+        when:
+        lease.release()
+
+        then:
+        1 * fileManager.flush()
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "discards file managers that have been idle for too long"() {
+        compilerFactory.create() >> compiler
+        def oldFileManager = Mock(StandardJavaFileManager)
+        def newFileManager = Mock(StandardJavaFileManager)
+
+        when:
+        cache.acquire(compilerFactory, null, [jar]).release()
+        now = SharedJavaCompilerCache.IDLE_TIMEOUT_MILLIS
+        def lease = cache.acquire(compilerFactory, null, [jar])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [oldFileManager, newFileManager]
+
+        and:
+        lease.fileManager.is(newFileManager)
+        cache.statistics.fileManagersDiscarded == 1
+    }
+
+    def "keeps a limited number of idle file managers for each encoding, discarding those that have been idle the longest"() {
+        compilerFactory.create() >> compiler
+        def count = SharedJavaCompilerCache.MAX_IDLE_PER_ENCODING + 1
+        def fileManagers = (0..count).collect { Mock(StandardJavaFileManager) }
+        compiler.getStandardFileManager(null, null, null) >>> fileManagers
+
+        when:
+        def leases = (1..count).collect { cache.acquire(compilerFactory, null, [jar]) }
+        leases.each {
+            now++
+            it.release()
+        }
+        def reused = (1..count).collect { cache.acquire(compilerFactory, null, [jar]).fileManager }
+
+        then:
+        cache.statistics.fileManagersDiscarded == 1
+        reused == fileManagers[1..<count].reverse() + fileManagers[count]
+    }
+
+    def "keeps a limited number of idle file managers in total, discarding those that have been idle the longest"() {
+        compilerFactory.create() >> compiler
+        def utf8 = Charset.forName("UTF-8")
+        def utf16 = Charset.forName("UTF-16")
+        def count = SharedJavaCompilerCache.MAX_IDLE_PER_ENCODING
+        def defaultFileManagers = (0..count).collect { Mock(StandardJavaFileManager) }
+        compiler.getStandardFileManager(null, null, null) >>> defaultFileManagers
+        compiler.getStandardFileManager(null, null, utf8) >> { Mock(StandardJavaFileManager) }
+        compiler.getStandardFileManager(null, null, utf16) >> { Mock(StandardJavaFileManager) }
+        assert SharedJavaCompilerCache.MAX_IDLE == 2 * count
+
+        when:
+        def leases = (1..count).collect { cache.acquire(compilerFactory, null, [jar]) }
+        leases += (1..count).collect { cache.acquire(compilerFactory, utf8, [jar]) }
+        leases += cache.acquire(compilerFactory, utf16, [jar])
+        leases.each {
+            now++
+            it.release()
+        }
+        def reused = (1..count).collect { cache.acquire(compilerFactory, null, [jar]).fileManager }
+
+        then:
+        cache.statistics.fileManagersDiscarded == 1
+        reused == defaultFileManagers[1..<count].reverse() + defaultFileManagers[count]
+    }
+}
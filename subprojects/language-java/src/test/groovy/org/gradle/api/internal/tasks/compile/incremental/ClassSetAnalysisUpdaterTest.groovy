@@ -17,15 +17,25 @@
 package org.gradle.api.internal.tasks.compile.incremental
 
 import org.gradle.api.file.ConfigurableFileTree
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.FileVisitor
+import org.gradle.api.internal.cache.Loader
 import org.gradle.api.internal.cache.Stash
 import org.gradle.api.internal.file.FileOperations
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
 class ClassSetAnalysisUpdaterTest extends Specification {
 
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+
     def stash = Mock(Stash)
     def operations = Mock(FileOperations)
     def analyzer = Mock(ClassDependenciesAnalyzer)
@@ -39,4 +49,65 @@ class ClassSetAnalysisUpdaterTest extends Specification {
         1 * operations.fileTree(_) >> Mock(ConfigurableFileTree)
         1 * stash.put(_)
     }
+
+    def "requires full rebuild when a top level class has no source file named after it"() {
+        def sourceMapping = Mock(SourceToNameConverter)
+        def updater = new ClassSetAnalysisUpdater(stash, operations, analyzer, sourceMapping)
+        def tree = Stub(ConfigurableFileTree) {
+            visit(_ as FileVisitor) >> { FileVisitor visitor ->
+                ["org/Foo.class", 'org/Foo$1.class', "org/Bar.class"].each { path ->
+                    visitor.visitFile(Stub(FileVisitDetails) {
+                        getPath() >> path
+                        getFile() >> new File(path)
+                    })
+                }
+            }
+        }
+        operations.fileTree(_) >> tree
+        analyzer.getClassAnalysis(_, _ as File) >> new ClassAnalysis([] as Set, false)
+        ClassSetAnalysisData stored = null
+
+        when:
+        updater.updateAnalysis(Stub(JavaCompileSpec))
+
+        then:
+        1 * sourceMapping.hasSourceFile("org.Foo") >> true
+        1 * sourceMapping.hasSourceFile("org.Bar") >> false
+        0 * sourceMapping.hasSourceFile(_)
+        1 * stash.put(_) >> { ClassSetAnalysisData data -> stored = data }
+        stored.fullRebuildCause == "Class 'org.Bar' was not compiled from a source file named after it"
+    }
+
+    def "keeps the generated types of the previous compilation that still exist"() {
+        def classes = temp.createDir("classes")
+        classes.createFile("A_Builder.class")
+        classes.createFile("B.class")
+        def previous = new AnnotationProcessingResult()
+        previous.addGeneratedType("A_Builder", "A")
+        previous.addGeneratedType("Deleted_Builder", "Deleted")
+        previous.aggregatedTypes.addAll(["B", "Deleted"])
+        def current = new AnnotationProcessingResult()
+        current.addGeneratedType("C_Builder", "C")
+        def resultFile = temp.file("annotation-processing.bin")
+        current.writeTo(resultFile)
+        def spec = Stub(JavaCompileSpec) {
+            getDestinationDir() >> classes
+            getAnnotationProcessingResultFile() >> resultFile
+        }
+        def loader = Stub(Loader) {
+            get() >> new ClassSetAnalysisData([:]).withAnnotationProcessingResult(previous)
+        }
+        def updater = new ClassSetAnalysisUpdater(stash, loader, operations, analyzer, null)
+        operations.fileTree(_) >> Stub(ConfigurableFileTree)
+        ClassSetAnalysisData stored = null
+
+        when:
+        updater.updateAnalysis(spec)
+
+        then:
+        1 * stash.put(_) >> { ClassSetAnalysisData data -> stored = data }
+        stored.annotationProcessingResult.generatedTypesByOrigin == ["A": ["A_Builder"] as Set, "C": ["C_Builder"] as Set]
+        stored.annotationProcessingResult.aggregatedTypes == ["B"] as Set
+        stored.fullRebuildCause == null
+    }
 }
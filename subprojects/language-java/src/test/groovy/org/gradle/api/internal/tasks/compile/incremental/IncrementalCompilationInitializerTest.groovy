@@ -43,7 +43,9 @@ class IncrementalCompilationInitializerTest extends Specification {
         1 * classesToDelete.include('Bar$*.class')
 
         1 * sourceToCompile.include('Bar.java')
+        1 * sourceToCompile.include('Bar.groovy')
         1 * sourceToCompile.include('com/Foo.java')
+        1 * sourceToCompile.include('com/Foo.groovy')
 
         0 * _
     }
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import org.gradle.api.file.SourceDirectorySet
+import org.gradle.api.internal.cache.Loader
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.CompilationFailedException
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.tasks.WorkResult
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.RedirectStdOutAndErr
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class PartitioningJavaCompilerTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    @Rule RedirectStdOutAndErr outputs = new RedirectStdOutAndErr()
+    def delegate = Mock(Compiler)
+    def loader = Mock(Loader)
+    def executorFactory = new DefaultExecutorFactory()
+    def spec = new DefaultJavaCompileSpec()
+    CompilationSourceDirs sourceDirs
+    File a, b, c
+
+    def setup() {
+        def srcDir = temp.createDir("src")
+        a = temp.createFile("src/a/A.java")
+        b = temp.createFile("src/b/B.java")
+        c = temp.createFile("src/c/C.java")
+        sourceDirs = new CompilationSourceDirs([Stub(SourceDirectorySet) { getSrcDirs() >> ([srcDir] as Set) }])
+        spec.source = new SimpleFileCollection(a, b, c)
+        spec.tempDir = temp.file("tmp")
+        spec.destinationDir = temp.createDir("classes")
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "compiles all sources at once when there is no class analysis"() {
+        def compiler = new PartitioningJavaCompiler(delegate, loader, sourceDirs, executorFactory, 4)
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        1 * loader.get() >> null
+        1 * delegate.execute(spec)
+        0 * delegate._
+    }
+
+    def "compiles all sources at once when the class analysis does not cover all sources"() {
+        def compiler = new PartitioningJavaCompiler(delegate, loader, sourceDirs, executorFactory, 4)
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        1 * loader.get() >> new ClassSetAnalysisData(["a.A": dependents(), "b.B": dependents()])
+        1 * delegate.execute(spec)
+        0 * delegate._
+    }
+
+    def "compiles independent sources separately"() {
+        def compiler = new PartitioningJavaCompiler(delegate, loader, sourceDirs, executorFactory, 4)
+        def compiled = [].asSynchronized()
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        1 * loader.get() >> new ClassSetAnalysisData(["a.A": dependents("c.C"), "b.B": dependents(), "c.C": dependents()])
+        2 * delegate.execute(_) >> { JavaCompileSpec partition ->
+            compiled << (partition.source.files as Set)
+            Stub(WorkResult)
+        }
+        0 * delegate.execute(spec)
+
+        and:
+        compiled as Set == [[a, c] as Set, [b] as Set] as Set
+    }
+
+    def "compiles groups together when a source references a class of another group"() {
+        def compiler = new PartitioningJavaCompiler(delegate, loader, sourceDirs, executorFactory, 4)
+        // the analysis of the previous compilation does not know about this reference yet
+        b.text = "package b; class B { c.C c; }"
+        loader.get() >> new ClassSetAnalysisData(["a.A": dependents(), "b.B": dependents(), "c.C": dependents()])
+
+        expect:
+        compiler.partition(spec).collect { it as Set } as Set == [[a] as Set, [b, c] as Set] as Set
+    }
+
+    def "does not partition when all sources reference each other"() {
+        def compiler = new PartitioningJavaCompiler(delegate, loader, sourceDirs, executorFactory, 4)
+        a.text = "package a; import b.B; class A { B b; }"
+        b.text = "package b; class B { c.C c; }"
+        loader.get() >> new ClassSetAnalysisData(["a.A": dependents(), "b.B": dependents(), "c.C": dependents()])
+
+        expect:
+        compiler.partition(spec) == null
+    }
+
+    def "does not create more partitions than allowed"() {
+        def compiler = new PartitioningJavaCompiler(delegate, loader, sourceDirs, executorFactory, 2)
+        loader.get() >> new ClassSetAnalysisData(["a.A": dependents(), "b.B": dependents(), "c.C": dependents()])
+
+        expect:
+        compiler.partition(spec)*.size().sort() == [1, 2]
+    }
+
+    def "compiles all sources at once when one of the partitions fails"() {
+        def compiler = new PartitioningJavaCompiler(delegate, loader, sourceDirs, executorFactory, 4)
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        1 * loader.get() >> new ClassSetAnalysisData(["a.A": dependents(), "b.B": dependents(), "c.C": dependents()])
+        3 * delegate.execute({ it != spec }) >> { throw new CompilationFailedException() }
+
+        then:
+        1 * delegate.execute(spec)
+    }
+
+    def "compiles each partition into its own directory and moves the classes to the destination once all succeeded"() {
+        def compiler = new PartitioningJavaCompiler(delegate, loader, sourceDirs, executorFactory, 4)
+        def destinations = [].asSynchronized()
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        1 * loader.get() >> new ClassSetAnalysisData(["a.A": dependents(), "b.B": dependents(), "c.C": dependents()])
+        3 * delegate.execute(_) >> { JavaCompileSpec partition ->
+            destinations << partition.destinationDir
+            def name = partition.source.singleFile.name - ".java"
+            new File(partition.destinationDir, "${name.toLowerCase()}/${name}.class").with {
+                parentFile.mkdirs()
+                text = name
+            }
+            Stub(WorkResult)
+        }
+
+        and:
+        !destinations.contains(spec.destinationDir)
+        destinations.unique().size() == 3
+        new File(spec.destinationDir, "a/A.class").text == "A"
+        new File(spec.destinationDir, "b/B.class").text == "B"
+        new File(spec.destinationDir, "c/C.class").text == "C"
+    }
+
+    def "prints the diagnostics of the partitions once all of them succeeded"() {
+        def compiler = new PartitioningJavaCompiler(delegate, loader, sourceDirs, executorFactory, 4)
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        1 * loader.get() >> new ClassSetAnalysisData(["a.A": dependents(), "b.B": dependents(), "c.C": dependents()])
+        3 * delegate.execute(_) >> { JavaCompileSpec partition ->
+            partition.diagnosticsFile.text = "warning in ${partition.source.singleFile.name}\n"
+            Stub(WorkResult)
+        }
+
+        and:
+        outputs.stdErr.readLines() as Set == ["warning in A.java", "warning in B.java", "warning in C.java"] as Set
+    }
+
+    def "discards the diagnostics of the partitions when all sources are compiled again"() {
+        def compiler = new PartitioningJavaCompiler(delegate, loader, sourceDirs, executorFactory, 4)
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        1 * loader.get() >> new ClassSetAnalysisData(["a.A": dependents(), "b.B": dependents(), "c.C": dependents()])
+        3 * delegate.execute({ it != spec }) >> { JavaCompileSpec partition ->
+            partition.diagnosticsFile.text = "error in ${partition.source.singleFile.name}\n"
+            new File(partition.destinationDir, "Partial.class").text = "partial"
+            throw new CompilationFailedException()
+        }
+
+        then:
+        1 * delegate.execute(spec)
+
+        and:
+        !outputs.stdErr.contains("error in")
+        !new File(spec.destinationDir, "Partial.class").exists()
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import org.gradle.api.internal.file.FileOperations
+import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult
+import spock.lang.Specification
+import spock.lang.Subject
+
+class RecompilationSpecProviderTest extends Specification {
+
+    def previousCompilation = Stub(PreviousCompilation)
+    def processing = new AnnotationProcessingResult()
+    @Subject provider = new RecompilationSpecProvider(Stub(SourceToNameConverter), Stub(FileOperations))
+
+    def setup() {
+        previousCompilation.annotationProcessingResult >> processing
+    }
+
+    def "recompiles the types generated from recompiled classes and the origins of recompiled generated types"() {
+        processing.addGeneratedType("A_Builder", "A")
+        processing.addGeneratedType("B_Builder", "B")
+        processing.addGeneratedType("B_Factory", "B")
+        processing.addGeneratedType("C_Builder", "C")
+        def classNames = new LinkedHashSet(["A", "B_Factory"])
+        def classesToCheckAbi = new LinkedHashSet()
+
+        when:
+        provider.addAnnotationProcessingTypes(classNames, classesToCheckAbi, previousCompilation)
+
+        then:
+        classNames == ["A", "B_Factory", "A_Builder", "B", "B_Builder"] as Set
+        classesToCheckAbi == ["A_Builder", "B_Builder", "B_Factory"] as Set
+    }
+
+    def "recompiles all aggregated types when any class is recompiled"() {
+        processing.aggregatedTypes.addAll(["A", "B"])
+        processing.generatedTypesDependingOnAllOthers << "Registry"
+        def classNames = new LinkedHashSet(["C"])
+        def classesToCheckAbi = new LinkedHashSet()
+
+        when:
+        provider.addAnnotationProcessingTypes(classNames, classesToCheckAbi, previousCompilation)
+
+        then:
+        classNames == ["C", "A", "B", "Registry"] as Set
+        classesToCheckAbi == ["Registry"] as Set
+    }
+
+    def "adds nothing when no class is recompiled"() {
+        processing.aggregatedTypes << "A"
+        def classNames = new LinkedHashSet()
+
+        when:
+        provider.addAnnotationProcessingTypes(classNames, [], previousCompilation)
+
+        then:
+        classNames.empty
+    }
+}
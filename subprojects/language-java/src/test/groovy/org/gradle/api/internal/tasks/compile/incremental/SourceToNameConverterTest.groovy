@@ -40,4 +40,19 @@ class SourceToNameConverterTest extends Specification {
         when: converter.getClassName(temp.file("src/main/unknown/Xxx.java"))
         then: thrown(IllegalArgumentException)
     }
+
+    def "knows groovy source class relative path"() {
+        expect:
+        converter.getClassName(temp.file("src/main/java/org/bar/Bar.groovy")) == "org.bar.Bar"
+    }
+
+    def "knows whether a class has a source file named after it"() {
+        temp.createFile("src/main/java/org/bar/Bar.groovy")
+        temp.createFile("src/main/java2/com/Com.java")
+
+        expect:
+        converter.hasSourceFile("org.bar.Bar")
+        converter.hasSourceFile("com.Com")
+        !converter.hasSourceFile("org.bar.Baz")
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer
+
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.MethodVisitor
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+import spock.lang.Subject
+
+class ClasspathEntryAbiHasherTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    @Subject hasher = new ClasspathEntryAbiHasher()
+
+    def "class file hash ignores method bodies"() {
+        def classFile = temp.file("org/foo/Foo.class")
+
+        when:
+        classFile.bytes = generate("run", 1)
+        def original = hasher.hash(classFile)
+        classFile.bytes = generate("run", 2)
+        def changedBody = hasher.hash(classFile)
+        classFile.bytes = generate("start", 1)
+        def changedSignature = hasher.hash(classFile)
+
+        then:
+        changedBody == original
+        changedSignature != original
+    }
+
+    def "jar hash ignores method bodies but not resources"() {
+        expect:
+        hasher.hash(jar("a.jar", generate("run", 1), "text")) == hasher.hash(jar("b.jar", generate("run", 2), "text"))
+        hasher.hash(jar("c.jar", generate("run", 1), "text")) != hasher.hash(jar("d.jar", generate("start", 1), "text"))
+        hasher.hash(jar("e.jar", generate("run", 1), "text")) != hasher.hash(jar("f.jar", generate("run", 1), "other text"))
+    }
+
+    def "jar that declares services is hashed by its content"() {
+        def original = jar("a.jar", generate("run", 1), "text")
+        def changedBody = jar("b.jar", generate("run", 2), "text")
+        [original, changedBody].each { TestFile jar ->
+            def content = temp.createDir("services-${jar.name}")
+            jar.unzipTo(content)
+            content.file("META-INF/services/javax.annotation.processing.Processor").text = "org.foo.Foo"
+            content.zipTo(jar)
+        }
+
+        expect:
+        hasher.hash(original) != hasher.hash(changedBody)
+    }
+
+    def "other files are hashed by their content"() {
+        def file = temp.file("resource.txt")
+
+        when:
+        file.text = "text"
+        def original = hasher.hash(file)
+        file.text = "other text"
+
+        then:
+        hasher.hash(file) != original
+    }
+
+    private TestFile jar(String name, byte[] classBytes, String resourceText) {
+        def content = temp.createDir("content-$name")
+        content.file("org/foo/Foo.class").bytes = classBytes
+        content.file("org/foo/resource.txt").text = resourceText
+        def jar = temp.file(name)
+        content.zipTo(jar)
+        jar
+    }
+
+    private static byte[] generate(String methodName, int returnedValue) {
+        def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, "org/foo/Foo", null, "java/lang/Object", null)
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, methodName, "()I", null, null)
+        method.visitCode()
+        method.visitIntInsn(Opcodes.BIPUSH, returnedValue)
+        method.visitInsn(Opcodes.IRETURN)
+        method.visitMaxs(0, 0)
+        method.visitEnd()
+        writer.visitEnd()
+        writer.toByteArray()
+    }
+}
@@ -20,6 +20,9 @@ package org.gradle.api.internal.tasks.compile.incremental.analyzer
 
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.annotations.*
 import org.gradle.api.internal.tasks.compile.incremental.test.*
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.MethodVisitor
+import org.objectweb.asm.Opcodes
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -71,6 +74,43 @@ class DefaultClassDependenciesAnalyzerTest extends Specification {
         analyze(SomeSourceAnnotation).dependencyToAll
     }
 
+    def "ABI hash ignores method bodies and private members"() {
+        def original = abiHash(generate(Opcodes.ACC_PUBLIC, "run", 1, null))
+
+        expect:
+        abiHash(generate(Opcodes.ACC_PUBLIC, "run", 2, null)) == original
+        abiHash(generate(Opcodes.ACC_PUBLIC, "run", 1, "secret")) == original
+    }
+
+    def "ABI hash changes when the signature of a non-private member changes"() {
+        def original = abiHash(generate(Opcodes.ACC_PUBLIC, "run", 1, null))
+
+        expect:
+        abiHash(generate(Opcodes.ACC_PUBLIC, "start", 1, null)) != original
+        abiHash(generate(Opcodes.ACC_PROTECTED, "run", 1, null)) != original
+        abiHash(generate(0, "run", 1, null)) != original
+    }
+
+    private byte[] abiHash(byte[] bytes) {
+        analyzer.getClassAnalysis("org.foo.Foo", new ByteArrayInputStream(bytes)).abiHash
+    }
+
+    private static byte[] generate(int methodAccess, String methodName, int returnedValue, String privateFieldName) {
+        def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, "org/foo/Foo", null, "java/lang/Object", null)
+        if (privateFieldName) {
+            writer.visitField(Opcodes.ACC_PRIVATE, privateFieldName, "I", null, null).visitEnd()
+        }
+        MethodVisitor method = writer.visitMethod(methodAccess, methodName, "()I", null, null)
+        method.visitCode()
+        method.visitIntInsn(Opcodes.BIPUSH, returnedValue)
+        method.visitInsn(Opcodes.IRETURN)
+        method.visitMaxs(0, 0)
+        method.visitEnd()
+        writer.visitEnd()
+        writer.toByteArray()
+    }
+
     InputStream classStream(Class aClass) {
         aClass.getResourceAsStream(aClass.getSimpleName() + ".class")
     }
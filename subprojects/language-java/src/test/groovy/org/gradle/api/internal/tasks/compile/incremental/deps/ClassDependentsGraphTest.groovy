@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.deps
+
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class ClassDependentsGraphTest extends Specification {
+
+    def "stores each class name once"() {
+        def graph = ClassDependentsGraph.of(["A": dependents("B", "C"), "B": dependents("C"), "C": dependents()])
+
+        expect:
+        graph.size() == 3
+        graph.classNames as List == ["A", "B", "C"]
+        graph.getDependentsCount(graph.indexOf("A")) == 2
+        graph.getClassName(graph.getDependent(graph.indexOf("B"), 0)) == "C"
+        graph.indexOf("D") < 0
+    }
+
+    def "returns the dependents of a class"() {
+        def graph = ClassDependentsGraph.of(["A": dependents("B"), "B": new DefaultDependentsSet(true, ["C"]), "D": new DependencyToAll()])
+
+        expect:
+        graph.getDependents("A").dependentClasses == ["B"] as Set
+        !graph.getDependents("A").dependencyToAll
+        graph.getDependents("B").dependentClasses == ["C"] as Set
+        graph.getDependents("B").dependencyToAll
+        graph.getDependents("D") instanceof DependencyToAll
+        graph.getDependents("C") == null
+        graph.getDependents("E") == null
+    }
+
+    def "knows which classes are a dependency to all"() {
+        def graph = ClassDependentsGraph.of(["A": dependents("B"), "B": new DefaultDependentsSet(true, []), "D": new DependencyToAll()])
+
+        expect:
+        !graph.isDependencyToAll(graph.indexOf("A"))
+        graph.isDependencyToAll(graph.indexOf("B"))
+        graph.isDependencyToAll(graph.indexOf("D"))
+    }
+
+    def "finds transitive dependents"() {
+        def graph = ClassDependentsGraph.of([
+                "A": dependents("B"),
+                "B": dependents("C", "D"),
+                "C": dependents("A"),
+                "D": dependents(),
+                "E": dependents("A")
+        ])
+
+        when:
+        def result = graph.getTransitiveDependents(graph.indexOf("B"))
+
+        then:
+        names(graph, result) == ["A", "B", "C", "D"] as Set
+
+        when:
+        result = graph.getTransitiveDependents(graph.indexOf("D"))
+
+        then:
+        result.isEmpty()
+    }
+
+    private static Set<String> names(ClassDependentsGraph graph, BitSet indexes) {
+        def result = [] as Set
+        for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+            result << graph.getClassName(i)
+        }
+        result
+    }
+}
@@ -55,8 +55,8 @@ class ClassFilesAnalyzerTest extends Specification {
         }
         when: analyzer.visitFile(details)
         then:
-        1 * classAnalyzer.getClassAnalysis("org.foo.Foo", new File("Foo.class")) >> new ClassAnalysis(new HashSet(["A"]), true)
-        1 * accumulator.addClass("org.foo.Foo", true, new HashSet(["A"]))
+        1 * classAnalyzer.getClassAnalysis("org.foo.Foo", new File("Foo.class")) >> new ClassAnalysis(new HashSet(["A"]), true, [1, 2] as byte[])
+        1 * accumulator.addClass("org.foo.Foo", true, new HashSet(["A"]), [1, 2] as byte[])
         0 * _
     }
 }
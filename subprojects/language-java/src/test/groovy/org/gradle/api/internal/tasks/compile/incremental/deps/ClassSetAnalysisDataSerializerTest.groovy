@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps
 
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult
 import org.gradle.internal.serialize.InputStreamBackedDecoder
 import org.gradle.internal.serialize.OutputStreamBackedEncoder
 import spock.lang.Specification
@@ -38,13 +39,82 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
         ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
 
         then:
-        read.dependents.keySet() == data.dependents.keySet()
+        read.graph.classNames as List == data.graph.classNames as List
 
         ["A", "B", "C"].each {
-            assert read.dependents[it].dependentClasses == data.dependents[it].dependentClasses
-            assert read.dependents[it].dependencyToAll == data.dependents[it].dependencyToAll
+            assert read.getDependents(it).dependentClasses == data.getDependents(it).dependentClasses
+            assert read.getDependents(it).dependencyToAll == data.getDependents(it).dependencyToAll
         }
 
-        read.dependents["D"] instanceof DependencyToAll
+        read.getDependents("D") instanceof DependencyToAll
+    }
+
+    def "serializes ABI hashes"() {
+        def data = new ClassSetAnalysisData(["A": dependents("B"), "B": dependents()], ["A": [1, 2] as byte[]])
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.getAbiHash("A") == [1, 2] as byte[]
+        read.getAbiHash("B") == null
+    }
+
+    def "serializes full rebuild cause"() {
+        def data = new ClassSetAnalysisData(["A": dependents("B")]).withFullRebuildCause("Class 'B' was not compiled from a source file named after it")
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.fullRebuildCause == "Class 'B' was not compiled from a source file named after it"
+        read.getDependents("A").dependentClasses == ["B"] as Set
+        new ClassSetAnalysisData(["A": dependents("B")]).fullRebuildCause == null
+    }
+
+    def "serializes annotation processing result"() {
+        def processing = new AnnotationProcessingResult()
+        processing.addGeneratedType("A_Generated", "A")
+        processing.aggregatedTypes << "B"
+        processing.generatedTypesDependingOnAllOthers << "Registry"
+        def data = new ClassSetAnalysisData(["A": dependents(), "B": dependents()]).withAnnotationProcessingResult(processing)
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.annotationProcessingResult.generatedTypesByOrigin == ["A": ["A_Generated"] as Set]
+        read.annotationProcessingResult.aggregatedTypes == ["B"] as Set
+        read.annotationProcessingResult.generatedTypesDependingOnAllOthers == ["Registry"] as Set
+        read.fullRebuildCause == null
+        new ClassSetAnalysisData(["A": dependents()]).annotationProcessingResult == null
+    }
+
+    def "annotation processing result that can not be related to sources requires full rebuild"() {
+        def processing = new AnnotationProcessingResult()
+        processing.fullRebuildCause = "Annotation processor 'Foo' is not declared as incremental"
+
+        expect:
+        new ClassSetAnalysisData(["A": dependents()]).withAnnotationProcessingResult(processing).fullRebuildCause == "Annotation processor 'Foo' is not declared as incremental"
+    }
+
+    def "serializes classes that are only known as dependents"() {
+        def data = new ClassSetAnalysisData(["A": dependents("X", "Y"), "B": dependents("Y")])
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.getDependents("A").dependentClasses == ["X", "Y"] as Set
+        read.getDependents("B").dependentClasses == ["Y"] as Set
+        read.getDependents("X") == null
     }
 }
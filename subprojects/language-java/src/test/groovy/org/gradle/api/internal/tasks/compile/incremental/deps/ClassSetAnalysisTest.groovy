@@ -16,7 +16,10 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps
 
+import org.gradle.internal.serialize.InputStreamBackedDecoder
+import org.gradle.internal.serialize.OutputStreamBackedEncoder
 import spock.lang.Specification
+import spock.lang.Unroll
 
 import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
 
@@ -176,4 +179,92 @@ class ClassSetAnalysisTest extends Specification {
         a.isDependencyToAll("C")
         !a.isDependencyToAll("Unknown")
     }
+
+    @Unroll
+    def "finds the same dependents as walking the class name sets on a generated graph of #classCount classes (seed #seed)"() {
+        def dependents = generate(new Random(seed), classCount)
+        def a = analysis(dependents)
+        def deserialized = new ClassSetAnalysis(roundTrip(new ClassSetAnalysisData(dependents)))
+
+        expect:
+        dependents.keySet().each { className ->
+            def expected = walkClassNameSets(dependents, className)
+            def actual = a.getRelevantDependents(className)
+            assert actual.dependencyToAll == expected.dependencyToAll
+            if (!expected.dependencyToAll) {
+                assert actual.dependentClasses == expected.dependentClasses
+                assert deserialized.getRelevantDependents(className).dependentClasses == expected.dependentClasses
+            }
+        }
+
+        where:
+        seed | classCount
+        1    | 10
+        2    | 50
+        3    | 200
+        4    | 1000
+    }
+
+    // Every class depends on a few nearby classes, like classes of the same package do, and on a few classes anywhere in the set.
+    // Edges go both ways, so the graph contains many cycles, and every fifth class also forms a cycle of two with its successor.
+    private static Map<String, DependentsSet> generate(Random random, int classCount) {
+        Map<String, Set<String>> dependentClasses = [:]
+        classCount.times { dependentClasses[generatedName(it)] = [] as Set }
+        classCount.times { i ->
+            3.times {
+                int dependency = random.nextBoolean() ? Math.max(0, i - 1 - random.nextInt(5)) : random.nextInt(classCount)
+                dependentClasses[generatedName(dependency)] << generatedName(i)
+            }
+            if (i % 5 == 0 && i + 1 < classCount) {
+                dependentClasses[generatedName(i)] << generatedName(i + 1)
+                dependentClasses[generatedName(i + 1)] << generatedName(i)
+            }
+            if (i % 7 == 0) {
+                def inner = generatedName(i) + '$Inner'
+                dependentClasses[generatedName(i)] << inner
+                dependentClasses[inner] = [generatedName(random.nextInt(classCount))] as Set
+            }
+        }
+        Map<String, DependentsSet> dependents = [:]
+        dependentClasses.each { className, classes ->
+            // some classes are a dependency to all, with their dependents still known, like constants are
+            dependents[className] = new DefaultDependentsSet(random.nextInt(20) == 0, classes)
+        }
+        dependents
+    }
+
+    private static String generatedName(int index) {
+        "org.gradle.generated.package${index.intdiv(10)}.Class${index}"
+    }
+
+    // How the dependents were found before the analysis was backed by a class dependents graph
+    private static DependentsSet walkClassNameSets(Map<String, DependentsSet> dependents, String className) {
+        def deps = dependents[className]
+        if (deps.dependencyToAll) {
+            return new DependencyToAll()
+        }
+        Set<String> result = [] as Set
+        Set<String> visited = [] as Set
+        def queue = new LinkedList<String>(deps.dependentClasses)
+        while (!queue.empty) {
+            def current = queue.removeFirst()
+            if (visited.add(current)) {
+                if (!current.contains('$')) {
+                    result << current
+                }
+                queue.addAll(dependents[current].dependentClasses)
+            }
+        }
+        result.remove(className)
+        new DefaultDependentsSet(result)
+    }
+
+    private static ClassSetAnalysisData roundTrip(ClassSetAnalysisData data) {
+        def serializer = new ClassSetAnalysisData.Serializer()
+        def bytes = new ByteArrayOutputStream()
+        def encoder = new OutputStreamBackedEncoder(bytes)
+        serializer.write(encoder, data)
+        encoder.flush()
+        serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(bytes.toByteArray())))
+    }
 }
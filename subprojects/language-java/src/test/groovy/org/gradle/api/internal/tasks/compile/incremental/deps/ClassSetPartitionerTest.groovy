@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.deps
+
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class ClassSetPartitionerTest extends Specification {
+
+    List<Set<String>> partition(Map<String, DependentsSet> dependents, Collection<String> classes) {
+        new ClassSetPartitioner(new ClassSetAnalysisData(dependents)).partition(classes as Set)
+    }
+
+    def "classes that do not depend on each other end up in separate groups"() {
+        expect:
+        partition(["a": dependents(), "b": dependents()], ["a", "b"]) as Set == [["a"] as Set, ["b"] as Set] as Set
+    }
+
+    def "groups classes that depend on each other transitively"() {
+        def groups = partition([
+                "a": dependents("b"),
+                "b": dependents("c"),
+                "c": dependents(),
+                "d": dependents("e"),
+                "e": dependents()
+        ], ["a", "b", "c", "d", "e"])
+
+        expect:
+        groups as Set == [["a", "b", "c"] as Set, ["d", "e"] as Set] as Set
+    }
+
+    def "dependencies of inner classes count as dependencies of the top level class"() {
+        def groups = partition([
+                "a": dependents('b$Inner'),
+                'b$Inner': dependents(),
+                "b": dependents(),
+                'c$Other': dependents("d"),
+                "c": dependents(),
+                "d": dependents()
+        ], ["a", "b", "c", "d"])
+
+        expect:
+        groups as Set == [["a", "b"] as Set, ["c", "d"] as Set] as Set
+    }
+
+    def "dependencies on classes that are not part of the set do not join groups"() {
+        def groups = partition([
+                "lib.Util": dependents("a", "b"),
+                "a": dependents(),
+                "b": dependents()
+        ], ["a", "b"])
+
+        expect:
+        groups.size() == 2
+    }
+
+    def "cannot partition when a class is unknown to the analysis"() {
+        expect:
+        partition(["a": dependents()], ["a", "new"]) == null
+    }
+
+    def "cannot partition when a class is a dependency to all"() {
+        expect:
+        partition(["a": new DependencyToAll(), "b": dependents()], ["a", "b"]) == null
+        partition(['a$Constants': new DependencyToAll(), "a": dependents(), "b": dependents()], ["a", "b"]) == null
+    }
+
+    def "classes outside the set may be a dependency to all"() {
+        expect:
+        partition(["lib.Constants": new DependencyToAll(), "a": dependents(), "b": dependents()], ["a", "b"]).size() == 2
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.jar
+
+import org.gradle.api.file.FileTree
+import org.gradle.api.internal.hash.Hasher
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
+import spock.lang.Specification
+import spock.lang.Subject
+
+class CachingJarSnapshotterTest extends Specification {
+
+    def hasher = Mock(Hasher)
+    def cache = Mock(JarSnapshotCache)
+
+    @Subject snapshotter = new CachingJarSnapshotter(hasher, Mock(ClassDependenciesAnalyzer), cache)
+
+    def "keys cached snapshots by the content hash of the jar"() {
+        def jarFile = new File("a.jar")
+        def contents = Stub(FileTree) { matching(_) >> Stub(FileTree) }
+        def contentHash = [1, 2, 3] as byte[]
+        def cached = Stub(JarSnapshot)
+
+        when:
+        def snapshot = snapshotter.createSnapshot(new JarArchive(jarFile, contents))
+
+        then:
+        1 * hasher.hash(jarFile) >> contentHash
+        1 * cache.get(contentHash, _) >> cached
+        0 * _._
+
+        and:
+        snapshot == cached
+    }
+}
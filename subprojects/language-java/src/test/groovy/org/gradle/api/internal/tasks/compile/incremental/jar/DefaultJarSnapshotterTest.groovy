@@ -18,9 +18,11 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
+import org.gradle.api.UncheckedIOException
 import org.gradle.api.internal.file.collections.DirectoryFileTree
 import org.gradle.api.internal.file.collections.FileTreeAdapter
 import org.gradle.api.internal.hash.Hasher
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
@@ -30,6 +32,10 @@ import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
+
 @UsesNativeServices
 class DefaultJarSnapshotterTest extends Specification {
 
@@ -39,12 +45,46 @@ class DefaultJarSnapshotterTest extends Specification {
     @Subject snapshotter = new DefaultJarSnapshotter(hasher, Mock(ClassDependenciesAnalyzer))
 
     def "creates snapshot for an empty jar"() {
+        def jar = jar("a.jar", [:])
+
         expect:
-        def snapshot = snapshotter.createSnapshot(new byte[0], new JarArchive(new File("a.jar"), new FileTreeAdapter(new DirectoryFileTree(new File("missing")))))
+        def snapshot = snapshotter.createSnapshot(new byte[0], new JarArchive(jar, new FileTreeAdapter(new DirectoryFileTree(new File("missing")))))
         snapshot.hashes.isEmpty()
         snapshot.analysis
     }
 
+    def "creates snapshot by reading the classes from the jar"() {
+        def analyzer = Mock(ClassDependenciesAnalyzer)
+        snapshotter = new DefaultJarSnapshotter(hasher, analyzer)
+        def jar = jar("b.jar", ["Foo.class": "foo", "com/Foo2.class": "foo2", "com/foo.properties": "properties"])
+
+        when:
+        def snapshot = snapshotter.createSnapshot(new byte[0], new JarArchive(jar, new FileTreeAdapter(new DirectoryFileTree(new File("missing")))))
+
+        then:
+        1 * analyzer.getClassAnalysis("Foo", "foo".bytes) >> new ClassAnalysis([] as Set, false)
+        1 * analyzer.getClassAnalysis("com.Foo2", "foo2".bytes) >> new ClassAnalysis(["Foo"] as Set, false)
+        1 * hasher.hash("foo".bytes) >> new byte[1]
+        1 * hasher.hash("foo2".bytes) >> new byte[2]
+        0 * _._
+
+        and:
+        snapshot.hashes.keySet() == ["Foo", "com.Foo2"] as Set
+        snapshot.hashes["com.Foo2"] == new byte[2]
+        snapshot.analysis.getRelevantDependents("Foo").dependentClasses == ["com.Foo2"] as Set
+    }
+
+    def "fails when the jar cannot be read"() {
+        def jar = temp.file("missing.jar")
+
+        when:
+        snapshotter.createSnapshot(new byte[0], new JarArchive(jar, new FileTreeAdapter(new DirectoryFileTree(new File("missing")))))
+
+        then:
+        def e = thrown(UncheckedIOException)
+        e.message == "Could not create snapshot of ${jar}."
+    }
+
     def "creates snapshot of a jar with classes"() {
         def f1 = temp.createFile("foo/Foo.class")
         def f2 = temp.createFile("foo/com/Foo2.class")
@@ -64,4 +104,19 @@ class DefaultJarSnapshotterTest extends Specification {
         snapshot.hashes.keySet() == ["Foo", "com.Foo2"] as Set
         snapshot.analysis
     }
+
+    private File jar(String name, Map<String, String> entries) {
+        def jar = temp.file(name)
+        def output = new JarOutputStream(new FileOutputStream(jar), new Manifest())
+        try {
+            entries.each { path, content ->
+                output.putNextEntry(new JarEntry(path))
+                output.write(content.bytes)
+                output.closeEntry()
+            }
+        } finally {
+            output.close()
+        }
+        jar
+    }
 }
@@ -17,11 +17,25 @@
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
 import org.gradle.api.file.FileTree
+import org.gradle.api.internal.file.collections.DirectoryFileTree
+import org.gradle.api.internal.file.collections.FileTreeAdapter
+import org.gradle.api.internal.hash.DefaultHasher
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.UsesNativeServices
+import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+@UsesNativeServices
 class JarClasspathSnapshotFactoryTest extends Specification {
 
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+
     def snapshotter = Mock(JarSnapshotter)
     @Subject factory = new JarClasspathSnapshotFactory(snapshotter)
 
@@ -62,4 +76,97 @@ class JarClasspathSnapshotFactoryTest extends Specification {
         s.data.jarHashes[new File("f1")] == new byte[1]
         s.data.jarHashes[new File("f2")] == new byte[2]
     }
+
+    def "snapshots jars concurrently when an executor factory is available"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelFactory = new JarClasspathSnapshotFactory(snapshotter, executorFactory)
+        def jars = (1..20).collect { new JarArchive(new File("f$it"), Stub(FileTree)) }
+
+        when:
+        def s = parallelFactory.createSnapshot(jars)
+
+        then:
+        20 * snapshotter.createSnapshot(_) >> { JarArchive jar -> Stub(JarSnapshot) { getHash() >> jar.file.name.bytes; getClasses() >> [jar.file.name, "Shared"] } }
+
+        and:
+        s.data.jarHashes.size() == 20
+        s.data.jarHashes[new File("f7")] == "f7".bytes
+        s.data.duplicateClasses == ["Shared"] as Set
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def "propagates failure to snapshot a jar when snapshotting concurrently"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelFactory = new JarClasspathSnapshotFactory(snapshotter, executorFactory)
+        def jar1 = new JarArchive(new File("f1"), Stub(FileTree))
+        def jar2 = new JarArchive(new File("f2"), Stub(FileTree))
+        def failure = new RuntimeException("broken")
+
+        when:
+        parallelFactory.createSnapshot([jar1, jar2])
+
+        then:
+        _ * snapshotter.createSnapshot(jar1) >> Stub(JarSnapshot)
+        _ * snapshotter.createSnapshot(jar2) >> { throw failure }
+
+        and:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def "snapshotting jars concurrently produces the same snapshots as snapshotting them one after the other"() {
+        def hasher = new DefaultHasher()
+        def jarSnapshotter = new DefaultJarSnapshotter(hasher, new DefaultClassDependenciesAnalyzer())
+        def snapshotter = { JarArchive jar -> jarSnapshotter.createSnapshot(hasher.hash(jar.file), jar) } as JarSnapshotter
+        def classes = [JarSnapshot, JarSnapshotData, JarArchive, JarClasspathSnapshot, JarClasspathSnapshotFactory, DefaultJarSnapshotter]
+        def jars = (0..7).collect { index ->
+            // Each jar shares one class name with the next one
+            archive("lib${index}.jar", (0..3).collectEntries { offset ->
+                def path = offset == 3 ? "org/gradle/lib${index + 1}/Class0.class" : "org/gradle/lib${index}/Class${offset}.class"
+                [path.toString(), classes[(index + offset) % classes.size()]]
+            })
+        }
+        def executorFactory = new DefaultExecutorFactory()
+
+        when:
+        def sequential = new JarClasspathSnapshotFactory(snapshotter).createSnapshot(jars)
+        def concurrent = new JarClasspathSnapshotFactory(snapshotter, executorFactory).createSnapshot(jars)
+
+        then:
+        concurrent.data.duplicateClasses == sequential.data.duplicateClasses
+        !sequential.data.duplicateClasses.empty
+        concurrent.data.jarHashes.collectEntries { file, hash -> [file, hash.toList()] } == sequential.data.jarHashes.collectEntries { file, hash -> [file, hash.toList()] }
+        jars.each { jar ->
+            def expected = sequential.getSnapshot(jar)
+            def actual = concurrent.getSnapshot(jar)
+            assert actual.hash == expected.hash
+            assert actual.classes == expected.classes
+            assert actual.hashes.collectEntries { name, hash -> [name, hash.toList()] } == expected.hashes.collectEntries { name, hash -> [name, hash.toList()] }
+            expected.classes.each { className ->
+                assert actual.analysis.getRelevantDependents(className).dependentClasses == expected.analysis.getRelevantDependents(className).dependentClasses
+            }
+        }
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    private JarArchive archive(String name, Map<String, Class<?>> entries) {
+        def jar = temp.file(name)
+        jar.withOutputStream { outstr ->
+            def zip = new ZipOutputStream(outstr)
+            entries.each { path, type ->
+                zip.putNextEntry(new ZipEntry(path))
+                zip.write(type.getResourceAsStream("${type.simpleName}.class").bytes)
+                zip.closeEntry()
+            }
+            zip.finish()
+        }
+        return new JarArchive(jar, new FileTreeAdapter(new DirectoryFileTree(new File("missing"))))
+    }
 }
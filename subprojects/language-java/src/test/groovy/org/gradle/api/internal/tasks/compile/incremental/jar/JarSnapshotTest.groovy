@@ -111,4 +111,15 @@ class JarSnapshotTest extends Specification {
         s2.getAffectedClassesSince(s1).added == [] as Set
         s1.getAffectedClassesSince(s3).added == ["A", "B", "C"] as Set
     }
+
+    def "ignores changed classes whose ABI did not change"() {
+        def a1 = new ClassSetAnalysisData(["A": dependents(), "B": dependents()], ["A": [1] as byte[], "B": [2] as byte[]])
+        def a2 = new ClassSetAnalysisData(["A": dependents(), "B": dependents()], ["A": [1] as byte[], "B": [3] as byte[]])
+        JarSnapshot s1 = snapshot(["A": "A".bytes, "B": "B".bytes], a1)
+        JarSnapshot s2 = snapshot(["A": "AA".bytes, "B": "BB".bytes], a2)
+
+        expect:
+        s1.getAbiAffectedClassesSince(s2).altered.dependentClasses == ["B"] as Set
+        altered(s1, s2).dependentClasses == ["A", "B"] as Set
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class AnnotationProcessingResultTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+
+    def "writes and reads result"() {
+        def result = new AnnotationProcessingResult()
+        result.addGeneratedType("A_Builder", "A")
+        result.addGeneratedType("A_Factory", "A")
+        result.aggregatedTypes << "B"
+        result.generatedTypesDependingOnAllOthers << "Registry"
+        def file = temp.file("result/annotation-processing.bin")
+
+        when:
+        result.writeTo(file)
+        def read = AnnotationProcessingResult.readFrom(file)
+
+        then:
+        read.generatedTypesByOrigin == ["A": ["A_Builder", "A_Factory"] as Set]
+        read.aggregatedTypes == ["B"] as Set
+        read.generatedTypesDependingOnAllOthers == ["Registry"] as Set
+        read.fullRebuildCause == null
+        AnnotationProcessingResult.readFrom(temp.file("missing.bin")) == null
+    }
+
+    def "keeps the first full rebuild cause"() {
+        def result = new AnnotationProcessingResult()
+        def other = new AnnotationProcessingResult()
+        other.addGeneratedType("B_Builder", "B")
+        other.fullRebuildCause = "second"
+
+        when:
+        result.fullRebuildCause = "first"
+        result.addAll(other)
+
+        then:
+        result.fullRebuildCause == "first"
+        result.generatedTypesByOrigin == ["B": ["B_Builder"] as Set]
+        !result.empty
+        new AnnotationProcessingResult().empty
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing
+
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+import static org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDetector.INCREMENTAL_PROCESSORS_FILE
+import static org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDetector.PROCESSOR_SERVICES_FILE
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.*
+
+class AnnotationProcessorDetectorTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def spec = new DefaultJavaCompileSpec(compileOptions: new CompileOptions())
+    @Subject detector = new AnnotationProcessorDetector()
+
+    def "finds no processors on a classpath without processor services"() {
+        spec.classpath = [temp.createDir("classes"), temp.file("missing.jar")]
+
+        expect:
+        detector.detectProcessors(spec).empty
+    }
+
+    def "detects processors declared in directories and jars"() {
+        def dir = temp.createDir("processors")
+        dir.file(PROCESSOR_SERVICES_FILE).writelns("com.Isolating", "# a comment", "com.Unknown")
+        dir.file(INCREMENTAL_PROCESSORS_FILE).writelns("com.Isolating,isolating")
+        def jarContent = temp.createDir("jarContent")
+        jarContent.file(PROCESSOR_SERVICES_FILE).writelns("com.Aggregating")
+        jarContent.file(INCREMENTAL_PROCESSORS_FILE).writelns("com.Aggregating,AGGREGATING")
+        def jar = temp.file("processors.jar")
+        jarContent.zipTo(jar)
+        spec.classpath = [dir, jar]
+
+        when:
+        def processors = detector.detectProcessors(spec)
+
+        then:
+        processors*.className == ["com.Isolating", "com.Unknown", "com.Aggregating"]
+        processors*.type == [ISOLATING, UNKNOWN, AGGREGATING]
+    }
+
+    def "uses the processor path and the explicitly named processors"() {
+        def dir = temp.createDir("processors")
+        dir.file(PROCESSOR_SERVICES_FILE).writelns("com.Discovered")
+        dir.file(INCREMENTAL_PROCESSORS_FILE).writelns("com.Named,isolating")
+        spec.classpath = [temp.createDir("classes")]
+        spec.compileOptions.compilerArgs = ["-processorpath", dir.path, "-processor", "com.Named"]
+
+        when:
+        def processors = detector.detectProcessors(spec)
+
+        then:
+        processors*.className == ["com.Named"]
+        processors*.type == [ISOLATING]
+    }
+
+    def "finds no processors when annotation processing is disabled"() {
+        def dir = temp.createDir("processors")
+        dir.file(PROCESSOR_SERVICES_FILE).writelns("com.Discovered")
+        spec.classpath = [dir]
+        spec.compileOptions.compilerArgs = ["-proc:none"]
+
+        expect:
+        detector.detectProcessors(spec).empty
+    }
+
+    def "detects the processors of a compilation only once"() {
+        def dir = temp.createDir("processors")
+        dir.file(PROCESSOR_SERVICES_FILE).writelns("com.Discovered")
+        spec.classpath = [dir]
+
+        when:
+        def processors = detector.getProcessors(spec)
+
+        then:
+        processors*.className == ["com.Discovered"]
+        spec.annotationProcessors.is(processors)
+
+        when:
+        dir.file(PROCESSOR_SERVICES_FILE).delete()
+
+        then:
+        detector.getProcessors(spec).is(processors)
+    }
+}
@@ -15,39 +15,83 @@
  */
 package org.gradle.api.internal.tasks.compile.daemon;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.util.Clock;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 
+/**
+ * Keeps the compiler daemons of a build. Idle daemons are pooled and reused by compilations with compatible fork options.
+ * The pool is bounded: when too many daemons are alive or their combined maximum heap is too large, the least recently used idle daemons are stopped.
+ */
 public class CompilerClientsManager {
 
+    public static final int DEFAULT_MAX_DAEMONS = 4;
+    public static final int DEFAULT_MAX_TOTAL_HEAP_MB = 4096;
+
     private static final Logger LOGGER = Logging.getLogger(CompilerDaemonManager.class);
 
     private final Object lock = new Object();
     private final List<CompilerDaemonClient> allClients = new ArrayList<CompilerDaemonClient>();
+    //least recently used first
     private final List<CompilerDaemonClient> idleClients = new ArrayList<CompilerDaemonClient>();
+    private final ListMultimap<DaemonForkOptions, CompilerDaemonClient> idleClientsByOptions = ArrayListMultimap.create();
+
+    private final CompilerDaemonStarter compilerDaemonStarter;
+    private final int maxDaemons;
+    private final int maxTotalHeapMb;
 
-    private CompilerDaemonStarter compilerDaemonStarter;
+    private int reused;
+    private int started;
+    private int evicted;
+    private long totalStartTime;
 
     public CompilerClientsManager(CompilerDaemonStarter compilerDaemonStarter) {
+        this(compilerDaemonStarter, DEFAULT_MAX_DAEMONS, DEFAULT_MAX_TOTAL_HEAP_MB);
+    }
+
+    /**
+     * @param maxDaemons the number of daemons above which idle daemons are stopped
+     * @param maxTotalHeapMb the combined maximum heap of all daemons above which idle daemons are stopped. Daemons without an explicit maximum heap do not count.
+     */
+    public CompilerClientsManager(CompilerDaemonStarter compilerDaemonStarter, int maxDaemons, int maxTotalHeapMb) {
         this.compilerDaemonStarter = compilerDaemonStarter;
+        this.maxDaemons = maxDaemons;
+        this.maxTotalHeapMb = maxTotalHeapMb;
     }
 
     public CompilerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+        synchronized (lock) {
+            CompilerDaemonClient client;
+            List<CompilerDaemonClient> sameOptions = idleClientsByOptions.get(forkOptions);
+            if (!sameOptions.isEmpty()) {
+                client = sameOptions.get(sameOptions.size() - 1);
+                idleClients.remove(client);
+            } else {
+                client = reserveIdleClient(forkOptions, idleClients);
+            }
+            if (client != null) {
+                idleClientsByOptions.remove(client.getForkOptions(), client);
+                reused++;
+            }
+            return client;
+        }
     }
 
     CompilerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<CompilerDaemonClient> clients) {
         synchronized (lock) {
-            Iterator<CompilerDaemonClient> it = clients.iterator();
-            while(it.hasNext()) {
-                CompilerDaemonClient candidate = it.next();
-                if(candidate.isCompatibleWith(forkOptions)) {
+            //most recently used first
+            ListIterator<CompilerDaemonClient> it = clients.listIterator(clients.size());
+            while (it.hasPrevious()) {
+                CompilerDaemonClient candidate = it.previous();
+                if (candidate.isCompatibleWith(forkOptions)) {
                     it.remove();
                     return candidate;
                 }
@@ -57,26 +101,102 @@ public class CompilerClientsManager {
     }
 
     public CompilerDaemonClient reserveNewClient(File workingDir, DaemonForkOptions forkOptions) {
+        List<CompilerDaemonClient> toStop;
+        synchronized (lock) {
+            //make room for the new daemon
+            toStop = evict(1, Math.max(forkOptions.getMaxHeapSizeMb(), 0));
+        }
+        stop(toStop);
+
         //allow the daemon to be started concurrently
+        Clock clock = new Clock();
         CompilerDaemonClient client = compilerDaemonStarter.startDaemon(workingDir, forkOptions);
         synchronized (lock) {
             allClients.add(client);
+            started++;
+            totalStartTime += clock.getTimeInMs();
         }
         return client;
     }
 
     public void release(CompilerDaemonClient client) {
+        List<CompilerDaemonClient> toStop;
         synchronized (lock) {
             idleClients.add(client);
+            idleClientsByOptions.put(client.getForkOptions(), client);
+            toStop = evict(0, 0);
+        }
+        stop(toStop);
+    }
+
+    private List<CompilerDaemonClient> evict(int extraDaemons, int extraHeapMb) {
+        List<CompilerDaemonClient> toStop = new ArrayList<CompilerDaemonClient>();
+        int totalHeapMb = extraHeapMb;
+        for (CompilerDaemonClient client : allClients) {
+            totalHeapMb += heapSizeMb(client);
+        }
+        while (!idleClients.isEmpty() && (allClients.size() + extraDaemons > maxDaemons || totalHeapMb > maxTotalHeapMb)) {
+            CompilerDaemonClient leastRecentlyUsed = idleClients.remove(0);
+            idleClientsByOptions.remove(leastRecentlyUsed.getForkOptions(), leastRecentlyUsed);
+            allClients.remove(leastRecentlyUsed);
+            totalHeapMb -= heapSizeMb(leastRecentlyUsed);
+            toStop.add(leastRecentlyUsed);
+            evicted++;
+        }
+        return toStop;
+    }
+
+    private void stop(List<CompilerDaemonClient> clients) {
+        if (!clients.isEmpty()) {
+            LOGGER.info("Stopping {} least recently used compiler daemon(s) to stay within {} daemons and {}m of total heap.", clients.size(), maxDaemons, maxTotalHeapMb);
+            CompositeStoppable.stoppable(clients).stop();
         }
     }
 
+    private static int heapSizeMb(CompilerDaemonClient client) {
+        return Math.max(client.getForkOptions().getMaxHeapSizeMb(), 0);
+    }
+
     public void stop() {
         synchronized (lock) {
+            logStatistics();
             LOGGER.debug("Stopping {} compiler daemon(s).", allClients.size());
             CompositeStoppable.stoppable(allClients).stop();
             LOGGER.info("Stopped {} compiler daemon(s).", allClients.size());
             allClients.clear();
+            idleClients.clear();
+            idleClientsByOptions.clear();
+        }
+    }
+
+    private void logStatistics() {
+        int reservations = reused + started;
+        if (reservations == 0) {
+            return;
+        }
+        LOGGER.info("Compiler daemon pool: {} of {} compilations reused an idle daemon ({}% hit rate), {} daemon(s) started in {}ms in total, {} evicted.",
+                reused, reservations, reused * 100 / reservations, started, totalStartTime, evicted);
+        for (CompilerDaemonClient client : allClients) {
+            int heapSizeMb = client.getForkOptions().getMaxHeapSizeMb();
+            LOGGER.debug("Compiler daemon with {} of maximum heap and fork options {}.", heapSizeMb < 0 ? "default" : heapSizeMb + "m", client.getForkOptions());
+        }
+    }
+
+    int getReusedCount() {
+        synchronized (lock) {
+            return reused;
+        }
+    }
+
+    int getStartedCount() {
+        synchronized (lock) {
+            return started;
+        }
+    }
+
+    int getEvictedCount() {
+        synchronized (lock) {
+            return evicted;
         }
     }
-}
\ No newline at end of file
+}
@@ -64,8 +64,8 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
     }
 
     def "can stop all created clients"() {
-        def client1 = Mock(CompilerDaemonClient)
-        def client2 = Mock(CompilerDaemonClient)
+        def client1 = Mock(CompilerDaemonClient) { getForkOptions() >> options }
+        def client2 = Mock(CompilerDaemonClient) { getForkOptions() >> options }
         starter.startDaemon(workingDir, options) >>> [client1, client2]
 
         when:
@@ -79,7 +79,10 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
     }
 
     def "clients can be released for further use"() {
-        def client = Mock(CompilerDaemonClient) { isCompatibleWith(_) >> true }
+        def client = Mock(CompilerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getForkOptions() >> options
+        }
         starter.startDaemon(workingDir, options) >> client
 
         when:
@@ -94,4 +97,83 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
         then:
         manager.reserveIdleClient(options) == client
     }
+
+    def "reuses idle client with equal fork options before scanning for a compatible one"() {
+        def required = new DaemonForkOptions("128m", "1g", ["-Dfoo=bar"])
+        def compatible = client(new DaemonForkOptions("256m", "2g", ["-Dfoo=bar"]))
+        def equal = client(new DaemonForkOptions("128m", "1024m", [" -Dfoo=bar"]))
+        def pool = new CompilerClientsManager(starter, 10, 10000)
+
+        when:
+        pool.release(equal)
+        pool.release(compatible)
+
+        then:
+        pool.reserveIdleClient(required) == equal
+        pool.reserveIdleClient(required) == compatible
+        pool.reserveIdleClient(required) == null
+        pool.reusedCount == 2
+    }
+
+    def "stops least recently used idle client when too many clients are alive"() {
+        def client1 = client(new DaemonForkOptions(null, null, []))
+        def client2 = client(new DaemonForkOptions(null, null, []))
+        def client3 = client(new DaemonForkOptions(null, null, []))
+        starter.startDaemon(workingDir, _) >>> [client1, client2, client3]
+        def pool = new CompilerClientsManager(starter, 2, 10000)
+
+        when:
+        pool.reserveNewClient(workingDir, options)
+        pool.reserveNewClient(workingDir, options)
+        pool.release(client1)
+        pool.release(client2)
+        pool.reserveNewClient(workingDir, options)
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+        pool.startedCount == 3
+        pool.evictedCount == 1
+    }
+
+    def "stops least recently used idle clients when their total heap is too large"() {
+        def client1 = client(new DaemonForkOptions(null, "1g", []))
+        def client2 = client(new DaemonForkOptions(null, "512m", []))
+        def client3 = client(new DaemonForkOptions(null, "1g", []))
+        starter.startDaemon(workingDir, _) >>> [client1, client2, client3]
+        def pool = new CompilerClientsManager(starter, 10, 2048)
+
+        when:
+        [client1, client2, client3].each { pool.reserveNewClient(workingDir, it.forkOptions) }
+        pool.release(client2)
+        pool.release(client1)
+        pool.release(client3)
+
+        then:
+        1 * client2.stop()
+        0 * client1.stop()
+        0 * client3.stop()
+    }
+
+    def "does not stop clients that are in use"() {
+        def client1 = client(new DaemonForkOptions(null, null, []))
+        def client2 = client(new DaemonForkOptions(null, null, []))
+        starter.startDaemon(workingDir, _) >>> [client1, client2]
+        def pool = new CompilerClientsManager(starter, 1, 10000)
+
+        when:
+        pool.reserveNewClient(workingDir, options)
+        pool.reserveNewClient(workingDir, options)
+
+        then:
+        0 * client1.stop()
+        0 * client2.stop()
+    }
+
+    private CompilerDaemonClient client(DaemonForkOptions forkOptions) {
+        Mock(CompilerDaemonClient) {
+            getForkOptions() >> forkOptions
+            isCompatibleWith(_) >> { DaemonForkOptions required -> forkOptions.isCompatibleWith(required) }
+        }
+    }
 }
@@ -43,6 +43,19 @@ class DaemonForkOptionsTest extends Specification {
         settings1.isCompatibleWith(settings2)
     }
 
+    def "is equal to options with different representation of same settings"() {
+        def settings1 = new DaemonForkOptions("1024m", "2g", ["-server", "-esa"], [new File("lib/lib1.jar")], ["foo.bar"])
+        def settings2 = new DaemonForkOptions("1g", "2048m", [" -esa", "-server"], [new File("lib/lib1.jar")], ["foo.bar"])
+        def settings3 = new DaemonForkOptions("1g", "1g", ["-server", "-esa"], [new File("lib/lib1.jar")], ["foo.bar"])
+
+        expect:
+        settings1 == settings2
+        settings1.hashCode() == settings2.hashCode()
+        settings1 != settings3
+        settings1.maxHeapSizeMb == 2048
+        new DaemonForkOptions(null, null, []).maxHeapSizeMb == -1
+    }
+
     def "is compatible with lower memory requirements"() {
         def settings1 = new DaemonForkOptions("128m", "1g", [])
         def settings2 = new DaemonForkOptions("64m", "512m", [])
@@ -96,6 +96,7 @@ public class ZincScalaCompiler implements Compiler<ScalaJavaJointCompileSpec>, S
             if (LOGGER.isDebugEnabled()) {
                 Setup.debug(setup, logger);
             }
+            // Zinc keeps the compilers it creates, and the analysis they read, for the lifetime of the compiler daemon, keyed by the setup
             return com.typesafe.zinc.Compiler.getOrCreate(setup, logger);
         }
     }
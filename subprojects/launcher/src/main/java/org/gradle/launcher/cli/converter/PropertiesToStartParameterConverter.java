@@ -32,6 +32,18 @@ public class PropertiesToStartParameterConverter {
             startParameter.setParallelProjectExecutionEnabled(true);
         }
 
+        if (isTrue(properties.get(GradleProperties.PARALLEL_CONFIGURATION_PROPERTY))) {
+            startParameter.setParallelConfiguration(true);
+        }
+
+        if (isTrue(properties.get(GradleProperties.CONFIGURATION_CACHE_PROPERTY))) {
+            startParameter.setConfigurationCache(true);
+        }
+
+        if (isTrue(properties.get(GradleProperties.CONCURRENT_BUILD_SRC_PROPERTY))) {
+            startParameter.setConcurrentBuildSrc(true);
+        }
+
         String workers = properties.get(GradleProperties.WORKERS_PROPERTY);
         if (workers != null) {
             try {
@@ -30,10 +30,13 @@ public class GradleProperties {
     public static final String DEBUG_MODE_PROPERTY = "org.gradle.debug";
     public static final String CONFIGURE_ON_DEMAND_PROPERTY = "org.gradle.configureondemand";
     public static final String PARALLEL_PROPERTY = "org.gradle.parallel";
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.parallel.configuration";
+    public static final String CONFIGURATION_CACHE_PROPERTY = "org.gradle.configuration.cache";
+    public static final String CONCURRENT_BUILD_SRC_PROPERTY = "org.gradle.buildsrc.concurrent";
     public static final String WORKERS_PROPERTY = "org.gradle.workers.max";
 
     public static final Set<String> ALL = newHashSet(IDLE_TIMEOUT_PROPERTY, DAEMON_BASE_DIR_PROPERTY, JVM_ARGS_PROPERTY,
-            JAVA_HOME_PROPERTY, DAEMON_ENABLED_PROPERTY, DEBUG_MODE_PROPERTY, CONFIGURE_ON_DEMAND_PROPERTY, PARALLEL_PROPERTY, WORKERS_PROPERTY);
+            JAVA_HOME_PROPERTY, DAEMON_ENABLED_PROPERTY, DEBUG_MODE_PROPERTY, CONFIGURE_ON_DEMAND_PROPERTY, PARALLEL_PROPERTY, PARALLEL_CONFIGURATION_PROPERTY, CONFIGURATION_CACHE_PROPERTY, CONCURRENT_BUILD_SRC_PROPERTY, WORKERS_PROPERTY);
 
     public static boolean isTrue(Object propertyValue) {
         return propertyValue != null && propertyValue.toString().equalsIgnoreCase("true");
@@ -32,6 +32,11 @@ class PropertiesToStartParameterConverterTest extends Specification {
         converter.convert([(PARALLEL_PROPERTY): "false"], new StartParameter()).parallelThreadCount == 0
         converter.convert([(CONFIGURE_ON_DEMAND_PROPERTY): "TRUE"], new StartParameter()).configureOnDemand
         !converter.convert([(CONFIGURE_ON_DEMAND_PROPERTY): "xxx"], new StartParameter()).configureOnDemand
+        converter.convert([(PARALLEL_CONFIGURATION_PROPERTY): "true"], new StartParameter()).parallelConfiguration
+        !converter.convert([:], new StartParameter()).parallelConfiguration
+        converter.convert([(CONFIGURATION_CACHE_PROPERTY): "true"], new StartParameter()).configurationCache
+        converter.convert([(CONCURRENT_BUILD_SRC_PROPERTY): "true"], new StartParameter()).concurrentBuildSrc
+        !converter.convert([:], new StartParameter()).concurrentBuildSrc
     }
 
     def invalidMaxWorkersProperty() {
@@ -40,21 +40,23 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
         return type;
     }
 
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return handlers.isEmpty();
     }
 
-    public void add(Dispatch<MethodInvocation> dispatch) {
+    public synchronized void add(Dispatch<MethodInvocation> dispatch) {
         handlers.put(dispatch, dispatch);
     }
 
-    public void add(T listener) {
+    public synchronized void add(T listener) {
         handlers.put(listener, new ReflectionDispatch(listener));
     }
 
     public void add(String methodName, Action<?> action) {
         assertIsMethod(methodName);
-        handlers.put(action, new ActionInvocationHandler(methodName, action));
+        synchronized (this) {
+            handlers.put(action, new ActionInvocationHandler(methodName, action));
+        }
     }
 
     private void assertIsMethod(String methodName) {
@@ -67,11 +69,11 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
                 type.getSimpleName()));
     }
 
-    public void remove(Object listener) {
+    public synchronized void remove(Object listener) {
         handlers.remove(listener);
     }
 
-    public void removeAll() {
+    public synchronized void removeAll() {
         handlers.clear();
     }
 
@@ -82,7 +84,12 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
 
     public void dispatch(MethodInvocation invocation) {
         List<Throwable> failures = new ArrayList<Throwable>();
-        for (Dispatch<MethodInvocation> handler : new ArrayList<Dispatch<MethodInvocation>>(handlers.values())) {
+        // listeners may be added by other threads, for example while projects are configured concurrently, so they are notified outside of the lock
+        List<Dispatch<MethodInvocation>> current;
+        synchronized (this) {
+            current = new ArrayList<Dispatch<MethodInvocation>>(handlers.values());
+        }
+        for (Dispatch<MethodInvocation> handler : current) {
             try {
                 handler.dispatch(invocation);
             } catch (UncheckedException e) {
@@ -38,10 +38,11 @@ class TestExecutionPerformanceTest extends AbstractCrossVersionPerformanceTest {
         result.assertCurrentVersionHasNotRegressed()
 
         where:
-        testProject         | maxExecutionTimeRegression
-        "withTestNG"        | millis(1000)
-        "withJUnit"         | millis(500)
-        "withVerboseTestNG" | millis(500)
-        "withVerboseJUnit"  | millis(500)
+        testProject          | maxExecutionTimeRegression
+        "withTestNG"         | millis(1000)
+        "withJUnit"          | millis(500)
+        "withVerboseTestNG"  | millis(500)
+        "withVerboseJUnit"   | millis(500)
+        "withManyJUnitTests" | millis(1000)
     }
 }
\ No newline at end of file
@@ -16,10 +16,15 @@
 
 package org.gradle.api.internal.tasks;
 
+import org.gradle.api.internal.hash.DefaultHasher;
+import org.gradle.api.internal.hash.Hasher;
 import org.gradle.api.internal.jvm.ClassDirectoryBinaryRenderer;
 import org.gradle.api.internal.tasks.compile.daemon.InProcessCompilerDaemonFactory;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.cache.DefaultGeneralCompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.jar.DefaultJarSnapshotCache;
@@ -60,6 +65,14 @@ public class CompileServices implements PluginServiceRegistry {
             return new DefaultGeneralCompileCaches(classAnalysisCache, jarSnapshotCache);
         }
 
+        Hasher createHasher() {
+            return new DefaultHasher();
+        }
+
+        ClassDependenciesAnalyzer createClassDependenciesAnalyzer(Hasher hasher, ClassAnalysisCache classAnalysisCache) {
+            return new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(), hasher, classAnalysisCache);
+        }
+
         ClassAnalysisCache createClassAnalysisCache(CacheRepository cacheRepository) {
             return new DefaultClassAnalysisCache(cacheRepository);
         }
@@ -21,10 +21,15 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.processors.FilteringTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.ShardingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
+import org.gradle.api.internal.tasks.testing.sharding.TestShardPartitioner;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.Factory;
 import org.gradle.internal.TrueTimeProvider;
@@ -32,16 +37,31 @@ import org.gradle.internal.progress.OperationIdGenerator;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * The default test class scanner factory.
  */
 public class DefaultTestExecuter implements TestExecuter {
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final ActorFactory actorFactor;
+    private final Spec<? super String> testClassSpec;
+    private final Map<String, Long> shardDurations;
 
     public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor) {
+        this(workerFactory, actorFactor, Specs.<String>satisfyAll(), Collections.<String, Long>emptyMap());
+    }
+
+    /**
+     * @param testClassSpec selects which of the detected test classes are executed
+     * @param shardDurations the durations of test classes in previous results, used to balance the shards
+     */
+    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor, Spec<? super String> testClassSpec, Map<String, Long> shardDurations) {
         this.workerFactory = workerFactory;
         this.actorFactor = actorFactor;
+        this.testClassSpec = testClassSpec;
+        this.shardDurations = shardDurations;
     }
 
     public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
@@ -50,7 +70,7 @@ public class DefaultTestExecuter implements TestExecuter {
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(workerFactory, testInstanceFactory, testTask,
-                    testTask.getClasspath(), testFramework.getWorkerConfigurationAction());
+                    testTask.getClasspath(), testFramework.getWorkerConfigurationAction(), testTask.getResetClassLoaderEvery());
             }
         };
         Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
@@ -61,6 +81,12 @@ public class DefaultTestExecuter implements TestExecuter {
 
         TestClassProcessor processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
             reforkingProcessorFactory, actorFactor);
+        if (testClassSpec != Specs.SATISFIES_ALL) {
+            processor = new FilteringTestClassProcessor(processor, testClassSpec);
+        }
+        if (testTask.getShardCount() > 1) {
+            processor = new ShardingTestClassProcessor(processor, new TestShardPartitioner(testTask.getShardCount(), shardDurations), testTask.getShardIndex());
+        }
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.tasks.compile.incremental.deps.AffectedClasses;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.specs.Spec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Selects the test classes that need to run given the state of the previous execution.
+ * A test class is selected when it, or any class it transitively depends on, changed, or when it did not pass last time.
+ */
+public class AffectedTestClasses implements Spec<String> {
+
+    private final String fullRebuildCause;
+    private final Set<String> affected;
+    private final Set<String> previouslyPassed;
+
+    private AffectedTestClasses(String fullRebuildCause, Set<String> affected, Set<String> previouslyPassed) {
+        this.fullRebuildCause = fullRebuildCause;
+        this.affected = affected;
+        this.previouslyPassed = previouslyPassed;
+    }
+
+    public static AffectedTestClasses between(@Nullable TestImpactData previous, TestImpactSnapshot current) {
+        if (previous == null) {
+            return all("no test impact data is available from the previous execution");
+        }
+        if (!Arrays.equals(previous.snapshot.getResourcesHash(), current.getResourcesHash())) {
+            return all("a jar or resource on the test runtime classpath has changed");
+        }
+        AffectedClasses affectedClasses = current.getClasses().getAffectedClassesSince(previous.snapshot.getClasses());
+        DependentsSet altered = affectedClasses.getAltered();
+        if (altered.isDependencyToAll()) {
+            String description = altered.getDescription();
+            return all(description != null ? description : "a changed class is a dependency to all other classes");
+        }
+        Set<String> affected = new HashSet<String>(altered.getDependentClasses());
+        affected.addAll(affectedClasses.getAdded());
+        return new AffectedTestClasses(null, affected, previous.passedTestClasses);
+    }
+
+    public static AffectedTestClasses all(String reason) {
+        return new AffectedTestClasses(reason, Collections.<String>emptySet(), Collections.<String>emptySet());
+    }
+
+    public boolean isSatisfiedBy(String testClassName) {
+        if (fullRebuildCause != null || !previouslyPassed.contains(testClassName)) {
+            return true;
+        }
+        return affected.contains(testClassName) || affected.contains(outerClassName(testClassName));
+    }
+
+    /**
+     * @return the reason why all test classes are selected, or null when only the affected ones are
+     */
+    @Nullable
+    public String getFullRebuildCause() {
+        return fullRebuildCause;
+    }
+
+    /**
+     * @return the test classes that passed previously and are not selected for this execution
+     */
+    public Set<String> getUnaffectedPassedClasses() {
+        Set<String> result = new HashSet<String>();
+        for (String testClassName : previouslyPassed) {
+            if (!isSatisfiedBy(testClassName)) {
+                result.add(testClassName);
+            }
+        }
+        return result;
+    }
+
+    private static String outerClassName(String className) {
+        int index = className.indexOf('$');
+        return index < 0 ? className : className.substring(0, index);
+    }
+}
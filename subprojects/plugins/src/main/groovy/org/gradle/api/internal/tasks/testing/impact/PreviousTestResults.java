@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.junit.result.*;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The binary results of the previous execution of a test task. When only the affected test classes are executed, the results of the other
+ * test classes are carried over from here, so that the reports and the durations used to balance shards still include them.
+ */
+public class PreviousTestResults {
+    private final File resultsDir;
+
+    private PreviousTestResults(File resultsDir) {
+        this.resultsDir = resultsDir;
+    }
+
+    /**
+     * Moves the given binary results directory to the given location, so that the task can write its new results.
+     */
+    public static PreviousTestResults moveTo(File binResultsDir, File resultsDir) {
+        GFileUtils.deleteDirectory(resultsDir);
+        if (binResultsDir.isDirectory()) {
+            GFileUtils.moveDirectory(binResultsDir, resultsDir);
+        }
+        return new PreviousTestResults(resultsDir);
+    }
+
+    /**
+     * Adds the previous results and output of the given test classes, unless they were executed again, then deletes the previous results.
+     */
+    public void carryOver(Set<String> testClassNames, Map<String, TestClassResult> results, TestOutputStore.Writer outputWriter) {
+        try {
+            TestResultSerializer serializer = new TestResultSerializer(resultsDir);
+            if (!serializer.isHasResults()) {
+                return;
+            }
+            final List<TestClassResult> previousResults = new ArrayList<TestClassResult>();
+            serializer.read(new Action<TestClassResult>() {
+                public void execute(TestClassResult classResult) {
+                    previousResults.add(classResult);
+                }
+            });
+
+            long nextId = nextId(results.values());
+            TestOutputStore.Reader outputReader = new TestOutputStore(resultsDir).reader();
+            try {
+                for (TestClassResult previous : previousResults) {
+                    String className = previous.getClassName();
+                    if (!testClassNames.contains(className) || results.containsKey(className)) {
+                        continue;
+                    }
+                    TestClassResult classResult = new TestClassResult(nextId++, className, previous.getStartTime());
+                    copyOutput(outputReader, previous.getId(), 0, outputWriter, classResult.getId(), 0);
+                    for (TestMethodResult previousMethod : previous.getResults()) {
+                        TestMethodResult methodResult = new TestMethodResult(nextId++, previousMethod.getName(), previousMethod.getResultType(), previousMethod.getDuration(), previousMethod.getEndTime());
+                        for (TestFailure failure : previousMethod.getFailures()) {
+                            methodResult.addFailure(failure.getMessage(), failure.getStackTrace(), failure.getExceptionType());
+                        }
+                        classResult.add(methodResult);
+                        copyOutput(outputReader, previous.getId(), previousMethod.getId(), outputWriter, classResult.getId(), methodResult.getId());
+                    }
+                    results.put(className, classResult);
+                }
+            } finally {
+                CompositeStoppable.stoppable(outputReader).stop();
+            }
+        } finally {
+            GFileUtils.deleteDirectory(resultsDir);
+        }
+    }
+
+    private static long nextId(Iterable<TestClassResult> results) {
+        long maxId = 0;
+        for (TestClassResult classResult : results) {
+            maxId = Math.max(maxId, classResult.getId());
+            for (TestMethodResult methodResult : classResult.getResults()) {
+                maxId = Math.max(maxId, methodResult.getId());
+            }
+        }
+        return maxId + 1;
+    }
+
+    private static void copyOutput(TestOutputStore.Reader reader, long classId, long testId, TestOutputStore.Writer writer, long newClassId, long newTestId) {
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            StringWriter output = new StringWriter();
+            if (testId == 0) {
+                reader.writeNonTestOutput(classId, destination, output);
+            } else {
+                reader.writeTestOutput(classId, testId, destination, output);
+            }
+            if (output.getBuffer().length() > 0) {
+                writer.onOutput(newClassId, newTestId, new DefaultTestOutputEvent(destination, output.toString()));
+            }
+        }
+    }
+}
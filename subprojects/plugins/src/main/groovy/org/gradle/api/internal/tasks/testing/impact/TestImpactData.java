@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotData;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotDataSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.SetSerializer;
+
+import java.util.Set;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * The state of a test task that is kept between executions when only the affected tests are selected.
+ */
+public class TestImpactData {
+
+    final TestImpactSnapshot snapshot;
+    final Set<String> passedTestClasses;
+
+    /**
+     * @param snapshot of the test runtime classpath
+     * @param passedTestClasses test classes that passed and were not affected by any change since
+     */
+    public TestImpactData(TestImpactSnapshot snapshot, Set<String> passedTestClasses) {
+        assert snapshot != null;
+        assert passedTestClasses != null;
+
+        this.snapshot = snapshot;
+        this.passedTestClasses = passedTestClasses;
+    }
+
+    public TestImpactSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Set<String> getPassedTestClasses() {
+        return passedTestClasses;
+    }
+
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<TestImpactData> {
+
+        private final JarSnapshotDataSerializer classesSerializer = new JarSnapshotDataSerializer();
+        private final SetSerializer<String> setSerializer = new SetSerializer<String>(STRING_SERIALIZER, false);
+
+        public TestImpactData read(Decoder decoder) throws Exception {
+            byte[] resourcesHash = decoder.readBinary();
+            JarSnapshotData classes = classesSerializer.read(decoder);
+            Set<String> passedTestClasses = setSerializer.read(decoder);
+            return new TestImpactData(new TestImpactSnapshot(resourcesHash, new JarSnapshot(classes)), passedTestClasses);
+        }
+
+        public void write(Encoder encoder, TestImpactData value) throws Exception {
+            encoder.writeBinary(value.snapshot.getResourcesHash());
+            classesSerializer.write(encoder, value.snapshot.getClasses().getData());
+            setSerializer.write(encoder, value.passedTestClasses);
+        }
+    }
+}
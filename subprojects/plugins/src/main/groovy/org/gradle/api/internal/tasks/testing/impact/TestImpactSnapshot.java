@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
+
+/**
+ * Snapshot of a test runtime classpath. Class files from class directories are tracked individually,
+ * together with their dependency analysis. Jars and resources are only tracked as a single hash.
+ */
+public class TestImpactSnapshot {
+
+    private final byte[] resourcesHash;
+    private final JarSnapshot classes;
+
+    public TestImpactSnapshot(byte[] resourcesHash, JarSnapshot classes) {
+        this.resourcesHash = resourcesHash;
+        this.classes = classes;
+    }
+
+    /**
+     * @return combined hash of all jars and non-class files on the classpath
+     */
+    public byte[] getResourcesHash() {
+        return resourcesHash;
+    }
+
+    /**
+     * @return hashes and dependency analysis of all classes found in classpath directories
+     */
+    public JarSnapshot getClasses() {
+        return classes;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.hash.Hasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotData;
+import org.gradle.internal.UncheckedException;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+public class TestImpactSnapshotter {
+
+    private final FileOperations fileOperations;
+    private final Hasher hasher;
+    private final ClassDependenciesAnalyzer analyzer;
+
+    public TestImpactSnapshotter(FileOperations fileOperations, Hasher hasher, ClassDependenciesAnalyzer analyzer) {
+        this.fileOperations = fileOperations;
+        this.hasher = hasher;
+        this.analyzer = analyzer;
+    }
+
+    public TestImpactSnapshot createSnapshot(Iterable<File> classpath) {
+        final Map<String, byte[]> classHashes = new HashMap<String, byte[]>();
+        final SortedMap<String, byte[]> resourceHashes = new TreeMap<String, byte[]>();
+        final ClassFilesAnalyzer classFilesAnalyzer = new ClassFilesAnalyzer(analyzer);
+
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                fileOperations.fileTree(file).visit(new FileVisitor() {
+                    public void visitDir(FileVisitDetails dirDetails) {
+                    }
+
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        String path = fileDetails.getPath();
+                        if (path.endsWith(".class")) {
+                            classFilesAnalyzer.visitFile(fileDetails);
+                            String className = path.replaceAll("/", ".").replaceAll("\\.class$", "");
+                            classHashes.put(className, hasher.hash(fileDetails.getFile()));
+                        } else {
+                            resourceHashes.put(path, hasher.hash(fileDetails.getFile()));
+                        }
+                    }
+                });
+            } else if (file.isFile()) {
+                resourceHashes.put(file.getAbsolutePath(), hasher.hash(file));
+            }
+        }
+
+        byte[] resourcesHash = combine(resourceHashes);
+        JarSnapshot classes = new JarSnapshot(new JarSnapshotData(resourcesHash, classHashes, classFilesAnalyzer.getAnalysis()));
+        return new TestImpactSnapshot(resourcesHash, classes);
+    }
+
+    private static byte[] combine(SortedMap<String, byte[]> hashes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        for (Map.Entry<String, byte[]> entry : hashes.entrySet()) {
+            digest.update(entry.getKey().getBytes());
+            digest.update(entry.getValue());
+        }
+        return digest.digest();
+    }
+}
@@ -21,6 +21,8 @@ import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.results.AttachParentTestResultProcessor;
 import org.gradle.internal.TimeProvider;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.messaging.actor.Actor;
 import org.gradle.messaging.actor.ActorFactory;
@@ -33,38 +35,88 @@ public class JUnitTestClassProcessor implements TestClassProcessor {
     private final ActorFactory actorFactory;
     private final TimeProvider timeProvider;
     private final JUnitSpec spec;
+    private final ExecutorFactory executorFactory;
+    private final int maxParallelTestClasses;
+    private ClassLoader applicationClassLoader;
+    private TestResultProcessor resultProcessor;
     private JUnitTestClassExecuter executer;
     private Actor resultProcessorActor;
+    private StoppableExecutor executor;
 
     public JUnitTestClassProcessor(JUnitSpec spec, IdGenerator<?> idGenerator, ActorFactory actorFactory, TimeProvider timeProvider) {
+        this(spec, idGenerator, actorFactory, timeProvider, null, 1);
+    }
+
+    /**
+     * @param maxParallelTestClasses the maximum number of test classes to execute concurrently. When greater than 1, the test classes are executed
+     * using an executor created by the given executor factory.
+     */
+    public JUnitTestClassProcessor(JUnitSpec spec, IdGenerator<?> idGenerator, ActorFactory actorFactory, TimeProvider timeProvider, ExecutorFactory executorFactory, int maxParallelTestClasses) {
         this.idGenerator = idGenerator;
         this.spec = spec;
         this.actorFactory = actorFactory;
         this.timeProvider = timeProvider;
+        this.executorFactory = executorFactory;
+        this.maxParallelTestClasses = maxParallelTestClasses;
     }
 
     public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+        applicationClassLoader = Thread.currentThread().getContextClassLoader();
+        if (maxParallelTestClasses > 1) {
+            executor = executorFactory.create("Test class executor", maxParallelTestClasses);
+        } else {
+            resultProcessorActor = createResultProcessorActor();
+            executer = createExecuter(resultProcessorActor);
+        }
+    }
+
+    public void processTestClass(final TestClassRunInfo testClass) {
+        if (executor == null) {
+            LOGGER.debug("Executing test class {}", testClass.getTestClassName());
+            executer.execute(testClass.getTestClassName());
+            return;
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                LOGGER.debug("Executing test class {}", testClass.getTestClassName());
+                // The event generator tracks the test class that is currently executing, so each test class gets its own chain
+                Actor actor = createResultProcessorActor();
+                ClassLoader previousContextClassLoader = Thread.currentThread().getContextClassLoader();
+                Thread.currentThread().setContextClassLoader(applicationClassLoader);
+                try {
+                    createExecuter(actor).execute(testClass.getTestClassName());
+                } finally {
+                    Thread.currentThread().setContextClassLoader(previousContextClassLoader);
+                    actor.stop();
+                }
+            }
+        });
+    }
+
+    public void stop() {
+        if (executor != null) {
+            executor.stop();
+        } else {
+            resultProcessorActor.stop();
+        }
+    }
+
+    private Actor createResultProcessorActor() {
         // Build a result processor chain
-        ClassLoader applicationClassLoader = Thread.currentThread().getContextClassLoader();
         TestResultProcessor resultProcessorChain = new AttachParentTestResultProcessor(resultProcessor);
         TestClassExecutionEventGenerator eventGenerator = new TestClassExecutionEventGenerator(resultProcessorChain, idGenerator, timeProvider);
 
         // Wrap the result processor chain up in a blocking actor, to make the whole thing thread-safe
-        resultProcessorActor = actorFactory.createBlockingActor(eventGenerator);
+        return actorFactory.createBlockingActor(eventGenerator);
+    }
+
+    private JUnitTestClassExecuter createExecuter(Actor resultProcessorActor) {
         TestResultProcessor threadSafeResultProcessor = resultProcessorActor.getProxy(TestResultProcessor.class);
         TestClassExecutionListener threadSafeTestClassListener = resultProcessorActor.getProxy(TestClassExecutionListener.class);
 
         // Build the JUnit adaptor stuff
         JUnitTestEventAdapter junitEventAdapter = new JUnitTestEventAdapter(threadSafeResultProcessor, timeProvider, idGenerator);
-        executer = new JUnitTestClassExecuter(applicationClassLoader, spec, junitEventAdapter, threadSafeTestClassListener);
-    }
-
-    public void processTestClass(TestClassRunInfo testClass) {
-        LOGGER.debug("Executing test class {}", testClass.getTestClassName());
-        executer.execute(testClass.getTestClassName());
-    }
-
-    public void stop() {
-        resultProcessorActor.stop();
+        return new JUnitTestClassExecuter(applicationClassLoader, spec, junitEventAdapter, threadSafeTestClassListener);
     }
 }
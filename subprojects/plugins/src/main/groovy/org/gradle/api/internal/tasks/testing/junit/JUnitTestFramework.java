@@ -28,6 +28,7 @@ import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.api.tasks.testing.junit.JUnitOptions;
 import org.gradle.internal.TimeProvider;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.messaging.actor.ActorFactory;
@@ -40,8 +41,10 @@ public class JUnitTestFramework implements TestFramework {
     private final JUnitDetector detector;
     private final DefaultTestFilter filter;
     private final TestClassLoaderFactory classLoaderFactory;
+    private final Test testTask;
 
     public JUnitTestFramework(Test testTask, DefaultTestFilter filter, ClassLoaderCache classLoaderCache) {
+        this.testTask = testTask;
         this.filter = filter;
         options = new JUnitOptions();
         detector = new JUnitDetector(new ClassFileExtractionManager(testTask.getTemporaryDirFactory()));
@@ -51,7 +54,8 @@ public class JUnitTestFramework implements TestFramework {
     public WorkerTestClassProcessorFactory getProcessorFactory() {
         verifyJUnitCategorySupport();
         verifyJUnitFilteringSupport();
-        return new TestClassProcessorFactoryImpl(new JUnitSpec(options.getIncludeCategories(), options.getExcludeCategories(), filter.getIncludePatterns()));
+        return new TestClassProcessorFactoryImpl(new JUnitSpec(options.getIncludeCategories(), options.getExcludeCategories(), filter.getIncludePatterns()),
+                testTask.getMaxParallelTestClassesPerFork());
     }
 
     private void verifyJUnitCategorySupport() {
@@ -111,13 +115,16 @@ public class JUnitTestFramework implements TestFramework {
 
     private static class TestClassProcessorFactoryImpl implements WorkerTestClassProcessorFactory, Serializable {
         private final JUnitSpec spec;
+        private final int maxParallelTestClasses;
 
-        public TestClassProcessorFactoryImpl(JUnitSpec spec) {
+        public TestClassProcessorFactoryImpl(JUnitSpec spec, int maxParallelTestClasses) {
             this.spec = spec;
+            this.maxParallelTestClasses = maxParallelTestClasses;
         }
 
         public TestClassProcessor create(ServiceRegistry serviceRegistry) {
-            return new JUnitTestClassProcessor(spec, serviceRegistry.get(IdGenerator.class), serviceRegistry.get(ActorFactory.class), serviceRegistry.get(TimeProvider.class));
+            return new JUnitTestClassProcessor(spec, serviceRegistry.get(IdGenerator.class), serviceRegistry.get(ActorFactory.class), serviceRegistry.get(TimeProvider.class),
+                    serviceRegistry.get(ExecutorFactory.class), maxParallelTestClasses);
         }
     }
 }
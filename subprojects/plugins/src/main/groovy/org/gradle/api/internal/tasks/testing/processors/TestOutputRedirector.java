@@ -34,8 +34,8 @@ class TestOutputRedirector {
     }
 
     void startRedirecting() {
-        assert outForwarder.outputOwner != null;
-        assert errForwarder.outputOwner != null;
+        assert outForwarder.getOutputOwner() != null;
+        assert errForwarder.getOutputOwner() != null;
 
         redirector.redirectStandardOutputTo(outForwarder);
         redirector.redirectStandardErrorTo(errForwarder);
@@ -54,21 +54,37 @@ class TestOutputRedirector {
         if (System.err != null) {
             System.err.flush();
         }
-        outForwarder.outputOwner = testId;
-        errForwarder.outputOwner = testId;
+        outForwarder.setOutputOwner(testId);
+        errForwarder.setOutputOwner(testId);
     }
 
+    /**
+     * Forwards output to the test that owns the writing thread. Tests executing concurrently each set the owner of their own thread, and threads
+     * started by a test inherit its owner. Output from any other thread goes to the owner that was set last.
+     */
     static class Forwarder implements StandardOutputListener {
         final TestResultProcessor processor;
         final TestOutputEvent.Destination dest;
-        Object outputOwner;
+        private final ThreadLocal<Object> threadOutputOwner = new InheritableThreadLocal<Object>();
+        private volatile Object defaultOutputOwner;
 
         public Forwarder(TestResultProcessor processor, TestOutputEvent.Destination dest) {
             this.processor = processor;
             this.dest = dest;
         }
 
+        Object getOutputOwner() {
+            Object outputOwner = threadOutputOwner.get();
+            return outputOwner != null ? outputOwner : defaultOutputOwner;
+        }
+
+        void setOutputOwner(Object testId) {
+            threadOutputOwner.set(testId);
+            defaultOutputOwner = testId;
+        }
+
         public void onOutput(CharSequence output) {
+            Object outputOwner = getOutputOwner();
             if (outputOwner == null) {
                 throw new RuntimeException("Unable send output event from test executor. Please report this problem. Destination: " + dest + ", event: " + output.toString());
             }
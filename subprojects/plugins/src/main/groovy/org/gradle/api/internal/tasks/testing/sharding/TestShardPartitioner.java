@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.sharding;
+
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.util.GUtil;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Assigns test classes to a fixed number of shards with a similar total duration. The test classes that have a duration in previous results are
+ * split up front, heaviest first, each into the shard with the lowest total so far. Any other test class is assigned by a hash of its name, so
+ * that every test class can be assigned as soon as it is found. The assignment only depends on the class name and the given durations, so every
+ * shard that is given the same durations computes the same assignment.
+ *
+ * <p>The results of each shard record the number of shards and a hash of the durations used, so that results of shards that were split differently
+ * are not combined without notice.</p>
+ */
+public class TestShardPartitioner {
+    private static final String SHARD_INFO_FILE = "shard.properties";
+    private static final String SHARD_INDEX = "shardIndex";
+    private static final String SHARD_COUNT = "shardCount";
+    private static final String DURATIONS_HASH = "durationsHash";
+
+    private final int shardCount;
+    private final Map<String, Integer> knownAssignments = new HashMap<String, Integer>();
+
+    public TestShardPartitioner(int shardCount, Map<String, Long> durations) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be > 0");
+        }
+        this.shardCount = shardCount;
+        assignKnown(durations);
+    }
+
+    /**
+     * Reads the total duration of each test class from the given binary test result directories. When a class appears in multiple directories, the last one wins.
+     */
+    public static Map<String, Long> readDurations(Iterable<File> resultDirs) {
+        final Map<String, Long> durations = new HashMap<String, Long>();
+        for (File resultDir : resultDirs) {
+            new TestResultSerializer(resultDir).read(new Action<TestClassResult>() {
+                public void execute(TestClassResult classResult) {
+                    long duration = 0;
+                    for (TestMethodResult methodResult : classResult.getResults()) {
+                        duration += methodResult.getDuration();
+                    }
+                    durations.put(classResult.getClassName(), duration);
+                }
+            });
+        }
+        return durations;
+    }
+
+    /**
+     * Records in the given binary results directory which shard the results belong to, and the durations used to split the test classes.
+     */
+    public static void writeShardInfo(File resultsDir, int shardIndex, int shardCount, Map<String, Long> durations) {
+        Properties properties = new Properties();
+        properties.setProperty(SHARD_INDEX, String.valueOf(shardIndex));
+        properties.setProperty(SHARD_COUNT, String.valueOf(shardCount));
+        properties.setProperty(DURATIONS_HASH, hashDurations(durations));
+        GUtil.saveProperties(properties, new File(resultsDir, SHARD_INFO_FILE));
+    }
+
+    /**
+     * Fails when the given binary results directories come from shards that were split differently, as some test classes may then have been
+     * executed by more than one of the shards or by none of them. Directories that do not come from a shard are ignored.
+     */
+    public static void checkSameSplit(Iterable<File> resultDirs) {
+        File first = null;
+        String firstSplit = null;
+        for (File resultDir : resultDirs) {
+            File infoFile = new File(resultDir, SHARD_INFO_FILE);
+            if (!infoFile.isFile()) {
+                continue;
+            }
+            Properties properties = GUtil.loadProperties(infoFile);
+            String split = properties.getProperty(SHARD_COUNT) + ":" + properties.getProperty(DURATIONS_HASH);
+            if (first == null) {
+                first = resultDir;
+                firstSplit = split;
+            } else if (!split.equals(firstSplit)) {
+                throw new GradleException(String.format("Cannot combine the test results in %s and %s, as they come from shards that were split using a different "
+                    + "number of shards or different duration results. Some test classes may have been executed by more than one shard or by none.", first, resultDir));
+            }
+        }
+    }
+
+    static String hashDurations(Map<String, Long> durations) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Long> entry : new TreeMap<String, Long>(durations).entrySet()) {
+            builder.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        return HashUtil.createHash(builder.toString(), "MD5").asHexString();
+    }
+
+    /**
+     * @return the index of the shard the given test class belongs to
+     */
+    public int shardOf(String testClassName) {
+        Integer shard = knownAssignments.get(testClassName);
+        if (shard != null) {
+            return shard;
+        }
+        return (testClassName.hashCode() & Integer.MAX_VALUE) % shardCount;
+    }
+
+    /**
+     * @return the test classes of each shard, indexed by shard
+     */
+    public List<Set<String>> partition(Collection<String> testClassNames) {
+        List<Set<String>> shards = new ArrayList<Set<String>>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new TreeSet<String>());
+        }
+        for (String className : testClassNames) {
+            shards.get(shardOf(className)).add(className);
+        }
+        return shards;
+    }
+
+    private void assignKnown(final Map<String, Long> durations) {
+        List<String> classNames = new ArrayList<String>(durations.keySet());
+        Collections.sort(classNames, new Comparator<String>() {
+            public int compare(String left, String right) {
+                int result = weight(durations, right).compareTo(weight(durations, left));
+                return result != 0 ? result : left.compareTo(right);
+            }
+        });
+
+        long[] totals = new long[shardCount];
+        for (String className : classNames) {
+            int lightest = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (totals[i] < totals[lightest]) {
+                    lightest = i;
+                }
+            }
+            knownAssignments.put(className, lightest);
+            totals[lightest] += weight(durations, className);
+        }
+    }
+
+    private static Long weight(Map<String, Long> durations, String className) {
+        return Math.max(1, durations.get(className));
+    }
+}
@@ -41,10 +41,22 @@ public class TestNGSpec implements Serializable {
     private final String configFailurePolicy;
 
     public TestNGSpec(TestNGOptions options, DefaultTestFilter filter) {
+        this(options, filter, 1);
+    }
+
+    /**
+     * @param maxParallelTestClasses the number of test classes to execute concurrently when the options do not specify a parallel mode
+     */
+    public TestNGSpec(TestNGOptions options, DefaultTestFilter filter, int maxParallelTestClasses) {
         this.defaultSuiteName = options.getSuiteName();
         this.defaultTestName = options.getTestName();
-        this.parallel = options.getParallel();
-        this.threadCount = options.getThreadCount();
+        if (options.getParallel() == null && maxParallelTestClasses > 1) {
+            this.parallel = "classes";
+            this.threadCount = maxParallelTestClasses;
+        } else {
+            this.parallel = options.getParallel();
+            this.threadCount = options.getThreadCount();
+        }
         this.annotations = options.getAnnotations();
         this.javadocAnnotations = options.getJavadocAnnotations();
         this.testResources = options.getTestResources();
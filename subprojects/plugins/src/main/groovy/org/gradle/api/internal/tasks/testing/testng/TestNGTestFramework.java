@@ -72,7 +72,7 @@ public class TestNGTestFramework implements TestFramework {
         verifyConfigFailurePolicy();
         options.setTestResources(testTask.getTestSrcDirs());
         List<File> suiteFiles = options.getSuites(testTask.getTemporaryDir());
-        return new TestClassProcessorFactoryImpl(options.getOutputDirectory(), new TestNGSpec(options, filter), suiteFiles);
+        return new TestClassProcessorFactoryImpl(options.getOutputDirectory(), new TestNGSpec(options, filter, testTask.getMaxParallelTestClassesPerFork()), suiteFiles);
     }
 
     private void verifyConfigFailurePolicy() {
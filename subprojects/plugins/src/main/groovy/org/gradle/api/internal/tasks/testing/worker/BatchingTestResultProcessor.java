@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Collects test events into batches that are sent to the build process once they reach a size threshold, or once the oldest
+ * event in the batch reaches an age threshold. Thread-safe.
+ */
+public class BatchingTestResultProcessor implements TestResultProcessor, Stoppable {
+    private final RemoteTestEventBatchProcessor target;
+    private final TimeProvider timeProvider;
+    private final int maxBatchSize;
+    private final long maxBatchDelay;
+    private final TestEventBatchWriter writer = new TestEventBatchWriter();
+    private long batchStartTime;
+    private boolean stopped;
+
+    /**
+     * @param maxBatchSize the approximate number of bytes at which a batch is sent
+     * @param maxBatchDelay the number of milliseconds after which a batch is sent, regardless of its size
+     */
+    public BatchingTestResultProcessor(RemoteTestEventBatchProcessor target, TimeProvider timeProvider, int maxBatchSize, long maxBatchDelay) {
+        this.target = target;
+        this.timeProvider = timeProvider;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelay = maxBatchDelay;
+    }
+
+    /**
+     * Starts sending batches that reach the age threshold using the given executor.
+     */
+    public void startFlushing(Executor executor) {
+        executor.execute(new Runnable() {
+            public void run() {
+                flushPeriodically();
+            }
+        });
+    }
+
+    public synchronized void started(TestDescriptorInternal test, TestStartEvent event) {
+        beforeEvent();
+        writer.started(test, event);
+        afterEvent();
+    }
+
+    public synchronized void completed(Object testId, TestCompleteEvent event) {
+        beforeEvent();
+        writer.completed(testId, event);
+        afterEvent();
+    }
+
+    public synchronized void output(Object testId, TestOutputEvent event) {
+        beforeEvent();
+        writer.output(testId, event);
+        afterEvent();
+    }
+
+    public synchronized void failure(Object testId, Throwable result) {
+        beforeEvent();
+        writer.failure(testId, result);
+        afterEvent();
+    }
+
+    /**
+     * Sends any pending events.
+     */
+    public synchronized void flush() {
+        if (!writer.isEmpty()) {
+            target.processBatch(writer.takeBatch());
+        }
+    }
+
+    /**
+     * Sends any pending events and stops the periodic flushing.
+     */
+    public synchronized void stop() {
+        flush();
+        stopped = true;
+        notifyAll();
+    }
+
+    private void beforeEvent() {
+        if (writer.isEmpty()) {
+            batchStartTime = timeProvider.getCurrentTime();
+        }
+    }
+
+    private void afterEvent() {
+        if (writer.getSize() >= maxBatchSize || timeProvider.getCurrentTime() - batchStartTime >= maxBatchDelay) {
+            flush();
+        }
+    }
+
+    private synchronized void flushPeriodically() {
+        try {
+            while (!stopped) {
+                if (!writer.isEmpty() && timeProvider.getCurrentTime() - batchStartTime >= maxBatchDelay) {
+                    flush();
+                }
+                wait(maxBatchDelay);
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.gradle.process.internal.WorkerProcess;
 import org.gradle.process.internal.WorkerProcessBuilder;
 
 import java.io.File;
+import java.util.ArrayList;
 
 public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Factory<WorkerProcessBuilder> workerFactory;
@@ -35,16 +36,26 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final JavaForkOptions options;
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
+    private final long resetClassLoaderEvery;
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
     private TestResultProcessor resultProcessor;
 
     public ForkingTestClassProcessor(Factory<WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction) {
+        this(workerFactory, processorFactory, options, classPath, buildConfigAction, 0);
+    }
+
+    /**
+     * @param resetClassLoaderEvery the number of test classes after which the worker loads the application classes again, or 0 to never load them again
+     */
+    public ForkingTestClassProcessor(Factory<WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction,
+                                     long resetClassLoaderEvery) {
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
         this.options = options;
         this.classPath = classPath;
         this.buildConfigAction = buildConfigAction;
+        this.resetClassLoaderEvery = resetClassLoaderEvery;
     }
 
     public void startProcessing(TestResultProcessor resultProcessor) {
@@ -64,7 +75,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         builder.setBaseName("Gradle Test Executor");
         builder.applicationClasspath(classPath);
         builder.setLoadApplicationInSystemClassLoader(true);
-        builder.worker(new TestWorker(processorFactory));
+        builder.worker(new TestWorker(processorFactory, resetClassLoaderEvery, new ArrayList<File>(builder.getApplicationClasspath())));
         options.copyTo(builder.getJavaCommand());
         buildConfigAction.execute(builder);
 
@@ -73,7 +84,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializer(new TestEventSerializer());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        connection.addIncoming(RemoteTestEventBatchProcessor.class, new TestEventBatchReceiver(resultProcessor));
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.messaging.dispatch.ContextClassLoaderProxy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executes test classes with a new class loader for the application classes, so that their static state does not outlive the group of test classes
+ * executed by this processor. Only the classes found in directories of the application classpath are loaded again. The classes in jars, which
+ * include the test framework, are shared with the application class loader of the worker.
+ */
+public class IsolatedClassLoaderTestClassProcessor implements TestClassProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IsolatedClassLoaderTestClassProcessor.class);
+    private final Factory<TestClassProcessor> factory;
+    private final ClassLoader applicationClassLoader;
+    private final Iterable<File> applicationClasspath;
+    private final String displayName;
+    private TestClassProcessor processor;
+    private int testClassCount;
+
+    public IsolatedClassLoaderTestClassProcessor(Factory<TestClassProcessor> factory, ClassLoader applicationClassLoader, Iterable<File> applicationClasspath, String displayName) {
+        this.factory = factory;
+        this.applicationClassLoader = applicationClassLoader;
+        this.applicationClasspath = applicationClasspath;
+        this.displayName = displayName;
+    }
+
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        ClassLoader classLoader = new ApplicationClassesClassLoader(getClassDirectoryUrls(), applicationClassLoader);
+        processor = new ContextClassLoaderProxy<TestClassProcessor>(TestClassProcessor.class, factory.create(), classLoader).getSource();
+        processor.startProcessing(resultProcessor);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        processor.processTestClass(testClass);
+        testClassCount++;
+    }
+
+    public void stop() {
+        try {
+            processor.stop();
+        } finally {
+            processor = null;
+            reportResourceUsage();
+        }
+    }
+
+    private void reportResourceUsage() {
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        LOGGER.info("{} reset its class loader after {} test classes. Loaded classes: {} ({} unloaded in total). Heap used: {} MB of {} MB committed.",
+                displayName, testClassCount, classLoading.getLoadedClassCount(), classLoading.getUnloadedClassCount(), heap.getUsed() / (1024 * 1024), heap.getCommitted() / (1024 * 1024));
+    }
+
+    private URL[] getClassDirectoryUrls() {
+        List<URL> urls = new ArrayList<URL>();
+        for (File file : applicationClasspath) {
+            if (file.isDirectory()) {
+                try {
+                    urls.add(file.toURI().toURL());
+                } catch (MalformedURLException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
+        return urls.toArray(new URL[urls.size()]);
+    }
+
+    /**
+     * Loads the classes and resources found in its own urls itself, before delegating to the parent.
+     */
+    private static class ApplicationClassesClassLoader extends URLClassLoader {
+        public ApplicationClassesClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            Class<?> type = findLoadedClass(name);
+            if (type == null && !name.startsWith("java.")) {
+                try {
+                    type = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    // Not an application class
+                }
+            }
+            if (type == null) {
+                return super.loadClass(name, resolve);
+            }
+            if (resolve) {
+                resolveClass(type);
+            }
+            return type;
+        }
+
+        @Override
+        public URL getResource(String name) {
+            URL resource = findResource(name);
+            return resource != null ? resource : super.getResource(name);
+        }
+    }
+}
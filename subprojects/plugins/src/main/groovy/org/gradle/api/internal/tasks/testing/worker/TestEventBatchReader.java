@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.remote.internal.Message;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.gradle.api.internal.tasks.testing.worker.TestEventBatch.*;
+
+/**
+ * Decodes the {@link TestEventBatch}es written by a {@link TestEventBatchWriter} and replays the events to a {@link TestResultProcessor}.
+ * Batches must be read in the order they were written. Not thread-safe.
+ */
+public class TestEventBatchReader {
+    private final List<String> strings = new ArrayList<String>();
+    private long lastScope;
+    private long lastId;
+    private long lastTime;
+
+    public void read(TestEventBatch batch, TestResultProcessor processor) {
+        try {
+            Decoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(batch.getEvents()), batch.getEvents().length);
+            while (true) {
+                int type = decoder.readSmallInt();
+                switch (type) {
+                    case END:
+                        return;
+                    case STARTED:
+                        TestDescriptorInternal test = readDescriptor(decoder);
+                        long startTime = readTime(decoder);
+                        Object parentId = decoder.readBoolean() ? readId(decoder) : null;
+                        processor.started(test, new TestStartEvent(startTime, parentId));
+                        break;
+                    case COMPLETED:
+                        Object completedId = readId(decoder);
+                        long endTime = readTime(decoder);
+                        int resultType = decoder.readSmallInt();
+                        processor.completed(completedId, new TestCompleteEvent(endTime, resultType == 0 ? null : TestResult.ResultType.values()[resultType - 1]));
+                        break;
+                    case OUTPUT:
+                        Object outputId = readId(decoder);
+                        TestOutputEvent.Destination destination = TestOutputEvent.Destination.values()[decoder.readSmallInt()];
+                        processor.output(outputId, new DefaultTestOutputEvent(destination, decoder.readString()));
+                        break;
+                    case FAILURE:
+                        Object failureId = readId(decoder);
+                        Throwable failure = (Throwable) Message.receive(new ByteArrayInputStream(decoder.readBinary()), getClass().getClassLoader());
+                        processor.failure(failureId, failure);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(String.format("Unexpected test event type %d found.", type));
+                }
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private TestDescriptorInternal readDescriptor(Decoder decoder) throws Exception {
+        int type = decoder.readSmallInt();
+        Object id = readId(decoder);
+        switch (type) {
+            case TEST_DESCRIPTOR:
+                return new DefaultTestDescriptor(id, readInterned(decoder), readInterned(decoder));
+            case TEST_METHOD_DESCRIPTOR:
+                return new DefaultTestMethodDescriptor(id, readInterned(decoder), readInterned(decoder));
+            case TEST_CLASS_DESCRIPTOR:
+                return new DefaultTestClassDescriptor(id, readInterned(decoder));
+            case TEST_SUITE_DESCRIPTOR:
+                return new DefaultTestSuiteDescriptor(id, readInterned(decoder));
+            case WORKER_TEST_SUITE_DESCRIPTOR:
+                return new WorkerTestClassProcessor.WorkerTestSuiteDescriptor(id, readInterned(decoder));
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected test descriptor type %d found.", type));
+        }
+    }
+
+    private Object readId(Decoder decoder) throws Exception {
+        long header = decoder.readSmallLong();
+        if ((header & 1) != 0) {
+            lastScope = decoder.readLong();
+        }
+        lastId += unZigZag(header >>> 1);
+        return new CompositeIdGenerator.CompositeId(lastScope, lastId);
+    }
+
+    private long readTime(Decoder decoder) throws Exception {
+        lastTime += unZigZag(decoder.readSmallLong());
+        return lastTime;
+    }
+
+    private String readInterned(Decoder decoder) throws Exception {
+        int index = decoder.readSmallInt();
+        if (index > 0) {
+            return strings.get(index - 1);
+        }
+        String value = decoder.readString();
+        strings.add(value);
+        return value;
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
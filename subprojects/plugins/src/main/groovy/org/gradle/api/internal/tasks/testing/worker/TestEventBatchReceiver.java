@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+/**
+ * Replays the batched events of a single test worker to a {@link TestResultProcessor}.
+ */
+public class TestEventBatchReceiver implements RemoteTestEventBatchProcessor {
+    private final TestEventBatchReader reader = new TestEventBatchReader();
+    private final TestResultProcessor resultProcessor;
+
+    public TestEventBatchReceiver(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    public void processBatch(TestEventBatch batch) {
+        reader.read(batch, resultProcessor);
+    }
+}
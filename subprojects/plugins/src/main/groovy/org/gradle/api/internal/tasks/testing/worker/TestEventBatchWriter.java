@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.messaging.remote.internal.Message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.gradle.api.internal.tasks.testing.worker.TestEventBatch.*;
+
+/**
+ * Encodes test events into {@link TestEventBatch}es. Ids and timestamps are delta encoded against the previously written ones, class and test names
+ * are interned across batches and consecutive output of the same test to the same destination is coalesced into a single event.
+ * Not thread-safe.
+ */
+public class TestEventBatchWriter implements TestResultProcessor {
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final KryoBackedEncoder encoder = new KryoBackedEncoder(buffer);
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    private final StringBuilder pendingOutput = new StringBuilder();
+    private Object pendingOutputTestId;
+    private TestOutputEvent.Destination pendingOutputDestination;
+    private int batchStart;
+    private int eventCount;
+    private long lastScope;
+    private long lastId;
+    private long lastTime;
+
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        flushOutput();
+        encoder.writeSmallInt(STARTED);
+        writeDescriptor(test);
+        writeTime(event.getStartTime());
+        encoder.writeBoolean(event.getParentId() != null);
+        if (event.getParentId() != null) {
+            writeId(event.getParentId());
+        }
+        eventCount++;
+    }
+
+    public void completed(Object testId, TestCompleteEvent event) {
+        flushOutput();
+        encoder.writeSmallInt(COMPLETED);
+        writeId(testId);
+        writeTime(event.getEndTime());
+        TestResult.ResultType resultType = event.getResultType();
+        encoder.writeSmallInt(resultType == null ? 0 : resultType.ordinal() + 1);
+        eventCount++;
+    }
+
+    public void output(Object testId, TestOutputEvent event) {
+        if (pendingOutputTestId != null && (!pendingOutputTestId.equals(testId) || pendingOutputDestination != event.getDestination())) {
+            flushOutput();
+        }
+        pendingOutputTestId = testId;
+        pendingOutputDestination = event.getDestination();
+        pendingOutput.append(event.getMessage());
+    }
+
+    public void failure(Object testId, Throwable result) {
+        flushOutput();
+        encoder.writeSmallInt(FAILURE);
+        writeId(testId);
+        ByteArrayOutputStream failure = new ByteArrayOutputStream();
+        try {
+            Message.send(result, failure);
+            encoder.writeBinary(failure.toByteArray());
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        eventCount++;
+    }
+
+    /**
+     * @return whether any event was written since the last batch was taken
+     */
+    public boolean isEmpty() {
+        return eventCount == 0 && pendingOutputTestId == null;
+    }
+
+    /**
+     * @return an estimate of the number of bytes the current batch will take
+     */
+    public int getSize() {
+        return encoder.getWritePosition() - batchStart + pendingOutput.length();
+    }
+
+    public TestEventBatch takeBatch() {
+        flushOutput();
+        encoder.writeSmallInt(END);
+        encoder.flush();
+        byte[] events = buffer.toByteArray();
+        buffer.reset();
+        batchStart = encoder.getWritePosition();
+        eventCount = 0;
+        return new TestEventBatch(events);
+    }
+
+    private void flushOutput() {
+        if (pendingOutputTestId == null) {
+            return;
+        }
+        encoder.writeSmallInt(OUTPUT);
+        writeId(pendingOutputTestId);
+        encoder.writeSmallInt(pendingOutputDestination.ordinal());
+        encoder.writeString(pendingOutput);
+        pendingOutput.setLength(0);
+        pendingOutputTestId = null;
+        pendingOutputDestination = null;
+        eventCount++;
+    }
+
+    private void writeDescriptor(TestDescriptorInternal test) {
+        Class<?> type = test.getClass();
+        if (type == DefaultTestDescriptor.class) {
+            encoder.writeSmallInt(TEST_DESCRIPTOR);
+            writeId(test.getId());
+            writeInterned(test.getClassName());
+            writeInterned(test.getName());
+        } else if (type == DefaultTestMethodDescriptor.class) {
+            encoder.writeSmallInt(TEST_METHOD_DESCRIPTOR);
+            writeId(test.getId());
+            writeInterned(test.getClassName());
+            writeInterned(test.getName());
+        } else if (type == DefaultTestClassDescriptor.class) {
+            encoder.writeSmallInt(TEST_CLASS_DESCRIPTOR);
+            writeId(test.getId());
+            writeInterned(test.getClassName());
+        } else if (type == DefaultTestSuiteDescriptor.class) {
+            encoder.writeSmallInt(TEST_SUITE_DESCRIPTOR);
+            writeId(test.getId());
+            writeInterned(test.getName());
+        } else if (type == WorkerTestClassProcessor.WorkerTestSuiteDescriptor.class) {
+            encoder.writeSmallInt(WORKER_TEST_SUITE_DESCRIPTOR);
+            writeId(test.getId());
+            writeInterned(test.getName());
+        } else {
+            throw new IllegalArgumentException(String.format("Don't know how to serialize a test descriptor of type %s.", type.getName()));
+        }
+    }
+
+    private void writeId(Object testId) {
+        CompositeIdGenerator.CompositeId id = (CompositeIdGenerator.CompositeId) testId;
+        long scope = (Long) id.getScope();
+        long value = (Long) id.getId();
+        long delta = zigZag(value - lastId) << 1;
+        if (scope == lastScope) {
+            encoder.writeSmallLong(delta);
+        } else {
+            encoder.writeSmallLong(delta | 1);
+            encoder.writeLong(scope);
+            lastScope = scope;
+        }
+        lastId = value;
+    }
+
+    private void writeTime(long time) {
+        encoder.writeSmallLong(zigZag(time - lastTime));
+        lastTime = time;
+    }
+
+    private void writeInterned(String value) {
+        Integer index = strings.get(value);
+        if (index != null) {
+            encoder.writeSmallInt(index + 1);
+        } else {
+            encoder.writeSmallInt(0);
+            encoder.writeString(value);
+            strings.put(value, strings.size());
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
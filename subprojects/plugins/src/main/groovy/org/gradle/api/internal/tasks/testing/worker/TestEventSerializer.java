@@ -40,6 +40,7 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, new ThrowableSerializer());
+        registry.register(TestEventBatch.class, new TestEventBatchSerializer());
         paramSerializer = registry.build();
     }
 
@@ -99,6 +100,16 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         }
     }
 
+    private static class TestEventBatchSerializer implements Serializer<TestEventBatch> {
+        public TestEventBatch read(Decoder decoder) throws Exception {
+            return new TestEventBatch(decoder.readBinary());
+        }
+
+        public void write(Encoder encoder, TestEventBatch value) throws Exception {
+            encoder.writeBinary(value.getEvents());
+        }
+    }
+
     private static class IdSerializer implements Serializer<CompositeIdGenerator.CompositeId> {
         public CompositeIdGenerator.CompositeId read(Decoder decoder) throws Exception {
             return new CompositeIdGenerator.CompositeId(decoder.readLong(), decoder.readLong());
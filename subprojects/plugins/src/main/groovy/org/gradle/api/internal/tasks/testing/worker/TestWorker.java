@@ -19,8 +19,9 @@ package org.gradle.api.internal.tasks.testing.worker;
 import org.gradle.api.Action;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
-import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
+import org.gradle.internal.Factory;
 import org.gradle.internal.TimeProvider;
 import org.gradle.internal.TrueTimeProvider;
 import org.gradle.internal.UncheckedException;
@@ -39,19 +40,36 @@ import org.gradle.process.internal.WorkerProcessContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClassProcessor, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
     public static final String WORKER_ID_SYS_PROPERTY = "org.gradle.test.worker";
+    private static final int MAX_EVENT_BATCH_SIZE = 32 * 1024;
+    private static final long MAX_EVENT_BATCH_DELAY = 100;
     private final WorkerTestClassProcessorFactory factory;
+    private final long resetClassLoaderEvery;
+    private final List<File> applicationClasspath;
     private CountDownLatch completed;
     private TestClassProcessor processor;
-    private TestResultProcessor resultProcessor;
+    private BatchingTestResultProcessor resultProcessor;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
+        this(factory, 0, Collections.<File>emptyList());
+    }
+
+    /**
+     * @param resetClassLoaderEvery the number of test classes after which the application classes are loaded again, or 0 to never load them again
+     * @param applicationClasspath the application classpath of the worker process
+     */
+    public TestWorker(WorkerTestClassProcessorFactory factory, long resetClassLoaderEvery, List<File> applicationClasspath) {
         this.factory = factory;
+        this.resetClassLoaderEvery = resetClassLoaderEvery;
+        this.applicationClasspath = applicationClasspath;
     }
 
     public void execute(final WorkerProcessContext workerProcessContext) {
@@ -78,8 +96,23 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         }
     }
 
-    private void startReceivingTests(WorkerProcessContext workerProcessContext, ServiceRegistry testServices) {
-        TestClassProcessor targetProcessor = factory.create(testServices);
+    private void startReceivingTests(final WorkerProcessContext workerProcessContext, final ServiceRegistry testServices) {
+        TestClassProcessor targetProcessor;
+        if (resetClassLoaderEvery > 0) {
+            final Factory<TestClassProcessor> processorFactory = new Factory<TestClassProcessor>() {
+                public TestClassProcessor create() {
+                    return factory.create(testServices);
+                }
+            };
+            targetProcessor = new RestartEveryNTestClassProcessor(new Factory<TestClassProcessor>() {
+                public TestClassProcessor create() {
+                    return new IsolatedClassLoaderTestClassProcessor(processorFactory, workerProcessContext.getApplicationClassLoader(), applicationClasspath,
+                            workerProcessContext.getDisplayName());
+                }
+            }, resetClassLoaderEvery);
+        } else {
+            targetProcessor = factory.create(testServices);
+        }
         IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
 
         targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
@@ -90,7 +123,9 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
 
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         serverConnection.useParameterSerializer(new TestEventSerializer());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        RemoteTestEventBatchProcessor batchProcessor = serverConnection.addOutgoing(RemoteTestEventBatchProcessor.class);
+        this.resultProcessor = new BatchingTestResultProcessor(batchProcessor, testServices.get(TimeProvider.class), MAX_EVENT_BATCH_SIZE, MAX_EVENT_BATCH_DELAY);
+        resultProcessor.startFlushing(testServices.get(ExecutorFactory.class).create("Test event batch flusher"));
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
         serverConnection.connect();
     }
@@ -113,7 +148,11 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     public void stop() {
         Thread.currentThread().setName("Test worker");
         try {
-            processor.stop();
+            try {
+                processor.stop();
+            } finally {
+                resultProcessor.stop();
+            }
         } finally {
             completed.countDown();
         }
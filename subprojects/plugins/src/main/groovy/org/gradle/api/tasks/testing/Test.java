@@ -20,12 +20,16 @@ import groovy.lang.Closure;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.Incubating;
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.hash.Hasher;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.options.Option;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
 import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
@@ -34,6 +38,12 @@ import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
 import org.gradle.api.internal.tasks.testing.detection.TestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
+import org.gradle.api.internal.tasks.testing.impact.AffectedTestClasses;
+import org.gradle.api.internal.tasks.testing.impact.LocalTestImpactDataStore;
+import org.gradle.api.internal.tasks.testing.impact.PreviousTestResults;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactData;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactSnapshot;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactSnapshotter;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
@@ -42,16 +52,20 @@ import org.gradle.api.internal.tasks.testing.logging.*;
 import org.gradle.api.internal.tasks.testing.results.StateTrackingTestResultProcessor;
 import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter;
 import org.gradle.api.internal.tasks.testing.results.TestListenerInternal;
+import org.gradle.api.internal.tasks.testing.sharding.TestShardPartitioner;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.reporting.DirectoryReport;
 import org.gradle.api.reporting.Reporting;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
 import org.gradle.api.tasks.*;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.testing.logging.TestLogging;
 import org.gradle.api.tasks.testing.logging.TestLoggingContainer;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.cache.CacheRepository;
 import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.event.ListenerBroadcast;
@@ -138,7 +152,13 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private TestFramework testFramework;
     private boolean scanForTestClasses = true;
     private long forkEvery;
+    private long resetClassLoaderEvery;
     private int maxParallelForks = 1;
+    private int maxParallelTestClassesPerFork = 1;
+    private boolean selectAffectedTests;
+    private int shardIndex;
+    private int shardCount = 1;
+    private File shardDurationResults;
     private TestReporter testReporter;
 
     @Nested
@@ -201,6 +221,26 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected CacheRepository getCacheRepository() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected Hasher getHasher() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected ClassDependenciesAnalyzer getClassDependenciesAnalyzer() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected FileOperations getFileOperations() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * ATM. for testing only
      */
@@ -489,6 +529,10 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
 
     @TaskAction
     public void executeTests() {
+        if (isSelectAffectedTests() && testExecuter != null) {
+            // The selection is applied by the default executer while test classes are detected
+            throw new IllegalStateException(String.format("Cannot select the affected tests of %s as it uses a custom test executer.", this));
+        }
         LogLevel currentLevel = getCurrentLogLevel();
         TestLogging levelLogging = testLogging.get(currentLevel);
         TestExceptionFormatter exceptionFormatter = getExceptionFormatter(levelLogging);
@@ -499,6 +543,28 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
             addTestListener(new NoMatchingTestsReporter("No tests found for given includes: " + getFilter().getIncludePatterns()));
         }
 
+        if (getShardIndex() >= getShardCount()) {
+            throw new InvalidUserDataException(String.format("Cannot execute shard %d of %s as it only has %d shards.", getShardIndex(), this, getShardCount()));
+        }
+
+        Map<String, Long> shardDurations = readShardDurations();
+
+        LocalTestImpactDataStore testImpactDataStore = null;
+        TestImpactSnapshot testImpactSnapshot = null;
+        AffectedTestClasses affectedTestClasses = null;
+        PreviousTestResults previousTestResults = null;
+        if (isSelectAffectedTests()) {
+            testImpactDataStore = new LocalTestImpactDataStore(getCacheRepository(), this);
+            testImpactSnapshot = createTestImpactSnapshot();
+            affectedTestClasses = AffectedTestClasses.between(testImpactDataStore.get(), testImpactSnapshot);
+            if (affectedTestClasses.getFullRebuildCause() != null) {
+                getLogger().info("All tests of {} are selected because {}.", this, affectedTestClasses.getFullRebuildCause());
+            } else {
+                // Keep the results of the test classes that are not executed again
+                previousTestResults = PreviousTestResults.moveTo(getBinResultsDir(), new File(getTemporaryDir(), "previousBinaryResults"));
+            }
+        }
+
         File binaryResultsDir = getBinResultsDir();
         getProject().delete(binaryResultsDir);
         getProject().mkdir(binaryResultsDir);
@@ -520,11 +586,15 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         TestResultProcessor resultProcessor = new StateTrackingTestResultProcessor(testListenerInternalBroadcaster.getSource());
 
         if (testExecuter == null) {
-            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory());
+            Spec<? super String> testClassSpec = affectedTestClasses == null ? Specs.<String>satisfyAll() : affectedTestClasses;
+            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), testClassSpec, shardDurations);
         }
 
         try {
             testExecuter.execute(this, resultProcessor);
+            if (previousTestResults != null) {
+                previousTestResults.carryOver(affectedTestClasses.getUnaffectedPassedClasses(), results, outputWriter);
+            }
         } finally {
             testExecuter = null;
             testListenerBroadcaster.removeAll();
@@ -534,6 +604,21 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
 
         new TestResultSerializer(binaryResultsDir).write(results.values());
+        if (getShardCount() > 1) {
+            TestShardPartitioner.writeShardInfo(binaryResultsDir, getShardIndex(), getShardCount(), shardDurations);
+        }
+
+        if (testImpactDataStore != null) {
+            Set<String> passedTestClasses = affectedTestClasses.getUnaffectedPassedClasses();
+            for (TestClassResult result : results.values()) {
+                if (result.getFailuresCount() == 0) {
+                    passedTestClasses.add(result.getClassName());
+                } else {
+                    passedTestClasses.remove(result.getClassName());
+                }
+            }
+            testImpactDataStore.put(new TestImpactData(testImpactSnapshot, passedTestClasses));
+        }
 
         TestResultsProvider testResultsProvider = new InMemoryTestResultsProvider(results.values(), testOutputStore.reader());
 
@@ -986,6 +1071,33 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.forkEvery = forkEvery == null ? 0 : forkEvery;
     }
 
+    /**
+     * Returns the maximum number of test classes to execute in a forked test process before the application classes are loaded again. When this limit is reached,
+     * a new class loader is created for the classes found in directories of the test runtime classpath, such as the test and main classes. Jars, including the
+     * test framework, stay loaded. This is cheaper than restarting the forked test process using {@link #getForkEvery()}, but only discards static state
+     * held by the reloaded classes. The number of loaded classes and the heap usage are logged at info level after each reset. The default value is 0 (no maximum).
+     *
+     * @return The maximum number of test classes. Returns 0 when there is no maximum.
+     */
+    @Incubating
+    public long getResetClassLoaderEvery() {
+        return resetClassLoaderEvery;
+    }
+
+    /**
+     * Sets the maximum number of test classes to execute in a forked test process before the application classes are loaded again. Use null or 0 to use no maximum.
+     *
+     * @param resetClassLoaderEvery The maximum number of test classes. Use null or 0 to specify no maximum.
+     * @see #getResetClassLoaderEvery()
+     */
+    @Incubating
+    public void setResetClassLoaderEvery(Long resetClassLoaderEvery) {
+        if (resetClassLoaderEvery != null && resetClassLoaderEvery < 0) {
+            throw new IllegalArgumentException("Cannot set resetClassLoaderEvery to a value less than 0.");
+        }
+        this.resetClassLoaderEvery = resetClassLoaderEvery == null ? 0 : resetClassLoaderEvery;
+    }
+
     /**
      * Returns the maximum number of forked test processes to execute in parallel. The default value is 1 (no parallel test execution).
      *
@@ -1007,6 +1119,140 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.maxParallelForks = maxParallelForks;
     }
 
+    /**
+     * Returns the maximum number of test classes each forked test process executes concurrently, on separate threads. Output of the tests is attributed
+     * to the test running on the thread that writes it. For TestNG, this is only used when no parallel mode is set in the TestNG options.
+     * The default value is 1 (no concurrent test execution within a forked test process).
+     *
+     * @return The maximum number of test classes executed concurrently by a forked test process.
+     */
+    @Incubating
+    public int getMaxParallelTestClassesPerFork() {
+        return maxParallelTestClassesPerFork;
+    }
+
+    /**
+     * Sets the maximum number of test classes each forked test process executes concurrently. Set to 1 to execute the test classes of a forked test process one at a time.
+     *
+     * @param maxParallelTestClassesPerFork The maximum number of test classes executed concurrently by a forked test process.
+     */
+    @Incubating
+    public void setMaxParallelTestClassesPerFork(int maxParallelTestClassesPerFork) {
+        if (maxParallelTestClassesPerFork < 1) {
+            throw new IllegalArgumentException("Cannot set maxParallelTestClassesPerFork to a value less than 1.");
+        }
+        this.maxParallelTestClassesPerFork = maxParallelTestClassesPerFork;
+    }
+
+    /**
+     * Specifies whether only the tests affected by changes since the previous execution should be executed. When {@code true}, a test class is only executed when it,
+     * or any class it transitively depends on in the test runtime classpath directories, has changed, or when it did not pass the last time it was executed.
+     * Any change to a jar or resource on the test runtime classpath causes all tests to be executed. The results of the test classes that are not executed again are
+     * carried over from the previous execution, so that they are still included in the reports. The default value is {@code false}.
+     *
+     * @return Whether only affected tests are executed.
+     */
+    @Incubating
+    @Input
+    public boolean isSelectAffectedTests() {
+        return selectAffectedTests;
+    }
+
+    /**
+     * Sets whether only the tests affected by changes since the previous execution should be executed.
+     *
+     * @param selectAffectedTests Whether only affected tests are executed.
+     * @see #isSelectAffectedTests()
+     */
+    @Incubating
+    public void setSelectAffectedTests(boolean selectAffectedTests) {
+        this.selectAffectedTests = selectAffectedTests;
+    }
+
+    /**
+     * Returns the index of the shard of test classes to execute, between 0 and {@link #getShardCount()} - 1. The default value is 0.
+     *
+     * @return The index of the shard to execute.
+     */
+    @Incubating
+    @Input
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    /**
+     * Sets the index of the shard of test classes to execute.
+     *
+     * @param shardIndex The index of the shard to execute.
+     * @see #getShardCount()
+     */
+    @Incubating
+    public void setShardIndex(int shardIndex) {
+        if (shardIndex < 0) {
+            throw new IllegalArgumentException("Cannot set shardIndex to a value less than 0.");
+        }
+        this.shardIndex = shardIndex;
+    }
+
+    /**
+     * Returns the number of shards the test classes are split into. Only the test classes of the shard given by {@link #getShardIndex()} are executed by this task,
+     * so that the shards can be executed by separate tasks, possibly on separate machines. The test classes are split so that each shard takes a similar time to
+     * execute, based on the durations found in {@link #getShardDurationResults()}. The default value is 1 (no sharding).
+     *
+     * <p>Each shard must be given the same test classes and the same duration results, otherwise some test classes may be executed by more than one shard or by
+     * none. The results of all shards can be combined into one report using a {@link TestReport} task, which fails when the shards were split using different
+     * duration results.
+     *
+     * @return The number of shards.
+     */
+    @Incubating
+    @Input
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Sets the number of shards the test classes are split into. Set to 1 to disable sharding.
+     *
+     * @param shardCount The number of shards.
+     * @see #getShardCount()
+     */
+    @Incubating
+    public void setShardCount(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Cannot set shardCount to a value less than 1.");
+        }
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Returns the binary test results directory of a previous execution, used to balance the shards by the duration of each test class.
+     * Test classes without a previous result are assigned to a shard by their name. When {@code null}, all test classes are assigned by their name.
+     *
+     * <p>Every shard must read the same directory with the same contents, such as results that are published once and fetched by each shard.
+     * The binary results directory of this task cannot be used, as it is different for each shard and is replaced by each execution.</p>
+     *
+     * @return The binary test results directory, or {@code null} when none is used.
+     * @see #getShardCount()
+     */
+    @Incubating
+    @InputFiles
+    @Optional
+    public File getShardDurationResults() {
+        return shardDurationResults;
+    }
+
+    /**
+     * Sets the binary test results directory of a previous execution, used to balance the shards by the duration of each test class.
+     *
+     * @param shardDurationResults The binary test results directory.
+     * @see #getShardDurationResults()
+     */
+    @Incubating
+    public void setShardDurationResults(File shardDurationResults) {
+        this.shardDurationResults = shardDurationResults;
+    }
+
     /**
      * Returns the classes files to scan for test classes.
      *
@@ -1087,6 +1333,34 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         action.execute(filter);
     }
 
+    private Map<String, Long> readShardDurations() {
+        File durationResults = getShardDurationResults();
+        if (getShardCount() <= 1 || durationResults == null) {
+            return Collections.emptyMap();
+        }
+        if (isSameOrBelow(durationResults, getBinResultsDir()) || isSameOrBelow(getBinResultsDir(), durationResults)) {
+            throw new InvalidUserDataException(String.format("Cannot use %s as the shard duration results of %s, as it overlaps the binary results directory of the task. "
+                + "Use results that are the same for every shard instead.", durationResults, this));
+        }
+        return TestShardPartitioner.readDurations(Collections.singleton(durationResults));
+    }
+
+    private static boolean isSameOrBelow(File file, File dir) {
+        File absoluteDir = dir.getAbsoluteFile();
+        for (File current = file.getAbsoluteFile(); current != null; current = current.getParentFile()) {
+            if (current.equals(absoluteDir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TestImpactSnapshot createTestImpactSnapshot() {
+        Set<File> classpath = new LinkedHashSet<File>(getClasspath().getFiles());
+        classpath.add(getTestClassesDir());
+        return new TestImpactSnapshotter(getFileOperations(), getHasher(), getClassDependenciesAnalyzer()).createSnapshot(classpath);
+    }
+
     // only way I know of to determine current log level
     private LogLevel getCurrentLogLevel() {
         for (LogLevel level : LogLevel.values()) {
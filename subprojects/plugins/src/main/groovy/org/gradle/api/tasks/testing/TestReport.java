@@ -25,6 +25,7 @@ import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
 import org.gradle.api.internal.tasks.testing.junit.result.AggregateTestResultsProvider;
 import org.gradle.api.internal.tasks.testing.junit.result.BinaryResultBackedTestResultsProvider;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
+import org.gradle.api.internal.tasks.testing.sharding.TestShardPartitioner;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.SkipWhenEmpty;
@@ -39,7 +40,8 @@ import static org.gradle.internal.concurrent.CompositeStoppable.stoppable;
 import static org.gradle.util.CollectionUtils.collect;
 
 /**
- * Generates an HTML test report from the results of one or more {@link Test} tasks.
+ * Generates an HTML test report from the results of one or more {@link Test} tasks. Fails when the results come from shards of a {@link Test} task
+ * that were split differently.
  */
 @Incubating
 public class TestReport extends DefaultTask {
@@ -123,6 +125,7 @@ public class TestReport extends DefaultTask {
 
     @TaskAction
     void generateReport() {
+        TestShardPartitioner.checkSameSplit(getTestResultDirs());
         TestResultsProvider resultsProvider = createAggregateProvider();
         try {
             if (resultsProvider.isHasResults()) {
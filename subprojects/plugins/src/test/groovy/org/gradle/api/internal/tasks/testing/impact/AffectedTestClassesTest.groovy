@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependencyToAll
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotData
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class AffectedTestClassesTest extends Specification {
+
+    def analysis = Mock(ClassSetAnalysisData)
+
+    private TestImpactSnapshot snapshot(Map<String, byte[]> hashes, byte[] resourcesHash = "R".bytes) {
+        new TestImpactSnapshot(resourcesHash, new JarSnapshot(new JarSnapshotData(resourcesHash, hashes, analysis)))
+    }
+
+    private TestImpactData previous(Map<String, byte[]> hashes, Collection<String> passed, byte[] resourcesHash = "R".bytes) {
+        new TestImpactData(snapshot(hashes, resourcesHash), passed as Set)
+    }
+
+    def "selects all tests when there is no previous data"() {
+        when:
+        def affected = AffectedTestClasses.between(null, snapshot(["A": "A".bytes]))
+
+        then:
+        affected.fullRebuildCause
+        affected.isSatisfiedBy("ATest")
+        affected.unaffectedPassedClasses.empty
+    }
+
+    def "selects all tests when jars or resources changed"() {
+        when:
+        def affected = AffectedTestClasses.between(previous(["ATest": "A".bytes], ["ATest"]), snapshot(["ATest": "A".bytes], "R2".bytes))
+
+        then:
+        affected.fullRebuildCause == "a jar or resource on the test runtime classpath has changed"
+        affected.isSatisfiedBy("ATest")
+    }
+
+    def "selects nothing when nothing changed and all tests passed"() {
+        def hashes = ["A": "A".bytes, "ATest": "ATest".bytes]
+
+        when:
+        def affected = AffectedTestClasses.between(previous(hashes, ["ATest"]), snapshot(hashes))
+
+        then:
+        !affected.fullRebuildCause
+        !affected.isSatisfiedBy("ATest")
+        affected.unaffectedPassedClasses == ["ATest"] as Set
+    }
+
+    def "selects tests that did not pass previously"() {
+        def hashes = ["ATest": "ATest".bytes, "BTest": "BTest".bytes]
+
+        when:
+        def affected = AffectedTestClasses.between(previous(hashes, ["ATest"]), snapshot(hashes))
+
+        then:
+        !affected.isSatisfiedBy("ATest")
+        affected.isSatisfiedBy("BTest")
+    }
+
+    def "selects tests that transitively depend on changed classes"() {
+        analysis.getDependents("A") >> dependents("B")
+        analysis.getDependents("B") >> dependents("BTest")
+        analysis.getDependents("BTest") >> dependents()
+
+        when:
+        def affected = AffectedTestClasses.between(
+            previous(["A": "A".bytes, "B": "B".bytes, "BTest": "BTest".bytes, "CTest": "CTest".bytes], ["BTest", "CTest"]),
+            snapshot(["A": "AA".bytes, "B": "B".bytes, "BTest": "BTest".bytes, "CTest": "CTest".bytes]))
+
+        then:
+        affected.isSatisfiedBy("BTest")
+        affected.isSatisfiedBy('BTest$Inner')
+        !affected.isSatisfiedBy("CTest")
+        affected.unaffectedPassedClasses == ["CTest"] as Set
+    }
+
+    def "selects added test classes"() {
+        when:
+        def affected = AffectedTestClasses.between(previous(["ATest": "A".bytes], ["ATest"]), snapshot(["ATest": "A".bytes, "BTest": "B".bytes]))
+
+        then:
+        !affected.isSatisfiedBy("ATest")
+        affected.isSatisfiedBy("BTest")
+    }
+
+    def "selects all tests when a changed class is a dependency to all"() {
+        analysis.getDependents("A") >> new DependencyToAll()
+
+        when:
+        def affected = AffectedTestClasses.between(previous(["A": "A".bytes, "ATest": "T".bytes], ["ATest"]), snapshot(["A": "AA".bytes, "ATest": "T".bytes]))
+
+        then:
+        affected.fullRebuildCause
+        affected.isSatisfiedBy("ATest")
+    }
+}
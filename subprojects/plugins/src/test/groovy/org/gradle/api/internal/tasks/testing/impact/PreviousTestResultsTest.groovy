@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class PreviousTestResultsTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def "carries over the results and output of unaffected test classes"() {
+        def binResultsDir = tmp.createDir("binResults")
+        new TestResultSerializer(binResultsDir).write([
+            new TestClassResult(1, "A", 100).add(new TestMethodResult(2, "a", TestResult.ResultType.SUCCESS, 10, 110)),
+            new TestClassResult(3, "B", 200).add(new TestMethodResult(4, "b", TestResult.ResultType.SUCCESS, 20, 220)),
+            new TestClassResult(5, "C", 300).add(new TestMethodResult(6, "c", TestResult.ResultType.SUCCESS, 30, 330))
+        ])
+        def writer = new TestOutputStore(binResultsDir).writer()
+        writer.onOutput(1, 2, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "output of a"))
+        writer.onOutput(3, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "output of B"))
+        writer.close()
+
+        when:
+        def previous = PreviousTestResults.moveTo(binResultsDir, tmp.file("previous"))
+        binResultsDir.createDir()
+        def results = [C: new TestClassResult(1, "C", 400).add(new TestMethodResult(2, "c", TestResult.ResultType.FAILURE, 40, 440))]
+        def outputStore = new TestOutputStore(binResultsDir)
+        def outputWriter = outputStore.writer()
+        previous.carryOver(["A", "B", "C"] as Set, results, outputWriter)
+        outputWriter.close()
+
+        then:
+        !tmp.file("previous").exists()
+        results.keySet() == ["A", "B", "C"] as Set
+        results.C.failuresCount == 1
+        results.A.startTime == 100
+        results.A.results*.name == ["a"]
+        results.A.results[0].duration == 10
+        results.B.duration == 20
+        (results.values()*.id + results.values()*.results.flatten()*.id).unique().size() == 6
+
+        and:
+        def reader = outputStore.reader()
+        output(reader, results.A.id, results.A.results[0].id, TestOutputEvent.Destination.StdOut) == "output of a"
+        output(reader, results.B.id, 0, TestOutputEvent.Destination.StdErr) == "output of B"
+        reader.close()
+    }
+
+    def "does not carry over the results of test classes that are executed again or no longer selected"() {
+        def binResultsDir = tmp.createDir("binResults")
+        new TestResultSerializer(binResultsDir).write([
+            new TestClassResult(1, "A", 100).add(new TestMethodResult(2, "a", TestResult.ResultType.SUCCESS, 10, 110)),
+            new TestClassResult(3, "B", 200).add(new TestMethodResult(4, "b", TestResult.ResultType.SUCCESS, 20, 220))
+        ])
+
+        when:
+        def previous = PreviousTestResults.moveTo(binResultsDir, tmp.file("previous"))
+        binResultsDir.createDir()
+        def results = [:]
+        def outputWriter = new TestOutputStore(binResultsDir).writer()
+        previous.carryOver(["B"] as Set, results, outputWriter)
+        outputWriter.close()
+
+        then:
+        results.keySet() == ["B"] as Set
+    }
+
+    def "does nothing when there are no previous results"() {
+        def results = [:]
+        def outputWriter = new TestOutputStore(tmp.createDir("binResults")).writer()
+
+        when:
+        PreviousTestResults.moveTo(tmp.file("missing"), tmp.file("previous")).carryOver(["A"] as Set, results, outputWriter)
+        outputWriter.close()
+
+        then:
+        results.isEmpty()
+    }
+
+    private static String output(TestOutputStore.Reader reader, long classId, long testId, TestOutputEvent.Destination destination) {
+        def writer = new StringWriter()
+        if (testId == 0) {
+            reader.writeNonTestOutput(classId, destination, writer)
+        } else {
+            reader.writeTestOutput(classId, testId, destination, writer)
+        }
+        return writer.toString()
+    }
+}
@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.testing.junit
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.internal.TrueTimeProvider
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.id.LongIdGenerator
 import org.gradle.messaging.actor.TestActorFactory
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -64,6 +65,28 @@ class JUnitTestClassProcessorTest extends Specification {
         0 * processor._
     }
 
+    def "executes test classes concurrently and attaches each test to its own class"() {
+        def executorFactory = new DefaultExecutorFactory()
+        classProcessor = new JUnitTestClassProcessor(spec, new LongIdGenerator(), new TestActorFactory(), new TrueTimeProvider(), executorFactory, 2)
+        def classIds = [:]
+        def parents = [:]
+
+        when:
+        process(ATestClass, ATestClassWithIgnoredMethod)
+
+        then:
+        2 * processor.started({ it.composite }, { it.parentId == null }) >> { test, event -> classIds[test.className] = test.id }
+        2 * processor.started({ !it.composite }, _) >> { test, event -> parents[test.className] = event.parentId }
+        4 * processor.completed(_, _)
+        0 * processor._
+
+        and:
+        parents == classIds
+
+        cleanup:
+        executorFactory.stop()
+    }
+
     def executesAJUnit4TestClassWithIgnoredTest() {
         when: process(ATestClassWithIgnoredMethod)
 
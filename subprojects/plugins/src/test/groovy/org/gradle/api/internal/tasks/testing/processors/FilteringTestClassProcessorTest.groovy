@@ -0,0 +1,46 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.specs.Spec
+import spock.lang.Specification
+
+class FilteringTestClassProcessorTest extends Specification {
+    def delegate = Mock(TestClassProcessor)
+    def resultProcessor = Mock(TestResultProcessor)
+    def processor = new FilteringTestClassProcessor(delegate, { it.startsWith("A") } as Spec)
+
+    def "passes on only the test classes that satisfy the spec"() {
+        def a = new DefaultTestClassRunInfo("ATest")
+        def b = new DefaultTestClassRunInfo("BTest")
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(a)
+        processor.processTestClass(b)
+        processor.stop()
+
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        1 * delegate.processTestClass(a)
+        1 * delegate.stop()
+        0 * delegate._
+    }
+}
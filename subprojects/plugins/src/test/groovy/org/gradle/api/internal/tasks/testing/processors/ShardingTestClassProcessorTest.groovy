@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.sharding.TestShardPartitioner
+import spock.lang.Specification
+
+class ShardingTestClassProcessorTest extends Specification {
+    def delegate = Mock(TestClassProcessor)
+    def resultProcessor = Mock(TestResultProcessor)
+    def partitioner = new TestShardPartitioner(2, [:])
+
+    def "passes on only the test classes of the shard as soon as they are found"() {
+        def processor = new ShardingTestClassProcessor(delegate, partitioner, 1)
+        def a = new DefaultTestClassRunInfo("ATest")
+        def b = new DefaultTestClassRunInfo("BTest")
+        def c = new DefaultTestClassRunInfo("CTest")
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(a)
+
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        1 * delegate.processTestClass(a)
+        0 * delegate._
+
+        when:
+        processor.processTestClass(b)
+        processor.processTestClass(c)
+
+        then:
+        1 * delegate.processTestClass(c)
+        0 * delegate._
+
+        when:
+        processor.stop()
+
+        then:
+        1 * delegate.stop()
+        0 * delegate._
+    }
+
+    def "stops delegate when shard is empty"() {
+        def processor = new ShardingTestClassProcessor(delegate, partitioner, 1)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo("BTest"))
+        processor.stop()
+
+        then:
+        1 * delegate.stop()
+        0 * delegate._
+    }
+}
@@ -79,4 +79,38 @@ class TestOutputRedirectorTest extends Specification {
         })
         0 * _
     }
+
+    def "attributes output to the owner of the writing thread"() {
+        def f = new TestOutputRedirector.Forwarder(processor, TestOutputEvent.Destination.StdOut)
+        f.outputOwner = "1"
+
+        when:
+        def thread = new Thread({
+            f.outputOwner = "2"
+            f.onOutput("from 2")
+        })
+        thread.start()
+        thread.join()
+        f.onOutput("from 1")
+
+        then:
+        1 * processor.output("2", { it.message == "from 2" })
+        1 * processor.output("1", { it.message == "from 1" })
+        0 * _
+    }
+
+    def "attributes output of threads started by a test to that test"() {
+        def f = new TestOutputRedirector.Forwarder(processor, TestOutputEvent.Destination.StdOut)
+        f.outputOwner = "1"
+
+        when:
+        def thread = new Thread({ f.onOutput("child") })
+        f.outputOwner = "2"
+        thread.start()
+        thread.join()
+
+        then:
+        1 * processor.output("1", { it.message == "child" })
+        0 * _
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.sharding
+
+import org.gradle.api.GradleException
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestShardPartitionerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def "splits test classes by name when durations are not known"() {
+        def partitioner = new TestShardPartitioner(3, [:])
+
+        when:
+        def shards = partitioner.partition(["E", "A", "D", "B", "C", "G", "F"])
+
+        then:
+        shards == [["B", "E"] as Set, ["C", "F"] as Set, ["A", "D", "G"] as Set]
+    }
+
+    def "balances shards by duration"() {
+        def partitioner = new TestShardPartitioner(2, [A: 100L, B: 60L, C: 50L, D: 30L, E: 20L])
+
+        when:
+        def shards = partitioner.partition(["A", "B", "C", "D", "E"])
+
+        then:
+        shards == [["A", "D"] as Set, ["B", "C", "E"] as Set]
+    }
+
+    def "assigns test classes without a previous result by name"() {
+        def partitioner = new TestShardPartitioner(2, [A: 100L, B: 10L, C: 10L])
+
+        when:
+        def shards = partitioner.partition(["A", "B", "C", "New"])
+
+        then:
+        shards == [["A", "New"] as Set, ["B", "C"] as Set]
+    }
+
+    def "assigns a test class without knowing the other test classes"() {
+        def partitioner = new TestShardPartitioner(3, [A: 100L, B: 10L])
+
+        expect:
+        partitioner.shardOf(className) == partitioner.partition(["A", "B", "Other", "New"]).findIndexOf { it.contains(className) }
+
+        where:
+        className << ["A", "B", "Other", "New"]
+    }
+
+    def "partitioning does not depend on the order of the test classes"() {
+        def partitioner = new TestShardPartitioner(4, [A: 5L, C: 7L, K: 1L])
+        def classes = ("A".."P").toList()
+        def shuffled = new ArrayList(classes)
+        Collections.shuffle(shuffled, new Random(42))
+
+        expect:
+        partitioner.partition(classes) == partitioner.partition(shuffled)
+        partitioner.partition(classes).flatten().sort() == classes
+    }
+
+    def "every test class is assigned to exactly one shard"() {
+        def partitioner = new TestShardPartitioner(3, [:])
+
+        when:
+        def shards = partitioner.partition(["A", "B"])
+
+        then:
+        shards == [["B"] as Set, [] as Set, ["A"] as Set]
+    }
+
+    def "reads durations from binary results"() {
+        def dir1 = tmp.createDir("results1")
+        def dir2 = tmp.createDir("results2")
+        new TestResultSerializer(dir1).write([
+            new TestClassResult(1, "A", 0).add(new TestMethodResult(2, "a1", TestResult.ResultType.SUCCESS, 10, 10)).add(new TestMethodResult(3, "a2", TestResult.ResultType.FAILURE, 15, 25)),
+            new TestClassResult(4, "B", 0).add(new TestMethodResult(5, "b", TestResult.ResultType.SUCCESS, 7, 7))
+        ])
+        new TestResultSerializer(dir2).write([
+            new TestClassResult(1, "C", 0).add(new TestMethodResult(2, "c", TestResult.ResultType.SUCCESS, 3, 3))
+        ])
+
+        expect:
+        TestShardPartitioner.readDurations([dir1, dir2, tmp.file("missing")]) == [A: 25L, B: 7L, C: 3L]
+    }
+
+    def "accepts results of shards that were split the same way"() {
+        def shard1 = tmp.createDir("shard1")
+        def shard2 = tmp.createDir("shard2")
+        TestShardPartitioner.writeShardInfo(shard1, 0, 2, [A: 10L, B: 5L])
+        TestShardPartitioner.writeShardInfo(shard2, 1, 2, [B: 5L, A: 10L])
+
+        when:
+        TestShardPartitioner.checkSameSplit([shard1, shard2, tmp.createDir("unsharded")])
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "fails for results of shards that were split using different durations"() {
+        def shard1 = tmp.createDir("shard1")
+        def shard2 = tmp.createDir("shard2")
+        TestShardPartitioner.writeShardInfo(shard1, 0, 2, [A: 10L, B: 5L])
+        TestShardPartitioner.writeShardInfo(shard2, 1, 2, [A: 10L])
+
+        when:
+        TestShardPartitioner.checkSameSplit([shard1, shard2])
+
+        then:
+        def e = thrown(GradleException)
+        e.message.startsWith("Cannot combine the test results in ${shard1} and ${shard2}, as they come from shards that were split using a different number of shards or different duration results.")
+    }
+
+    def "fails for results of shards that were split into a different number of shards"() {
+        def shard1 = tmp.createDir("shard1")
+        def shard2 = tmp.createDir("shard2")
+        TestShardPartitioner.writeShardInfo(shard1, 0, 2, [:])
+        TestShardPartitioner.writeShardInfo(shard2, 1, 3, [:])
+
+        when:
+        TestShardPartitioner.checkSameSplit([shard1, shard2])
+
+        then:
+        thrown(GradleException)
+    }
+}
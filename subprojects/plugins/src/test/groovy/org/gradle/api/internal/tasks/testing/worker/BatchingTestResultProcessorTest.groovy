@@ -0,0 +1,186 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.internal.TimeProvider
+import org.gradle.internal.id.CompositeIdGenerator
+import spock.lang.Specification
+
+class BatchingTestResultProcessorTest extends Specification {
+    def target = Mock(RemoteTestEventBatchProcessor)
+    def timeProvider = Stub(TimeProvider)
+    def id = new CompositeIdGenerator.CompositeId(1L, 2L)
+    def processor = new BatchingTestResultProcessor(target, timeProvider, 100, 1000)
+
+    def "holds back events until the batch is flushed"() {
+        when:
+        processor.completed(id, new TestCompleteEvent(1L))
+
+        then:
+        0 * target._
+
+        when:
+        processor.flush()
+
+        then:
+        1 * target.processBatch({ replay(it).size() == 1 })
+    }
+
+    def "sends batch once it reaches the size threshold"() {
+        when:
+        processor.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "x" * 50))
+
+        then:
+        0 * target._
+
+        when:
+        processor.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "x" * 50))
+
+        then:
+        1 * target.processBatch(_)
+    }
+
+    def "sends batch once it reaches the age threshold"() {
+        timeProvider.currentTime >>> [0L, 0L, 1000L]
+
+        when:
+        processor.completed(id, new TestCompleteEvent(1L))
+
+        then:
+        0 * target._
+
+        when:
+        processor.completed(id, new TestCompleteEvent(2L))
+
+        then:
+        1 * target.processBatch({ replay(it).size() == 2 })
+    }
+
+    def "does not send empty batches"() {
+        when:
+        processor.flush()
+        processor.stop()
+
+        then:
+        0 * target._
+    }
+
+    def "sends pending events on stop"() {
+        processor.completed(id, new TestCompleteEvent(1L))
+
+        when:
+        processor.stop()
+
+        then:
+        1 * target.processBatch(_)
+    }
+
+    def "delivers events in the order they were produced across batches"() {
+        def batches = []
+        def received = receiveInto(batches)
+        def processor = new BatchingTestResultProcessor(received.target, timeProvider, 40, Long.MAX_VALUE)
+
+        when:
+        3.times { index ->
+            def testId = new CompositeIdGenerator.CompositeId(1L, index + 10L)
+            processor.started(new DefaultTestMethodDescriptor(testId, "SomeTest", "test${index}"), new TestStartEvent(index))
+            processor.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "output of test ${index}\n"))
+            processor.completed(testId, new TestCompleteEvent(index + 1))
+        }
+        processor.stop()
+
+        then:
+        batches.size() > 1
+        received.events == (0..2).collect { index ->
+            def testId = new CompositeIdGenerator.CompositeId(1L, index + 10L)
+            [["started", testId], ["output", testId, "StdOut", "output of test ${index}\n".toString()], ["completed", testId]]
+        }.sum()
+    }
+
+    def "starts a new batch after the event that reaches the size threshold"() {
+        def batches = []
+        def received = receiveInto(batches)
+        def processor = new BatchingTestResultProcessor(received.target, timeProvider, 100, Long.MAX_VALUE)
+
+        when:
+        processor.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "a" * 60))
+        processor.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "b" * 60))
+        processor.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "c" * 10))
+        processor.stop()
+
+        then:
+        batches == [[["output", id, "StdOut", "a" * 60 + "b" * 60]], [["output", id, "StdOut", "c" * 10]]]
+    }
+
+    def "keeps interleaved output of different tests and destinations in order"() {
+        def other = new CompositeIdGenerator.CompositeId(1L, 3L)
+        def batches = []
+        def received = receiveInto(batches)
+        def processor = new BatchingTestResultProcessor(received.target, timeProvider, 1000, Long.MAX_VALUE)
+
+        when:
+        processor.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "1"))
+        processor.output(other, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "2"))
+        processor.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "3"))
+        processor.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "4"))
+        processor.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "5"))
+        processor.stop()
+
+        then:
+        received.events == [
+            ["output", id, "StdOut", "1"],
+            ["output", other, "StdOut", "2"],
+            ["output", id, "StdErr", "34"],
+            ["output", id, "StdOut", "5"]
+        ]
+    }
+
+    /**
+     * Replays the batches sent to the returned target with a single reader, as the build process does, and records the events of each batch.
+     */
+    def receiveInto(List batches) {
+        def reader = new TestEventBatchReader()
+        def events = []
+        def target = { TestEventBatch batch ->
+            def batchEvents = []
+            reader.read(batch, [
+                started: { TestDescriptorInternal test, TestStartEvent event -> batchEvents << ["started", test.id] },
+                completed: { Object testId, TestCompleteEvent event -> batchEvents << ["completed", testId] },
+                output: { Object testId, TestOutputEvent event -> batchEvents << ["output", testId, event.destination.name(), event.message] },
+                failure: { Object testId, Throwable failure -> batchEvents << ["failure", testId] }
+            ] as TestResultProcessor)
+            batches << batchEvents
+            events.addAll(batchEvents)
+        } as RemoteTestEventBatchProcessor
+        return [target: target, events: events]
+    }
+
+    def replay(TestEventBatch batch) {
+        def events = []
+        def collect = { id, event -> events << event }
+        new TestEventBatchReader().read(batch, [started: collect, completed: collect, output: collect, failure: collect] as TestResultProcessor)
+        return events
+    }
+}
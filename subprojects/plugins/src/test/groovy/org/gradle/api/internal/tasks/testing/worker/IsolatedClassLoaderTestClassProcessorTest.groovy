@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.internal.Factory
+import spock.lang.Specification
+
+class IsolatedClassLoaderTestClassProcessorTest extends Specification {
+    def delegate = Mock(TestClassProcessor)
+    def factory = Mock(Factory)
+    def resultProcessor = Mock(TestResultProcessor)
+    def classesDir = new File(IsolatedClassLoaderTestClassProcessorTest.protectionDomain.codeSource.location.toURI())
+    def specJar = new File(Specification.protectionDomain.codeSource.location.toURI())
+
+    def "executes test classes with a new class loader for classes in directories"() {
+        def processor = new IsolatedClassLoaderTestClassProcessor(factory, getClass().classLoader, [classesDir, specJar], "worker")
+        def test = new DefaultTestClassRunInfo(IsolatedClassLoaderTestClassProcessorTest.name)
+        ClassLoader contextClassLoader
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(test)
+        processor.stop()
+
+        then:
+        1 * factory.create() >> delegate
+        1 * delegate.startProcessing(resultProcessor)
+        1 * delegate.processTestClass(test) >> { contextClassLoader = Thread.currentThread().contextClassLoader }
+        1 * delegate.stop()
+
+        and:
+        contextClassLoader != getClass().classLoader
+        contextClassLoader.loadClass(IsolatedClassLoaderTestClassProcessorTest.name) != IsolatedClassLoaderTestClassProcessorTest
+        contextClassLoader.loadClass(Specification.name) == Specification
+        contextClassLoader.loadClass(String.name) == String
+    }
+
+    def "uses a new class loader for each group of test classes"() {
+        def processor1 = new IsolatedClassLoaderTestClassProcessor(factory, getClass().classLoader, [classesDir], "worker")
+        def processor2 = new IsolatedClassLoaderTestClassProcessor(factory, getClass().classLoader, [classesDir], "worker")
+        def loaders = []
+
+        when:
+        [processor1, processor2].each {
+            it.startProcessing(resultProcessor)
+            it.stop()
+        }
+
+        then:
+        2 * factory.create() >> delegate
+        2 * delegate.startProcessing(resultProcessor) >> { loaders << Thread.currentThread().contextClassLoader }
+        2 * delegate.stop()
+        loaders.size() == 2
+        !loaders[0].is(loaders[1])
+        loaders[0].loadClass(IsolatedClassLoaderTestClassProcessorTest.name) != loaders[1].loadClass(IsolatedClassLoaderTestClassProcessorTest.name)
+    }
+}
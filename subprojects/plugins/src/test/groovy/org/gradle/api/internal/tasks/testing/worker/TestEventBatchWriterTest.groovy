@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.GradleException
+import org.gradle.api.internal.tasks.testing.*
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.id.CompositeIdGenerator
+import spock.lang.Specification
+
+class TestEventBatchWriterTest extends Specification {
+    def writer = new TestEventBatchWriter()
+    def reader = new TestEventBatchReader()
+    def processor = Mock(TestResultProcessor)
+
+    def "replays started and completed events"() {
+        def suiteId = id(1, 2)
+        def testId = id(1, 3)
+
+        when:
+        writer.started(new WorkerTestClassProcessor.WorkerTestSuiteDescriptor(suiteId, "worker"), new TestStartEvent(100L))
+        writer.started(new DefaultTestMethodDescriptor(testId, "SomeTest", "ok"), new TestStartEvent(105L, suiteId))
+        writer.completed(testId, new TestCompleteEvent(110L, TestResult.ResultType.SUCCESS))
+        writer.completed(suiteId, new TestCompleteEvent(90L))
+        reader.read(writer.takeBatch(), processor)
+
+        then:
+        1 * processor.started({ it instanceof WorkerTestClassProcessor.WorkerTestSuiteDescriptor && it.id == suiteId && it.name == "worker" }, { it.startTime == 100L && it.parentId == null })
+        then:
+        1 * processor.started({ it instanceof DefaultTestMethodDescriptor && it.id == testId && it.className == "SomeTest" && it.name == "ok" }, { it.startTime == 105L && it.parentId == suiteId })
+        then:
+        1 * processor.completed(testId, { it.endTime == 110L && it.resultType == TestResult.ResultType.SUCCESS })
+        then:
+        1 * processor.completed(suiteId, { it.endTime == 90L && it.resultType == null })
+        0 * processor._
+    }
+
+    def "replays all kinds of descriptors"() {
+        when:
+        writer.started(new DefaultTestSuiteDescriptor(id(1, 1), "suite"), new TestStartEvent(1L))
+        writer.started(new DefaultTestClassDescriptor(id(1, 2), "SomeTest"), new TestStartEvent(1L))
+        writer.started(new DefaultTestDescriptor(id(1, 3), "SomeTest", "test"), new TestStartEvent(1L))
+        reader.read(writer.takeBatch(), processor)
+
+        then:
+        1 * processor.started({ it instanceof DefaultTestSuiteDescriptor && it.name == "suite" }, _)
+        1 * processor.started({ it instanceof DefaultTestClassDescriptor && it.className == "SomeTest" }, _)
+        1 * processor.started({ it instanceof DefaultTestDescriptor && it.className == "SomeTest" && it.name == "test" }, _)
+    }
+
+    def "keeps ids, times and names across batches"() {
+        def first = id(1, 10)
+        def second = id(7, 4)
+
+        when:
+        writer.started(new DefaultTestMethodDescriptor(first, "SomeTest", "a"), new TestStartEvent(1000L))
+        reader.read(writer.takeBatch(), processor)
+        writer.started(new DefaultTestMethodDescriptor(second, "SomeTest", "a"), new TestStartEvent(999L, first))
+        reader.read(writer.takeBatch(), processor)
+
+        then:
+        1 * processor.started({ it.id == first && it.className == "SomeTest" && it.name == "a" }, { it.startTime == 1000L })
+        then:
+        1 * processor.started({ it.id == second && it.className == "SomeTest" && it.name == "a" }, { it.startTime == 999L && it.parentId == first })
+    }
+
+    def "coalesces consecutive output of the same test to the same destination"() {
+        def testId = id(1, 3)
+        def otherId = id(1, 4)
+
+        when:
+        writer.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "a"))
+        writer.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "b"))
+        writer.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "c"))
+        writer.output(otherId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "d"))
+        reader.read(writer.takeBatch(), processor)
+
+        then:
+        1 * processor.output(testId, { it.destination == TestOutputEvent.Destination.StdOut && it.message == "ab" })
+        then:
+        1 * processor.output(testId, { it.destination == TestOutputEvent.Destination.StdErr && it.message == "c" })
+        then:
+        1 * processor.output(otherId, { it.destination == TestOutputEvent.Destination.StdErr && it.message == "d" })
+        0 * processor._
+    }
+
+    def "replays failures"() {
+        def testId = id(1, 3)
+
+        when:
+        writer.failure(testId, new GradleException("broken", new RuntimeException("cause")))
+        reader.read(writer.takeBatch(), processor)
+
+        then:
+        1 * processor.failure(testId, { it.class == GradleException && it.message == "broken" && it.cause.message == "cause" })
+    }
+
+    def "tracks whether events are pending"() {
+        expect:
+        writer.empty
+
+        when:
+        writer.output(id(1, 1), new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "text"))
+
+        then:
+        !writer.empty
+        writer.size > 0
+
+        when:
+        writer.takeBatch()
+
+        then:
+        writer.empty
+        writer.size == 0
+    }
+
+    def "fails on unknown descriptor types"() {
+        when:
+        writer.started(Stub(TestDescriptorInternal), new TestStartEvent(1L))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def id(long scope, long id) {
+        return new CompositeIdGenerator.CompositeId(scope, id)
+    }
+}
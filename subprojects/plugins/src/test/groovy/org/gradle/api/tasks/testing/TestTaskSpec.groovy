@@ -242,4 +242,17 @@ class TestTaskSpec extends Specification {
         task.testOutputListenerBroadcaster.isEmpty()
         task.testListenerInternalBroadcaster.isEmpty()
     }
+
+    def "fails when affected tests are selected with a custom test executer"() {
+        given:
+        task.selectAffectedTests = true
+
+        when:
+        task.executeTests()
+
+        then:
+        def ex = thrown(IllegalStateException)
+        ex.message == "Cannot select the affected tests of ${task} as it uses a custom test executer."
+        0 * testExecuter._
+    }
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.api.tasks.testing;
 
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.ConventionTask;
@@ -143,6 +144,20 @@ public class TestTest extends AbstractConventionTaskTest {
         test.executeTests();
     }
 
+    @org.junit.Test
+    public void cannotUseItsOwnBinaryResultsAsShardDurations() {
+        configureTask();
+        test.setShardCount(2);
+        test.setShardDurationResults(binResultsDir);
+
+        try {
+            test.executeTests();
+            fail();
+        } catch (InvalidUserDataException e) {
+            assertThat(e.getMessage(), startsWith(String.format("Cannot use %s as the shard duration results of %s", binResultsDir, test)));
+        }
+    }
+
     @org.junit.Test
     public void testScansForTestClassesInTheTestClassesDir() {
         configureTask();